@@ -0,0 +1,15 @@
+#!/bin/sh
+# Starts or stops N throwaway redis-server processes on ports 6380 and up for ShardingBenchmark and manual
+# sharding runs, e.g. ./redis-shards.sh start 4 then ./redis-shards.sh stop 4. Nothing is persisted.
+set -e
+count=${2:-4}
+i=0
+while [ "$i" -lt "$count" ]; do
+    port=$((6380 + i))
+    case "$1" in
+        start) redis-server --port "$port" --save "" --appendonly no --daemonize yes ;;
+        stop) redis-cli -p "$port" shutdown nosave || true ;;
+        *) echo "usage: $0 start|stop [count]" >&2; exit 1 ;;
+    esac
+    i=$((i + 1))
+done
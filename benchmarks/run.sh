@@ -0,0 +1,11 @@
+#!/bin/sh
+# Builds the application and the benchmarks, then runs JMH against the Redis on localhost:6379.
+# Results go to benchmarks/results/<commit>.json so runs of different commits can be compared.
+# Extra arguments are passed to JMH, e.g. ./run.sh ProductServiceBenchmark -f 1 -wi 2 -i 3
+set -e
+cd "$(dirname "$0")"
+../mvnw -q -f ../pom.xml install -DskipTests
+../mvnw -q package
+mkdir -p results
+commit=$(git rev-parse --short HEAD 2>/dev/null || echo local)
+java -jar target/benchmarks.jar -rf json -rff "results/${commit}.json" "$@"
@@ -0,0 +1,39 @@
+package ariefbelajarteknologi.belajarspringredis.benchmark;
+
+import ariefbelajarteknologi.belajarspringredis.BelajarSpringRedisApplication;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * Starts the application once per fork against the Redis configured in {@code application.properties},
+ * {@code localhost:6379} unless overridden with {@code -Dspring.data.redis.host/port} on the fork JVM.
+ * The web server is not started and logging is limited to warnings so log output does not skew results.
+ */
+@State(Scope.Benchmark)
+public class ApplicationState {
+
+    private ConfigurableApplicationContext context;
+
+    @Setup(Level.Trial)
+    public void start() {
+        context = new SpringApplicationBuilder(BelajarSpringRedisApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties("logging.level.root=WARN")
+                .run();
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+
+    public <T> T getBean(Class<T> type) {
+        return context.getBean(type);
+    }
+}
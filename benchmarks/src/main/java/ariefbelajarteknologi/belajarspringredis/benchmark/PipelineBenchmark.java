@@ -0,0 +1,63 @@
+package ariefbelajarteknologi.belajarspringredis.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The same batch of SETs with a short expiry as {@code RedisTest.pipeline}, sent one by one and as one pipeline.
+ * Scores are per SET.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class PipelineBenchmark {
+
+    private static final int KEYS = 100;
+
+    private static final Duration TTL = Duration.ofSeconds(3);
+
+    private StringRedisTemplate redisTemplate;
+
+    @Setup(Level.Trial)
+    public void setUp(ApplicationState application) {
+        redisTemplate = application.getBean(StringRedisTemplate.class);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(KEYS)
+    public void sequential() {
+        for (int i = 0; i < KEYS; i++) {
+            redisTemplate.opsForValue().set("bench-pipeline-" + i, "Arief", TTL);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(KEYS)
+    public List<Object> pipelined() {
+        return redisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public Object execute(RedisOperations operations) throws DataAccessException {
+                for (int i = 0; i < KEYS; i++) {
+                    operations.opsForValue().set("bench-pipeline-" + i, "Arief", TTL);
+                }
+                return null;
+            }
+        });
+    }
+}
@@ -0,0 +1,163 @@
+package ariefbelajarteknologi.belajarspringredis.benchmark;
+
+import ariefbelajarteknologi.belajarspringredis.entity.Product;
+import ariefbelajarteknologi.belajarspringredis.repository.KeyspaceHashWriter;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisConnectionUtils;
+import org.springframework.data.redis.core.RedisKeyValueAdapter;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.convert.RedisConverter;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes {@value #PRODUCTS} expiring products through the keyvalue adapter, which adds a phantom copy and relies on
+ * keyspace events, and with native expiry, which writes the hash alone. Besides the time of one run, the keys,
+ * bytes of memory and commands each run added are reported as secondary results.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 5)
+public class ProductExpiryBenchmark {
+
+    private static final int PRODUCTS = 100_000;
+
+    private static final int BATCH = 1_000;
+
+    @Param({"phantom", "native"})
+    public String expiry;
+
+    private StringRedisTemplate redisTemplate;
+
+    private RedisConnectionFactory connectionFactory;
+
+    private KeyspaceHashWriter keyspaceHashWriter;
+
+    private RedisKeyValueAdapter adapter;
+
+    private String notifications;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Usage {
+
+        public long keys;
+
+        public long memoryBytes;
+
+        public long commands;
+    }
+
+    @Setup(Level.Trial)
+    public void setUp(ApplicationState application) {
+        redisTemplate = application.getBean(StringRedisTemplate.class);
+        connectionFactory = application.getBean(RedisConnectionFactory.class);
+        keyspaceHashWriter = application.getBean(KeyspaceHashWriter.class);
+        notifications = redisTemplate.execute((RedisCallback<Properties>) connection ->
+                connection.serverCommands().getConfig("notify-keyspace-events"))
+                .getProperty("notify-keyspace-events", "");
+        if (expiry.equals("phantom")) {
+            adapter = new RedisKeyValueAdapter(redisTemplate, application.getBean(RedisConverter.class));
+            adapter.setEnableKeyspaceEvents(RedisKeyValueAdapter.EnableKeyspaceEvents.ON_STARTUP);
+            adapter.afterPropertiesSet();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        if (adapter != null) {
+            adapter.destroy();
+        }
+        // the adapter turned keyspace notifications on for the whole server
+        redisTemplate.execute((RedisCallback<Object>) connection ->
+                connection.execute("CONFIG", bytes("SET"), bytes("notify-keyspace-events"), bytes(notifications)));
+    }
+
+    @TearDown(Level.Iteration)
+    public void delete() {
+        for (int start = 0; start < PRODUCTS; start += BATCH) {
+            int from = start;
+            redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                List<byte[]> members = new ArrayList<>(BATCH);
+                for (int i = from; i < from + BATCH; i++) {
+                    String key = "products:bench-expiry-" + i;
+                    connection.keyCommands().del(bytes(key), bytes(key + ":phantom"));
+                    members.add(bytes("bench-expiry-" + i));
+                }
+                connection.setCommands().sRem(bytes("products"), members.toArray(byte[][]::new));
+                connection.zSetCommands().zRem(bytes("products:index:price"), members.toArray(byte[][]::new));
+                return null;
+            });
+        }
+    }
+
+    @Benchmark
+    public void write(Usage usage) {
+        long keys = dbSize();
+        long memory = info("memory", "used_memory");
+        long commands = info("stats", "total_commands_processed");
+
+        RedisConnectionUtils.bindConnection(connectionFactory);
+        try {
+            if (adapter != null) {
+                for (int i = 0; i < PRODUCTS; i++) {
+                    adapter.put("bench-expiry-" + i, product(i), "products");
+                }
+            } else {
+                for (int start = 0; start < PRODUCTS; start += BATCH) {
+                    int from = start;
+                    redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                        for (int i = from; i < from + BATCH; i++) {
+                            keyspaceHashWriter.write(connection, product(i));
+                        }
+                        return null;
+                    });
+                }
+            }
+        } finally {
+            RedisConnectionUtils.unbindConnection(connectionFactory);
+        }
+
+        usage.keys += dbSize() - keys;
+        usage.memoryBytes += info("memory", "used_memory") - memory;
+        // the DBSIZE and INFO of the measurement itself are not counted
+        usage.commands += info("stats", "total_commands_processed") - commands - 2;
+    }
+
+    private long dbSize() {
+        return redisTemplate.execute((RedisCallback<Long>) connection -> connection.serverCommands().dbSize());
+    }
+
+    private long info(String section, String field) {
+        Properties info = redisTemplate.execute((RedisCallback<Properties>) connection -> connection.serverCommands().info(section));
+        return Long.parseLong(info.getProperty(field));
+    }
+
+    private static Product product(int index) {
+        return new Product("bench-expiry-" + index, "Expiring Product", (long) index, 3_600L);
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,48 @@
+package ariefbelajarteknologi.belajarspringredis.benchmark;
+
+import ariefbelajarteknologi.belajarspringredis.entity.Product;
+import ariefbelajarteknologi.belajarspringredis.repository.ProductRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ProductRepositoryBenchmark {
+
+    private ProductRepository productRepository;
+
+    private Product product;
+
+    @Setup(Level.Trial)
+    public void setUp(ApplicationState application) {
+        productRepository = application.getBean(ProductRepository.class);
+        product = new Product("bench-" + Thread.currentThread().threadId(), "Benchmark", 1_000L, -1L);
+        productRepository.save(product);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        productRepository.deleteById(product.getId());
+    }
+
+    @Benchmark
+    public Product save() {
+        return productRepository.save(product);
+    }
+
+    @Benchmark
+    public Optional<Product> findById() {
+        return productRepository.findById(product.getId());
+    }
+}
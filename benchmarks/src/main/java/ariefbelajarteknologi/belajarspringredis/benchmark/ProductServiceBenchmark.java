@@ -0,0 +1,57 @@
+package ariefbelajarteknologi.belajarspringredis.benchmark;
+
+import ariefbelajarteknologi.belajarspringredis.entity.Product;
+import ariefbelajarteknologi.belajarspringredis.service.ProductService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code ProductService.getProduct} through the full cache decorator chain, on a warm key and on keys never seen before.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ProductServiceBenchmark {
+
+    private ProductService productService;
+
+    private long missCounter;
+
+    private long lastMiss;
+
+    @Setup(Level.Trial)
+    public void setUp(ApplicationState application) {
+        productService = application.getBean(ProductService.class);
+        productService.getProduct("bench-hit");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        productService.remove("bench-hit");
+        for (long i = 0; i < missCounter; i++) {
+            productService.remove("bench-miss-" + lastMiss + "-" + i);
+        }
+    }
+
+    @Benchmark
+    public Product getProductHit() {
+        return productService.getProduct("bench-hit");
+    }
+
+    @Benchmark
+    public Product getProductMiss() {
+        if (lastMiss == 0) {
+            lastMiss = System.nanoTime();
+        }
+        return productService.getProduct("bench-miss-" + lastMiss + "-" + missCounter++);
+    }
+}
@@ -0,0 +1,60 @@
+package ariefbelajarteknologi.belajarspringredis.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Publish to a channel and wait until the application's listener container delivers the message back.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class PubSubBenchmark {
+
+    private static final ChannelTopic CHANNEL = new ChannelTopic("bench-pubsub");
+
+    private final BlockingQueue<byte[]> received = new LinkedBlockingQueue<>();
+
+    private final MessageListener listener = (message, pattern) -> received.add(message.getBody());
+
+    private StringRedisTemplate redisTemplate;
+
+    private RedisMessageListenerContainer container;
+
+    @Setup(Level.Trial)
+    public void setUp(ApplicationState application) throws InterruptedException {
+        redisTemplate = application.getBean(StringRedisTemplate.class);
+        container = application.getBean(RedisMessageListenerContainer.class);
+        container.addMessageListener(listener, CHANNEL);
+        while (redisTemplate.convertAndSend(CHANNEL.getTopic(), "ready") == 0) {
+            Thread.sleep(10);
+        }
+        received.clear();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        container.removeMessageListener(listener, CHANNEL);
+    }
+
+    @Benchmark
+    public byte[] roundTrip() throws InterruptedException {
+        redisTemplate.convertAndSend(CHANNEL.getTopic(), "Pelanggan");
+        return received.poll(5, TimeUnit.SECONDS);
+    }
+}
@@ -0,0 +1,90 @@
+package ariefbelajarteknologi.belajarspringredis.benchmark;
+
+import ariefbelajarteknologi.belajarspringredis.BelajarSpringRedisApplication;
+import ariefbelajarteknologi.belajarspringredis.entity.Product;
+import ariefbelajarteknologi.belajarspringredis.service.ProductService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Cached {@code ProductService} reads spread over 1, 2 and 4 Redis instances, single keys and batches that are
+ * split per shard. Start the instances with {@code ./redis-shards.sh start 4}, the nodes default to ports 6380
+ * to 6383 and can be changed with {@code -Dshard.nodes=redis://host:port,...} on the fork JVM. Scores are per key.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Threads(16)
+public class ShardingBenchmark {
+
+    private static final int KEYS = 10_000;
+
+    private static final int BATCH = 100;
+
+    @State(Scope.Benchmark)
+    public static class ShardedApplication {
+
+        @Param({"1", "2", "4"})
+        public int shards;
+
+        private ConfigurableApplicationContext context;
+
+        private ProductService productService;
+
+        private List<String> ids;
+
+        @Setup(Level.Trial)
+        public void start() {
+            String[] nodes = System.getProperty("shard.nodes",
+                    "redis://localhost:6380,redis://localhost:6381,redis://localhost:6382,redis://localhost:6383").split(",");
+            context = new SpringApplicationBuilder(BelajarSpringRedisApplication.class)
+                    .web(WebApplicationType.NONE)
+                    .properties("logging.level.root=WARN",
+                            "app.sharding.enabled=true",
+                            "app.sharding.nodes=" + String.join(",", Arrays.copyOf(nodes, shards)))
+                    .run();
+            productService = context.getBean(ProductService.class);
+            ids = IntStream.range(0, KEYS).mapToObj(i -> "bench-shard-" + i).toList();
+            for (int i = 0; i < KEYS; i += BATCH) {
+                productService.getProducts(ids.subList(i, i + BATCH));
+            }
+        }
+
+        @TearDown(Level.Trial)
+        public void stop() {
+            ids.forEach(productService::remove);
+            context.close();
+        }
+    }
+
+    @Benchmark
+    public Product getProduct(ShardedApplication application) {
+        return application.productService.getProduct(application.ids.get(ThreadLocalRandom.current().nextInt(KEYS)));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public List<Product> getProducts(ShardedApplication application) {
+        int from = ThreadLocalRandom.current().nextInt(KEYS - BATCH);
+        return application.productService.getProducts(application.ids.subList(from, from + BATCH));
+    }
+}
@@ -0,0 +1,90 @@
+package ariefbelajarteknologi.belajarspringredis.benchmark;
+
+import ariefbelajarteknologi.belajarspringredis.entity.Order;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.data.redis.connection.stream.ByteRecord;
+import org.springframework.data.redis.connection.stream.Consumer;
+import org.springframework.data.redis.connection.stream.MapRecord;
+import org.springframework.data.redis.connection.stream.ReadOffset;
+import org.springframework.data.redis.connection.stream.RecordId;
+import org.springframework.data.redis.connection.stream.StreamOffset;
+import org.springframework.data.redis.connection.stream.StreamReadOptions;
+import org.springframework.data.redis.connection.stream.StreamRecords;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.hash.HashMapper;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * XADD of an {@link Order} encoded with the configured stream hash mapper, and a full XADD, XREADGROUP,
+ * decode, XACK cycle the way {@code OrderStreamConsumer} does it, on a benchmark-only stream and group.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class StreamBenchmark {
+
+    private static final String STREAM = "bench-orders";
+
+    private static final String GROUP = "bench-group";
+
+    private static final byte[] RAW_STREAM = STREAM.getBytes(StandardCharsets.UTF_8);
+
+    private static final Consumer CONSUMER = Consumer.from(GROUP, "bench-consumer");
+
+    private StringRedisTemplate redisTemplate;
+
+    private HashMapper<Object, byte[], byte[]> hashMapper;
+
+    private final Order order = new Order("bench-order", 10_000L);
+
+    @Setup(Level.Trial)
+    @SuppressWarnings("unchecked")
+    public void setUp(ApplicationState application) {
+        redisTemplate = application.getBean(StringRedisTemplate.class);
+        hashMapper = application.getBean(HashMapper.class);
+        redisTemplate.delete(STREAM);
+        redisTemplate.opsForStream().createGroup(STREAM, ReadOffset.from("0"), GROUP);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        redisTemplate.delete(STREAM);
+    }
+
+    @Benchmark
+    public RecordId xadd() {
+        return add();
+    }
+
+    @Benchmark
+    public Long xaddReadGroupAck() {
+        add();
+        List<ByteRecord> records = redisTemplate.execute((RedisCallback<List<ByteRecord>>) connection ->
+                connection.streamCommands().xReadGroup(CONSUMER, StreamReadOptions.empty().count(1),
+                        StreamOffset.create(RAW_STREAM, ReadOffset.lastConsumed())));
+        ByteRecord record = records.get(0);
+        hashMapper.fromHash(record.getValue());
+        return redisTemplate.execute((RedisCallback<Long>) connection ->
+                connection.streamCommands().xAck(RAW_STREAM, GROUP, record.getId()));
+    }
+
+    private RecordId add() {
+        MapRecord<byte[], byte[], byte[]> record = StreamRecords.newRecord()
+                .in(RAW_STREAM)
+                .ofMap(hashMapper.toHash(order));
+        return redisTemplate.execute((RedisCallback<RecordId>) connection ->
+                connection.streamCommands().xAdd(record));
+    }
+}
@@ -0,0 +1,79 @@
+package ariefbelajarteknologi.belajarspringredis.benchmark;
+
+import ariefbelajarteknologi.belajarspringredis.BelajarSpringRedisApplication;
+import ariefbelajarteknologi.belajarspringredis.entity.Product;
+import ariefbelajarteknologi.belajarspringredis.service.ProductService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tail latency of cached {@code getProduct} reads while the load generator keeps the order publisher and the stream
+ * consumers saturated, with every workload on the shared default connection and with the cache, consumers and
+ * publisher on connections of their own. Read the p99 and p99.9 of the sample time scores.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Threads(4)
+public class WorkloadIsolationBenchmark {
+
+    @Param({"false", "true"})
+    public boolean isolated;
+
+    private ConfigurableApplicationContext context;
+
+    private ProductService productService;
+
+    @Setup(Level.Trial)
+    public void start() {
+        List<String> properties = new ArrayList<>(List.of(
+                "logging.level.root=WARN",
+                "app.load.enabled=true",
+                "app.load.targets=orders",
+                "app.load.rate=50000",
+                "app.load.duration=1h",
+                "app.orders.consumer.mode=batch",
+                "app.orders.consumer.consumers=4"));
+        if (isolated) {
+            properties.addAll(List.of(
+                    "app.redis.workloads.cache.isolated=true",
+                    "app.redis.workloads.consumer.isolated=true",
+                    "app.redis.workloads.consumer.pool.enabled=true",
+                    "app.redis.workloads.publisher.isolated=true",
+                    "app.orders.publisher.auto-flush=false"));
+        }
+        context = new SpringApplicationBuilder(BelajarSpringRedisApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(properties.toArray(String[]::new))
+                .run();
+        productService = context.getBean(ProductService.class);
+        productService.getProduct("bench-isolated");
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        productService.remove("bench-isolated");
+        context.close();
+    }
+
+    @Benchmark
+    public Product getProduct() {
+        return productService.getProduct("bench-isolated");
+    }
+}
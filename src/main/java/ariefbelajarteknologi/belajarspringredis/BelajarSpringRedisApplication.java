@@ -1,81 +1,113 @@
 package ariefbelajarteknologi.belajarspringredis;
 
+import ariefbelajarteknologi.belajarspringredis.config.CustomerDispatchProperties;
+import ariefbelajarteknologi.belajarspringredis.config.OrderStreamProperties;
 import ariefbelajarteknologi.belajarspringredis.entity.Order;
-import ariefbelajarteknologi.belajarspringredis.listener.CustomerListener;
+import ariefbelajarteknologi.belajarspringredis.listener.MessageDispatcher;
 import ariefbelajarteknologi.belajarspringredis.listener.OrderListener;
+import ariefbelajarteknologi.belajarspringredis.shard.RedisWorkloads;
+import ariefbelajarteknologi.belajarspringredis.shard.Workload;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.context.annotation.Bean;
-import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.core.task.support.TaskExecutorAdapter;
 import org.springframework.data.redis.connection.stream.Consumer;
 import org.springframework.data.redis.connection.stream.ObjectRecord;
 import org.springframework.data.redis.connection.stream.ReadOffset;
 import org.springframework.data.redis.connection.stream.StreamOffset;
 import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.hash.HashMapper;
 import org.springframework.data.redis.listener.ChannelTopic;
 import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.data.redis.repository.configuration.EnableRedisRepositories;
 import org.springframework.data.redis.stream.StreamMessageListenerContainer;
 import org.springframework.data.redis.stream.Subscription;
 import org.springframework.scheduling.annotation.EnableScheduling;
 
-import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 @SpringBootApplication
 @Slf4j
 @EnableScheduling
-@EnableRedisRepositories
+@EnableRedisRepositories(redisTemplateRef = "repositoryRedisTemplate")
 @EnableCaching
 public class BelajarSpringRedisApplication {
 
 	@Autowired
-	private StringRedisTemplate redisTemplate;
+	private RedisWorkloads redisWorkloads;
+
+	/**
+	 * One listener thread off the Lettuce event loop, so messages are handled in arrival order and a listener that
+	 * waits never holds up the I/O of other connections.
+	 */
+	@Bean(destroyMethod = "shutdown")
+	public ExecutorService messageListenerExecutor() {
+		return Executors.newSingleThreadExecutor(Thread.ofVirtual().name("pubsub-listener").factory());
+	}
 
 	@Bean
-	public RedisMessageListenerContainer messageListenerContainer(RedisConnectionFactory connectionFactory,
-																  CustomerListener customerListener){
+	public RedisMessageListenerContainer messageListenerContainer(MessageDispatcher customerDispatcher,
+																  CustomerDispatchProperties customerDispatchProperties,
+																  ExecutorService messageListenerExecutor){
 		var container = new RedisMessageListenerContainer();
-		container.setConnectionFactory(connectionFactory);
-		container.addMessageListener(customerListener, new ChannelTopic("customers"));
+		container.setConnectionFactory(redisWorkloads.get(Workload.PUBSUB).getShards().get(0).connectionFactory());
+		container.setTaskExecutor(new TaskExecutorAdapter(messageListenerExecutor));
+		container.addMessageListener(customerDispatcher, new ChannelTopic(customerDispatchProperties.getChannel()));
 		return container;
 	}
 
 	@Bean
+	@ConditionalOnProperty(prefix = "app.orders.consumer", name = "mode", havingValue = "single", matchIfMissing = true)
 	public Subscription orderSubscription(
 			StreamMessageListenerContainer<String, ObjectRecord<String, Order>> orderContainer,
-			OrderListener orderListener) {
+			OrderListener orderListener,
+			OrderStreamProperties properties) {
+		StringRedisTemplate redisTemplate = redisWorkloads.get(Workload.CONSUMER).shardFor(properties.getStream()).redisTemplate();
 		try {
-			redisTemplate.opsForStream().createGroup("orders", "my-group");
+			redisTemplate.opsForStream().createGroup(properties.getStream(), properties.getGroup());
 		} catch (Throwable throwable) {
 
 		}
 
-		var offset = StreamOffset.create("orders", ReadOffset.lastConsumed());
-		var consumer = Consumer.from("my-group", "consumer-1");
+		var offset = StreamOffset.create(properties.getStream(), ReadOffset.lastConsumed());
+		var consumer = Consumer.from(properties.getGroup(), properties.getConsumerPrefix() + 1);
 		var readRequest = StreamMessageListenerContainer.StreamReadRequest
 				.builder(offset)
 				.consumer(consumer)
-				.autoAcknowledge(true)
+				.autoAcknowledge(properties.isAutoAcknowledge())
 				.cancelOnError(throwable -> false)
 				.errorHandler(throwable -> log.warn(throwable.getMessage()))
 				.build();
 
-		return orderContainer.register(readRequest, orderListener);
+		if (properties.isAutoAcknowledge()) {
+			return orderContainer.register(readRequest, orderListener);
+		}
+		return orderContainer.register(readRequest, message -> {
+			orderListener.onMessage(message);
+			redisTemplate.opsForStream().acknowledge(properties.getGroup(), message);
+		});
 	}
 
 	@Bean(destroyMethod = "stop", initMethod = "start")
 	public StreamMessageListenerContainer<String, ObjectRecord<String, Order>>
-	orderContainer(RedisConnectionFactory connectionFactory) {
+	orderContainer(HashMapper<Object, byte[], byte[]> streamHashMapper, OrderStreamProperties properties) {
 		var options = StreamMessageListenerContainer.StreamMessageListenerContainerOptions
 				.builder()
-				.pollTimeout(Duration.ofSeconds(5))
+				.pollTimeout(properties.getPollTimeout())
+				.hashKeySerializer(RedisSerializer.byteArray())
+				.hashValueSerializer(RedisSerializer.byteArray())
+				.objectMapper(streamHashMapper)
 				.targetType(Order.class)
 				.build();
 
-		return StreamMessageListenerContainer.create(connectionFactory, options);
+		var shard = redisWorkloads.get(Workload.CONSUMER).shardFor(properties.getStream());
+		return StreamMessageListenerContainer.create(shard.connectionFactory(), options);
 	}
 
 	public static void main(String[] args) {
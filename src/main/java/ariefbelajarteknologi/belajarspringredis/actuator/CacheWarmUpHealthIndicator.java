@@ -0,0 +1,35 @@
+package ariefbelajarteknologi.belajarspringredis.actuator;
+
+import ariefbelajarteknologi.belajarspringredis.cache.CacheWarmUp;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConditionalOnProperty(prefix = "app.cache.warm-up", name = "enabled", havingValue = "true")
+public class CacheWarmUpHealthIndicator implements HealthIndicator {
+
+    @Autowired
+    private CacheWarmUp cacheWarmUp;
+
+    /**
+     * Out of service until the startup preload has finished or used up its time budget.
+     */
+    @Override
+    public Health health() {
+        CacheWarmUp.Report report = cacheWarmUp.getReport();
+        if (cacheWarmUp.getState() != CacheWarmUp.State.DONE || report == null) {
+            return Health.outOfService().withDetail("state", cacheWarmUp.getState()).build();
+        }
+        return Health.up()
+                .withDetail("state", cacheWarmUp.getState())
+                .withDetail("keys", report.keys())
+                .withDetail("loaded", report.loaded())
+                .withDetail("failed", report.failed())
+                .withDetail("skipped", report.skipped())
+                .withDetail("elapsed", report.elapsed().toMillis() + "ms")
+                .build();
+    }
+}
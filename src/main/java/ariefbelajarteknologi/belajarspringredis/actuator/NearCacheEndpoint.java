@@ -0,0 +1,29 @@
+package ariefbelajarteknologi.belajarspringredis.actuator;
+
+import ariefbelajarteknologi.belajarspringredis.cache.NearCacheManager;
+import ariefbelajarteknologi.belajarspringredis.cache.NearCacheStatistics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+@Component
+@Endpoint(id = "nearcache")
+@ConditionalOnProperty(prefix = "app.cache.near", name = "enabled", havingValue = "true")
+public class NearCacheEndpoint {
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @ReadOperation
+    public Map<String, NearCacheStatistics> statistics() {
+        if (cacheManager instanceof NearCacheManager nearCacheManager) {
+            return nearCacheManager.getStatistics();
+        }
+        return Map.of();
+    }
+}
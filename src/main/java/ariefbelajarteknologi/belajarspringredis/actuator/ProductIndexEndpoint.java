@@ -0,0 +1,23 @@
+package ariefbelajarteknologi.belajarspringredis.actuator;
+
+import ariefbelajarteknologi.belajarspringredis.entity.Product;
+import ariefbelajarteknologi.belajarspringredis.repository.ScoreIndexRebuilder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+@Component
+@Endpoint(id = "productindex")
+public class ProductIndexEndpoint {
+
+    @Autowired
+    private ScoreIndexRebuilder scoreIndexRebuilder;
+
+    @WriteOperation
+    public Map<String, Long> rebuild() {
+        return Map.of("indexed", scoreIndexRebuilder.rebuild(Product.class));
+    }
+}
@@ -0,0 +1,36 @@
+package ariefbelajarteknologi.belajarspringredis.actuator;
+
+import ariefbelajarteknologi.belajarspringredis.transfer.ProductFormat;
+import ariefbelajarteknologi.belajarspringredis.transfer.ProductTransfer;
+import ariefbelajarteknologi.belajarspringredis.transfer.TransferReport;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Path;
+
+@Component
+@Endpoint(id = "producttransfer")
+public class ProductTransferEndpoint {
+
+    @Autowired
+    private ProductTransfer productTransfer;
+
+    /**
+     * Runs an {@code import} or {@code export} of a file in the transfer directory, the format defaults to the
+     * file extension.
+     */
+    @WriteOperation
+    public TransferReport transfer(@Selector String direction, String file, @Nullable ProductFormat format) {
+        Path path = productTransfer.resolve(file);
+        ProductFormat lineFormat = format == null ? ProductFormat.of(path) : format;
+        return switch (direction) {
+            case "import" -> productTransfer.importFile(path, lineFormat);
+            case "export" -> productTransfer.exportFile(path, lineFormat);
+            default -> throw new IllegalArgumentException("Unknown direction " + direction);
+        };
+    }
+}
@@ -0,0 +1,178 @@
+package ariefbelajarteknologi.belajarspringredis.analytics;
+
+import ariefbelajarteknologi.belajarspringredis.config.OrderAnalyticsProperties;
+import ariefbelajarteknologi.belajarspringredis.entity.Order;
+import io.lettuce.core.KeyValue;
+import io.lettuce.core.LettuceFutures;
+import io.lettuce.core.RedisFuture;
+import io.lettuce.core.cluster.api.async.RedisClusterAsyncCommands;
+import org.springframework.data.redis.connection.stream.ObjectRecord;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps per-minute and per-hour order counts and amount sums, bucketed by the time of the stream entry. Every
+ * window is a hash with {@code count} and {@code amount} plus an HyperLogLog of the order ids, both expiring a
+ * retention period after the window closes. A batch is summed in memory first, so each window touched by a poll
+ * costs one HINCRBY per field, one PFADD and one EXPIREAT, all sent together on the shared connection.
+ * Redelivered entries are counted again, the distinct estimate is not affected by them.
+ */
+public class OrderAnalytics {
+
+    private static final long COMMAND_TIMEOUT_SECONDS = 5;
+
+    private static final byte[] COUNT = bytes("count");
+
+    private static final byte[] AMOUNT = bytes("amount");
+
+    private final StringRedisTemplate redisTemplate;
+
+    private final OrderAnalyticsProperties properties;
+
+    public OrderAnalytics(StringRedisTemplate redisTemplate, OrderAnalyticsProperties properties) {
+        this.redisTemplate = redisTemplate;
+        this.properties = properties;
+    }
+
+    public String windowKey(Resolution resolution, long windowStart) {
+        return properties.getKeyPrefix() + ":" + resolution.name().toLowerCase() + ":" + windowStart;
+    }
+
+    public String distinctKey(Resolution resolution, long windowStart) {
+        return windowKey(resolution, windowStart) + ":distinct";
+    }
+
+    @SuppressWarnings("unchecked")
+    public void record(List<ObjectRecord<String, Order>> records) {
+        if (records.isEmpty()) {
+            return;
+        }
+        List<Window> windows = aggregate(records);
+        redisTemplate.execute((RedisCallback<Object>) connection -> {
+            var commands = (RedisClusterAsyncCommands<byte[], byte[]>) connection.getNativeConnection();
+            List<RedisFuture<?>> futures = new ArrayList<>(windows.size() * 5);
+            for (Window window : windows) {
+                byte[] key = bytes(windowKey(window.resolution, window.start));
+                byte[] distinctKey = bytes(distinctKey(window.resolution, window.start));
+                long expireAt = window.start + window.resolution.getLength().toMillis() + retention(window.resolution).toMillis();
+                futures.add(commands.hincrby(key, COUNT, window.count));
+                futures.add(commands.hincrby(key, AMOUNT, window.amount));
+                futures.add(commands.pexpireat(key, expireAt));
+                if (!window.ids.isEmpty()) {
+                    futures.add(commands.pfadd(distinctKey, window.ids.toArray(byte[][]::new)));
+                    futures.add(commands.pexpireat(distinctKey, expireAt));
+                }
+            }
+            LettuceFutures.awaitAll(COMMAND_TIMEOUT_SECONDS, TimeUnit.SECONDS, futures.toArray(RedisFuture[]::new));
+            return null;
+        });
+    }
+
+    /**
+     * Reads the windows starting in {@code [from, to)}, windows without orders are returned with zero values.
+     */
+    @SuppressWarnings("unchecked")
+    public OrderSeries query(Resolution resolution, Instant from, Instant to) {
+        long step = resolution.getLength().toMillis();
+        long first = resolution.windowStart(from.toEpochMilli());
+        long points = Math.max(0, (to.toEpochMilli() - first + step - 1) / step);
+        if (points > properties.getMaxPoints()) {
+            throw new IllegalArgumentException("Range covers " + points + " windows, at most "
+                    + properties.getMaxPoints() + " are allowed");
+        }
+
+        return redisTemplate.execute((RedisCallback<OrderSeries>) connection -> {
+            var commands = (RedisClusterAsyncCommands<byte[], byte[]>) connection.getNativeConnection();
+            List<RedisFuture<List<KeyValue<byte[], byte[]>>>> hashes = new ArrayList<>();
+            List<RedisFuture<Long>> distincts = new ArrayList<>();
+            byte[][] distinctKeys = new byte[(int) points][];
+            for (int i = 0; i < points; i++) {
+                long start = first + i * step;
+                distinctKeys[i] = bytes(distinctKey(resolution, start));
+                hashes.add(commands.hmget(bytes(windowKey(resolution, start)), COUNT, AMOUNT));
+                distincts.add(commands.pfcount(distinctKeys[i]));
+            }
+            RedisFuture<Long> total = points == 0 ? null : commands.pfcount(distinctKeys);
+
+            List<RedisFuture<?>> futures = new ArrayList<>(hashes);
+            futures.addAll(distincts);
+            if (total != null) {
+                futures.add(total);
+            }
+            LettuceFutures.awaitAll(COMMAND_TIMEOUT_SECONDS, TimeUnit.SECONDS, futures.toArray(RedisFuture[]::new));
+
+            List<OrderWindow> windows = new ArrayList<>((int) points);
+            for (int i = 0; i < points; i++) {
+                List<KeyValue<byte[], byte[]>> values = hashes.get(i).toCompletableFuture().join();
+                windows.add(new OrderWindow(Instant.ofEpochMilli(first + i * step),
+                        longValue(values.get(0)), longValue(values.get(1)),
+                        distincts.get(i).toCompletableFuture().join()));
+            }
+            return new OrderSeries(resolution, from, to, windows,
+                    total == null ? 0 : total.toCompletableFuture().join());
+        });
+    }
+
+    private List<Window> aggregate(List<ObjectRecord<String, Order>> records) {
+        Map<Long, Window> minutes = new HashMap<>();
+        Map<Long, Window> hours = new HashMap<>();
+        for (ObjectRecord<String, Order> record : records) {
+            long timestamp = record.getId().getTimestamp();
+            Order order = record.getValue();
+            minutes.computeIfAbsent(Resolution.MINUTE.windowStart(timestamp),
+                    start -> new Window(Resolution.MINUTE, start)).add(order);
+            hours.computeIfAbsent(Resolution.HOUR.windowStart(timestamp),
+                    start -> new Window(Resolution.HOUR, start)).add(order);
+        }
+        List<Window> windows = new ArrayList<>(minutes.values());
+        windows.addAll(hours.values());
+        return windows;
+    }
+
+    private Duration retention(Resolution resolution) {
+        return resolution == Resolution.MINUTE ? properties.getMinuteRetention() : properties.getHourRetention();
+    }
+
+    private static long longValue(KeyValue<byte[], byte[]> value) {
+        return value.hasValue() ? Long.parseLong(new String(value.getValue(), StandardCharsets.UTF_8)) : 0;
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static class Window {
+
+        private final Resolution resolution;
+
+        private final long start;
+
+        private final List<byte[]> ids = new ArrayList<>();
+
+        private long count;
+
+        private long amount;
+
+        Window(Resolution resolution, long start) {
+            this.resolution = resolution;
+            this.start = start;
+        }
+
+        void add(Order order) {
+            count++;
+            amount += order.getAmount() == null ? 0 : order.getAmount();
+            if (order.getId() != null) {
+                ids.add(bytes(order.getId()));
+            }
+        }
+    }
+}
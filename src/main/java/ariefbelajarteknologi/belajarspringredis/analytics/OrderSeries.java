@@ -0,0 +1,10 @@
+package ariefbelajarteknologi.belajarspringredis.analytics;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Windows of a time range, distinct estimates the order ids of the whole range rather than summing the windows.
+ */
+public record OrderSeries(Resolution resolution, Instant from, Instant to, List<OrderWindow> windows, long distinct) {
+}
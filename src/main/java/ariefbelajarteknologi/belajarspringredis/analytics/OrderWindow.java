@@ -0,0 +1,9 @@
+package ariefbelajarteknologi.belajarspringredis.analytics;
+
+import java.time.Instant;
+
+/**
+ * Aggregate of the orders consumed in one window, distinct is an HyperLogLog estimate of the order ids.
+ */
+public record OrderWindow(Instant start, long count, long amount, long distinct) {
+}
@@ -0,0 +1,24 @@
+package ariefbelajarteknologi.belajarspringredis.analytics;
+
+import java.time.Duration;
+
+public enum Resolution {
+    MINUTE(Duration.ofMinutes(1)), HOUR(Duration.ofHours(1));
+
+    private final Duration length;
+
+    Resolution(Duration length) {
+        this.length = length;
+    }
+
+    public Duration getLength() {
+        return length;
+    }
+
+    /**
+     * Start of the window containing the timestamp, in epoch milliseconds.
+     */
+    public long windowStart(long epochMillis) {
+        return epochMillis - Math.floorMod(epochMillis, length.toMillis());
+    }
+}
@@ -0,0 +1,9 @@
+package ariefbelajarteknologi.belajarspringredis.cache;
+
+import java.io.Serializable;
+
+/**
+ * Cached value together with its logical expiry, {@code loadMillis} is how long the value took to compute.
+ */
+public record CacheEnvelope(Object value, long softExpiresAt, long loadMillis) implements Serializable {
+}
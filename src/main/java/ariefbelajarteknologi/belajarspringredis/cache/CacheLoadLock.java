@@ -0,0 +1,45 @@
+package ariefbelajarteknologi.belajarspringredis.cache;
+
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Short lived Redis lock around a cache load, {@code SET NX PX} to take it and a compare-and-delete script to release it.
+ */
+public class CacheLoadLock {
+
+    private static final RedisScript<Long> RELEASE = new DefaultRedisScript<>(
+            "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('del', KEYS[1]) else return 0 end",
+            Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+
+    private final Duration timeout;
+
+    public CacheLoadLock(StringRedisTemplate redisTemplate, Duration timeout) {
+        this.redisTemplate = redisTemplate;
+        this.timeout = timeout;
+    }
+
+    /**
+     * Returns the lock token when the lock was taken, otherwise null.
+     */
+    public String tryLock(String key) {
+        String token = UUID.randomUUID().toString();
+        Boolean locked = redisTemplate.opsForValue().setIfAbsent(key, token, timeout);
+        return Boolean.TRUE.equals(locked) ? token : null;
+    }
+
+    public void unlock(String key, String token) {
+        redisTemplate.execute(RELEASE, List.of(key), token);
+    }
+
+    public Duration getTimeout() {
+        return timeout;
+    }
+}
@@ -0,0 +1,13 @@
+package ariefbelajarteknologi.belajarspringredis.cache;
+
+import java.util.List;
+
+/**
+ * Fills a cache for a batch of keys the way a miss would, used by {@link CacheWarmUp}.
+ */
+public interface CachePreloader {
+
+    String getCacheName();
+
+    void preload(List<String> keys);
+}
@@ -0,0 +1,216 @@
+package ariefbelajarteknologi.belajarspringredis.cache;
+
+import ariefbelajarteknologi.belajarspringredis.config.CacheWarmUpProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.Ordered;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Snapshots the hottest keys of each tracked cache to a gzipped file, periodically and when the application
+ * stops, and preloads them through the cache's {@link CachePreloader} on startup. The preload runs as an
+ * application runner, so readiness only switches to accepting traffic once it is done or its time budget has
+ * run out. Batches still in flight at the deadline finish in the background.
+ */
+@Slf4j
+public class CacheWarmUp implements ApplicationRunner, Ordered, DisposableBean {
+
+    private static final int SNAPSHOT_VERSION = 1;
+
+    public enum State {
+        PENDING, WARMING, DONE
+    }
+
+    public record Report(int keys, int loaded, int failed, int skipped, Duration elapsed) {
+    }
+
+    private final HotKeyTracker tracker;
+
+    private final List<CachePreloader> preloaders;
+
+    private final CacheWarmUpProperties properties;
+
+    private volatile State state = State.PENDING;
+
+    private volatile Report report;
+
+    public CacheWarmUp(HotKeyTracker tracker, List<CachePreloader> preloaders, CacheWarmUpProperties properties) {
+        this.tracker = tracker;
+        this.preloaders = preloaders;
+        this.properties = properties;
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    public Report getReport() {
+        return report;
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        warmUp();
+    }
+
+    public Report warmUp() {
+        state = State.WARMING;
+        long started = System.nanoTime();
+        long deadline = started + properties.getTimeBudget().toNanos();
+        int keys = 0;
+        AtomicInteger loaded = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+        int skipped = 0;
+
+        Semaphore permits = new Semaphore(properties.getParallelism());
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+        try {
+            for (CachePreloader preloader : preloaders) {
+                if (!properties.getCacheNames().contains(preloader.getCacheName())) {
+                    continue;
+                }
+                List<String> snapshot = readSnapshot(preloader.getCacheName());
+                keys += snapshot.size();
+                for (int from = 0; from < snapshot.size(); from += properties.getBatchSize()) {
+                    List<String> batch = snapshot.subList(from, Math.min(from + properties.getBatchSize(), snapshot.size()));
+                    if (!acquire(permits, 1, deadline)) {
+                        skipped += snapshot.size() - from;
+                        break;
+                    }
+                    executor.execute(() -> {
+                        try {
+                            preloader.preload(batch);
+                            loaded.addAndGet(batch.size());
+                        } catch (RuntimeException exception) {
+                            failed.addAndGet(batch.size());
+                            log.warn("Failed to preload {} keys of {} : {}", batch.size(), preloader.getCacheName(),
+                                    exception.getMessage());
+                        } finally {
+                            permits.release();
+                        }
+                    });
+                }
+            }
+            // every permit back means no batch is in flight, otherwise they are left to finish in the background
+            if (!acquire(permits, properties.getParallelism(), deadline)) {
+                log.warn("Cache warm-up ran out of its {} budget", properties.getTimeBudget());
+                return finish(keys, loaded.get(), failed.get(), keys - loaded.get() - failed.get(), started);
+            }
+        } finally {
+            executor.shutdown();
+        }
+        return finish(keys, loaded.get(), failed.get(), skipped, started);
+    }
+
+    /**
+     * Writes the hottest keys of every tracked cache, then halves the counts.
+     */
+    @Scheduled(initialDelayString = "${app.cache.warm-up.snapshot-interval:PT5M}",
+            fixedDelayString = "${app.cache.warm-up.snapshot-interval:PT5M}")
+    public void snapshot() {
+        for (String cacheName : properties.getCacheNames()) {
+            List<String> keys = tracker.top(cacheName, properties.getSnapshotSize());
+            // an instance that saw no traffic keeps the previous snapshot
+            if (!keys.isEmpty()) {
+                writeSnapshot(cacheName, keys);
+            }
+        }
+        tracker.decay();
+    }
+
+    @Override
+    public void destroy() {
+        try {
+            snapshot();
+        } catch (RuntimeException exception) {
+            log.warn("Failed to write the cache snapshot : {}", exception.getMessage());
+        }
+    }
+
+    public Path snapshotFile(String cacheName) {
+        return properties.getSnapshotDirectory().resolve(cacheName + ".keys.gz");
+    }
+
+    List<String> readSnapshot(String cacheName) {
+        Path file = snapshotFile(cacheName);
+        try (var in = new DataInputStream(new GZIPInputStream(new BufferedInputStream(Files.newInputStream(file))))) {
+            if (in.readInt() != SNAPSHOT_VERSION) {
+                log.warn("Ignoring snapshot {} with an unknown version", file);
+                return List.of();
+            }
+            int size = in.readInt();
+            List<String> keys = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                keys.add(in.readUTF());
+            }
+            return keys;
+        } catch (NoSuchFileException exception) {
+            return List.of();
+        } catch (IOException exception) {
+            log.warn("Ignoring unreadable snapshot {} : {}", file, exception.getMessage());
+            return List.of();
+        }
+    }
+
+    private void writeSnapshot(String cacheName, List<String> keys) {
+        Path file = snapshotFile(cacheName);
+        Path partial = file.resolveSibling(file.getFileName() + ".part");
+        try {
+            Files.createDirectories(properties.getSnapshotDirectory());
+            try (var out = new DataOutputStream(new GZIPOutputStream(new BufferedOutputStream(Files.newOutputStream(partial))))) {
+                out.writeInt(SNAPSHOT_VERSION);
+                out.writeInt(keys.size());
+                for (String key : keys) {
+                    out.writeUTF(key);
+                }
+            }
+            Files.move(partial, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+    }
+
+    private Report finish(int keys, int loaded, int failed, int skipped, long started) {
+        report = new Report(keys, loaded, failed, skipped, Duration.ofNanos(System.nanoTime() - started));
+        state = State.DONE;
+        log.info("Cache warm-up loaded {} of {} keys in {} ms", loaded, keys, report.elapsed().toMillis());
+        return report;
+    }
+
+    private static boolean acquire(Semaphore permits, int count, long deadline) {
+        try {
+            return permits.tryAcquire(count, deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package ariefbelajarteknologi.belajarspringredis.cache;
+
+import org.springframework.cache.Cache;
+
+/**
+ * A cache that adds behaviour on top of another one, lets callers get down to the Redis cache.
+ */
+public interface DecoratedCache {
+
+    Cache getTarget();
+
+    static Cache unwrap(Cache cache) {
+        while (cache instanceof DecoratedCache decorated) {
+            cache = decorated.getTarget();
+        }
+        return cache;
+    }
+
+    static <T extends Cache> T find(Cache cache, Class<T> type) {
+        while (cache != null) {
+            if (type.isInstance(cache)) {
+                return type.cast(cache);
+            }
+            cache = cache instanceof DecoratedCache decorated ? decorated.getTarget() : null;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,46 @@
+package ariefbelajarteknologi.belajarspringredis.cache;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.BiFunction;
+import java.util.function.Predicate;
+
+/**
+ * Wraps the caches of another manager, only the cache names accepted by the filter get decorated.
+ */
+public class DecoratingCacheManager implements CacheManager {
+
+    private final CacheManager target;
+
+    private final Predicate<String> filter;
+
+    private final BiFunction<String, Cache, Cache> decorator;
+
+    private final ConcurrentMap<String, Cache> caches = new ConcurrentHashMap<>();
+
+    public DecoratingCacheManager(CacheManager target, Predicate<String> filter, BiFunction<String, Cache, Cache> decorator) {
+        this.target = target;
+        this.filter = filter;
+        this.decorator = decorator;
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        if (!filter.test(name)) {
+            return target.getCache(name);
+        }
+        return caches.computeIfAbsent(name, cacheName -> {
+            Cache cache = target.getCache(cacheName);
+            return cache == null ? null : decorator.apply(cacheName, cache);
+        });
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return target.getCacheNames();
+    }
+}
@@ -0,0 +1,83 @@
+package ariefbelajarteknologi.belajarspringredis.cache;
+
+import org.springframework.cache.Cache;
+
+import java.util.concurrent.Callable;
+
+/**
+ * Reports every lookup to a {@link HotKeyTracker}, including the ones that end up calling a value loader.
+ */
+public class HotKeySamplingCache implements Cache, DecoratedCache {
+
+    private final Cache target;
+
+    private final HotKeyTracker tracker;
+
+    public HotKeySamplingCache(Cache target, HotKeyTracker tracker) {
+        this.target = target;
+        this.tracker = tracker;
+    }
+
+    @Override
+    public Cache getTarget() {
+        return target;
+    }
+
+    @Override
+    public String getName() {
+        return target.getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return target.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        tracker.record(target.getName(), key);
+        return target.get(key);
+    }
+
+    @Override
+    public <T> T get(Object key, Class<T> type) {
+        tracker.record(target.getName(), key);
+        return target.get(key, type);
+    }
+
+    @Override
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        tracker.record(target.getName(), key);
+        return target.get(key, valueLoader);
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        target.put(key, value);
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        return target.putIfAbsent(key, value);
+    }
+
+    @Override
+    public void evict(Object key) {
+        target.evict(key);
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        return target.evictIfPresent(key);
+    }
+
+    @Override
+    public void clear() {
+        target.clear();
+    }
+
+    @Override
+    public boolean invalidate() {
+        return target.invalidate();
+    }
+}
@@ -0,0 +1,63 @@
+package ariefbelajarteknologi.belajarspringredis.cache;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Approximate access frequency of cache keys. Only one in {@code sampleRate} reads is counted, so the hot path
+ * usually costs one random number, and at most {@code maxTracked} keys are counted per cache. {@link #decay()}
+ * halves every count and forgets keys that reach zero, which keeps the ranking biased toward recent traffic.
+ */
+public class HotKeyTracker {
+
+    private final Map<String, Map<String, AtomicLong>> caches = new ConcurrentHashMap<>();
+
+    private final int sampleRate;
+
+    private final int maxTracked;
+
+    public HotKeyTracker(int sampleRate, int maxTracked) {
+        this.sampleRate = Math.max(1, sampleRate);
+        this.maxTracked = maxTracked;
+    }
+
+    public void record(String cacheName, Object key) {
+        if (sampleRate > 1 && ThreadLocalRandom.current().nextInt(sampleRate) != 0) {
+            return;
+        }
+        Map<String, AtomicLong> counts = caches.computeIfAbsent(cacheName, name -> new ConcurrentHashMap<>());
+        String id = key.toString();
+        AtomicLong count = counts.get(id);
+        if (count == null) {
+            if (counts.size() >= maxTracked) {
+                return;
+            }
+            count = counts.computeIfAbsent(id, ignored -> new AtomicLong());
+        }
+        count.incrementAndGet();
+    }
+
+    /**
+     * The {@code limit} most frequent keys of the cache, hottest first.
+     */
+    public List<String> top(String cacheName, int limit) {
+        Map<String, AtomicLong> counts = caches.getOrDefault(cacheName, Map.of());
+        return counts.entrySet().stream()
+                .map(entry -> Map.entry(entry.getKey(), entry.getValue().get()))
+                .filter(entry -> entry.getValue() > 0)
+                .sorted(Map.Entry.<String, Long>comparingByValue(Comparator.reverseOrder()))
+                .limit(limit)
+                .map(Map.Entry::getKey)
+                .toList();
+    }
+
+    public void decay() {
+        for (Map<String, AtomicLong> counts : caches.values()) {
+            counts.values().removeIf(count -> count.updateAndGet(value -> value / 2) == 0);
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package ariefbelajarteknologi.belajarspringredis.cache;
+
+import org.springframework.cache.Cache;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bounded heap store for the L1 tier. Keys are spread over segments, each an access ordered map that drops its
+ * least recently used entry on the put that takes it over its share of the limit, so eviction costs O(1).
+ * Expired entries are dropped when they are read. Small caches use a single segment to keep the LRU order exact.
+ */
+class LocalCache {
+
+    private static final int SEGMENTS = 16;
+
+    private static final int MIN_SEGMENT_SIZE = 64;
+
+    private final Segment[] segments;
+
+    private final long timeToLiveNanos;
+
+    LocalCache(int maximumSize, Duration timeToLive) {
+        int count = maximumSize >= SEGMENTS * MIN_SEGMENT_SIZE ? SEGMENTS : 1;
+        this.segments = new Segment[count];
+        for (int i = 0; i < count; i++) {
+            // the shares add up to exactly maximumSize
+            segments[i] = new Segment(maximumSize / count + (i < maximumSize % count ? 1 : 0));
+        }
+        this.timeToLiveNanos = timeToLive.toNanos();
+    }
+
+    Cache.ValueWrapper get(String key) {
+        Segment segment = segment(key);
+        synchronized (segment) {
+            Entry entry = segment.get(key);
+            if (entry == null) {
+                return null;
+            }
+            if (entry.isExpired(System.nanoTime())) {
+                segment.remove(key);
+                return null;
+            }
+            return entry.value();
+        }
+    }
+
+    void put(String key, Cache.ValueWrapper value) {
+        Entry entry = new Entry(value, System.nanoTime() + timeToLiveNanos);
+        Segment segment = segment(key);
+        synchronized (segment) {
+            segment.put(key, entry);
+        }
+    }
+
+    void evict(String key) {
+        Segment segment = segment(key);
+        synchronized (segment) {
+            segment.remove(key);
+        }
+    }
+
+    void clear() {
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                segment.clear();
+            }
+        }
+    }
+
+    int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                size += segment.size();
+            }
+        }
+        return size;
+    }
+
+    private Segment segment(String key) {
+        int hash = key.hashCode();
+        return segments[((hash ^ (hash >>> 16)) & 0x7fffffff) % segments.length];
+    }
+
+    private static class Segment extends LinkedHashMap<String, Entry> {
+
+        private final int maximumSize;
+
+        Segment(int maximumSize) {
+            super(16, 0.75f, true);
+            this.maximumSize = maximumSize;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+            return size() > maximumSize;
+        }
+    }
+
+    private record Entry(Cache.ValueWrapper value, long expiresAt) {
+
+        boolean isExpired(long now) {
+            return now - expiresAt >= 0;
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package ariefbelajarteknologi.belajarspringredis.cache;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.boot.actuate.metrics.cache.RedisCacheMetrics;
+import org.springframework.cache.Cache;
+import org.springframework.data.redis.cache.RedisCache;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records the latency of every get, put and evict as a {@code cache.latency} timer tagged with the cache name and
+ * operation. Timers are resolved once per cache so the hot path only reads the clock and records. The hit and miss
+ * counters of the underlying {@link RedisCache} statistics are bound to the same registry.
+ */
+public class MeteredCache implements Cache, DecoratedCache {
+
+    private final Cache target;
+
+    private final Timer getHit;
+
+    private final Timer getMiss;
+
+    private final Timer put;
+
+    private final Timer evict;
+
+    public MeteredCache(Cache target, MeterRegistry registry) {
+        this.target = target;
+        Tags tags = Tags.of("cache", target.getName());
+        this.getHit = timer(registry, tags, "get", "hit");
+        this.getMiss = timer(registry, tags, "get", "miss");
+        this.put = timer(registry, tags, "put", "none");
+        this.evict = timer(registry, tags, "evict", "none");
+        if (DecoratedCache.unwrap(target) instanceof RedisCache redisCache) {
+            new RedisCacheMetrics(redisCache, tags).bindTo(registry);
+        }
+    }
+
+    @Override
+    public Cache getTarget() {
+        return target;
+    }
+
+    @Override
+    public String getName() {
+        return target.getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return target.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        long start = System.nanoTime();
+        ValueWrapper wrapper = target.get(key);
+        record(wrapper != null ? getHit : getMiss, start);
+        return wrapper;
+    }
+
+    @Override
+    public <T> T get(Object key, Class<T> type) {
+        long start = System.nanoTime();
+        T value = target.get(key, type);
+        record(value != null ? getHit : getMiss, start);
+        return value;
+    }
+
+    /**
+     * Timed as one get, a miss includes the time spent in the value loader.
+     */
+    @Override
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        long start = System.nanoTime();
+        boolean[] loaded = new boolean[1];
+        T value = target.get(key, () -> {
+            loaded[0] = true;
+            return valueLoader.call();
+        });
+        record(loaded[0] ? getMiss : getHit, start);
+        return value;
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        long start = System.nanoTime();
+        target.put(key, value);
+        record(put, start);
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        long start = System.nanoTime();
+        ValueWrapper existing = target.putIfAbsent(key, value);
+        record(put, start);
+        return existing;
+    }
+
+    @Override
+    public void evict(Object key) {
+        long start = System.nanoTime();
+        target.evict(key);
+        record(evict, start);
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        long start = System.nanoTime();
+        boolean present = target.evictIfPresent(key);
+        record(evict, start);
+        return present;
+    }
+
+    @Override
+    public void clear() {
+        target.clear();
+    }
+
+    @Override
+    public boolean invalidate() {
+        return target.invalidate();
+    }
+
+    private static void record(Timer timer, long start) {
+        timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+
+    private static Timer timer(MeterRegistry registry, Tags tags, String operation, String result) {
+        return Timer.builder("cache.latency")
+                .description("Latency of cache operations as seen by the caller")
+                .tags(tags)
+                .tag("operation", operation)
+                .tag("result", result)
+                .register(registry);
+    }
+}
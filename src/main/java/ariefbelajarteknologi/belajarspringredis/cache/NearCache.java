@@ -0,0 +1,180 @@
+package ariefbelajarteknologi.belajarspringredis.cache;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.SimpleValueWrapper;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Two tier cache, reads are served from the heap first and fall through to the Redis cache.
+ * Every write goes to Redis and then tells the other nodes to drop their L1 copy. Filling a miss through
+ * {@link #get(Object, Callable)}, as {@code @Cacheable(sync = true)} does, is not a write and is not broadcast.
+ */
+public class NearCache implements Cache, DecoratedCache {
+
+    private final Cache remote;
+
+    private final LocalCache local;
+
+    private final NearCacheManager manager;
+
+    /**
+     * Bumped on every invalidation so a Redis read that raced with it does not put a stale value back on the heap.
+     */
+    private final AtomicLong generation = new AtomicLong();
+
+    private final LongAdder localHits = new LongAdder();
+
+    private final LongAdder localMisses = new LongAdder();
+
+    private final LongAdder remoteHits = new LongAdder();
+
+    private final LongAdder remoteMisses = new LongAdder();
+
+    NearCache(Cache remote, LocalCache local, NearCacheManager manager) {
+        this.remote = remote;
+        this.local = local;
+        this.manager = manager;
+    }
+
+    @Override
+    public String getName() {
+        return remote.getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return remote.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        String localKey = localKey(key);
+        ValueWrapper value = local.get(localKey);
+        if (value != null) {
+            localHits.increment();
+            return value;
+        }
+        localMisses.increment();
+
+        long before = generation.get();
+        value = remote.get(key);
+        if (value == null) {
+            remoteMisses.increment();
+            return null;
+        }
+        remoteHits.increment();
+        if (generation.get() == before) {
+            local.put(localKey, value);
+        }
+        return value;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Class<T> type) {
+        ValueWrapper wrapper = get(key);
+        Object value = wrapper != null ? wrapper.get() : null;
+        if (value != null && type != null && !type.isInstance(value)) {
+            throw new IllegalStateException("Cached value is not of required type [" + type.getName() + "]: " + value);
+        }
+        return (T) value;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        String localKey = localKey(key);
+        ValueWrapper wrapper = local.get(localKey);
+        if (wrapper != null) {
+            localHits.increment();
+            return (T) wrapper.get();
+        }
+        localMisses.increment();
+
+        // one call down, so the tiers below see a single lookup and can refresh or coalesce it
+        long before = generation.get();
+        boolean[] loaded = new boolean[1];
+        T value = remote.get(key, () -> {
+            loaded[0] = true;
+            return valueLoader.call();
+        });
+        (loaded[0] ? remoteMisses : remoteHits).increment();
+        if (generation.get() == before) {
+            local.put(localKey, new SimpleValueWrapper(value));
+        }
+        return value;
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        remote.put(key, value);
+        generation.incrementAndGet();
+        local.put(localKey(key), new SimpleValueWrapper(value));
+        manager.publishEvict(getName(), localKey(key));
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        ValueWrapper previous = remote.putIfAbsent(key, value);
+        evictLocal(localKey(key));
+        manager.publishEvict(getName(), localKey(key));
+        return previous;
+    }
+
+    @Override
+    public void evict(Object key) {
+        remote.evict(key);
+        evictLocal(localKey(key));
+        manager.publishEvict(getName(), localKey(key));
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        boolean present = remote.evictIfPresent(key);
+        evictLocal(localKey(key));
+        manager.publishEvict(getName(), localKey(key));
+        return present;
+    }
+
+    @Override
+    public void clear() {
+        remote.clear();
+        clearLocal();
+        manager.publishClear(getName());
+    }
+
+    @Override
+    public boolean invalidate() {
+        boolean present = remote.invalidate();
+        clearLocal();
+        manager.publishClear(getName());
+        return present;
+    }
+
+    @Override
+    public Cache getTarget() {
+        return remote;
+    }
+
+    public NearCacheStatistics getStatistics() {
+        return new NearCacheStatistics(localHits.sum(), localMisses.sum(),
+                remoteHits.sum(), remoteMisses.sum(), local.size());
+    }
+
+    void evictLocal(String key) {
+        generation.incrementAndGet();
+        local.evict(key);
+    }
+
+    void clearLocal() {
+        generation.incrementAndGet();
+        local.clear();
+    }
+
+    private String localKey(Object key) {
+        return String.valueOf(key);
+    }
+}
@@ -0,0 +1,115 @@
+package ariefbelajarteknologi.belajarspringredis.cache;
+
+import ariefbelajarteknologi.belajarspringredis.config.NearCacheProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Wraps the Redis cache manager with {@link NearCache}s and keeps the L1 tiers of all nodes in sync.
+ * Invalidations go out on a pub/sub channel as {@code E|node|cache|key} or {@code C|node|cache},
+ * messages sent by this node are ignored.
+ */
+@Slf4j
+public class NearCacheManager implements CacheManager, MessageListener {
+
+    private final String nodeId = UUID.randomUUID().toString();
+
+    private final CacheManager remote;
+
+    private final NearCacheProperties properties;
+
+    private final StringRedisTemplate redisTemplate;
+
+    private final ConcurrentMap<String, NearCache> caches = new ConcurrentHashMap<>();
+
+    public NearCacheManager(CacheManager remote, NearCacheProperties properties, StringRedisTemplate redisTemplate) {
+        this.remote = remote;
+        this.properties = properties;
+        this.redisTemplate = redisTemplate;
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        if (!properties.getCacheNames().isEmpty() && !properties.getCacheNames().contains(name)) {
+            return remote.getCache(name);
+        }
+        return caches.computeIfAbsent(name, cacheName -> {
+            Cache cache = remote.getCache(cacheName);
+            if (cache == null) {
+                return null;
+            }
+            var local = new LocalCache(properties.getMaximumSize(), properties.getTimeToLive());
+            return new NearCache(cache, local, this);
+        });
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return remote.getCacheNames();
+    }
+
+    public Map<String, NearCacheStatistics> getStatistics() {
+        Map<String, NearCacheStatistics> statistics = new LinkedHashMap<>();
+        caches.forEach((name, cache) -> statistics.put(name, cache.getStatistics()));
+        return statistics;
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String[] parts = new String(message.getBody(), StandardCharsets.UTF_8).split("\\|", 4);
+        if (parts.length < 3 || nodeId.equals(parts[1])) {
+            return;
+        }
+
+        NearCache cache = caches.get(parts[2]);
+        if (cache == null) {
+            return;
+        }
+        if ("E".equals(parts[0]) && parts.length == 4) {
+            cache.evictLocal(parts[3]);
+        } else if ("C".equals(parts[0])) {
+            cache.clearLocal();
+        }
+    }
+
+    /**
+     * Drops the key from the L1 tier of this node and of the others, for writes that reach Redis without going
+     * through the {@link NearCache}.
+     */
+    public void invalidate(String cacheName, String key) {
+        NearCache cache = caches.get(cacheName);
+        if (cache == null) {
+            return;
+        }
+        cache.evictLocal(key);
+        publishEvict(cacheName, key);
+    }
+
+    void publishEvict(String cacheName, String key) {
+        publish("E|" + nodeId + "|" + cacheName + "|" + key);
+    }
+
+    void publishClear(String cacheName) {
+        publish("C|" + nodeId + "|" + cacheName);
+    }
+
+    private void publish(String message) {
+        try {
+            redisTemplate.convertAndSend(properties.getChannel(), message);
+        } catch (RuntimeException exception) {
+            log.warn("Failed to publish cache invalidation : {}", exception.getMessage());
+        }
+    }
+}
@@ -0,0 +1,4 @@
+package ariefbelajarteknologi.belajarspringredis.cache;
+
+public record NearCacheStatistics(long localHits, long localMisses, long remoteHits, long remoteMisses, int localSize) {
+}
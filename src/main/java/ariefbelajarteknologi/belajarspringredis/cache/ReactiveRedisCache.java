@@ -0,0 +1,136 @@
+package ariefbelajarteknologi.belajarspringredis.cache;
+
+import ariefbelajarteknologi.belajarspringredis.shard.RedisShards;
+import ariefbelajarteknologi.belajarspringredis.shard.RedisShards.Shard;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.cache.RedisCache;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.serializer.RedisSerializationContext;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Non-blocking access to the Redis caches of the {@link CacheManager}. Uses the same keys, value serializer,
+ * time to live and null handling as {@link RedisCache}, so blocking and reactive callers share entries.
+ * Concurrent misses for a key share one load, and entries written by a {@link RefreshAheadCache} are reloaded
+ * in the background once they go soft-stale. Keys are routed to the same {@link RedisShards} shard as the blocking
+ * cache writer uses. Puts and evictions drop the entry from the {@link NearCacheManager} L1 tiers of every node,
+ * loads only fill Redis.
+ */
+@Slf4j
+public class ReactiveRedisCache {
+
+    private final CacheManager cacheManager;
+
+    private final RedisShards redisShards;
+
+    private final Map<Shard, ReactiveRedisTemplate<byte[], byte[]>> redisTemplates = new HashMap<>();
+
+    private final Map<String, Mono<Optional<Object>>> loading = new ConcurrentHashMap<>();
+
+    public ReactiveRedisCache(CacheManager cacheManager, RedisShards redisShards) {
+        this.cacheManager = cacheManager;
+        this.redisShards = redisShards;
+        for (Shard shard : redisShards.getShards()) {
+            redisTemplates.put(shard, new ReactiveRedisTemplate<>(shard.reactiveConnectionFactory(),
+                    RedisSerializationContext.byteArray()));
+        }
+    }
+
+    /**
+     * Returns the cached value, or subscribes to the loader and caches its result. Completes empty for a cached null.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> Mono<T> get(String cacheName, String key, Supplier<Mono<T>> loader) {
+        Cache decorated = cacheManager.getCache(cacheName);
+        RedisCacheConfiguration config = RedisCacheValues.redisCache(decorated).getCacheConfiguration();
+        RefreshAheadCache refreshAhead = DecoratedCache.find(decorated, RefreshAheadCache.class);
+        byte[] rawKey = RedisCacheValues.rawKey(config, cacheName, key);
+
+        return redisTemplate(rawKey).opsForValue().get(rawKey)
+                .map(rawValue -> {
+                    Object value = RedisCacheValues.readValue(config, rawValue);
+                    if (value instanceof CacheEnvelope envelope) {
+                        if (refreshAhead != null && refreshAhead.shouldRefresh(envelope)) {
+                            load(config, refreshAhead, rawKey, loader).subscribe(loaded -> {
+                            }, error -> log.warn("Failed to refresh {} : {}", key, error.getMessage()));
+                        }
+                        value = envelope.value();
+                    }
+                    return Optional.ofNullable(value);
+                })
+                .switchIfEmpty(Mono.defer(() -> load(config, refreshAhead, rawKey, loader)))
+                .flatMap(value -> Mono.justOrEmpty((T) value.orElse(null)));
+    }
+
+    public Mono<Boolean> put(String cacheName, String key, Object value) {
+        Cache decorated = cacheManager.getCache(cacheName);
+        RedisCacheConfiguration config = RedisCacheValues.redisCache(decorated).getCacheConfiguration();
+        RefreshAheadCache refreshAhead = DecoratedCache.find(decorated, RefreshAheadCache.class);
+        return write(config, refreshAhead, RedisCacheValues.rawKey(config, cacheName, key), value, 0L)
+                .flatMap(written -> invalidateNear(cacheName, key).thenReturn(written));
+    }
+
+    public Mono<Boolean> evict(String cacheName, String key) {
+        RedisCacheConfiguration config = RedisCacheValues.redisCache(cacheManager.getCache(cacheName)).getCacheConfiguration();
+        byte[] rawKey = RedisCacheValues.rawKey(config, cacheName, key);
+        return redisTemplate(rawKey).delete(rawKey)
+                .flatMap(deleted -> invalidateNear(cacheName, key).thenReturn(deleted > 0));
+    }
+
+    /**
+     * Publishing goes through the blocking template, so it is moved off the connection's event loop.
+     */
+    private Mono<Void> invalidateNear(String cacheName, String key) {
+        if (!(cacheManager instanceof NearCacheManager nearCacheManager)) {
+            return Mono.empty();
+        }
+        return Mono.fromRunnable(() -> nearCacheManager.invalidate(cacheName, key))
+                .subscribeOn(Schedulers.boundedElastic())
+                .then();
+    }
+
+    private <T> Mono<Optional<Object>> load(RedisCacheConfiguration config, RefreshAheadCache refreshAhead,
+                                            byte[] rawKey, Supplier<Mono<T>> loader) {
+        String loadKey = new String(rawKey, StandardCharsets.UTF_8);
+        return loading.computeIfAbsent(loadKey, ignored -> {
+            long start = System.currentTimeMillis();
+            return Mono.defer(loader)
+                    .map(Optional::<Object>of)
+                    .defaultIfEmpty(Optional.empty())
+                    .flatMap(value -> write(config, refreshAhead, rawKey, value.orElse(null),
+                            System.currentTimeMillis() - start).thenReturn(value))
+                    .doFinally(signal -> loading.remove(loadKey))
+                    .cache();
+        });
+    }
+
+    private Mono<Boolean> write(RedisCacheConfiguration config, RefreshAheadCache refreshAhead, byte[] rawKey,
+                                Object value, long loadMillis) {
+        if (value == null && !config.getAllowCacheNullValues()) {
+            return Mono.just(false);
+        }
+        Object cacheValue = refreshAhead != null ? refreshAhead.wrap(value, loadMillis) : value;
+        byte[] rawValue = RedisCacheValues.writeValue(config, cacheValue);
+        Duration ttl = config.getTtl();
+        if (ttl == null || ttl.isZero() || ttl.isNegative()) {
+            return redisTemplate(rawKey).opsForValue().set(rawKey, rawValue);
+        }
+        return redisTemplate(rawKey).opsForValue().set(rawKey, rawValue, ttl);
+    }
+
+    private ReactiveRedisTemplate<byte[], byte[]> redisTemplate(byte[] rawKey) {
+        return redisTemplates.get(redisShards.shardFor(rawKey));
+    }
+}
@@ -0,0 +1,149 @@
+package ariefbelajarteknologi.belajarspringredis.cache;
+
+import ariefbelajarteknologi.belajarspringredis.shard.RedisShards;
+import ariefbelajarteknologi.belajarspringredis.shard.RedisWorkloads;
+import ariefbelajarteknologi.belajarspringredis.shard.Workload;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.cache.RedisCache;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.connection.RedisStringCommands;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.types.Expiration;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Multi-key access to a Redis backed cache. Reads every key with one MGET and writes the misses
+ * back in one pipeline, using the same key prefix and value serializer as {@link RedisCache}. When the cache
+ * is sharded the keys are split per shard and every shard gets its own MGET and pipeline, all in parallel.
+ */
+@Component
+public class RedisCacheBatch {
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private RedisWorkloads redisWorkloads;
+
+    /**
+     * Returns the values for the given keys in iteration order, calling the loader once with every key that was not cached.
+     */
+    public <T> Map<String, T> getAll(String cacheName, Collection<String> keys, Function<Collection<String>, Map<String, T>> loader) {
+        Cache decorated = cacheManager.getCache(cacheName);
+        RedisCache cache = RedisCacheValues.redisCache(decorated);
+        RedisCacheConfiguration config = cache.getCacheConfiguration();
+        List<String> distinctKeys = new ArrayList<>(new LinkedHashSet<>(keys));
+        if (distinctKeys.isEmpty()) {
+            return new LinkedHashMap<>();
+        }
+
+        byte[][] rawKeys = distinctKeys.stream()
+                .map(key -> RedisCacheValues.rawKey(config, cacheName, key))
+                .toArray(byte[][]::new);
+        byte[][] rawValues = mGet(rawKeys);
+
+        Map<String, T> result = new LinkedHashMap<>();
+        List<String> misses = new ArrayList<>();
+        for (int i = 0; i < distinctKeys.size(); i++) {
+            byte[] rawValue = rawValues[i];
+            if (rawValue == null) {
+                misses.add(distinctKeys.get(i));
+            } else {
+                result.put(distinctKeys.get(i), readValue(config, rawValue));
+            }
+        }
+
+        if (!misses.isEmpty()) {
+            Map<String, T> loaded = loader.apply(misses);
+            putAll(decorated, cache, loaded);
+            for (String miss : misses) {
+                result.put(miss, loaded.get(miss));
+            }
+        }
+
+        Map<String, T> ordered = new LinkedHashMap<>();
+        for (String key : distinctKeys) {
+            ordered.put(key, result.get(key));
+        }
+        return ordered;
+    }
+
+    /**
+     * Writes all entries with the cache time to live in a single pipeline.
+     */
+    public void putAll(String cacheName, Map<String, ?> entries) {
+        Cache decorated = cacheManager.getCache(cacheName);
+        putAll(decorated, RedisCacheValues.redisCache(decorated), entries);
+    }
+
+    private void putAll(Cache decorated, RedisCache cache, Map<String, ?> entries) {
+        RefreshAheadCache refreshAhead = DecoratedCache.find(decorated, RefreshAheadCache.class);
+        RedisCacheConfiguration config = cache.getCacheConfiguration();
+        Duration ttl = config.getTtl();
+        Expiration expiration = ttl == null || ttl.isZero() || ttl.isNegative()
+                ? Expiration.persistent()
+                : Expiration.from(ttl);
+
+        Map<byte[], byte[]> rawEntries = new LinkedHashMap<>();
+        entries.forEach((key, value) -> {
+            if (value == null && !config.getAllowCacheNullValues()) {
+                return;
+            }
+            Object cacheValue = refreshAhead != null ? refreshAhead.wrap(value, 0L) : value;
+            rawEntries.put(RedisCacheValues.rawKey(config, cache.getName(), key), RedisCacheValues.writeValue(config, cacheValue));
+        });
+        if (rawEntries.isEmpty()) {
+            return;
+        }
+
+        RedisShards redisShards = redisWorkloads.get(Workload.CACHE);
+        redisShards.parallel(redisShards.partition(rawEntries.entrySet(), Map.Entry::getKey), (shard, group) ->
+                shard.redisTemplate().executePipelined((RedisCallback<Object>) connection -> {
+                    group.forEach(entry -> connection.stringCommands().set(entry.getKey(), entry.getValue(),
+                            expiration, RedisStringCommands.SetOption.upsert()));
+                    return null;
+                }));
+    }
+
+    /**
+     * Values in the order of the keys, null for keys that are not cached.
+     */
+    private byte[][] mGet(byte[][] rawKeys) {
+        byte[][] rawValues = new byte[rawKeys.length][];
+        List<Integer> indexes = new ArrayList<>(rawKeys.length);
+        for (int i = 0; i < rawKeys.length; i++) {
+            indexes.add(i);
+        }
+        RedisShards redisShards = redisWorkloads.get(Workload.CACHE);
+        redisShards.parallel(redisShards.partition(indexes, i -> rawKeys[i]), (shard, group) -> {
+            byte[][] keys = group.stream().map(i -> rawKeys[i]).toArray(byte[][]::new);
+            List<byte[]> values = shard.redisTemplate().execute((RedisCallback<List<byte[]>>) connection ->
+                    connection.stringCommands().mGet(keys));
+            for (int i = 0; values != null && i < keys.length; i++) {
+                rawValues[group.get(i)] = values.get(i);
+            }
+            return null;
+        });
+        return rawValues;
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T readValue(RedisCacheConfiguration config, byte[] rawValue) {
+        Object value = RedisCacheValues.readValue(config, rawValue);
+        if (value instanceof CacheEnvelope envelope) {
+            value = envelope.value();
+        }
+        return (T) value;
+    }
+}
@@ -0,0 +1,56 @@
+package ariefbelajarteknologi.belajarspringredis.cache;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.NullValue;
+import org.springframework.data.redis.cache.RedisCache;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Key and value encoding shared by the code that talks to a {@link RedisCache} keyspace directly.
+ */
+final class RedisCacheValues {
+
+    private static final byte[] BINARY_NULL_VALUE = RedisSerializer.java().serialize(NullValue.INSTANCE);
+
+    private RedisCacheValues() {
+    }
+
+    static RedisCache redisCache(Cache decorated) {
+        Cache cache = DecoratedCache.unwrap(decorated);
+        if (cache instanceof RedisCache redisCache) {
+            return redisCache;
+        }
+        throw new IllegalStateException("Cache " + (decorated != null ? decorated.getName() : null) + " is not backed by Redis");
+    }
+
+    static byte[] rawKey(RedisCacheConfiguration config, String cacheName, String key) {
+        String cacheKey = config.usePrefix() ? config.getKeyPrefixFor(cacheName) + key : key;
+        return cacheKey.getBytes(StandardCharsets.UTF_8);
+    }
+
+    static byte[] writeValue(RedisCacheConfiguration config, Object value) {
+        if (value == null) {
+            return BINARY_NULL_VALUE;
+        }
+        ByteBuffer buffer = config.getValueSerializationPair().write(value);
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.get(bytes);
+        return bytes;
+    }
+
+    /**
+     * Returns the stored object, which may be a {@link CacheEnvelope}, or null for a cached null.
+     */
+    static Object readValue(RedisCacheConfiguration config, byte[] rawValue) {
+        if (Arrays.equals(BINARY_NULL_VALUE, rawValue)) {
+            return null;
+        }
+        Object value = config.getValueSerializationPair().read(ByteBuffer.wrap(rawValue));
+        return value instanceof NullValue ? null : value;
+    }
+}
@@ -0,0 +1,160 @@
+package ariefbelajarteknologi.belajarspringredis.cache;
+
+import ariefbelajarteknologi.belajarspringredis.config.RefreshAheadProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.SimpleValueWrapper;
+
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Stores every value in a {@link CacheEnvelope} with a soft expiry below the Redis time to live.
+ * A {@code @Cacheable(sync = true)} lookup past the soft expiry gets the stale value right away
+ * while the loader runs once in the background. With a positive beta the refresh may start early,
+ * the closer the entry is to its soft expiry and the slower it was to load, the more likely.
+ */
+@Slf4j
+public class RefreshAheadCache implements Cache, DecoratedCache {
+
+    private final Cache target;
+
+    private final RefreshAheadProperties.Policy policy;
+
+    private final Executor executor;
+
+    private final Set<Object> refreshing = ConcurrentHashMap.newKeySet();
+
+    public RefreshAheadCache(Cache target, RefreshAheadProperties.Policy policy, Executor executor) {
+        this.target = target;
+        this.policy = policy;
+        this.executor = executor;
+    }
+
+    @Override
+    public Cache getTarget() {
+        return target;
+    }
+
+    @Override
+    public String getName() {
+        return target.getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return target.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        return unwrap(target.get(key));
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Class<T> type) {
+        ValueWrapper wrapper = get(key);
+        Object value = wrapper != null ? wrapper.get() : null;
+        if (value != null && type != null && !type.isInstance(value)) {
+            throw new IllegalStateException("Cached value is not of required type [" + type.getName() + "]: " + value);
+        }
+        return (T) value;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        Object cached = target.get(key, () -> load(valueLoader));
+        if (cached instanceof CacheEnvelope envelope) {
+            if (shouldRefresh(envelope)) {
+                refresh(key, valueLoader);
+            }
+            return (T) envelope.value();
+        }
+        return (T) cached;
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        target.put(key, wrap(value, 0L));
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        return unwrap(target.putIfAbsent(key, wrap(value, 0L)));
+    }
+
+    @Override
+    public void evict(Object key) {
+        target.evict(key);
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        return target.evictIfPresent(key);
+    }
+
+    @Override
+    public void clear() {
+        target.clear();
+    }
+
+    @Override
+    public boolean invalidate() {
+        return target.invalidate();
+    }
+
+    public CacheEnvelope wrap(Object value, long loadMillis) {
+        return new CacheEnvelope(value, System.currentTimeMillis() + policy.getSoftTimeToLive().toMillis(), loadMillis);
+    }
+
+    private CacheEnvelope load(Callable<?> valueLoader) throws Exception {
+        long start = System.currentTimeMillis();
+        Object value = valueLoader.call();
+        return wrap(value, System.currentTimeMillis() - start);
+    }
+
+    boolean shouldRefresh(CacheEnvelope envelope) {
+        long now = System.currentTimeMillis();
+        if (now >= envelope.softExpiresAt()) {
+            return true;
+        }
+        if (policy.getBeta() <= 0) {
+            return false;
+        }
+        double random = ThreadLocalRandom.current().nextDouble();
+        double gap = -Math.max(envelope.loadMillis(), 1L) * policy.getBeta() * Math.log(random);
+        return now + gap >= envelope.softExpiresAt();
+    }
+
+    private void refresh(Object key, Callable<?> valueLoader) {
+        if (!refreshing.add(key)) {
+            return;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    target.put(key, load(valueLoader));
+                } catch (Exception exception) {
+                    log.warn("Failed to refresh {} in {} : {}", key, getName(), exception.getMessage());
+                } finally {
+                    refreshing.remove(key);
+                }
+            });
+        } catch (RuntimeException exception) {
+            refreshing.remove(key);
+            log.warn("Failed to schedule refresh of {} in {} : {}", key, getName(), exception.getMessage());
+        }
+    }
+
+    private ValueWrapper unwrap(ValueWrapper wrapper) {
+        if (wrapper != null && wrapper.get() instanceof CacheEnvelope envelope) {
+            return new SimpleValueWrapper(envelope.value());
+        }
+        return wrapper;
+    }
+}
@@ -0,0 +1,177 @@
+package ariefbelajarteknologi.belajarspringredis.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+
+import java.time.Duration;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Runs at most one loader per key at a time for {@code @Cacheable(sync = true)} misses,
+ * the other callers wait for its result instead of loading the same value again.
+ * With a {@link CacheLoadLock} the loaders on other nodes are held back as well.
+ */
+@Slf4j
+public class SingleFlightCache implements Cache, DecoratedCache {
+
+    private final Cache target;
+
+    private final CacheLoadLock lock;
+
+    private final Duration retryInterval;
+
+    private final ConcurrentMap<Object, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+
+    public SingleFlightCache(Cache target, CacheLoadLock lock, Duration retryInterval) {
+        this.target = target;
+        this.lock = lock;
+        this.retryInterval = retryInterval;
+    }
+
+    @Override
+    public Cache getTarget() {
+        return target;
+    }
+
+    @Override
+    public String getName() {
+        return target.getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return target.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        return target.get(key);
+    }
+
+    @Override
+    public <T> T get(Object key, Class<T> type) {
+        return target.get(key, type);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        ValueWrapper wrapper = target.get(key);
+        if (wrapper != null) {
+            return (T) wrapper.get();
+        }
+
+        var future = new CompletableFuture<Object>();
+        CompletableFuture<Object> existing = inFlight.putIfAbsent(key, future);
+        if (existing != null) {
+            return (T) await(existing);
+        }
+
+        try {
+            Object value = load(key, valueLoader);
+            future.complete(value);
+            return (T) value;
+        } catch (Throwable throwable) {
+            // any failure has to reach the waiters, an uncompleted future would block them forever
+            future.completeExceptionally(throwable);
+            throw throwable;
+        } finally {
+            inFlight.remove(key, future);
+        }
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        target.put(key, value);
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        return target.putIfAbsent(key, value);
+    }
+
+    @Override
+    public void evict(Object key) {
+        target.evict(key);
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        return target.evictIfPresent(key);
+    }
+
+    @Override
+    public void clear() {
+        target.clear();
+    }
+
+    @Override
+    public boolean invalidate() {
+        return target.invalidate();
+    }
+
+    /**
+     * Called after the first lookup missed, so the cache is only read again once a node lock is held or while
+     * waiting for another node to load.
+     */
+    private Object load(Object key, Callable<?> valueLoader) {
+        if (lock == null) {
+            return loadAndPut(key, valueLoader);
+        }
+
+        String lockKey = "lock:" + getName() + "::" + key;
+        long deadline = System.nanoTime() + lock.getTimeout().toNanos();
+        while (true) {
+            String token = lock.tryLock(lockKey);
+            if (token != null) {
+                try {
+                    // another node may have loaded and released the lock since our first lookup
+                    ValueWrapper wrapper = target.get(key);
+                    return wrapper != null ? wrapper.get() : loadAndPut(key, valueLoader);
+                } finally {
+                    lock.unlock(lockKey, token);
+                }
+            }
+
+            LockSupport.parkNanos(retryInterval.toNanos());
+            ValueWrapper wrapper = target.get(key);
+            if (wrapper != null) {
+                return wrapper.get();
+            }
+            if (System.nanoTime() - deadline > 0) {
+                log.warn("Timed out waiting for cache load of {} on {}", key, getName());
+                return loadAndPut(key, valueLoader);
+            }
+        }
+    }
+
+    private Object loadAndPut(Object key, Callable<?> valueLoader) {
+        Object value;
+        try {
+            value = valueLoader.call();
+        } catch (Exception exception) {
+            throw new ValueRetrievalException(key, valueLoader, exception);
+        }
+        target.put(key, value);
+        return value;
+    }
+
+    private Object await(CompletableFuture<Object> future) {
+        try {
+            return future.join();
+        } catch (CompletionException exception) {
+            if (exception.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (exception.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw exception;
+        }
+    }
+}
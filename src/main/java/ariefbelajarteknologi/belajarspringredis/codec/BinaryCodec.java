@@ -0,0 +1,18 @@
+package ariefbelajarteknologi.belajarspringredis.codec;
+
+/**
+ * Writes one type into the compact binary format. The type id and version are stored in front
+ * of every payload, so a codec can keep reading older versions after fields are added.
+ */
+public interface BinaryCodec<T> {
+
+    Class<T> getType();
+
+    int getTypeId();
+
+    int getVersion();
+
+    void write(T value, BinaryOutput output);
+
+    T read(BinaryInput input, int version);
+}
@@ -0,0 +1,78 @@
+package ariefbelajarteknologi.belajarspringredis.codec;
+
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+public class BinaryInput {
+
+    private final byte[] buffer;
+
+    private final int limit;
+
+    private int position;
+
+    public BinaryInput(byte[] buffer, int offset, int limit) {
+        this.buffer = buffer;
+        this.position = offset;
+        this.limit = limit;
+    }
+
+    public int position() {
+        return position;
+    }
+
+    public int readByte() {
+        if (position >= limit) {
+            throw new SerializationException("Unexpected end of compact payload");
+        }
+        return buffer[position++] & 0xFF;
+    }
+
+    public long readVarLong() {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = readByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new SerializationException("Malformed variable length number");
+    }
+
+    public Long readNullableLong() {
+        if (readByte() == 0) {
+            return null;
+        }
+        long raw = readVarLong();
+        return (raw >>> 1) ^ -(raw & 1);
+    }
+
+    public String readString() {
+        int length = (int) readVarLong();
+        if (length == 0) {
+            return null;
+        }
+        length--;
+        checkAvailable(length);
+        String value = new String(buffer, position, length, StandardCharsets.UTF_8);
+        position += length;
+        return value;
+    }
+
+    public byte[] readBlock() {
+        int length = (int) readVarLong();
+        checkAvailable(length);
+        byte[] bytes = Arrays.copyOfRange(buffer, position, position + length);
+        position += length;
+        return bytes;
+    }
+
+    private void checkAvailable(int length) {
+        if (length < 0 || position + length > limit) {
+            throw new SerializationException("Unexpected end of compact payload");
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package ariefbelajarteknologi.belajarspringredis.codec;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.zip.Deflater;
+
+/**
+ * Growable byte buffer meant to be reset and reused, by one thread at a time.
+ */
+public class BinaryOutput {
+
+    private byte[] buffer;
+
+    private int position;
+
+    public BinaryOutput(int initialCapacity) {
+        this.buffer = new byte[initialCapacity];
+    }
+
+    public void reset() {
+        position = 0;
+    }
+
+    public int size() {
+        return position;
+    }
+
+    public byte[] buffer() {
+        return buffer;
+    }
+
+    public byte[] toByteArray() {
+        return Arrays.copyOf(buffer, position);
+    }
+
+    public void writeByte(int value) {
+        ensureCapacity(1);
+        buffer[position++] = (byte) value;
+    }
+
+    public void writeBytes(byte[] bytes, int offset, int length) {
+        ensureCapacity(length);
+        System.arraycopy(bytes, offset, buffer, position, length);
+        position += length;
+    }
+
+    /**
+     * Unsigned LEB128, 7 bits per byte.
+     */
+    public void writeVarLong(long value) {
+        ensureCapacity(10);
+        while ((value & ~0x7FL) != 0) {
+            buffer[position++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buffer[position++] = (byte) value;
+    }
+
+    /**
+     * Zig-zag encoded so small negative numbers stay short, null is written as a single zero byte.
+     */
+    public void writeNullableLong(Long value) {
+        if (value == null) {
+            writeByte(0);
+            return;
+        }
+        writeByte(1);
+        writeVarLong((value << 1) ^ (value >> 63));
+    }
+
+    /**
+     * Length prefixed UTF-8, the length is stored plus one so zero can mean null.
+     */
+    public void writeString(String value) {
+        if (value == null) {
+            writeVarLong(0);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarLong(bytes.length + 1L);
+        writeBytes(bytes, 0, bytes.length);
+    }
+
+    public void writeBlock(byte[] bytes) {
+        writeVarLong(bytes.length);
+        writeBytes(bytes, 0, bytes.length);
+    }
+
+    /**
+     * Deflates the deflater's pending input straight into the buffer, growing it as needed.
+     */
+    public void writeDeflated(Deflater deflater) {
+        while (!deflater.finished()) {
+            ensureCapacity(64);
+            position += deflater.deflate(buffer, position, buffer.length - position);
+        }
+    }
+
+    private void ensureCapacity(int extra) {
+        if (position + extra > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, position + extra));
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package ariefbelajarteknologi.belajarspringredis.codec;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Keeps up to {@code capacity} idle objects for reuse across threads, unlike a thread local it still pays off when
+ * every task runs on a new virtual thread. Callers never wait: an empty pool creates a new object, and an object
+ * released to a full pool, or one not worth keeping, is handed to {@code discard}.
+ */
+class BoundedPool<T> {
+
+    private final BlockingQueue<T> idle;
+
+    private final Supplier<T> factory;
+
+    private final Predicate<T> keep;
+
+    private final Consumer<T> discard;
+
+    BoundedPool(int capacity, Supplier<T> factory, Predicate<T> keep, Consumer<T> discard) {
+        this.idle = new ArrayBlockingQueue<>(capacity);
+        this.factory = factory;
+        this.keep = keep;
+        this.discard = discard;
+    }
+
+    T acquire() {
+        T object = idle.poll();
+        return object != null ? object : factory.get();
+    }
+
+    void release(T object) {
+        if (!keep.test(object) || !idle.offer(object)) {
+            discard.accept(object);
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package ariefbelajarteknologi.belajarspringredis.codec;
+
+import ariefbelajarteknologi.belajarspringredis.cache.CacheEnvelope;
+
+/**
+ * Writes the envelope header inline and the wrapped value as a nested payload of its own type.
+ */
+public class CacheEnvelopeCodec implements BinaryCodec<CacheEnvelope> {
+
+    private final CompactRedisSerializer serializer;
+
+    public CacheEnvelopeCodec(CompactRedisSerializer serializer) {
+        this.serializer = serializer;
+    }
+
+    @Override
+    public Class<CacheEnvelope> getType() {
+        return CacheEnvelope.class;
+    }
+
+    @Override
+    public int getTypeId() {
+        return 3;
+    }
+
+    @Override
+    public int getVersion() {
+        return 1;
+    }
+
+    @Override
+    public void write(CacheEnvelope value, BinaryOutput output) {
+        output.writeVarLong(value.softExpiresAt());
+        output.writeVarLong(value.loadMillis());
+        output.writeBlock(serializer.serializeUncompressed(value.value()));
+    }
+
+    @Override
+    public CacheEnvelope read(BinaryInput input, int version) {
+        long softExpiresAt = input.readVarLong();
+        long loadMillis = input.readVarLong();
+        Object value = serializer.deserialize(input.readBlock());
+        return new CacheEnvelope(value, softExpiresAt, loadMillis);
+    }
+}
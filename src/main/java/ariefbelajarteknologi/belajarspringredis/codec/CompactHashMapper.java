@@ -0,0 +1,47 @@
+package ariefbelajarteknologi.belajarspringredis.codec;
+
+import org.springframework.data.redis.hash.ObjectHashMapper;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * Stream object mapper that stores a whole object as one {@code _bin} field in the compact format.
+ * Objects without a codec, and entries written by {@link ObjectHashMapper}, keep using the field per property layout.
+ * Extends {@link ObjectHashMapper} because the stream operations only hand raw bytes to that type, readers
+ * also need byte array hash key and value serializers so the payload is not decoded as a string first.
+ */
+public class CompactHashMapper extends ObjectHashMapper {
+
+    private static final byte[] FIELD = "_bin".getBytes(StandardCharsets.UTF_8);
+
+    private final CompactRedisSerializer serializer;
+
+    public CompactHashMapper(CompactRedisSerializer serializer) {
+        this.serializer = serializer;
+    }
+
+    @Override
+    public Map<byte[], byte[]> toHash(Object object) {
+        if (!serializer.hasCodec(object.getClass())) {
+            return super.toHash(object);
+        }
+        return Map.of(FIELD, serializer.serialize(object));
+    }
+
+    @Override
+    public Object fromHash(Map<byte[], byte[]> hash) {
+        for (Map.Entry<byte[], byte[]> entry : hash.entrySet()) {
+            if (Arrays.equals(FIELD, entry.getKey())) {
+                return serializer.deserialize(entry.getValue());
+            }
+        }
+        return super.fromHash(hash);
+    }
+
+    @Override
+    public <T> T fromHash(Map<byte[], byte[]> hash, Class<T> type) {
+        return type.cast(fromHash(hash));
+    }
+}
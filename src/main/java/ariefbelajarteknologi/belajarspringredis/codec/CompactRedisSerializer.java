@@ -0,0 +1,187 @@
+package ariefbelajarteknologi.belajarspringredis.codec;
+
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Serializer for the compact binary format, laid out as
+ * {@code magic | flags | type id | version | [uncompressed size] | payload}.
+ * Types without a registered codec, and anything that does not start with the magic byte,
+ * go through JDK serialization, so values written before the switch can still be read.
+ * Payloads above the compression threshold are deflated. Encode buffers, deflaters and inflaters come from small
+ * bounded pools shared by all threads.
+ */
+public class CompactRedisSerializer implements RedisSerializer<Object> {
+
+    static final int MAGIC = 0xC5;
+
+    private static final int FLAG_DEFLATED = 1;
+
+    private static final int INITIAL_BUFFER_SIZE = 256;
+
+    /**
+     * Buffers that grew past this are left to the garbage collector instead of being pinned in the pool.
+     */
+    private static final int MAX_POOLED_BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * Idle buffers, deflaters and inflaters kept for reuse. Work on virtual threads is bounded by the carriers,
+     * so more than one per core would mostly sit idle.
+     */
+    private static final int POOL_SIZE = Runtime.getRuntime().availableProcessors();
+
+    private final Map<Class<?>, BinaryCodec<?>> codecsByType = new HashMap<>();
+
+    private final Map<Integer, BinaryCodec<?>> codecsById = new HashMap<>();
+
+    private final RedisSerializer<Object> fallback = RedisSerializer.java();
+
+    private final int compressionThreshold;
+
+    private final BoundedPool<BinaryOutput> outputs = new BoundedPool<>(POOL_SIZE,
+            () -> new BinaryOutput(INITIAL_BUFFER_SIZE), output -> output.buffer().length <= MAX_POOLED_BUFFER_SIZE,
+            output -> { });
+
+    private final BoundedPool<Deflater> deflaters = new BoundedPool<>(POOL_SIZE,
+            () -> new Deflater(Deflater.BEST_SPEED), deflater -> true, Deflater::end);
+
+    private final BoundedPool<Inflater> inflaters = new BoundedPool<>(POOL_SIZE,
+            Inflater::new, inflater -> true, Inflater::end);
+
+    /**
+     * @param compressionThreshold payload size in bytes above which values are deflated, zero or less disables it
+     */
+    public CompactRedisSerializer(int compressionThreshold) {
+        this.compressionThreshold = compressionThreshold;
+        register(new ProductCodec());
+        register(new OrderCodec());
+        register(new CacheEnvelopeCodec(this));
+    }
+
+    public CompactRedisSerializer register(BinaryCodec<?> codec) {
+        codecsByType.put(codec.getType(), codec);
+        codecsById.put(codec.getTypeId(), codec);
+        return this;
+    }
+
+    public boolean hasCodec(Class<?> type) {
+        return codecsByType.containsKey(type);
+    }
+
+    @Override
+    public byte[] serialize(Object value) throws SerializationException {
+        return serialize(value, compressionThreshold > 0);
+    }
+
+    byte[] serializeUncompressed(Object value) {
+        return serialize(value, false);
+    }
+
+    @Override
+    public Object deserialize(byte[] bytes) throws SerializationException {
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+        if ((bytes[0] & 0xFF) != MAGIC) {
+            return fallback.deserialize(bytes);
+        }
+
+        var input = new BinaryInput(bytes, 1, bytes.length);
+        int flags = input.readByte();
+        BinaryCodec<?> codec = codecsById.get((int) input.readVarLong());
+        if (codec == null) {
+            throw new SerializationException("No compact codec registered for payload");
+        }
+        int version = (int) input.readVarLong();
+        if ((flags & FLAG_DEFLATED) != 0) {
+            input = inflate(bytes, input);
+        }
+        return codec.read(input, version);
+    }
+
+    @SuppressWarnings("unchecked")
+    private byte[] serialize(Object value, boolean allowCompression) {
+        if (value == null) {
+            return new byte[0];
+        }
+        BinaryCodec<Object> codec = (BinaryCodec<Object>) codecsByType.get(value.getClass());
+        if (codec == null) {
+            return fallback.serialize(value);
+        }
+
+        // the header goes first so the encoded value is already laid out as the uncompressed result, a nested
+        // call made by a codec while writing takes another buffer from the pool
+        BinaryOutput output = outputs.acquire();
+        output.reset();
+        try {
+            output.writeByte(MAGIC);
+            output.writeByte(0);
+            output.writeVarLong(codec.getTypeId());
+            output.writeVarLong(codec.getVersion());
+            int headerSize = output.size();
+            codec.write(value, output);
+            int payloadSize = output.size() - headerSize;
+            if (allowCompression && payloadSize > compressionThreshold) {
+                return deflate(codec, output, headerSize, payloadSize);
+            }
+            return output.toByteArray();
+        } finally {
+            outputs.release(output);
+        }
+    }
+
+    private byte[] deflate(BinaryCodec<?> codec, BinaryOutput output, int offset, int length) {
+        BinaryOutput result = outputs.acquire();
+        Deflater deflater = deflaters.acquire();
+        try {
+            result.reset();
+            result.writeByte(MAGIC);
+            result.writeByte(FLAG_DEFLATED);
+            result.writeVarLong(codec.getTypeId());
+            result.writeVarLong(codec.getVersion());
+            result.writeVarLong(length);
+
+            deflater.reset();
+            deflater.setInput(output.buffer(), offset, length);
+            deflater.finish();
+            result.writeDeflated(deflater);
+            return result.toByteArray();
+        } finally {
+            deflaters.release(deflater);
+            outputs.release(result);
+        }
+    }
+
+    private BinaryInput inflate(byte[] bytes, BinaryInput header) {
+        int size = (int) header.readVarLong();
+        int offset = header.position();
+        Inflater inflater = inflaters.acquire();
+        inflater.reset();
+        inflater.setInput(bytes, offset, bytes.length - offset);
+        byte[] payload = new byte[size];
+        try {
+            int read = 0;
+            while (read < size && !inflater.finished()) {
+                int length = inflater.inflate(payload, read, size - read);
+                if (length == 0 && inflater.needsInput()) {
+                    break;
+                }
+                read += length;
+            }
+            if (read != size) {
+                throw new SerializationException("Truncated compressed payload");
+            }
+        } catch (DataFormatException exception) {
+            throw new SerializationException("Corrupt compressed payload", exception);
+        } finally {
+            inflaters.release(inflater);
+        }
+        return new BinaryInput(payload, 0, size);
+    }
+}
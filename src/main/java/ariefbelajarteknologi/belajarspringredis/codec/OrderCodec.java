@@ -0,0 +1,37 @@
+package ariefbelajarteknologi.belajarspringredis.codec;
+
+import ariefbelajarteknologi.belajarspringredis.entity.Order;
+
+public class OrderCodec implements BinaryCodec<Order> {
+
+    @Override
+    public Class<Order> getType() {
+        return Order.class;
+    }
+
+    @Override
+    public int getTypeId() {
+        return 2;
+    }
+
+    @Override
+    public int getVersion() {
+        return 2;
+    }
+
+    @Override
+    public void write(Order value, BinaryOutput output) {
+        output.writeString(value.getId());
+        output.writeNullableLong(value.getAmount());
+        output.writeNullableLong(value.getSentAt());
+    }
+
+    @Override
+    public Order read(BinaryInput input, int version) {
+        Order order = new Order(input.readString(), input.readNullableLong());
+        if (version >= 2) {
+            order.setSentAt(input.readNullableLong());
+        }
+        return order;
+    }
+}
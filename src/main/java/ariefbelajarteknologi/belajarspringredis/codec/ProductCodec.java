@@ -0,0 +1,34 @@
+package ariefbelajarteknologi.belajarspringredis.codec;
+
+import ariefbelajarteknologi.belajarspringredis.entity.Product;
+
+public class ProductCodec implements BinaryCodec<Product> {
+
+    @Override
+    public Class<Product> getType() {
+        return Product.class;
+    }
+
+    @Override
+    public int getTypeId() {
+        return 1;
+    }
+
+    @Override
+    public int getVersion() {
+        return 1;
+    }
+
+    @Override
+    public void write(Product value, BinaryOutput output) {
+        output.writeString(value.getId());
+        output.writeString(value.getName());
+        output.writeNullableLong(value.getPrice());
+        output.writeNullableLong(value.getTtl());
+    }
+
+    @Override
+    public Product read(BinaryInput input, int version) {
+        return new Product(input.readString(), input.readString(), input.readNullableLong(), input.readNullableLong());
+    }
+}
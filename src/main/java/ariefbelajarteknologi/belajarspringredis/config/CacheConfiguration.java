@@ -0,0 +1,149 @@
+package ariefbelajarteknologi.belajarspringredis.config;
+
+import ariefbelajarteknologi.belajarspringredis.cache.CacheLoadLock;
+import ariefbelajarteknologi.belajarspringredis.cache.CachePreloader;
+import ariefbelajarteknologi.belajarspringredis.cache.CacheWarmUp;
+import ariefbelajarteknologi.belajarspringredis.cache.HotKeySamplingCache;
+import ariefbelajarteknologi.belajarspringredis.cache.HotKeyTracker;
+import ariefbelajarteknologi.belajarspringredis.cache.NearCacheManager;
+import ariefbelajarteknologi.belajarspringredis.cache.DecoratingCacheManager;
+import ariefbelajarteknologi.belajarspringredis.cache.MeteredCache;
+import ariefbelajarteknologi.belajarspringredis.cache.RefreshAheadCache;
+import ariefbelajarteknologi.belajarspringredis.cache.SingleFlightCache;
+import ariefbelajarteknologi.belajarspringredis.codec.CompactRedisSerializer;
+import ariefbelajarteknologi.belajarspringredis.shard.RedisShards;
+import ariefbelajarteknologi.belajarspringredis.shard.RedisWorkloads;
+import ariefbelajarteknologi.belajarspringredis.shard.Workload;
+import ariefbelajarteknologi.belajarspringredis.shard.ShardedRedisCacheWriter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.cache.CacheProperties;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.data.redis.serializer.RedisSerializationContext;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+@Configuration
+@EnableConfigurationProperties({CacheProperties.class, NearCacheProperties.class, SingleFlightProperties.class,
+        RefreshAheadProperties.class, CacheWarmUpProperties.class})
+public class CacheConfiguration {
+
+    @Bean
+    public CacheManager cacheManager(CacheProperties cacheProperties,
+                                     CodecProperties codecProperties,
+                                     CompactRedisSerializer compactRedisSerializer,
+                                     NearCacheProperties nearCacheProperties,
+                                     SingleFlightProperties singleFlightProperties,
+                                     RefreshAheadProperties refreshAheadProperties,
+                                     StringRedisTemplate redisTemplate,
+                                     RedisMessageListenerContainer messageListenerContainer,
+                                     MeterRegistry meterRegistry,
+                                     CacheWarmUpProperties cacheWarmUpProperties,
+                                     HotKeyTracker hotKeyTracker,
+                                     RedisWorkloads redisWorkloads,
+                                     ExecutorService refreshAheadExecutor) {
+        RedisCacheConfiguration config = redisCacheConfiguration(cacheProperties);
+        if (codecProperties.getCache() == CodecProperties.Format.COMPACT) {
+            config = config.serializeValuesWith(RedisSerializationContext.SerializationPair.fromSerializer(compactRedisSerializer));
+        }
+        CacheManager cacheManager = redisCacheManager(redisWorkloads.get(Workload.CACHE), cacheProperties, config);
+        if (singleFlightProperties.isEnabled()) {
+            CacheLoadLock lock = singleFlightProperties.isDistributed()
+                    ? new CacheLoadLock(redisTemplate, singleFlightProperties.getLockTimeout())
+                    : null;
+            List<String> cacheNames = singleFlightProperties.getCacheNames();
+            cacheManager = new DecoratingCacheManager(cacheManager,
+                    name -> cacheNames.isEmpty() || cacheNames.contains(name),
+                    (name, cache) -> new SingleFlightCache(cache, lock, singleFlightProperties.getRetryInterval()));
+        }
+        if (!refreshAheadProperties.getCaches().isEmpty()) {
+            Map<String, RefreshAheadProperties.Policy> policies = refreshAheadProperties.getCaches();
+            cacheManager = new DecoratingCacheManager(cacheManager, policies::containsKey,
+                    (name, cache) -> new RefreshAheadCache(cache, policies.get(name), refreshAheadExecutor));
+        }
+        // inside the near cache so NearCacheManager stays the outermost manager, local hits are in its own statistics
+        cacheManager = new DecoratingCacheManager(cacheManager, name -> true,
+                (name, cache) -> new MeteredCache(cache, meterRegistry));
+        // below the near cache as well, keys served from L1 are only counted when they come down to this tier
+        if (cacheWarmUpProperties.isEnabled()) {
+            cacheManager = new DecoratingCacheManager(cacheManager, cacheWarmUpProperties.getCacheNames()::contains,
+                    (name, cache) -> new HotKeySamplingCache(cache, hotKeyTracker));
+        }
+        if (!nearCacheProperties.isEnabled()) {
+            return cacheManager;
+        }
+
+        var nearCacheManager = new NearCacheManager(cacheManager, nearCacheProperties, redisTemplate);
+        messageListenerContainer.addMessageListener(nearCacheManager, new ChannelTopic(nearCacheProperties.getChannel()));
+        return nearCacheManager;
+    }
+
+    /**
+     * Runs refresh-ahead reloads, shut down with the context so no reload outlives the caches.
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService refreshAheadExecutor() {
+        return Executors.newVirtualThreadPerTaskExecutor();
+    }
+
+    @Bean
+    public HotKeyTracker hotKeyTracker(CacheWarmUpProperties properties) {
+        return new HotKeyTracker(properties.getSampleRate(), properties.getMaxTracked());
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "app.cache.warm-up", name = "enabled", havingValue = "true")
+    public CacheWarmUp cacheWarmUp(HotKeyTracker hotKeyTracker, List<CachePreloader> preloaders,
+                                   CacheWarmUpProperties properties) {
+        return new CacheWarmUp(hotKeyTracker, preloaders, properties);
+    }
+
+    /**
+     * Same setup spring boot does for {@code spring.cache.redis.*}, kept here so the manager can be wrapped.
+     */
+    private RedisCacheConfiguration redisCacheConfiguration(CacheProperties cacheProperties) {
+        CacheProperties.Redis redis = cacheProperties.getRedis();
+        RedisCacheConfiguration config = RedisCacheConfiguration.defaultCacheConfig();
+        if (redis.getTimeToLive() != null) {
+            config = config.entryTtl(redis.getTimeToLive());
+        }
+        if (redis.getKeyPrefix() != null) {
+            config = config.prefixCacheNameWith(redis.getKeyPrefix());
+        }
+        if (!redis.isCacheNullValues()) {
+            config = config.disableCachingNullValues();
+        }
+        if (!redis.isUseKeyPrefix()) {
+            config = config.disableKeyPrefix();
+        }
+        return config;
+    }
+
+    private RedisCacheManager redisCacheManager(RedisShards redisShards, CacheProperties cacheProperties,
+                                                RedisCacheConfiguration config) {
+        CacheProperties.Redis redis = cacheProperties.getRedis();
+        var builder = redisShards.size() > 1
+                ? RedisCacheManager.builder(new ShardedRedisCacheWriter(redisShards))
+                : RedisCacheManager.builder(redisShards.getShards().get(0).connectionFactory());
+        builder.cacheDefaults(config);
+        if (redis.isEnableStatistics()) {
+            builder.enableStatistics();
+        }
+        if (!cacheProperties.getCacheNames().isEmpty()) {
+            builder.initialCacheNames(new LinkedHashSet<>(cacheProperties.getCacheNames()));
+        }
+        return builder.build();
+    }
+}
@@ -0,0 +1,64 @@
+package ariefbelajarteknologi.belajarspringredis.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@ConfigurationProperties(prefix = "app.cache.warm-up")
+public class CacheWarmUpProperties {
+
+    /**
+     * Track the hottest keys, snapshot them and preload them on startup.
+     */
+    private boolean enabled = false;
+
+    /**
+     * Caches whose keys are tracked, each needs a preloader to be warmed up.
+     */
+    private List<String> cacheNames = new ArrayList<>(List.of("products"));
+
+    /**
+     * One in this many reads is counted.
+     */
+    private int sampleRate = 16;
+
+    /**
+     * Maximum number of distinct keys counted per cache, new keys are ignored until the next decay.
+     */
+    private int maxTracked = 100_000;
+
+    /**
+     * Number of hottest keys kept in a snapshot.
+     */
+    private int snapshotSize = 10_000;
+
+    /**
+     * Directory holding one snapshot file per cache.
+     */
+    private Path snapshotDirectory = Path.of("cache-snapshot");
+
+    /**
+     * Delay between two snapshots, counts are halved after each one so old traffic fades out.
+     */
+    private Duration snapshotInterval = Duration.ofMinutes(5);
+
+    /**
+     * Keys preloaded in one pipelined batch.
+     */
+    private int batchSize = 500;
+
+    /**
+     * Number of batches preloaded at the same time.
+     */
+    private int parallelism = 4;
+
+    /**
+     * How long startup waits for the preload before reporting ready, remaining keys are skipped.
+     */
+    private Duration timeBudget = Duration.ofSeconds(30);
+}
@@ -0,0 +1,28 @@
+package ariefbelajarteknologi.belajarspringredis.config;
+
+import ariefbelajarteknologi.belajarspringredis.codec.CompactHashMapper;
+import ariefbelajarteknologi.belajarspringredis.codec.CompactRedisSerializer;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.hash.HashMapper;
+import org.springframework.data.redis.hash.ObjectHashMapper;
+
+@Configuration
+@EnableConfigurationProperties(CodecProperties.class)
+public class CodecConfiguration {
+
+    @Bean
+    public CompactRedisSerializer compactRedisSerializer(CodecProperties properties) {
+        return new CompactRedisSerializer(properties.getCompressionThreshold());
+    }
+
+    @Bean
+    public HashMapper<Object, byte[], byte[]> streamHashMapper(CodecProperties properties,
+                                                               CompactRedisSerializer serializer) {
+        if (properties.getStream() == CodecProperties.Format.COMPACT) {
+            return new CompactHashMapper(serializer);
+        }
+        return ObjectHashMapper.getSharedInstance();
+    }
+}
@@ -0,0 +1,41 @@
+package ariefbelajarteknologi.belajarspringredis.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "app.codec")
+public class CodecProperties {
+
+    /**
+     * Value serializer of the Redis caches.
+     */
+    private Format cache = Format.JDK;
+
+    /**
+     * Object mapper for records on the streams.
+     */
+    private Format stream = Format.HASH;
+
+    /**
+     * Compact payloads bigger than this many bytes are deflated, zero or less disables compression.
+     */
+    private int compressionThreshold = 512;
+
+    public enum Format {
+        /**
+         * JDK serialization of the whole value, the cache default. Streams treat it as {@link #HASH}.
+         */
+        JDK,
+        /**
+         * A hash field per property written by {@code ObjectHashMapper}, the stream default. Caches treat it as
+         * {@link #JDK}.
+         */
+        HASH,
+        /**
+         * Schema versioned binary payload from {@code CompactRedisSerializer}, a single {@code _bin} field on
+         * streams. Values written in the other formats can still be read.
+         */
+        COMPACT
+    }
+}
@@ -0,0 +1,22 @@
+package ariefbelajarteknologi.belajarspringredis.config;
+
+import ariefbelajarteknologi.belajarspringredis.listener.CustomerListener;
+import ariefbelajarteknologi.belajarspringredis.listener.MessageDispatcher;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+@Configuration
+@EnableConfigurationProperties(CustomerDispatchProperties.class)
+public class CustomerDispatchConfiguration {
+
+    @Bean
+    public MessageDispatcher customerDispatcher(StringRedisTemplate redisTemplate,
+                                                CustomerDispatchProperties properties,
+                                                CustomerListener customerListener,
+                                                MeterRegistry meterRegistry) {
+        return new MessageDispatcher(redisTemplate, properties, customerListener, meterRegistry);
+    }
+}
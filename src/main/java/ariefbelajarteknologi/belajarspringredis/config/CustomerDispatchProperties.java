@@ -0,0 +1,57 @@
+package ariefbelajarteknologi.belajarspringredis.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "app.customers.dispatch")
+public class CustomerDispatchProperties {
+
+    private String channel = "customers";
+
+    /**
+     * Messages held between the listener container and the workers.
+     */
+    private int queueCapacity = 10_000;
+
+    private int workers = 1;
+
+    /**
+     * Run the workers on virtual threads instead of platform threads.
+     */
+    private boolean virtualThreads = true;
+
+    /**
+     * Maximum number of messages handed to the listener in one call.
+     */
+    private int batchSize = 100;
+
+    /**
+     * What happens to a message that arrives while the queue is full.
+     */
+    private OverflowPolicy overflow = OverflowPolicy.DROP_OLDEST;
+
+    /**
+     * How long {@code block} waits for room before the message is dropped. The wait holds up the listener thread,
+     * later messages wait behind it in the container's executor.
+     */
+    private Duration blockTimeout = Duration.ofSeconds(1);
+
+    /**
+     * Prefix of the Redis list that {@code spill} moves overflowing messages to, they are read back once the queue
+     * drains. Every node subscribes to the channel, so each spills to its own {@code <spill-list>:<node-id>}.
+     */
+    private String spillList = "customers:spill";
+
+    /**
+     * Names this node's spill list. Must differ between running nodes and stay the same across restarts, so a
+     * restarted node reads back what it spilled before. Defaults to the host name.
+     */
+    private String nodeId;
+
+    public enum OverflowPolicy {
+        DROP_OLDEST, BLOCK, SPILL
+    }
+}
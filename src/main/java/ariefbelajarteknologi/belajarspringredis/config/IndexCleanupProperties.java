@@ -0,0 +1,26 @@
+package ariefbelajarteknologi.belajarspringredis.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "app.repository.index-cleanup")
+public class IndexCleanupProperties {
+
+    /**
+     * Remove ids of expired {@code @NativeExpiry} entities from their keyspace sets.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Delay between two sweeps of the keyspace sets.
+     */
+    private Duration interval = Duration.ofMinutes(1);
+
+    /**
+     * Ids read per SSCAN page and checked in one pipelined EXISTS batch.
+     */
+    private int batchSize = 500;
+}
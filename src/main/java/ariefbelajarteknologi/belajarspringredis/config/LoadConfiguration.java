@@ -0,0 +1,24 @@
+package ariefbelajarteknologi.belajarspringredis.config;
+
+import ariefbelajarteknologi.belajarspringredis.load.EndToEndLatency;
+import ariefbelajarteknologi.belajarspringredis.load.LoadGenerator;
+import ariefbelajarteknologi.belajarspringredis.stream.OrderStreamPublisher;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+@Configuration
+@EnableConfigurationProperties(LoadProperties.class)
+public class LoadConfiguration {
+
+    @Bean
+    @ConditionalOnProperty(prefix = "app.load", name = "enabled", havingValue = "true")
+    public LoadGenerator loadGenerator(OrderStreamPublisher orderStreamPublisher,
+                                       StringRedisTemplate redisTemplate,
+                                       EndToEndLatency endToEndLatency,
+                                       LoadProperties properties) {
+        return new LoadGenerator(orderStreamPublisher, redisTemplate, endToEndLatency, properties);
+    }
+}
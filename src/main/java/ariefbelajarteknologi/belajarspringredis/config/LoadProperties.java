@@ -0,0 +1,45 @@
+package ariefbelajarteknologi.belajarspringredis.config;
+
+import ariefbelajarteknologi.belajarspringredis.load.LoadTarget;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.EnumSet;
+import java.util.Set;
+
+@Data
+@ConfigurationProperties(prefix = "app.load")
+public class LoadProperties {
+
+    /**
+     * Replace the fixed rate customer and order publishers with one load run started when the application is ready.
+     */
+    private boolean enabled = false;
+
+    private Set<LoadTarget> targets = EnumSet.allOf(LoadTarget.class);
+
+    /**
+     * Messages per second sent to every target, must be positive.
+     */
+    private int rate = 1_000;
+
+    private Duration duration = Duration.ofSeconds(30);
+
+    /**
+     * Size in bytes of the customer message and of the order id.
+     */
+    private int payloadSize = 64;
+
+    /**
+     * How long to wait for in flight messages to be consumed before the run is reported.
+     */
+    private Duration drainTimeout = Duration.ofSeconds(10);
+
+    public void setRate(int rate) {
+        if (rate <= 0) {
+            throw new IllegalArgumentException("rate must be positive but was " + rate);
+        }
+        this.rate = rate;
+    }
+}
@@ -0,0 +1,38 @@
+package ariefbelajarteknologi.belajarspringredis.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@ConfigurationProperties(prefix = "app.cache.near")
+public class NearCacheProperties {
+
+    /**
+     * Put an in-process L1 tier in front of the Redis cache manager.
+     */
+    private boolean enabled = false;
+
+    /**
+     * Cache names that get an L1 tier, empty means every cache.
+     */
+    private List<String> cacheNames = new ArrayList<>(List.of("products"));
+
+    /**
+     * Maximum number of entries kept on the heap per cache.
+     */
+    private int maximumSize = 10_000;
+
+    /**
+     * How long an L1 entry lives, should stay below the Redis time to live.
+     */
+    private Duration timeToLive = Duration.ofSeconds(10);
+
+    /**
+     * Pub/sub channel used to invalidate L1 copies on the other nodes.
+     */
+    private String channel = "cache-invalidation";
+}
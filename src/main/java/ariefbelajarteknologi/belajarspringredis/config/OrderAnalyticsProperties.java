@@ -0,0 +1,33 @@
+package ariefbelajarteknologi.belajarspringredis.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "app.orders.analytics")
+public class OrderAnalyticsProperties {
+
+    /**
+     * Aggregate every consumed order into per-minute and per-hour windows.
+     */
+    private boolean enabled = true;
+
+    private String keyPrefix = "analytics:orders";
+
+    /**
+     * How long a minute window is kept after it has closed.
+     */
+    private Duration minuteRetention = Duration.ofHours(24);
+
+    /**
+     * How long an hour window is kept after it has closed.
+     */
+    private Duration hourRetention = Duration.ofDays(30);
+
+    /**
+     * Maximum number of windows returned by one query.
+     */
+    private int maxPoints = 1440;
+}
@@ -0,0 +1,50 @@
+package ariefbelajarteknologi.belajarspringredis.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "app.orders.publisher")
+public class OrderPublisherProperties {
+
+    private String stream = "orders";
+
+    /**
+     * Maximum number of XADD commands sent in one pipeline.
+     */
+    private int batchSize = 100;
+
+    /**
+     * How long a partial batch waits for more orders before it is flushed.
+     */
+    private Duration linger = Duration.ofMillis(2);
+
+    /**
+     * Orders buffered before publishers start to block.
+     */
+    private int bufferCapacity = 10_000;
+
+    /**
+     * How long a publisher blocks on a full buffer before the order is rejected.
+     */
+    private Duration blockTimeout = Duration.ofSeconds(1);
+
+    /**
+     * Approximate MAXLEN applied on every XADD, zero or less disables it.
+     */
+    private long maxLength = 100_000;
+
+    /**
+     * When set, trims by approximate MINID to entries younger than this instead of by length.
+     */
+    private Duration retention;
+
+    /**
+     * When false the XADDs of a batch are queued on the client and written to the socket with one flush instead
+     * of one write per command. The publisher then opens a dedicated connection of its own, so the commands of other
+     * threads are never held back behind a batch.
+     */
+    private boolean autoFlush = true;
+}
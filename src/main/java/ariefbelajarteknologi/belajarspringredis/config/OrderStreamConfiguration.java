@@ -0,0 +1,70 @@
+package ariefbelajarteknologi.belajarspringredis.config;
+
+import ariefbelajarteknologi.belajarspringredis.analytics.OrderAnalytics;
+import ariefbelajarteknologi.belajarspringredis.listener.OrderBatchListener;
+import ariefbelajarteknologi.belajarspringredis.shard.RedisWorkloads;
+import ariefbelajarteknologi.belajarspringredis.shard.Workload;
+import ariefbelajarteknologi.belajarspringredis.stream.OrderStreamConsumer;
+import ariefbelajarteknologi.belajarspringredis.stream.OrderStreamMetrics;
+import ariefbelajarteknologi.belajarspringredis.stream.OrderStreamPublisher;
+import ariefbelajarteknologi.belajarspringredis.stream.PendingOrderReclaimer;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.hash.HashMapper;
+
+@Configuration
+@EnableConfigurationProperties({OrderStreamProperties.class, OrderPublisherProperties.class, OrderAnalyticsProperties.class})
+public class OrderStreamConfiguration {
+
+    @Bean
+    public OrderStreamPublisher orderStreamPublisher(RedisWorkloads redisWorkloads,
+                                                     HashMapper<Object, byte[], byte[]> streamHashMapper,
+                                                     OrderPublisherProperties properties) {
+        return new OrderStreamPublisher(streamTemplate(redisWorkloads, Workload.PUBLISHER, properties.getStream()),
+                streamHashMapper, properties);
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "app.orders.consumer", name = "mode", havingValue = "batch")
+    public OrderStreamConsumer orderStreamConsumer(RedisWorkloads redisWorkloads,
+                                                   HashMapper<Object, byte[], byte[]> streamHashMapper,
+                                                   OrderStreamProperties properties,
+                                                   OrderBatchListener orderListener) {
+        return new OrderStreamConsumer(streamTemplate(redisWorkloads, Workload.CONSUMER, properties.getStream()),
+                streamHashMapper, properties, orderListener);
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "app.orders.consumer.reclaim", name = "enabled", havingValue = "true", matchIfMissing = true)
+    public PendingOrderReclaimer pendingOrderReclaimer(RedisWorkloads redisWorkloads,
+                                                       HashMapper<Object, byte[], byte[]> streamHashMapper,
+                                                       OrderStreamProperties properties,
+                                                       OrderBatchListener orderListener,
+                                                       MeterRegistry meterRegistry) {
+        return new PendingOrderReclaimer(streamTemplate(redisWorkloads, Workload.CONSUMER, properties.getStream()),
+                streamHashMapper, properties, orderListener, meterRegistry);
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "app.orders.consumer.metrics", name = "enabled", havingValue = "true", matchIfMissing = true)
+    public OrderStreamMetrics orderStreamMetrics(RedisWorkloads redisWorkloads,
+                                                 OrderStreamProperties properties,
+                                                 MeterRegistry meterRegistry) {
+        return new OrderStreamMetrics(streamTemplate(redisWorkloads, Workload.CONSUMER, properties.getStream()),
+                properties, meterRegistry);
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "app.orders.analytics", name = "enabled", havingValue = "true", matchIfMissing = true)
+    public OrderAnalytics orderAnalytics(StringRedisTemplate redisTemplate, OrderAnalyticsProperties properties) {
+        return new OrderAnalytics(redisTemplate, properties);
+    }
+
+    private static StringRedisTemplate streamTemplate(RedisWorkloads redisWorkloads, Workload workload, String stream) {
+        return redisWorkloads.get(workload).shardFor(stream).redisTemplate();
+    }
+}
@@ -0,0 +1,106 @@
+package ariefbelajarteknologi.belajarspringredis.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "app.orders.consumer")
+public class OrderStreamProperties {
+
+    /**
+     * {@code single} delivers one record per callback through the listener container,
+     * {@code batch} hands lists of records to the listener and acknowledges them together,
+     * {@code reactive} does the same on a non-blocking {@code StreamReceiver}.
+     */
+    private Mode mode = Mode.SINGLE;
+
+    private String stream = "orders";
+
+    private String group = "my-group";
+
+    /**
+     * Prefix of the consumer names in the group, consumers are numbered from 1.
+     */
+    private String consumerPrefix = "consumer-";
+
+    /**
+     * Number of consumers polling the group in batch mode, each on its own virtual thread.
+     */
+    private int consumers = 1;
+
+    /**
+     * Maximum number of records read by one XREADGROUP.
+     */
+    private int batchSize = 100;
+
+    /**
+     * How long one XREADGROUP blocks waiting for records, kept below {@code spring.data.redis.timeout}.
+     */
+    private Duration pollTimeout = Duration.ofSeconds(2);
+
+    /**
+     * Acknowledge single mode records as soon as they are read, when false they are acknowledged after the listener returns.
+     */
+    private boolean autoAcknowledge = true;
+
+    private Reclaim reclaim = new Reclaim();
+
+    private Metrics metrics = new Metrics();
+
+    @Data
+    public static class Reclaim {
+
+        /**
+         * Periodically claim entries stuck in the pending entries list and process them again. Batches that
+         * failed in batch mode stay pending and are only read again by the reclaimer.
+         */
+        private boolean enabled = true;
+
+        /**
+         * Delay between reclaim runs, in ISO-8601 form because it also drives {@code @Scheduled}.
+         */
+        private Duration interval = Duration.ofSeconds(10);
+
+        /**
+         * Entries idle longer than this are considered abandoned by their consumer.
+         */
+        private Duration minIdleTime = Duration.ofSeconds(60);
+
+        /**
+         * Maximum number of entries claimed by one XAUTOCLAIM.
+         */
+        private int count = 100;
+
+        /**
+         * Entries delivered more often than this are moved to the dead letter stream.
+         */
+        private int maxDeliveries = 5;
+
+        private String deadLetterStream = "orders:dead-letter";
+    }
+
+    @Data
+    public static class Metrics {
+
+        /**
+         * Publish stream length and group lag gauges.
+         */
+        private boolean enabled = true;
+
+        /**
+         * Delay between XINFO reads, in ISO-8601 form because it also drives {@code @Scheduled}.
+         */
+        private Duration interval = Duration.ofSeconds(15);
+
+        /**
+         * Upper bound of the lag computed by counting entries on servers older than Redis 7.
+         */
+        private int lagScanLimit = 1000;
+    }
+
+    public enum Mode {
+        SINGLE, BATCH, REACTIVE
+    }
+}
@@ -0,0 +1,86 @@
+package ariefbelajarteknologi.belajarspringredis.config;
+
+import ariefbelajarteknologi.belajarspringredis.entity.Product;
+import ariefbelajarteknologi.belajarspringredis.repository.ExpiredIndexCleaner;
+import ariefbelajarteknologi.belajarspringredis.repository.KeyspaceHashReader;
+import ariefbelajarteknologi.belajarspringredis.repository.KeyspaceHashWriter;
+import ariefbelajarteknologi.belajarspringredis.repository.ProductWriteBuffer;
+import ariefbelajarteknologi.belajarspringredis.repository.ScoreIndexRebuilder;
+import ariefbelajarteknologi.belajarspringredis.shard.RedisWorkloads;
+import ariefbelajarteknologi.belajarspringredis.shard.Workload;
+import ariefbelajarteknologi.belajarspringredis.transfer.ProductTransfer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.convert.RedisConverter;
+import org.springframework.data.redis.core.mapping.RedisMappingContext;
+
+@Configuration
+@EnableConfigurationProperties({ProductWriteBehindProperties.class, IndexCleanupProperties.class,
+        ProductTransferProperties.class})
+public class ProductRepositoryConfiguration {
+
+    /**
+     * Template of the repository adapter, on the shard holding the product keyspace.
+     */
+    @Bean
+    public RedisTemplate<byte[], byte[]> repositoryRedisTemplate(RedisWorkloads redisWorkloads) {
+        var redisTemplate = new RedisTemplate<byte[], byte[]>();
+        redisTemplate.setConnectionFactory(redisWorkloads.get(Workload.REPOSITORY).shardFor(Product.class).connectionFactory());
+        return redisTemplate;
+    }
+
+    @Bean
+    public KeyspaceHashWriter keyspaceHashWriter(RedisConverter redisConverter) {
+        return new KeyspaceHashWriter(redisConverter);
+    }
+
+    @Bean
+    public KeyspaceHashReader keyspaceHashReader(RedisWorkloads redisWorkloads, RedisConverter redisConverter) {
+        return new KeyspaceHashReader(redisTemplate(redisWorkloads), redisConverter);
+    }
+
+    @Bean
+    public ScoreIndexRebuilder scoreIndexRebuilder(RedisWorkloads redisWorkloads,
+                                                   KeyspaceHashReader keyspaceHashReader,
+                                                   KeyspaceHashWriter keyspaceHashWriter,
+                                                   IndexCleanupProperties properties) {
+        return new ScoreIndexRebuilder(redisTemplate(redisWorkloads), keyspaceHashReader, keyspaceHashWriter, properties.getBatchSize());
+    }
+
+    @Bean
+    public ProductTransfer productTransfer(RedisWorkloads redisWorkloads,
+                                           KeyspaceHashReader keyspaceHashReader,
+                                           KeyspaceHashWriter keyspaceHashWriter,
+                                           ObjectMapper objectMapper,
+                                           ProductTransferProperties properties) {
+        return new ProductTransfer(redisTemplate(redisWorkloads), keyspaceHashReader, keyspaceHashWriter, objectMapper, properties);
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "app.products.write-behind", name = "enabled", havingValue = "true")
+    public ProductWriteBuffer productWriteBuffer(RedisWorkloads redisWorkloads,
+                                                 KeyspaceHashWriter keyspaceHashWriter,
+                                                 ProductWriteBehindProperties properties) {
+        return new ProductWriteBuffer(redisTemplate(redisWorkloads), keyspaceHashWriter, properties);
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "app.repository.index-cleanup", name = "enabled", havingValue = "true", matchIfMissing = true)
+    public ExpiredIndexCleaner expiredIndexCleaner(RedisWorkloads redisWorkloads,
+                                                   RedisMappingContext mappingContext,
+                                                   KeyspaceHashWriter keyspaceHashWriter,
+                                                   IndexCleanupProperties properties,
+                                                   MeterRegistry meterRegistry) {
+        return new ExpiredIndexCleaner(redisTemplate(redisWorkloads), mappingContext, keyspaceHashWriter, properties, meterRegistry);
+    }
+
+    private static StringRedisTemplate redisTemplate(RedisWorkloads redisWorkloads) {
+        return redisWorkloads.get(Workload.REPOSITORY).shardFor(Product.class).redisTemplate();
+    }
+}
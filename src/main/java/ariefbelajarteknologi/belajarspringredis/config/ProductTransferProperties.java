@@ -0,0 +1,43 @@
+package ariefbelajarteknologi.belajarspringredis.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "app.products.transfer")
+public class ProductTransferProperties {
+
+    /**
+     * Directory the import and export files are resolved against.
+     */
+    private Path directory = Path.of("transfer");
+
+    /**
+     * Number of writers sending pipelined batches in parallel, each on its own connection.
+     */
+    private int writers = 4;
+
+    /**
+     * Products written in one pipeline, and read per SSCAN page on export.
+     */
+    private int batchSize = 1_000;
+
+    /**
+     * Parsed batches waiting for a writer before the reader blocks.
+     */
+    private int queueCapacity = 16;
+
+    /**
+     * Size of the buffer the file is read and written through.
+     */
+    private DataSize bufferSize = DataSize.ofMegabytes(1);
+
+    /**
+     * How often progress and throughput are reported.
+     */
+    private Duration progressInterval = Duration.ofSeconds(5);
+}
@@ -0,0 +1,36 @@
+package ariefbelajarteknologi.belajarspringredis.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "app.products.write-behind")
+public class ProductWriteBehindProperties {
+
+    /**
+     * Queue {@code ProductRepository.save} calls and write them in batches instead of one by one.
+     */
+    private boolean enabled = false;
+
+    /**
+     * Pending products that trigger an early flush, also the size of one written batch.
+     */
+    private int batchSize = 500;
+
+    /**
+     * How often pending products are flushed when the batch size is not reached.
+     */
+    private Duration flushInterval = Duration.ofSeconds(1);
+
+    /**
+     * Pending products after which callers flush inline before queueing more.
+     */
+    private int maxPending = 100_000;
+
+    /**
+     * Wrap every batch in MULTI/EXEC instead of a plain pipeline.
+     */
+    private boolean transactional = false;
+}
@@ -0,0 +1,45 @@
+package ariefbelajarteknologi.belajarspringredis.config;
+
+import ariefbelajarteknologi.belajarspringredis.ratelimit.RateLimitInterceptor;
+import ariefbelajarteknologi.belajarspringredis.ratelimit.RateLimited;
+import ariefbelajarteknologi.belajarspringredis.ratelimit.RateLimiter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.aop.Advisor;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.aop.support.annotation.AnnotationMatchingPointcut;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.annotation.Role;
+import org.springframework.core.Ordered;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+@Configuration
+@EnableConfigurationProperties(RateLimitProperties.class)
+@ConditionalOnProperty(prefix = "app.rate-limit", name = "enabled", havingValue = "true")
+public class RateLimitConfiguration {
+
+    @Bean
+    public RateLimiter rateLimiter(StringRedisTemplate redisTemplate, RateLimitProperties properties,
+                                   MeterRegistry meterRegistry) {
+        return new RateLimiter(redisTemplate, properties, meterRegistry);
+    }
+
+    /**
+     * Infrastructure role so the proxy creator registered by {@code @EnableCaching} applies it next to the cache
+     * advice, ordered first so denied calls skip the cache. Its dependencies are resolved lazily because advisors
+     * are created before ordinary beans.
+     */
+    @Bean
+    @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+    public static Advisor rateLimitAdvisor(@Lazy RateLimiter rateLimiter, @Lazy RateLimitProperties properties) {
+        var advisor = new DefaultPointcutAdvisor(
+                AnnotationMatchingPointcut.forMethodAnnotation(RateLimited.class),
+                new RateLimitInterceptor(rateLimiter, properties));
+        advisor.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return advisor;
+    }
+}
@@ -0,0 +1,59 @@
+package ariefbelajarteknologi.belajarspringredis.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Data
+@ConfigurationProperties(prefix = "app.rate-limit")
+public class RateLimitProperties {
+
+    /**
+     * Enforce {@code @RateLimited}, when false the annotation has no effect.
+     */
+    private boolean enabled = false;
+
+    /**
+     * Request header naming the client, the remote address is used when it is missing.
+     */
+    private String clientHeader = "X-Client-Id";
+
+    /**
+     * Token buckets keyed by the limit name used in {@code @RateLimited}, methods naming an unknown limit are not limited.
+     */
+    private Map<String, Limit> limits = new LinkedHashMap<>();
+
+    @Data
+    public static class Limit {
+
+        /**
+         * Burst size, the bucket starts full.
+         */
+        private long capacity = 100;
+
+        /**
+         * Tokens added per second, must be positive.
+         */
+        private double refillPerSecond = 10;
+
+        /**
+         * Permits taken from Redis at once and handed out from memory, 1 asks Redis on every call.
+         */
+        private int prefetch = 1;
+
+        /**
+         * How long prefetched permits stay usable, bounds how far a node can run ahead of the shared bucket.
+         */
+        private Duration prefetchTimeToLive = Duration.ofSeconds(1);
+
+        public void setRefillPerSecond(double refillPerSecond) {
+            if (!(refillPerSecond > 0)) {
+                throw new IllegalArgumentException("refill-per-second must be positive but was " + refillPerSecond);
+            }
+            this.refillPerSecond = refillPerSecond;
+        }
+    }
+}
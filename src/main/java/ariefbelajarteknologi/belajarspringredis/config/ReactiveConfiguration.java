@@ -0,0 +1,64 @@
+package ariefbelajarteknologi.belajarspringredis.config;
+
+import ariefbelajarteknologi.belajarspringredis.cache.ReactiveRedisCache;
+import ariefbelajarteknologi.belajarspringredis.entity.Order;
+import ariefbelajarteknologi.belajarspringredis.listener.OrderBatchListener;
+import ariefbelajarteknologi.belajarspringredis.shard.RedisWorkloads;
+import ariefbelajarteknologi.belajarspringredis.shard.Workload;
+import ariefbelajarteknologi.belajarspringredis.stream.ReactiveOrderConsumer;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.ReactiveRedisConnectionFactory;
+import org.springframework.data.redis.connection.stream.ObjectRecord;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.hash.HashMapper;
+import org.springframework.data.redis.serializer.RedisSerializationContext;
+import org.springframework.data.redis.stream.StreamReceiver;
+
+@Configuration
+public class ReactiveConfiguration {
+
+    /**
+     * On the cache shards, so reactive and blocking callers read and evict the same entries.
+     */
+    @Bean
+    public ReactiveRedisCache reactiveRedisCache(CacheManager cacheManager, RedisWorkloads redisWorkloads) {
+        return new ReactiveRedisCache(cacheManager, redisWorkloads.get(Workload.CACHE));
+    }
+
+    /**
+     * On the shard holding the orders stream, where the publisher writes it.
+     */
+    @Bean
+    public StreamReceiver<String, ObjectRecord<String, Order>> orderStreamReceiver(
+            RedisWorkloads redisWorkloads,
+            HashMapper<Object, byte[], byte[]> streamHashMapper,
+            OrderStreamProperties properties) {
+        var options = StreamReceiver.StreamReceiverOptions.builder()
+                .pollTimeout(properties.getPollTimeout())
+                .batchSize(properties.getBatchSize())
+                .hashKeySerializer(RedisSerializationContext.SerializationPair.byteArray())
+                .hashValueSerializer(RedisSerializationContext.SerializationPair.byteArray())
+                .objectMapper(streamHashMapper)
+                .targetType(Order.class)
+                .build();
+        return StreamReceiver.create(streamConnectionFactory(redisWorkloads, properties), options);
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "app.orders.consumer", name = "mode", havingValue = "reactive")
+    public ReactiveOrderConsumer reactiveOrderConsumer(RedisWorkloads redisWorkloads,
+                                                       StreamReceiver<String, ObjectRecord<String, Order>> orderStreamReceiver,
+                                                       OrderStreamProperties properties,
+                                                       OrderBatchListener orderListener) {
+        var redisTemplate = new ReactiveStringRedisTemplate(streamConnectionFactory(redisWorkloads, properties));
+        return new ReactiveOrderConsumer(redisTemplate, orderStreamReceiver, properties, orderListener);
+    }
+
+    private static ReactiveRedisConnectionFactory streamConnectionFactory(RedisWorkloads redisWorkloads,
+                                                                          OrderStreamProperties properties) {
+        return redisWorkloads.get(Workload.CONSUMER).shardFor(properties.getStream()).reactiveConnectionFactory();
+    }
+}
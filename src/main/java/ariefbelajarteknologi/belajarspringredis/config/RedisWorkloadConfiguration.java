@@ -0,0 +1,92 @@
+package ariefbelajarteknologi.belajarspringredis.config;
+
+import ariefbelajarteknologi.belajarspringredis.shard.RedisShards;
+import ariefbelajarteknologi.belajarspringredis.shard.RedisWorkloads;
+import ariefbelajarteknologi.belajarspringredis.shard.Workload;
+import io.lettuce.core.api.StatefulConnection;
+import org.apache.commons.pool2.impl.GenericObjectPoolConfig;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.lettuce.LettuceClientConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceClientConfiguration.LettuceClientConfigurationBuilder;
+import org.springframework.data.redis.connection.lettuce.LettucePoolingClientConfiguration;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+@Configuration
+@EnableConfigurationProperties(RedisWorkloadProperties.class)
+public class RedisWorkloadConfiguration {
+
+    @Bean
+    public RedisWorkloads redisWorkloads(RedisWorkloadProperties properties,
+                                         RedisShards redisShards,
+                                         RedisConnectionFactory connectionFactory,
+                                         StringRedisTemplate redisTemplate) {
+        Map<Workload, RedisShards> shards = new EnumMap<>(Workload.class);
+        Set<Workload> isolated = EnumSet.noneOf(Workload.class);
+        for (Workload workload : Workload.values()) {
+            // channels are not sharded, subscribers stay on the default Redis the messages are published to
+            RedisShards shared = workload == Workload.PUBSUB
+                    ? RedisShards.single(connectionFactory, redisTemplate)
+                    : redisShards;
+            RedisWorkloadProperties.Connection connection = properties.getConnection(workload);
+            if (!connection.isIsolated()) {
+                shards.put(workload, shared);
+                continue;
+            }
+            shards.put(workload, shared.isolate(source -> clientConfiguration(workload, connection, source),
+                    connection.isShareNativeConnection()));
+            isolated.add(workload);
+        }
+        return new RedisWorkloads(shards, isolated);
+    }
+
+    /**
+     * The settings of the connection being replaced with the timeout, name and pool of the workload. SSL, client
+     * options such as the connect timeout and the client resources are carried over unchanged.
+     */
+    private static LettuceClientConfiguration clientConfiguration(Workload workload,
+                                                                  RedisWorkloadProperties.Connection connection,
+                                                                  LettuceClientConfiguration source) {
+        RedisWorkloadProperties.Pool pool = connection.getPool();
+        LettuceClientConfigurationBuilder builder;
+        if (pool.isEnabled()) {
+            var poolConfig = new GenericObjectPoolConfig<StatefulConnection<?, ?>>();
+            poolConfig.setMaxTotal(pool.getMaxActive());
+            poolConfig.setMaxIdle(pool.getMaxIdle());
+            poolConfig.setMinIdle(pool.getMinIdle());
+            poolConfig.setMaxWait(pool.getMaxWait());
+            builder = LettucePoolingClientConfiguration.builder().poolConfig(poolConfig);
+        } else {
+            builder = LettuceClientConfiguration.builder();
+        }
+        if (source.isUseSsl()) {
+            var ssl = builder.useSsl();
+            if (!source.isVerifyPeer()) {
+                ssl.disablePeerVerification();
+            }
+            if (source.isStartTls()) {
+                ssl.startTls();
+            }
+        }
+        source.getClientResources().ifPresent(builder::clientResources);
+        source.getClientOptions().ifPresent(builder::clientOptions);
+        source.getReadFrom().ifPresent(builder::readFrom);
+        source.getRedisCredentialsProviderFactory().ifPresent(builder::redisCredentialsProviderFactory);
+        return builder
+                .commandTimeout(connection.getCommandTimeout() != null
+                        ? connection.getCommandTimeout() : source.getCommandTimeout())
+                .shutdownTimeout(source.getShutdownTimeout())
+                .shutdownQuietPeriod(source.getShutdownQuietPeriod())
+                // named so CLIENT LIST shows which workload a connection belongs to
+                .clientName(workload.name().toLowerCase(Locale.ROOT))
+                .build();
+    }
+}
@@ -0,0 +1,66 @@
+package ariefbelajarteknologi.belajarspringredis.config;
+
+import ariefbelajarteknologi.belajarspringredis.shard.Workload;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+
+@Data
+@ConfigurationProperties(prefix = "app.redis")
+public class RedisWorkloadProperties {
+
+    /**
+     * Connection settings per workload, e.g. {@code app.redis.workloads.consumer.isolated=true}.
+     */
+    private Map<Workload, Connection> workloads = new EnumMap<>(Workload.class);
+
+    public Connection getConnection(Workload workload) {
+        return workloads.getOrDefault(workload, new Connection());
+    }
+
+    @Data
+    public static class Connection {
+
+        /**
+         * Give the workload connections of its own instead of the shared default ones.
+         */
+        private boolean isolated = false;
+
+        /**
+         * Let threads share one native connection per shard. When false every operation takes its own
+         * connection, from the pool when it is enabled.
+         */
+        private boolean shareNativeConnection = true;
+
+        /**
+         * Command timeout, {@code spring.data.redis.timeout} when not set.
+         */
+        private Duration commandTimeout;
+
+        /**
+         * Connections for blocking commands, pipelines and transactions, and for every operation when the native
+         * connection is not shared. Without a pool those open a new connection each time.
+         */
+        private Pool pool = new Pool();
+    }
+
+    @Data
+    public static class Pool {
+
+        private boolean enabled = false;
+
+        private int maxActive = 8;
+
+        private int maxIdle = 8;
+
+        private int minIdle = 0;
+
+        /**
+         * How long to wait for a free connection, negative waits indefinitely.
+         */
+        private Duration maxWait = Duration.ofMillis(-1);
+    }
+}
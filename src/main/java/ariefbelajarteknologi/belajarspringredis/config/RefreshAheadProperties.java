@@ -0,0 +1,32 @@
+package ariefbelajarteknologi.belajarspringredis.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Data
+@ConfigurationProperties(prefix = "app.cache.refresh-ahead")
+public class RefreshAheadProperties {
+
+    /**
+     * Caches served stale while they are reloaded in the background, keyed by cache name.
+     */
+    private Map<String, Policy> caches = new LinkedHashMap<>();
+
+    @Data
+    public static class Policy {
+
+        /**
+         * Age after which an entry is served stale and refreshed, must stay below the Redis time to live.
+         */
+        private Duration softTimeToLive = Duration.ofSeconds(45);
+
+        /**
+         * Probabilistic early refresh factor, 0 only refreshes after the soft time to live, higher refreshes earlier.
+         */
+        private double beta = 0.0;
+    }
+}
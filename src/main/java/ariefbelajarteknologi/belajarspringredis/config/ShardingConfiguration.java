@@ -0,0 +1,31 @@
+package ariefbelajarteknologi.belajarspringredis.config;
+
+import ariefbelajarteknologi.belajarspringredis.shard.RedisShards;
+import org.springframework.boot.autoconfigure.data.redis.RedisProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.time.Duration;
+
+@Configuration
+@EnableConfigurationProperties(ShardingProperties.class)
+public class ShardingConfiguration {
+
+    @Bean
+    public RedisShards redisShards(ShardingProperties properties,
+                                   RedisProperties redisProperties,
+                                   RedisConnectionFactory connectionFactory,
+                                   StringRedisTemplate redisTemplate) {
+        if (!properties.isEnabled()) {
+            return RedisShards.single(connectionFactory, redisTemplate);
+        }
+        if (properties.getNodes().isEmpty()) {
+            throw new IllegalStateException("app.sharding.nodes is empty while sharding is enabled");
+        }
+        Duration timeout = redisProperties.getTimeout() == null ? Duration.ofSeconds(60) : redisProperties.getTimeout();
+        return RedisShards.connect(properties.getNodes(), properties.getVirtualNodes(), timeout);
+    }
+}
@@ -0,0 +1,27 @@
+package ariefbelajarteknologi.belajarspringredis.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@ConfigurationProperties(prefix = "app.sharding")
+public class ShardingProperties {
+
+    /**
+     * Spread the cache, the repository keyspace and the streams over {@code nodes} instead of the default Redis.
+     */
+    private boolean enabled = false;
+
+    /**
+     * Redis URIs of the shards, e.g. {@code redis://localhost:6380}. The order does not matter, the names do.
+     */
+    private List<String> nodes = new ArrayList<>();
+
+    /**
+     * Points per node on the hash ring, more points give a more even spread.
+     */
+    private int virtualNodes = 160;
+}
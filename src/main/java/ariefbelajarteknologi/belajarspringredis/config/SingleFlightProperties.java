@@ -0,0 +1,38 @@
+package ariefbelajarteknologi.belajarspringredis.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@ConfigurationProperties(prefix = "app.cache.single-flight")
+public class SingleFlightProperties {
+
+    /**
+     * Coalesce concurrent misses on the same key into one load per JVM.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Cache names that get coalesced loading, empty means every cache.
+     */
+    private List<String> cacheNames = new ArrayList<>(List.of("products"));
+
+    /**
+     * Also take a short Redis lock so only one node runs the loader.
+     */
+    private boolean distributed = false;
+
+    /**
+     * How long the Redis lock is held at most, other nodes wait this long before loading themselves.
+     */
+    private Duration lockTimeout = Duration.ofSeconds(5);
+
+    /**
+     * How often a waiting node checks the cache for the value loaded by the lock owner.
+     */
+    private Duration retryInterval = Duration.ofMillis(50);
+}
@@ -0,0 +1,27 @@
+package ariefbelajarteknologi.belajarspringredis.config;
+
+import ariefbelajarteknologi.belajarspringredis.geo.StoreLocator;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+@Configuration
+@EnableConfigurationProperties(StoreLocatorProperties.class)
+public class StoreLocatorConfiguration {
+
+    @Bean
+    public StoreLocator storeLocator(StringRedisTemplate redisTemplate,
+                                     StoreLocatorProperties properties,
+                                     RedisMessageListenerContainer messageListenerContainer,
+                                     MeterRegistry meterRegistry) {
+        var storeLocator = new StoreLocator(redisTemplate, properties, meterRegistry);
+        if (properties.isCacheEnabled()) {
+            messageListenerContainer.addMessageListener(storeLocator, new ChannelTopic(properties.getChannel()));
+        }
+        return storeLocator;
+    }
+}
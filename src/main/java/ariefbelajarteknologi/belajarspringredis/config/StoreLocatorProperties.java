@@ -0,0 +1,51 @@
+package ariefbelajarteknologi.belajarspringredis.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "app.geo")
+public class StoreLocatorProperties {
+
+    /**
+     * Geo set holding the store locations.
+     */
+    private String key = "commerce";
+
+    /**
+     * Keep search results on the heap per grid cell, so repeated nearby queries skip Redis.
+     */
+    private boolean cacheEnabled = true;
+
+    /**
+     * Side of a grid cell in degrees, both for longitude and latitude.
+     */
+    private double cellSize = 0.01;
+
+    /**
+     * Radius, width and height are rounded up to a multiple of this many meters before caching.
+     */
+    private double sizeStep = 100;
+
+    /**
+     * Maximum number of cached cells.
+     */
+    private int maximumSize = 10_000;
+
+    /**
+     * How long a cached cell lives when no location in it changes.
+     */
+    private Duration timeToLive = Duration.ofMinutes(5);
+
+    /**
+     * Pub/sub channel used to invalidate cached cells on the other nodes.
+     */
+    private String channel = "geo-invalidation";
+
+    /**
+     * Number of locations sent in one GEOADD by a bulk load.
+     */
+    private int loadBatchSize = 500;
+}
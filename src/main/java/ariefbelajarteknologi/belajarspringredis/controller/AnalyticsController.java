@@ -0,0 +1,39 @@
+package ariefbelajarteknologi.belajarspringredis.controller;
+
+import ariefbelajarteknologi.belajarspringredis.analytics.OrderAnalytics;
+import ariefbelajarteknologi.belajarspringredis.analytics.OrderSeries;
+import ariefbelajarteknologi.belajarspringredis.analytics.Resolution;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.time.Instant;
+
+@RestController
+@ConditionalOnProperty(prefix = "app.orders.analytics", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class AnalyticsController {
+
+    @Autowired
+    private OrderAnalytics orderAnalytics;
+
+    /**
+     * Windows between {@code from} and {@code to}, by default the last hour of minute windows.
+     */
+    @GetMapping("/analytics/orders")
+    public OrderSeries orders(@RequestParam(defaultValue = "MINUTE") Resolution resolution,
+                              @RequestParam(required = false) Instant from,
+                              @RequestParam(required = false) Instant to) {
+        Instant end = to == null ? Instant.now() : to;
+        Instant start = from == null ? end.minus(Duration.ofHours(1)) : from;
+        try {
+            return orderAnalytics.query(resolution, start, end);
+        } catch (IllegalArgumentException exception) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, exception.getMessage(), exception);
+        }
+    }
+}
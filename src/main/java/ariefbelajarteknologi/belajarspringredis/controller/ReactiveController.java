@@ -0,0 +1,48 @@
+package ariefbelajarteknologi.belajarspringredis.controller;
+
+import ariefbelajarteknologi.belajarspringredis.config.OrderStreamProperties;
+import ariefbelajarteknologi.belajarspringredis.entity.Order;
+import ariefbelajarteknologi.belajarspringredis.entity.Product;
+import ariefbelajarteknologi.belajarspringredis.service.ReactiveProductService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.connection.stream.ObjectRecord;
+import org.springframework.data.redis.connection.stream.StreamOffset;
+import org.springframework.data.redis.stream.StreamReceiver;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Reactive endpoints, served as async requests so no servlet thread waits on Redis.
+ */
+@RestController
+@RequestMapping("/reactive")
+public class ReactiveController {
+
+    @Autowired
+    private ReactiveProductService reactiveProductService;
+
+    @Autowired
+    private StreamReceiver<String, ObjectRecord<String, Order>> orderStreamReceiver;
+
+    @Autowired
+    private OrderStreamProperties orderStreamProperties;
+
+    @GetMapping("/products/{id}")
+    public Mono<Product> getProduct(@PathVariable String id) {
+        return reactiveProductService.getProduct(id);
+    }
+
+    /**
+     * Tails orders added to the stream from now on, without joining the consumer group.
+     */
+    @GetMapping(value = "/orders", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<Order> orders() {
+        return orderStreamReceiver.receive(StreamOffset.latest(orderStreamProperties.getStream()))
+                .map(ObjectRecord::getValue);
+    }
+}
@@ -0,0 +1,38 @@
+package ariefbelajarteknologi.belajarspringredis.controller;
+
+import ariefbelajarteknologi.belajarspringredis.geo.NearbyStore;
+import ariefbelajarteknologi.belajarspringredis.geo.StoreLocator;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.geo.Point;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+public class StoreController {
+
+    @Autowired
+    private StoreLocator storeLocator;
+
+    /**
+     * Stores within {@code radius} meters, nearest first.
+     */
+    @GetMapping("/stores/near")
+    public List<NearbyStore> near(@RequestParam double longitude, @RequestParam double latitude,
+                                  @RequestParam(defaultValue = "1000") double radius,
+                                  @RequestParam(defaultValue = "0") int limit) {
+        return storeLocator.near(new Point(longitude, latitude), radius, limit);
+    }
+
+    /**
+     * Stores inside a box of {@code width} by {@code height} meters, nearest first.
+     */
+    @GetMapping("/stores/within")
+    public List<NearbyStore> within(@RequestParam double longitude, @RequestParam double latitude,
+                                    @RequestParam double width, @RequestParam double height,
+                                    @RequestParam(defaultValue = "0") int limit) {
+        return storeLocator.within(new Point(longitude, latitude), width, height, limit);
+    }
+}
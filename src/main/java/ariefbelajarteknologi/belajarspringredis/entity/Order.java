@@ -12,4 +12,13 @@ public class Order {
     private String id;
 
     private Long amount;
+
+    /**
+     * Wall clock send time in microseconds since the epoch, only set by the load generator.
+     */
+    private Long sentAt;
+
+    public Order(String id, Long amount) {
+        this(id, amount, null);
+    }
 }
@@ -1,5 +1,7 @@
 package ariefbelajarteknologi.belajarspringredis.entity;
 
+import ariefbelajarteknologi.belajarspringredis.repository.NativeExpiry;
+import ariefbelajarteknologi.belajarspringredis.repository.ScoreIndexed;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -16,6 +18,7 @@ import java.util.concurrent.TimeUnit;
 @NoArgsConstructor
 @Builder
 @KeySpace("products")
+@NativeExpiry
 public class Product implements Serializable {
 
     @Id
@@ -23,6 +26,7 @@ public class Product implements Serializable {
 
     private String name;
 
+    @ScoreIndexed
     private Long price;
 
     @TimeToLive(unit = TimeUnit.SECONDS)
@@ -0,0 +1,9 @@
+package ariefbelajarteknologi.belajarspringredis.geo;
+
+import org.springframework.data.geo.Point;
+
+/**
+ * A store found by a search, with its distance in meters from the query point.
+ */
+public record NearbyStore(String name, Point location, double distance) {
+}
@@ -0,0 +1,43 @@
+package ariefbelajarteknologi.belajarspringredis.geo;
+
+import org.springframework.data.geo.Point;
+
+/**
+ * A circle or an axis aligned box around a center, sizes in meters. Distances use the same haversine formula
+ * and earth radius as Redis, and box membership follows GEOSEARCH BYBOX: the longitude distance is measured at
+ * the latitude of the location, the latitude distance along its meridian.
+ */
+record SearchArea(Shape shape, Point center, double width, double height) {
+
+    static final double EARTH_RADIUS = 6372797.560856;
+
+    enum Shape {
+        RADIUS, BOX
+    }
+
+    static SearchArea radius(Point center, double radius) {
+        return new SearchArea(Shape.RADIUS, center, radius, radius);
+    }
+
+    static SearchArea box(Point center, double width, double height) {
+        return new SearchArea(Shape.BOX, center, width, height);
+    }
+
+    boolean contains(Point location) {
+        if (shape == Shape.RADIUS) {
+            return distance(center, location) <= width;
+        }
+        double longitudeDistance = distance(location, new Point(center.getX(), location.getY()));
+        double latitudeDistance = distance(location, new Point(location.getX(), center.getY()));
+        return longitudeDistance <= width / 2 && latitudeDistance <= height / 2;
+    }
+
+    static double distance(Point from, Point to) {
+        double fromLatitude = Math.toRadians(from.getY());
+        double toLatitude = Math.toRadians(to.getY());
+        double u = Math.sin((toLatitude - fromLatitude) / 2);
+        double v = Math.sin(Math.toRadians(to.getX() - from.getX()) / 2);
+        double a = u * u + Math.cos(fromLatitude) * Math.cos(toLatitude) * v * v;
+        return 2 * EARTH_RADIUS * Math.asin(Math.sqrt(a));
+    }
+}
@@ -0,0 +1,293 @@
+package ariefbelajarteknologi.belajarspringredis.geo;
+
+import ariefbelajarteknologi.belajarspringredis.config.StoreLocatorProperties;
+import io.lettuce.core.GeoValue;
+import io.lettuce.core.LettuceFutures;
+import io.lettuce.core.RedisFuture;
+import io.lettuce.core.cluster.api.async.RedisClusterAsyncCommands;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.geo.Distance;
+import org.springframework.data.geo.GeoResults;
+import org.springframework.data.geo.Point;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.connection.RedisGeoCommands;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.domain.geo.BoundingBox;
+import org.springframework.data.redis.domain.geo.GeoReference;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Store locator over a geo set. A search is sent as GEOSEARCH from the center of the grid cell the query point
+ * falls in, with the shape rounded up to {@code size-step} and grown by one cell, so the result holds every store
+ * any query from that cell can match. It is kept on the heap per cell, shape and size, and each query is answered
+ * from it by filtering and sorting on the exact distance. Writes evict the cached cells whose search area holds
+ * the old or the new position, on this node directly and on the other nodes over pub/sub.
+ */
+@Slf4j
+public class StoreLocator implements MessageListener {
+
+    private static final long COMMAND_TIMEOUT_SECONDS = 5;
+
+    private static final double MAX_LATITUDE = 85.05112878;
+
+    private static final RedisScript<List> GEO_REPLACE =
+            RedisScript.of(new ClassPathResource("scripts/geo_replace.lua"), List.class);
+
+    private final String nodeId = UUID.randomUUID().toString();
+
+    private final StringRedisTemplate redisTemplate;
+
+    private final StoreLocatorProperties properties;
+
+    private final Map<CellKey, Cell> cells;
+
+    private final AtomicLong generation = new AtomicLong();
+
+    private final double cellMeters;
+
+    private final Counter hits;
+
+    private final Counter misses;
+
+    public StoreLocator(StringRedisTemplate redisTemplate, StoreLocatorProperties properties, MeterRegistry meterRegistry) {
+        this.redisTemplate = redisTemplate;
+        this.properties = properties;
+        // access ordered, a put over the limit drops the least recently used cell
+        this.cells = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<CellKey, Cell> eldest) {
+                return size() > properties.getMaximumSize();
+            }
+        });
+        this.cellMeters = Math.toRadians(properties.getCellSize()) * SearchArea.EARTH_RADIUS;
+        this.hits = Counter.builder("geo.cache").tag("result", "hit").register(meterRegistry);
+        this.misses = Counter.builder("geo.cache").tag("result", "miss").register(meterRegistry);
+    }
+
+    /**
+     * Stores within {@code radius} meters of the point, nearest first, {@code limit} of zero means all of them.
+     */
+    public List<NearbyStore> near(Point point, double radius, int limit) {
+        return search(SearchArea.radius(point, radius), limit);
+    }
+
+    /**
+     * Stores inside the box of {@code width} by {@code height} meters centered on the point, nearest first.
+     */
+    public List<NearbyStore> within(Point point, double width, double height, int limit) {
+        return search(SearchArea.box(point, width, height), limit);
+    }
+
+    public void add(String name, Point location) {
+        Point previous = replace(name, String.valueOf(location.getX()), String.valueOf(location.getY()));
+        invalidate(previous, location);
+    }
+
+    public void remove(String name) {
+        Point previous = replace(name);
+        invalidate(previous, null);
+    }
+
+    /**
+     * Adds or moves many stores with GEOADD batches sent back to back on the shared connection, then drops every
+     * cached cell. Returns the number of stores that were not in the set before.
+     */
+    @SuppressWarnings("unchecked")
+    public long load(Map<String, Point> locations) {
+        if (locations.isEmpty()) {
+            return 0;
+        }
+        long added = redisTemplate.execute((RedisCallback<Long>) connection -> {
+            var commands = (RedisClusterAsyncCommands<byte[], byte[]>) connection.getNativeConnection();
+            List<RedisFuture<Long>> futures = new ArrayList<>();
+            List<GeoValue<byte[]>> batch = new ArrayList<>(properties.getLoadBatchSize());
+            for (Map.Entry<String, Point> location : locations.entrySet()) {
+                Point point = location.getValue();
+                batch.add(GeoValue.just(point.getX(), point.getY(), bytes(location.getKey())));
+                if (batch.size() == properties.getLoadBatchSize()) {
+                    futures.add(commands.geoadd(key(), batch.toArray(GeoValue[]::new)));
+                    batch.clear();
+                }
+            }
+            if (!batch.isEmpty()) {
+                futures.add(commands.geoadd(key(), batch.toArray(GeoValue[]::new)));
+            }
+            LettuceFutures.awaitAll(COMMAND_TIMEOUT_SECONDS, TimeUnit.SECONDS, futures.toArray(RedisFuture[]::new));
+            long count = 0;
+            for (RedisFuture<Long> future : futures) {
+                count += future.toCompletableFuture().join();
+            }
+            return count;
+        });
+        clearLocal();
+        publish("C|" + nodeId);
+        return added;
+    }
+
+    public int getCachedCells() {
+        return cells.size();
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String[] parts = new String(message.getBody(), StandardCharsets.UTF_8).split("\\|");
+        if (parts.length < 2 || nodeId.equals(parts[1])) {
+            return;
+        }
+        if ("C".equals(parts[0])) {
+            clearLocal();
+        } else if ("P".equals(parts[0])) {
+            List<Point> points = new ArrayList<>(parts.length - 2);
+            for (int i = 2; i < parts.length; i++) {
+                String[] coordinates = parts[i].split(",", 2);
+                points.add(new Point(Double.parseDouble(coordinates[0]), Double.parseDouble(coordinates[1])));
+            }
+            evictLocal(points);
+        }
+    }
+
+    private List<NearbyStore> search(SearchArea query, int limit) {
+        List<NearbyStore> candidates = properties.isCacheEnabled() ? cached(query) : fetch(query);
+        return candidates.stream()
+                .filter(store -> query.contains(store.location()))
+                .map(store -> new NearbyStore(store.name(), store.location(),
+                        SearchArea.distance(query.center(), store.location())))
+                .sorted(Comparator.comparingDouble(NearbyStore::distance))
+                .limit(limit > 0 ? limit : Long.MAX_VALUE)
+                .toList();
+    }
+
+    private List<NearbyStore> cached(SearchArea query) {
+        long x = (long) Math.floor(query.center().getX() / properties.getCellSize());
+        long y = (long) Math.floor(query.center().getY() / properties.getCellSize());
+        Point center = new Point((x + 0.5) * properties.getCellSize(), (y + 0.5) * properties.getCellSize());
+        if (Math.abs(center.getY()) > MAX_LATITUDE) {
+            return fetch(query);
+        }
+        var key = new CellKey(query.shape(), x, y, steps(query.width()), steps(query.height()));
+
+        long now = System.nanoTime();
+        Cell cell = cells.get(key);
+        if (cell != null && now - cell.expiresAt() < 0) {
+            hits.increment();
+            return cell.stores();
+        }
+        misses.increment();
+
+        // a write landing while the search is in flight bumps the generation, the result is then not kept
+        long seen = generation.get();
+        double width = key.width() * properties.getSizeStep() + cellMeters;
+        double height = key.height() * properties.getSizeStep() + cellMeters;
+        SearchArea area = new SearchArea(query.shape(), center, width, height);
+        cell = new Cell(area, fetch(area), now + properties.getTimeToLive().toNanos());
+        cells.put(key, cell);
+        if (generation.get() != seen) {
+            cells.remove(key, cell);
+        }
+        return cell.stores();
+    }
+
+    private List<NearbyStore> fetch(SearchArea area) {
+        var reference = GeoReference.<String>fromCoordinate(area.center());
+        var args = RedisGeoCommands.GeoSearchCommandArgs.newGeoSearchArgs().includeCoordinates().includeDistance();
+        GeoResults<RedisGeoCommands.GeoLocation<String>> results = area.shape() == SearchArea.Shape.RADIUS
+                ? redisTemplate.opsForGeo().search(properties.getKey(), reference,
+                new Distance(area.width(), RedisGeoCommands.DistanceUnit.METERS), args)
+                : redisTemplate.opsForGeo().search(properties.getKey(), reference,
+                new BoundingBox(area.width(), area.height(), RedisGeoCommands.DistanceUnit.METERS), args);
+        if (results == null) {
+            return List.of();
+        }
+        return results.getContent().stream()
+                .map(result -> new NearbyStore(result.getContent().getName(), result.getContent().getPoint(),
+                        result.getDistance().getValue()))
+                .toList();
+    }
+
+    /**
+     * Writes the member and returns its previous position, read by the same script so no other write lands between.
+     */
+    @SuppressWarnings("unchecked")
+    private Point replace(String member, String... position) {
+        Object[] args = new Object[1 + position.length];
+        args[0] = member;
+        System.arraycopy(position, 0, args, 1, position.length);
+        List<String> previous = redisTemplate.execute(GEO_REPLACE, List.of(properties.getKey()), args);
+        if (previous == null || previous.size() < 2) {
+            return null;
+        }
+        return new Point(Double.parseDouble(previous.get(0)), Double.parseDouble(previous.get(1)));
+    }
+
+    private void invalidate(Point previous, Point current) {
+        List<Point> points = new ArrayList<>(2);
+        if (previous != null) {
+            points.add(previous);
+        }
+        if (current != null) {
+            points.add(current);
+        }
+        if (points.isEmpty()) {
+            return;
+        }
+        evictLocal(points);
+        StringBuilder message = new StringBuilder("P|").append(nodeId);
+        points.forEach(point -> message.append('|').append(point.getX()).append(',').append(point.getY()));
+        publish(message.toString());
+    }
+
+    private void evictLocal(List<Point> points) {
+        generation.incrementAndGet();
+        cells.values().removeIf(cell -> points.stream().anyMatch(point -> cell.area().contains(point)));
+    }
+
+    private void clearLocal() {
+        generation.incrementAndGet();
+        cells.clear();
+    }
+
+    private void publish(String message) {
+        if (!properties.isCacheEnabled()) {
+            return;
+        }
+        try {
+            redisTemplate.convertAndSend(properties.getChannel(), message);
+        } catch (RuntimeException exception) {
+            log.warn("Failed to publish geo invalidation : {}", exception.getMessage());
+        }
+    }
+
+    private long steps(double size) {
+        return Math.max(1, (long) Math.ceil(size / properties.getSizeStep()));
+    }
+
+    private byte[] key() {
+        return bytes(properties.getKey());
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private record CellKey(SearchArea.Shape shape, long x, long y, long width, long height) {
+    }
+
+    private record Cell(SearchArea area, List<NearbyStore> stores, long expiresAt) {
+    }
+}
@@ -1,15 +1,38 @@
 package ariefbelajarteknologi.belajarspringredis.listener;
 
+import ariefbelajarteknologi.belajarspringredis.load.EndToEndLatency;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.redis.connection.Message;
-import org.springframework.data.redis.connection.MessageListener;
 import org.springframework.stereotype.Component;
 
+import java.util.List;
+
 @Slf4j
 @Component
-public class CustomerListener implements MessageListener {
+public class CustomerListener implements MessageBatchListener {
+
+    private final Counter received;
+
+    private final EndToEndLatency endToEndLatency;
+
+    public CustomerListener(MeterRegistry registry, EndToEndLatency endToEndLatency) {
+        this.endToEndLatency = endToEndLatency;
+        this.received = Counter.builder("customers.messages")
+                .description("Messages on the customers channel")
+                .tag("direction", "received")
+                .register(registry);
+    }
+
     @Override
-    public void onMessage(Message message, byte[] pattern) {
-        log.info("Receive Message : {}", new String(message.getBody()));
+    public void onMessages(List<String> messages) {
+        received.increment(messages.size());
+        for (String message : messages) {
+            if (endToEndLatency.recordCustomerMessage(message)) {
+                log.debug("Receive Message : {}", message);
+                continue;
+            }
+            log.info("Receive Message : {}", message);
+        }
     }
 }
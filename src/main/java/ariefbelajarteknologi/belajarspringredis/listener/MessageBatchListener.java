@@ -0,0 +1,8 @@
+package ariefbelajarteknologi.belajarspringredis.listener;
+
+import java.util.List;
+
+public interface MessageBatchListener {
+
+    void onMessages(List<String> messages);
+}
@@ -0,0 +1,297 @@
+package ariefbelajarteknologi.belajarspringredis.listener;
+
+import ariefbelajarteknologi.belajarspringredis.config.CustomerDispatchProperties;
+import io.lettuce.core.api.async.RedisListAsyncCommands;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Moves pub/sub messages off the listener container into a bounded queue. The container only enqueues the raw
+ * body, workers decode it and hand micro-batches to the {@link MessageBatchListener}. When the queue is full the
+ * configured overflow policy drops the oldest message, blocks the container for up to {@code blockTimeout}, or
+ * spills the message to a Redis list that the workers read back once the queue has drained. While anything is
+ * spilled or on its way to the list, new messages are spilled too, so they are delivered after the spilled ones.
+ * The list belongs to this node, other nodes receive the same messages and spill to lists of their own.
+ */
+@Slf4j
+public class MessageDispatcher implements MessageListener, SmartLifecycle {
+
+    private static final long POLL_TIMEOUT_MILLIS = 100;
+
+    private final StringRedisTemplate redisTemplate;
+
+    private final CustomerDispatchProperties properties;
+
+    private final MessageBatchListener listener;
+
+    private final BlockingQueue<byte[]> queue;
+
+    private final String spillList;
+
+    private final byte[] rawSpillList;
+
+    private final Lock unspillLock = new ReentrantLock();
+
+    private final AtomicLong spilled = new AtomicLong();
+
+    private final AtomicLong spilling = new AtomicLong();
+
+    private final Counter dropped;
+
+    private final Counter spills;
+
+    private final Counter unspills;
+
+    private final Counter failed;
+
+    private final List<Thread> workers = new ArrayList<>();
+
+    private volatile boolean running;
+
+    public MessageDispatcher(StringRedisTemplate redisTemplate, CustomerDispatchProperties properties,
+                             MessageBatchListener listener, MeterRegistry registry) {
+        this.redisTemplate = redisTemplate;
+        this.properties = properties;
+        this.listener = listener;
+        this.queue = new ArrayBlockingQueue<>(properties.getQueueCapacity());
+        this.spillList = properties.getSpillList() + ":" + nodeId(properties);
+        this.rawSpillList = spillList.getBytes(StandardCharsets.UTF_8);
+
+        String channel = properties.getChannel();
+        Gauge.builder("pubsub.dispatch.queue.depth", queue, BlockingQueue::size)
+                .description("Messages waiting for a dispatch worker")
+                .tag("channel", channel)
+                .register(registry);
+        Gauge.builder("pubsub.dispatch.spill.depth", spilled, AtomicLong::get)
+                .description("Messages spilled to Redis and not read back yet")
+                .tag("channel", channel)
+                .register(registry);
+        this.dropped = Counter.builder("pubsub.dispatch.dropped")
+                .tag("channel", channel)
+                .tag("policy", properties.getOverflow().name().toLowerCase())
+                .register(registry);
+        this.spills = Counter.builder("pubsub.dispatch.spilled")
+                .tag("channel", channel)
+                .register(registry);
+        this.unspills = Counter.builder("pubsub.dispatch.unspilled")
+                .tag("channel", channel)
+                .register(registry);
+        this.failed = Counter.builder("pubsub.dispatch.failed")
+                .tag("channel", channel)
+                .register(registry);
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        byte[] body = message.getBody();
+        if (properties.getOverflow() == CustomerDispatchProperties.OverflowPolicy.SPILL
+                && (spilled.get() > 0 || spilling.get() > 0)) {
+            spill(body);
+            return;
+        }
+        if (queue.offer(body)) {
+            return;
+        }
+        switch (properties.getOverflow()) {
+            case DROP_OLDEST -> {
+                while (!queue.offer(body)) {
+                    if (queue.poll() != null) {
+                        dropped.increment();
+                    }
+                }
+            }
+            case BLOCK -> {
+                try {
+                    if (!queue.offer(body, properties.getBlockTimeout().toMillis(), TimeUnit.MILLISECONDS)) {
+                        dropped.increment();
+                    }
+                } catch (InterruptedException exception) {
+                    Thread.currentThread().interrupt();
+                    dropped.increment();
+                }
+            }
+            case SPILL -> spill(body);
+        }
+    }
+
+    public int getQueueDepth() {
+        return queue.size();
+    }
+
+    public long getSpilled() {
+        return spilled.get();
+    }
+
+    public String getSpillList() {
+        return spillList;
+    }
+
+    @Override
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        if (properties.getOverflow() == CustomerDispatchProperties.OverflowPolicy.SPILL) {
+            // messages spilled before a restart
+            Long length = redisTemplate.opsForList().size(spillList);
+            spilled.set(length == null ? 0 : length);
+        }
+        for (int i = 1; i <= properties.getWorkers(); i++) {
+            Thread.Builder builder = properties.isVirtualThreads() ? Thread.ofVirtual() : Thread.ofPlatform().daemon();
+            workers.add(builder.name(properties.getChannel() + "-dispatch-" + i).start(this::work));
+        }
+    }
+
+    /**
+     * Lets the workers finish what is queued before they exit, spilled messages stay in Redis for the next start.
+     */
+    @Override
+    public synchronized void stop() {
+        running = false;
+        for (Thread worker : workers) {
+            try {
+                worker.join();
+            } catch (InterruptedException exception) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        workers.clear();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Starts before and stops after the listener container, so nothing is enqueued without a worker to take it.
+     */
+    @Override
+    public int getPhase() {
+        return Integer.MAX_VALUE - 1;
+    }
+
+    private void work() {
+        List<byte[]> batch = new ArrayList<>(properties.getBatchSize());
+        while (running || !queue.isEmpty()) {
+            try {
+                byte[] first = queue.poll(POLL_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    unspill();
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, properties.getBatchSize() - 1);
+                dispatch(batch);
+                if (queue.isEmpty()) {
+                    unspill();
+                }
+            } catch (InterruptedException exception) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException exception) {
+                log.warn("Failed to dispatch {} messages : {}", properties.getChannel(), exception.getMessage());
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void dispatch(List<byte[]> batch) {
+        List<String> messages = new ArrayList<>(batch.size());
+        for (byte[] body : batch) {
+            messages.add(new String(body, StandardCharsets.UTF_8));
+        }
+        try {
+            listener.onMessages(messages);
+        } catch (RuntimeException exception) {
+            failed.increment(messages.size());
+            log.warn("Listener failed on {} {} messages : {}", messages.size(), properties.getChannel(),
+                    exception.getMessage());
+        }
+    }
+
+    /**
+     * Sent without waiting for the reply, the listener container thread never waits on Redis. The message only
+     * counts as spilled once the LPUSH is done, so a worker never pops before it is in the list.
+     */
+    @SuppressWarnings("unchecked")
+    private void spill(byte[] body) {
+        spilling.incrementAndGet();
+        redisTemplate.execute((RedisCallback<Object>) connection -> {
+            var commands = (RedisListAsyncCommands<byte[], byte[]>) connection.getNativeConnection();
+            commands.lpush(rawSpillList, body).whenComplete((length, exception) -> {
+                if (exception != null) {
+                    dropped.increment();
+                } else {
+                    spilled.incrementAndGet();
+                    spills.increment();
+                }
+                spilling.decrementAndGet();
+            });
+            return null;
+        });
+    }
+
+    /**
+     * Reads a batch of spilled messages back in arrival order, called whenever the queue is empty. One worker pops
+     * at a time, so an empty list means everything counted before the pop has been read back. The count is then
+     * reset unless a spill finished in the meantime, which keeps a lost pop reply from spilling every later message.
+     */
+    private void unspill() {
+        if (spilled.get() <= 0 || !unspillLock.tryLock()) {
+            return;
+        }
+        List<String> messages;
+        try {
+            long counted = spilled.get();
+            messages = redisTemplate.opsForList().rightPop(spillList, properties.getBatchSize());
+            if (messages == null || messages.isEmpty()) {
+                spilled.compareAndSet(counted, 0);
+                return;
+            }
+            spilled.addAndGet(-messages.size());
+        } finally {
+            unspillLock.unlock();
+        }
+        unspills.increment(messages.size());
+        try {
+            listener.onMessages(messages);
+        } catch (RuntimeException exception) {
+            failed.increment(messages.size());
+            log.warn("Listener failed on {} spilled {} messages : {}", messages.size(), properties.getChannel(),
+                    exception.getMessage());
+        }
+    }
+
+    private static String nodeId(CustomerDispatchProperties properties) {
+        if (properties.getNodeId() != null && !properties.getNodeId().isBlank()) {
+            return properties.getNodeId();
+        }
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException exception) {
+            throw new IllegalStateException("Set app.customers.dispatch.node-id, the host name is unknown", exception);
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package ariefbelajarteknologi.belajarspringredis.listener;
+
+import ariefbelajarteknologi.belajarspringredis.entity.Order;
+import org.springframework.data.redis.connection.stream.ObjectRecord;
+
+import java.util.List;
+
+public interface OrderBatchListener {
+
+    void onMessages(List<ObjectRecord<String, Order>> messages);
+}
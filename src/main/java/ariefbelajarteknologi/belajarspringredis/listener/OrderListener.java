@@ -1,18 +1,59 @@
 package ariefbelajarteknologi.belajarspringredis.listener;
 
+import ariefbelajarteknologi.belajarspringredis.analytics.OrderAnalytics;
 import ariefbelajarteknologi.belajarspringredis.entity.Order;
+import ariefbelajarteknologi.belajarspringredis.load.EndToEndLatency;
+import ariefbelajarteknologi.belajarspringredis.load.LoadTarget;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.redis.connection.stream.ObjectRecord;
 import org.springframework.data.redis.stream.StreamListener;
 import org.springframework.stereotype.Component;
 
+import java.util.List;
+
 @Slf4j
 @Component
-public class OrderListener implements StreamListener<String, ObjectRecord<String, Order>> {
+public class OrderListener implements StreamListener<String, ObjectRecord<String, Order>>, OrderBatchListener {
+
+    @Autowired
+    private EndToEndLatency endToEndLatency;
+
+    @Autowired(required = false)
+    private OrderAnalytics orderAnalytics;
 
     @Override
     public void onMessage(ObjectRecord<String, Order> message) {
+        aggregate(List.of(message));
+        handle(message);
+    }
+
+    @Override
+    public void onMessages(List<ObjectRecord<String, Order>> messages) {
+        aggregate(messages);
+        for (ObjectRecord<String, Order> message : messages) {
+            handle(message);
+        }
+    }
+
+    private void handle(ObjectRecord<String, Order> message) {
         Order order = message.getValue();
+        if (order.getSentAt() != null) {
+            endToEndLatency.record(LoadTarget.ORDERS, order.getSentAt());
+            log.debug("Receive Order : {}", order);
+            return;
+        }
         log.info("Receive Order : {}", order);
     }
+
+    private void aggregate(List<ObjectRecord<String, Order>> messages) {
+        if (orderAnalytics == null) {
+            return;
+        }
+        try {
+            orderAnalytics.record(messages);
+        } catch (RuntimeException exception) {
+            log.warn("Failed to aggregate {} orders : {}", messages.size(), exception.getMessage());
+        }
+    }
 }
@@ -0,0 +1,80 @@
+package ariefbelajarteknologi.belajarspringredis.load;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Publish to consume latency of load generator messages, in microseconds. Listeners record from any thread,
+ * {@link Recorder} keeps that wait-free, and a run takes the histogram recorded since the previous one.
+ */
+@Component
+public class EndToEndLatency {
+
+    private static final String CUSTOMER_PREFIX = "t=";
+
+    private static final char CUSTOMER_SEPARATOR = ';';
+
+    private final Map<LoadTarget, Recorder> recorders = new EnumMap<>(LoadTarget.class);
+
+    private final Map<LoadTarget, AtomicLong> received = new EnumMap<>(LoadTarget.class);
+
+    public EndToEndLatency() {
+        for (LoadTarget target : LoadTarget.values()) {
+            recorders.put(target, new Recorder(3));
+            received.put(target, new AtomicLong());
+        }
+    }
+
+    public static long nowMicros() {
+        return ChronoUnit.MICROS.between(Instant.EPOCH, Instant.now());
+    }
+
+    public void record(LoadTarget target, long sentAt) {
+        recorders.get(target).recordValue(Math.max(0, nowMicros() - sentAt));
+        received.get(target).incrementAndGet();
+    }
+
+    /**
+     * Prefixes a customer message with its send time.
+     */
+    public static String stampCustomerMessage(long sentAt, String message) {
+        return CUSTOMER_PREFIX + sentAt + CUSTOMER_SEPARATOR + message;
+    }
+
+    /**
+     * Records the latency of a stamped customer message, returns false for messages without a send time.
+     */
+    public boolean recordCustomerMessage(String message) {
+        if (!message.startsWith(CUSTOMER_PREFIX)) {
+            return false;
+        }
+        int separator = message.indexOf(CUSTOMER_SEPARATOR);
+        if (separator < 0) {
+            return false;
+        }
+        try {
+            record(LoadTarget.CUSTOMERS, Long.parseLong(message, CUSTOMER_PREFIX.length(), separator, 10));
+            return true;
+        } catch (NumberFormatException exception) {
+            return false;
+        }
+    }
+
+    public long getReceived(LoadTarget target) {
+        return received.get(target).get();
+    }
+
+    /**
+     * Returns the latencies recorded since the last call and starts a new interval.
+     */
+    public Histogram takeInterval(LoadTarget target) {
+        return recorders.get(target).getIntervalHistogram();
+    }
+}
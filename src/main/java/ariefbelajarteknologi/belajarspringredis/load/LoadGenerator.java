@@ -0,0 +1,176 @@
+package ariefbelajarteknologi.belajarspringredis.load;
+
+import ariefbelajarteknologi.belajarspringredis.config.LoadProperties;
+import ariefbelajarteknologi.belajarspringredis.entity.Order;
+import ariefbelajarteknologi.belajarspringredis.stream.OrderStreamPublisher;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Sends orders and customer messages at a fixed rate for a fixed duration and reports publish to consume latency
+ * as recorded by the listeners through {@link EndToEndLatency}. The schedule is open loop: every message carries
+ * the time it was due to be sent rather than the time it was actually sent, so stalls in the publisher show up
+ * as latency instead of silently lowering the rate.
+ */
+@Slf4j
+public class LoadGenerator implements DisposableBean {
+
+    private final OrderStreamPublisher orderStreamPublisher;
+
+    private final StringRedisTemplate redisTemplate;
+
+    private final EndToEndLatency latency;
+
+    private final LoadProperties properties;
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    private volatile boolean stopped;
+
+    public LoadGenerator(OrderStreamPublisher orderStreamPublisher, StringRedisTemplate redisTemplate,
+                         EndToEndLatency latency, LoadProperties properties) {
+        this.orderStreamPublisher = orderStreamPublisher;
+        this.redisTemplate = redisTemplate;
+        this.latency = latency;
+        this.properties = properties;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        Thread.ofVirtual().name("load-generator").start(() -> {
+            try {
+                run().forEach(report -> log.info("Load run : {}", report));
+            } catch (RuntimeException exception) {
+                log.warn("Load run failed : {}", exception.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Runs every configured target at the same time and waits for their messages to be consumed.
+     */
+    public List<LoadReport> run() {
+        List<Run> runs = new ArrayList<>();
+        for (LoadTarget target : properties.getTargets()) {
+            runs.add(new Run(target));
+        }
+        List<Thread> senders = new ArrayList<>();
+        for (Run run : runs) {
+            senders.add(Thread.ofVirtual().name("load-" + run.target).start(run::send));
+        }
+        for (Thread sender : senders) {
+            try {
+                sender.join();
+            } catch (InterruptedException exception) {
+                Thread.currentThread().interrupt();
+                stopped = true;
+            }
+        }
+
+        long deadline = System.nanoTime() + properties.getDrainTimeout().toNanos();
+        List<LoadReport> reports = new ArrayList<>();
+        for (Run run : runs) {
+            reports.add(run.drain(deadline));
+        }
+        return reports;
+    }
+
+    @Override
+    public void destroy() {
+        stopped = true;
+        executor.close();
+    }
+
+    private class Run {
+
+        private final LoadTarget target;
+
+        private final String payload;
+
+        private final long receivedBefore;
+
+        private final AtomicLong failed = new AtomicLong();
+
+        private long sent;
+
+        private long start;
+
+        Run(LoadTarget target) {
+            this.target = target;
+            this.payload = "x".repeat(Math.max(0, properties.getPayloadSize() - 36));
+            // drop latencies recorded before this run
+            latency.takeInterval(target);
+            this.receivedBefore = latency.getReceived(target);
+        }
+
+        void send() {
+            long interval = 1_000_000_000L / properties.getRate();
+            long total = properties.getDuration().toNanos() / interval;
+            start = System.nanoTime();
+            long startMicros = EndToEndLatency.nowMicros();
+            for (long i = 0; i < total && !stopped; i++) {
+                long due = start + i * interval;
+                long wait = due - System.nanoTime();
+                if (wait > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+                long sentAt = startMicros + i * interval / 1_000;
+                try {
+                    if (target == LoadTarget.ORDERS) {
+                        sendOrder(sentAt);
+                    } else {
+                        sendCustomer(sentAt);
+                    }
+                } catch (RuntimeException exception) {
+                    failed.incrementAndGet();
+                }
+                sent++;
+            }
+        }
+
+        LoadReport drain(long deadline) {
+            while (received() < sent - failed.get() && System.nanoTime() < deadline) {
+                LockSupport.parkNanos(1_000_000);
+            }
+            Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+            return LoadReport.of(target, properties.getRate(), sent, received(), failed.get(), elapsed,
+                    latency.takeInterval(target));
+        }
+
+        private long received() {
+            return latency.getReceived(target) - receivedBefore;
+        }
+
+        private void sendOrder(long sentAt) {
+            var order = new Order(UUID.randomUUID() + payload, 10_000L, sentAt);
+            orderStreamPublisher.publish(order).whenComplete((id, exception) -> {
+                if (exception != null) {
+                    failed.incrementAndGet();
+                }
+            });
+        }
+
+        private void sendCustomer(long sentAt) {
+            String message = EndToEndLatency.stampCustomerMessage(sentAt, UUID.randomUUID() + payload);
+            executor.execute(() -> {
+                try {
+                    redisTemplate.convertAndSend("customers", message);
+                } catch (RuntimeException exception) {
+                    failed.incrementAndGet();
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package ariefbelajarteknologi.belajarspringredis.load;
+
+import org.HdrHistogram.Histogram;
+
+import java.time.Duration;
+
+/**
+ * Outcome of one load run for one target. Throughput is messages consumed per second from the start of the run
+ * until the last message arrived, latencies are publish to consume in microseconds.
+ */
+public record LoadReport(LoadTarget target, int targetRate, long sent, long received, long failed, Duration elapsed,
+                         double throughput, long p50, long p99, long p999, long max) {
+
+    static LoadReport of(LoadTarget target, int targetRate, long sent, long received, long failed, Duration elapsed,
+                         Histogram latency) {
+        double seconds = elapsed.toNanos() / 1_000_000_000.0;
+        return new LoadReport(target, targetRate, sent, received, failed, elapsed, received / seconds,
+                latency.getValueAtPercentile(50), latency.getValueAtPercentile(99),
+                latency.getValueAtPercentile(99.9), latency.getMaxValue());
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s target %d/s sent %d received %d failed %d in %d ms, %.0f/s, " +
+                        "latency p50 %d us p99 %d us p999 %d us max %d us",
+                target, targetRate, sent, received, failed, elapsed.toMillis(), throughput, p50, p99, p999, max);
+    }
+}
@@ -0,0 +1,5 @@
+package ariefbelajarteknologi.belajarspringredis.load;
+
+public enum LoadTarget {
+    ORDERS, CUSTOMERS
+}
@@ -1,6 +1,9 @@
 package ariefbelajarteknologi.belajarspringredis.publisher;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
@@ -9,13 +12,24 @@ import java.util.UUID;
 import java.util.concurrent.TimeUnit;
 
 @Component
+@ConditionalOnProperty(prefix = "app.load", name = "enabled", havingValue = "false", matchIfMissing = true)
 public class CustomerPublisher {
 
     @Autowired
     private StringRedisTemplate redisTemplate;
 
+    private final Counter published;
+
+    public CustomerPublisher(MeterRegistry registry) {
+        this.published = Counter.builder("customers.messages")
+                .description("Messages on the customers channel")
+                .tag("direction", "published")
+                .register(registry);
+    }
+
     @Scheduled(fixedRate = 10, timeUnit = TimeUnit.SECONDS)
     public void publish() {
         redisTemplate.convertAndSend("customers", "Pelanggan " + UUID.randomUUID());
+        published.increment();
     }
 }
@@ -1,25 +1,40 @@
 package ariefbelajarteknologi.belajarspringredis.publisher;
 
 import ariefbelajarteknologi.belajarspringredis.entity.Order;
+import ariefbelajarteknologi.belajarspringredis.ratelimit.RateLimiter;
+import ariefbelajarteknologi.belajarspringredis.stream.OrderStreamPublisher;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.redis.connection.stream.ObjectRecord;
-import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
 import java.util.UUID;
 import java.util.concurrent.TimeUnit;
 
+@Slf4j
 @Component
+@ConditionalOnProperty(prefix = "app.load", name = "enabled", havingValue = "false", matchIfMissing = true)
 public class OrderPublisher {
 
     @Autowired
-    private StringRedisTemplate redisTemplate;
+    private OrderStreamPublisher orderStreamPublisher;
+
+    // only present with app.rate-limit.enabled, asked directly because a denial thrown from @RateLimited would
+    // surface as a scheduler error on every throttled tick
+    @Autowired(required = false)
+    private RateLimiter rateLimiter;
 
     @Scheduled(fixedRate = 10,timeUnit = TimeUnit.SECONDS)
     public void publish(){
+        if (rateLimiter != null && !rateLimiter.tryAcquire("orders", "global")) {
+            return;
+        }
         Order order = new Order(UUID.randomUUID().toString(),10_000L);
-        ObjectRecord<String, Order> record = ObjectRecord.create("orders", order);
-        redisTemplate.opsForStream().add(record);
+        orderStreamPublisher.publish(order).whenComplete((id, exception) -> {
+            if (exception != null) {
+                log.warn("Failed to publish order {} : {}", order.getId(), exception.getMessage());
+            }
+        });
     }
 }
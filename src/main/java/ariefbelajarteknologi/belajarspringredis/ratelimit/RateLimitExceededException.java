@@ -0,0 +1,12 @@
+package ariefbelajarteknologi.belajarspringredis.ratelimit;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.TOO_MANY_REQUESTS)
+public class RateLimitExceededException extends RuntimeException {
+
+    public RateLimitExceededException(String limit, String client) {
+        super("Rate limit " + limit + " exceeded for " + client);
+    }
+}
@@ -0,0 +1,79 @@
+package ariefbelajarteknologi.belajarspringredis.ratelimit;
+
+import ariefbelajarteknologi.belajarspringredis.config.RateLimitProperties;
+import jakarta.servlet.http.HttpServletRequest;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.context.expression.MethodBasedEvaluationContext;
+import org.springframework.core.DefaultParameterNameDiscoverer;
+import org.springframework.core.ParameterNameDiscoverer;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.expression.Expression;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Applies {@link RateLimited} to the methods of proxied beans before any other advice, so a denied call never
+ * reaches the cache or the target.
+ */
+public class RateLimitInterceptor implements MethodInterceptor {
+
+    private static final String GLOBAL_CLIENT = "global";
+
+    private final RateLimiter rateLimiter;
+
+    private final RateLimitProperties properties;
+
+    private final SpelExpressionParser parser = new SpelExpressionParser();
+
+    private final ParameterNameDiscoverer parameterNameDiscoverer = new DefaultParameterNameDiscoverer();
+
+    private final Map<String, Expression> expressions = new ConcurrentHashMap<>();
+
+    public RateLimitInterceptor(RateLimiter rateLimiter, RateLimitProperties properties) {
+        this.rateLimiter = rateLimiter;
+        this.properties = properties;
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        Method method = invocation.getMethod();
+        if (invocation.getThis() != null) {
+            method = AopUtils.getMostSpecificMethod(method, invocation.getThis().getClass());
+        }
+        RateLimited rateLimited = AnnotatedElementUtils.findMergedAnnotation(method, RateLimited.class);
+        if (rateLimited == null) {
+            return invocation.proceed();
+        }
+
+        String client = client(rateLimited, method, invocation);
+        if (!rateLimiter.tryAcquire(rateLimited.value(), client)) {
+            throw new RateLimitExceededException(rateLimited.value(), client);
+        }
+        return invocation.proceed();
+    }
+
+    private String client(RateLimited rateLimited, Method method, MethodInvocation invocation) {
+        if (!rateLimited.client().isEmpty()) {
+            var context = new MethodBasedEvaluationContext(invocation.getThis(), method, invocation.getArguments(),
+                    parameterNameDiscoverer);
+            Object client = expressions.computeIfAbsent(rateLimited.client(), parser::parseExpression).getValue(context);
+            return client == null ? GLOBAL_CLIENT : client.toString();
+        }
+
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes instanceof ServletRequestAttributes servletAttributes) {
+            HttpServletRequest request = servletAttributes.getRequest();
+            String client = request.getHeader(properties.getClientHeader());
+            return client != null && !client.isBlank() ? client : request.getRemoteAddr();
+        }
+        return GLOBAL_CLIENT;
+    }
+}
@@ -0,0 +1,27 @@
+package ariefbelajarteknologi.belajarspringredis.ratelimit;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Takes one permit of the named limit per call, calls without a permit fail with {@link RateLimitExceededException}.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface RateLimited {
+
+    /**
+     * Name of the limit in {@code app.rate-limit.limits}.
+     */
+    String value();
+
+    /**
+     * SpEL expression over the method arguments naming the client, by default the client of the current
+     * HTTP request, or {@code global} outside of one.
+     */
+    String client() default "";
+}
@@ -0,0 +1,182 @@
+package ariefbelajarteknologi.belajarspringredis.ratelimit;
+
+import ariefbelajarteknologi.belajarspringredis.config.RateLimitProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token bucket limiter shared by every node through {@code scripts/token_bucket.lua}. With a prefetch above one
+ * a node takes a batch of permits per script call and hands them out from memory until they run out or expire,
+ * so most calls cost no round trip. A client found without tokens is denied locally until one token has been
+ * refilled. Only clients holding prefetched permits or a recent denial are kept in memory.
+ */
+public class RateLimiter {
+
+    private static final RedisScript<Long> TOKEN_BUCKET =
+            RedisScript.of(new ClassPathResource("scripts/token_bucket.lua"), Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+
+    private final Map<String, Limit> limits = new ConcurrentHashMap<>();
+
+    public RateLimiter(StringRedisTemplate redisTemplate, RateLimitProperties properties, MeterRegistry registry) {
+        this.redisTemplate = redisTemplate;
+        properties.getLimits().forEach((name, limit) -> limits.put(name, new Limit(name, limit, registry)));
+    }
+
+    /**
+     * Takes one permit, returns true for limits that are not configured.
+     */
+    public boolean tryAcquire(String limit, String client) {
+        Limit bucket = limits.get(limit);
+        return bucket == null || bucket.tryAcquire(client);
+    }
+
+    private class Limit {
+
+        private final String name;
+
+        private final RateLimitProperties.Limit properties;
+
+        private final Map<String, Permits> prefetched = new ConcurrentHashMap<>();
+
+        private final AtomicLong nextSweep = new AtomicLong(System.nanoTime());
+
+        private final Counter granted;
+
+        private final Counter denied;
+
+        private final Counter redisCalls;
+
+        Limit(String name, RateLimitProperties.Limit properties, MeterRegistry registry) {
+            this.name = name;
+            this.properties = properties;
+            this.granted = Counter.builder("ratelimit.permits")
+                    .tag("limit", name)
+                    .tag("result", "granted")
+                    .register(registry);
+            this.denied = Counter.builder("ratelimit.permits")
+                    .tag("limit", name)
+                    .tag("result", "denied")
+                    .register(registry);
+            this.redisCalls = Counter.builder("ratelimit.redis.calls")
+                    .description("Token bucket script calls, the rest of the permits came from prefetched batches")
+                    .tag("limit", name)
+                    .register(registry);
+        }
+
+        boolean tryAcquire(String client) {
+            Permits permits = prefetched.get(client);
+            if (permits != null) {
+                if (permits.take()) {
+                    granted.increment();
+                    return true;
+                }
+                if (permits.isEmptyBucket()) {
+                    denied.increment();
+                    return false;
+                }
+            }
+
+            long taken = fetch(client);
+            long now = System.nanoTime();
+            sweep(now);
+            if (taken <= 0) {
+                // nothing to gain from asking again before the bucket has refilled one token
+                prefetched.merge(client, new Permits(0, now + (long) (1_000_000_000L / properties.getRefillPerSecond())),
+                        Permits::merge);
+                denied.increment();
+                return false;
+            }
+            if (taken > 1) {
+                prefetched.merge(client, new Permits(taken - 1, now + properties.getPrefetchTimeToLive().toNanos()),
+                        Permits::merge);
+            } else if (permits != null) {
+                prefetched.remove(client, permits);
+            }
+            granted.increment();
+            return true;
+        }
+
+        /**
+         * Drops expired entries at most once per prefetch time to live, so clients that stop calling do not stay
+         * in memory.
+         */
+        private void sweep(long now) {
+            long next = nextSweep.get();
+            if (now - next < 0 || !nextSweep.compareAndSet(next, now + properties.getPrefetchTimeToLive().toNanos())) {
+                return;
+            }
+            prefetched.values().removeIf(Permits::isExpired);
+        }
+
+        private long fetch(String client) {
+            redisCalls.increment();
+            Long taken = redisTemplate.execute(TOKEN_BUCKET, List.of("ratelimit:" + name + ":" + client),
+                    String.valueOf(properties.getCapacity()),
+                    String.valueOf(properties.getRefillPerSecond()),
+                    String.valueOf(Math.max(1, properties.getPrefetch())));
+            return taken == null ? 0 : taken;
+        }
+    }
+
+    /**
+     * Prefetched permits of one client, or with none at all a shared bucket known to be empty until it expires.
+     */
+    private static class Permits {
+
+        private final long expiresAt;
+
+        private final boolean emptyBucket;
+
+        private long remaining;
+
+        Permits(long remaining, long expiresAt) {
+            this.remaining = remaining;
+            this.expiresAt = expiresAt;
+            this.emptyBucket = remaining == 0;
+        }
+
+        synchronized boolean take() {
+            if (remaining <= 0 || isExpired()) {
+                return false;
+            }
+            remaining--;
+            return true;
+        }
+
+        /**
+         * Combines a batch fetched concurrently for the same client with the one already held, so neither loses
+         * permits taken from the shared bucket. A denial never replaces permits that are still usable.
+         */
+        static Permits merge(Permits held, Permits fetched) {
+            long left = held.drain();
+            if (fetched.emptyBucket) {
+                return left > 0 ? new Permits(left, held.expiresAt) : fetched;
+            }
+            return new Permits(fetched.remaining + left, fetched.expiresAt);
+        }
+
+        private synchronized long drain() {
+            long left = isExpired() ? 0 : remaining;
+            remaining = 0;
+            return left;
+        }
+
+        boolean isEmptyBucket() {
+            return emptyBucket && !isExpired();
+        }
+
+        private boolean isExpired() {
+            return System.nanoTime() - expiresAt > 0;
+        }
+    }
+}
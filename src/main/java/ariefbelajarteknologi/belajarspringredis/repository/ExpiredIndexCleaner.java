@@ -0,0 +1,118 @@
+package ariefbelajarteknologi.belajarspringredis.repository;
+
+import ariefbelajarteknologi.belajarspringredis.config.IndexCleanupProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.mapping.RedisMappingContext;
+import org.springframework.data.redis.core.mapping.RedisPersistentEntity;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Removes ids whose hash has expired from the keyspace sets and score indexes of {@link NativeExpiry} entities.
+ * The sets are walked with SSCAN and each batch is checked and cleaned by one script call, so a sweep never loads
+ * a whole set and never drops an id whose hash is written again while it runs.
+ */
+@Slf4j
+public class ExpiredIndexCleaner {
+
+    private static final RedisScript<Long> FORGET_EXPIRED =
+            RedisScript.of(new ClassPathResource("scripts/forget_expired.lua"), Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+
+    private final RedisMappingContext mappingContext;
+
+    private final KeyspaceHashWriter writer;
+
+    private final IndexCleanupProperties properties;
+
+    private final Counter cleaned;
+
+    public ExpiredIndexCleaner(StringRedisTemplate redisTemplate, RedisMappingContext mappingContext,
+                               KeyspaceHashWriter writer, IndexCleanupProperties properties, MeterRegistry registry) {
+        this.redisTemplate = redisTemplate;
+        this.mappingContext = mappingContext;
+        this.writer = writer;
+        this.properties = properties;
+        this.cleaned = Counter.builder("repository.index.cleaned")
+                .description("Expired ids removed from keyspace sets")
+                .register(registry);
+    }
+
+    @Scheduled(fixedDelayString = "${app.repository.index-cleanup.interval:PT1M}")
+    public void sweepAll() {
+        for (RedisPersistentEntity<?> entity : mappingContext.getPersistentEntities()) {
+            if (entity.isAnnotationPresent(NativeExpiry.class) && entity.getKeySpace() != null) {
+                try {
+                    sweep(entity.getType());
+                } catch (Exception exception) {
+                    log.warn("Failed to clean keyspace {} : {}", entity.getKeySpace(), exception.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * Sweeps the keyspace set of one entity type and returns the number of expired ids removed.
+     */
+    public long sweep(Class<?> type) {
+        String keyspace = writer.keyspace(type);
+        long removed = 0;
+        List<String> ids = new ArrayList<>(properties.getBatchSize());
+        ScanOptions options = ScanOptions.scanOptions().count(properties.getBatchSize()).build();
+        try (Cursor<String> cursor = redisTemplate.opsForSet().scan(keyspace, options)) {
+            while (cursor.hasNext()) {
+                ids.add(cursor.next());
+                if (ids.size() == properties.getBatchSize()) {
+                    removed += removeExpired(type, keyspace, ids);
+                    ids.clear();
+                }
+            }
+        }
+        removed += removeExpired(type, keyspace, ids);
+        if (removed > 0) {
+            log.info("Removed {} expired ids from {}", removed, keyspace);
+        }
+        return removed;
+    }
+
+    /**
+     * Lazy path for a lookup that found no hash, drops the ids from the keyspace set and the score indexes unless
+     * the hash has been written again in the meantime.
+     */
+    public long forget(Class<?> type, List<String> ids) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        return removeExpired(type, writer.keyspace(type), ids);
+    }
+
+    private long removeExpired(Class<?> type, String keyspace, List<String> ids) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        List<String> indexKeys = writer.scoreIndexKeys(type);
+        List<String> keys = new ArrayList<>(1 + indexKeys.size() + ids.size());
+        keys.add(keyspace);
+        keys.addAll(indexKeys);
+        Object[] args = new Object[1 + ids.size()];
+        args[0] = String.valueOf(indexKeys.size());
+        for (int i = 0; i < ids.size(); i++) {
+            keys.add(keyspace + ":" + ids.get(i));
+            args[i + 1] = ids.get(i);
+        }
+        Long removed = redisTemplate.execute(FORGET_EXPIRED, keys, args);
+        long count = removed == null ? 0 : removed;
+        cleaned.increment(count);
+        return count;
+    }
+}
@@ -0,0 +1,72 @@
+package ariefbelajarteknologi.belajarspringredis.repository;
+
+import io.lettuce.core.LettuceFutures;
+import io.lettuce.core.RedisFuture;
+import io.lettuce.core.api.async.RedisHashAsyncCommands;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.convert.Bucket;
+import org.springframework.data.redis.core.convert.RedisConverter;
+import org.springframework.data.redis.core.convert.RedisData;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Loads entities stored in the {@code RedisKeyValueAdapter} layout by id, sending one HGETALL per id as async
+ * commands on the shared connection and awaiting them together.
+ */
+public class KeyspaceHashReader {
+
+    private static final long COMMAND_TIMEOUT_SECONDS = 5;
+
+    private final StringRedisTemplate redisTemplate;
+
+    private final RedisConverter converter;
+
+    public KeyspaceHashReader(StringRedisTemplate redisTemplate, RedisConverter converter) {
+        this.redisTemplate = redisTemplate;
+        this.converter = converter;
+    }
+
+    /**
+     * Returns the entities in the order of {@code ids}. Ids without a hash are passed to {@code onMissing} and skipped.
+     */
+    public <T> List<T> read(Class<T> type, List<String> ids, Consumer<String> onMissing) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        String keyspace = converter.getMappingContext().getRequiredPersistentEntity(type).getKeySpace();
+        List<Map<byte[], byte[]>> hashes = redisTemplate.execute((RedisCallback<List<Map<byte[], byte[]>>>) connection -> {
+            @SuppressWarnings("unchecked")
+            var commands = (RedisHashAsyncCommands<byte[], byte[]>) connection.getNativeConnection();
+            List<RedisFuture<Map<byte[], byte[]>>> futures = new ArrayList<>(ids.size());
+            for (String id : ids) {
+                futures.add(commands.hgetall((keyspace + ":" + id).getBytes(StandardCharsets.UTF_8)));
+            }
+            LettuceFutures.awaitAll(COMMAND_TIMEOUT_SECONDS, TimeUnit.SECONDS, futures.toArray(RedisFuture[]::new));
+            List<Map<byte[], byte[]>> results = new ArrayList<>(futures.size());
+            for (RedisFuture<Map<byte[], byte[]>> future : futures) {
+                results.add(future.toCompletableFuture().join());
+            }
+            return results;
+        });
+        List<T> entities = new ArrayList<>(ids.size());
+        for (int i = 0; i < ids.size(); i++) {
+            Map<byte[], byte[]> hash = hashes.get(i);
+            if (hash == null || hash.isEmpty()) {
+                onMissing.accept(ids.get(i));
+                continue;
+            }
+            var data = new RedisData(Bucket.newBucketFromRawMap(hash));
+            data.setId(ids.get(i));
+            data.setKeyspace(keyspace);
+            entities.add(converter.read(type, data));
+        }
+        return entities;
+    }
+}
@@ -0,0 +1,125 @@
+package ariefbelajarteknologi.belajarspringredis.repository;
+
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.core.convert.RedisConverter;
+import org.springframework.data.redis.core.convert.RedisData;
+import org.springframework.data.redis.core.mapping.RedisMappingContext;
+import org.springframework.data.redis.core.mapping.RedisPersistentEntity;
+import org.springframework.data.redis.core.mapping.RedisPersistentProperty;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Writes an entity in the {@code RedisKeyValueAdapter} layout: the hash at {@code keyspace:id}, the id in the
+ * keyspace set and an EXPIRE for a positive time to live. {@link ScoreIndexed} properties are written to their
+ * sorted sets. Shadow copies and {@code @Indexed} indexes are not written.
+ */
+public class KeyspaceHashWriter {
+
+    private static final String PHANTOM_SUFFIX = ":phantom";
+
+    private final RedisConverter converter;
+
+    private final RedisMappingContext mappingContext;
+
+    private final Map<Class<?>, List<RedisPersistentProperty>> scoreProperties = new ConcurrentHashMap<>();
+
+    public KeyspaceHashWriter(RedisConverter converter) {
+        this.converter = converter;
+        this.mappingContext = converter.getMappingContext();
+    }
+
+    public void write(RedisConnection connection, Object entity) {
+        var data = new RedisData();
+        converter.write(entity, data);
+        byte[] id = toBytes(data.getId());
+        byte[] key = toBytes(data.getKeyspace() + ":" + data.getId());
+        connection.keyCommands().del(key);
+        connection.hashCommands().hMSet(key, data.getBucket().rawMap());
+        connection.setCommands().sAdd(toBytes(data.getKeyspace()), id);
+        Long timeToLive = data.getTimeToLive();
+        if (timeToLive != null && timeToLive > 0) {
+            connection.keyCommands().expire(key, timeToLive);
+        }
+        writeIndexes(connection, entity, data.getKeyspace(), id, "");
+    }
+
+    /**
+     * Writes only the {@link ScoreIndexed} sorted sets of the entity, to keys ending with {@code keySuffix}.
+     */
+    public void writeIndexes(RedisConnection connection, Object entity, String keySuffix) {
+        RedisPersistentEntity<?> persistentEntity = mappingContext.getRequiredPersistentEntity(entity.getClass());
+        Object id = persistentEntity.getIdentifierAccessor(entity).getRequiredIdentifier();
+        writeIndexes(connection, entity, persistentEntity.getKeySpace(), toBytes(id.toString()), keySuffix);
+    }
+
+    /**
+     * Deletes the hash, its shadow copy and every index membership of the entity.
+     */
+    public void delete(RedisConnection connection, Class<?> type, String id) {
+        String keyspace = keyspace(type);
+        connection.keyCommands().del(toBytes(keyspace + ":" + id), toBytes(keyspace + ":" + id + PHANTOM_SUFFIX));
+        unindex(connection, type, List.of(id));
+    }
+
+    /**
+     * Removes the ids from the keyspace set and the score indexes, the first pipeline result is the SREM count.
+     */
+    public void unindex(RedisConnection connection, Class<?> type, List<String> ids) {
+        byte[][] members = ids.stream().map(KeyspaceHashWriter::toBytes).toArray(byte[][]::new);
+        connection.setCommands().sRem(toBytes(keyspace(type)), members);
+        for (String indexKey : scoreIndexKeys(type)) {
+            connection.zSetCommands().zRem(toBytes(indexKey), members);
+        }
+    }
+
+    public String keyspace(Class<?> type) {
+        return mappingContext.getRequiredPersistentEntity(type).getKeySpace();
+    }
+
+    public String scoreIndexKey(Class<?> type, String property) {
+        return keyspace(type) + ":index:" + property;
+    }
+
+    public List<String> scoreIndexKeys(Class<?> type) {
+        return scoreProperties(type).stream()
+                .map(property -> scoreIndexKey(type, property.getName()))
+                .toList();
+    }
+
+    private void writeIndexes(RedisConnection connection, Object entity, String keyspace, byte[] id, String keySuffix) {
+        List<RedisPersistentProperty> properties = scoreProperties(entity.getClass());
+        if (properties.isEmpty()) {
+            return;
+        }
+        var accessor = mappingContext.getRequiredPersistentEntity(entity.getClass()).getPropertyAccessor(entity);
+        for (RedisPersistentProperty property : properties) {
+            byte[] indexKey = toBytes(keyspace + ":index:" + property.getName() + keySuffix);
+            if (accessor.getProperty(property) instanceof Number score) {
+                connection.zSetCommands().zAdd(indexKey, score.doubleValue(), id);
+            } else {
+                connection.zSetCommands().zRem(indexKey, id);
+            }
+        }
+    }
+
+    private List<RedisPersistentProperty> scoreProperties(Class<?> type) {
+        return scoreProperties.computeIfAbsent(type, key -> {
+            List<RedisPersistentProperty> properties = new ArrayList<>();
+            mappingContext.getRequiredPersistentEntity(key).doWithProperties((RedisPersistentProperty property) -> {
+                if (property.isAnnotationPresent(ScoreIndexed.class)) {
+                    properties.add(property);
+                }
+            });
+            return List.copyOf(properties);
+        });
+    }
+
+    private static byte[] toBytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
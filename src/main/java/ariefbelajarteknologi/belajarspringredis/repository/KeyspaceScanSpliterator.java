@@ -0,0 +1,87 @@
+package ariefbelajarteknologi.belajarspringredis.repository;
+
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Reads the entities of a keyspace by walking its set with SSCAN and loading each page of ids with one
+ * {@link KeyspaceHashReader} batch. At most one page is held in memory. Ids whose hash is gone are reported
+ * to {@code onMissing} and skipped. SSCAN may return an id more than once when the set is resized during the walk,
+ * so the spliterator is not {@link Spliterator#DISTINCT}; callers that need unique entities apply
+ * {@code distinct()} themselves.
+ */
+public class KeyspaceScanSpliterator<T> extends Spliterators.AbstractSpliterator<T> {
+
+    private final KeyspaceHashReader reader;
+
+    private final Class<T> type;
+
+    private final int chunkSize;
+
+    private final Consumer<String> onMissing;
+
+    private final Cursor<String> cursor;
+
+    private final Deque<T> chunk;
+
+    public KeyspaceScanSpliterator(StringRedisTemplate redisTemplate, KeyspaceHashReader reader, Class<T> type,
+                                   String keyspace, int chunkSize, Consumer<String> onMissing) {
+        super(Long.MAX_VALUE, Spliterator.NONNULL);
+        this.reader = reader;
+        this.type = type;
+        this.chunkSize = chunkSize;
+        this.onMissing = onMissing;
+        this.cursor = redisTemplate.opsForSet().scan(keyspace, ScanOptions.scanOptions().count(chunkSize).build());
+        this.chunk = new ArrayDeque<>(chunkSize);
+    }
+
+    /**
+     * Returns a sequential stream over the keyspace that closes the SSCAN cursor when the stream is closed.
+     */
+    public static <T> Stream<T> stream(StringRedisTemplate redisTemplate, KeyspaceHashReader reader, Class<T> type,
+                                       String keyspace, int chunkSize, Consumer<String> onMissing) {
+        var spliterator = new KeyspaceScanSpliterator<>(redisTemplate, reader, type, keyspace, chunkSize, onMissing);
+        return StreamSupport.stream(spliterator, false).onClose(spliterator::close);
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super T> action) {
+        while (chunk.isEmpty()) {
+            if (!fetch()) {
+                return false;
+            }
+        }
+        action.accept(chunk.poll());
+        return true;
+    }
+
+    public void close() {
+        if (!cursor.isClosed()) {
+            cursor.close();
+        }
+    }
+
+    private boolean fetch() {
+        List<String> ids = new ArrayList<>(chunkSize);
+        while (ids.size() < chunkSize && cursor.hasNext()) {
+            ids.add(cursor.next());
+        }
+        if (ids.isEmpty()) {
+            close();
+            return false;
+        }
+        chunk.addAll(reader.read(type, ids, onMissing));
+        return true;
+    }
+}
@@ -0,0 +1,18 @@
+package ariefbelajarteknologi.belajarspringredis.repository;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Expires the entity with a plain EXPIRE on its hash only. No {@code :phantom} copy is written and no
+ * keyspace notification is needed, the ids of expired entities are removed from the keyspace set lazily
+ * on lookup and in batches by {@link ExpiredIndexCleaner}.
+ */
+@Documented
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface NativeExpiry {
+}
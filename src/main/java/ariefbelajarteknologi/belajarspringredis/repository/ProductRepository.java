@@ -4,6 +4,20 @@ import ariefbelajarteknologi.belajarspringredis.entity.Product;
 import org.springframework.data.keyvalue.repository.KeyValueRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.Optional;
+
 @Repository
-public interface ProductRepository extends KeyValueRepository<Product, String> {
+public interface ProductRepository extends KeyValueRepository<Product, String>, ProductWriteBehindRepository {
+
+    @Override
+    <S extends Product> S save(S product);
+
+    @Override
+    Optional<Product> findById(String id);
+
+    @Override
+    void deleteById(String id);
+
+    @Override
+    void delete(Product product);
 }
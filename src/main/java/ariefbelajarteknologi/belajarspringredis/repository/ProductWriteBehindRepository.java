@@ -0,0 +1,43 @@
+package ariefbelajarteknologi.belajarspringredis.repository;
+
+import ariefbelajarteknologi.belajarspringredis.entity.Product;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Overrides the single entity operations of {@link ProductRepository} so saves can go through the
+ * {@link ProductWriteBuffer} when write-behind is enabled, {@link NativeExpiry} applies to direct saves and
+ * {@link ScoreIndexed} indexes are kept in step with the hash.
+ */
+public interface ProductWriteBehindRepository {
+
+    <S extends Product> S save(S product);
+
+    Optional<Product> findById(String id);
+
+    /**
+     * Pages through products with a price in {@code [minPrice, maxPrice]} using the {@link ScoreIndexed} price
+     * index, ordered by price. Pending write-behind saves are not included.
+     */
+    Page<Product> findByPriceBetween(long minPrice, long maxPrice, Pageable pageable);
+
+    void deleteById(String id);
+
+    void delete(Product product);
+
+    /**
+     * Streams every product by walking the keyspace set with SSCAN and fetching the hashes in pipelined
+     * chunks of {@code chunkSize}, so memory stays bounded by one chunk. Pending write-behind saves are not
+     * included, and a product may appear twice when the set is resized while it is walked. The stream holds a
+     * connection until it is exhausted or closed.
+     */
+    Stream<Product> streamAll(int chunkSize);
+
+    /**
+     * Writes every buffered save now, does nothing when write-behind is disabled.
+     */
+    void flushWrites();
+}
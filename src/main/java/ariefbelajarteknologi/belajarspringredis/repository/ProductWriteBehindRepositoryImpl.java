@@ -0,0 +1,141 @@
+package ariefbelajarteknologi.belajarspringredis.repository;
+
+import ariefbelajarteknologi.belajarspringredis.entity.Product;
+import ariefbelajarteknologi.belajarspringredis.shard.RedisWorkloads;
+import ariefbelajarteknologi.belajarspringredis.shard.Workload;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisKeyValueTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * {@link Product} is {@link NativeExpiry}, so every direct write and delete is the hash, the keyspace set and the
+ * score indexes in one MULTI, without the keyvalue adapter's phantom copy.
+ */
+public class ProductWriteBehindRepositoryImpl implements ProductWriteBehindRepository {
+
+    @Autowired
+    private RedisKeyValueTemplate keyValueTemplate;
+
+    @Autowired
+    private RedisWorkloads redisWorkloads;
+
+    @Autowired
+    private KeyspaceHashReader keyspaceHashReader;
+
+    @Autowired
+    private KeyspaceHashWriter keyspaceHashWriter;
+
+    @Autowired
+    private ObjectProvider<ProductWriteBuffer> writeBuffer;
+
+    @Autowired
+    private ObjectProvider<ExpiredIndexCleaner> indexCleaner;
+
+    @Override
+    public <S extends Product> S save(S product) {
+        ProductWriteBuffer buffer = writeBuffer.getIfAvailable();
+        if (buffer != null && buffer.save(product)) {
+            return product;
+        }
+        if (product.getId() == null) {
+            // the id the keyvalue template would generate, so a new product takes the same MULTI as an update
+            product.setId(UUID.randomUUID().toString());
+        }
+        transactional(connection -> keyspaceHashWriter.write(connection, product));
+        return product;
+    }
+
+    @Override
+    public Optional<Product> findById(String id) {
+        ProductWriteBuffer buffer = writeBuffer.getIfAvailable();
+        if (buffer != null) {
+            Product pending = buffer.get(id);
+            if (pending != null) {
+                return Optional.of(pending);
+            }
+        }
+        Optional<Product> product = keyValueTemplate.findById(id, Product.class);
+        if (product.isEmpty()) {
+            forget(List.of(id));
+        }
+        return product;
+    }
+
+    @Override
+    public Page<Product> findByPriceBetween(long minPrice, long maxPrice, Pageable pageable) {
+        String indexKey = keyspaceHashWriter.scoreIndexKey(Product.class, "price");
+        Long total = redisTemplate().opsForZSet().count(indexKey, minPrice, maxPrice);
+        Set<String> ids = pageable.isPaged()
+                ? redisTemplate().opsForZSet().rangeByScore(indexKey, minPrice, maxPrice, pageable.getOffset(), pageable.getPageSize())
+                : redisTemplate().opsForZSet().rangeByScore(indexKey, minPrice, maxPrice);
+        if (ids == null || ids.isEmpty()) {
+            return new PageImpl<>(List.of(), pageable, total == null ? 0 : total);
+        }
+        List<String> missing = new ArrayList<>();
+        List<Product> products = keyspaceHashReader.read(Product.class, new ArrayList<>(ids), missing::add);
+        forget(missing);
+        return new PageImpl<>(products, pageable, total == null ? products.size() : total - missing.size());
+    }
+
+    @Override
+    public Stream<Product> streamAll(int chunkSize) {
+        return KeyspaceScanSpliterator.stream(redisTemplate(), keyspaceHashReader, Product.class,
+                keyspaceHashWriter.keyspace(Product.class), chunkSize, id -> forget(List.of(id)));
+    }
+
+    @Override
+    public void deleteById(String id) {
+        ProductWriteBuffer buffer = writeBuffer.getIfAvailable();
+        if (buffer != null) {
+            buffer.discard(id);
+        }
+        transactional(connection -> keyspaceHashWriter.delete(connection, Product.class, id));
+    }
+
+    @Override
+    public void delete(Product product) {
+        deleteById(product.getId());
+    }
+
+    @Override
+    public void flushWrites() {
+        ProductWriteBuffer buffer = writeBuffer.getIfAvailable();
+        if (buffer != null) {
+            buffer.flush();
+        }
+    }
+
+    private void transactional(Consumer<RedisConnection> commands) {
+        redisTemplate().executePipelined((RedisCallback<Object>) connection -> {
+            connection.multi();
+            commands.accept(connection);
+            connection.exec();
+            return null;
+        });
+    }
+
+    private void forget(List<String> ids) {
+        ExpiredIndexCleaner cleaner = indexCleaner.getIfAvailable();
+        if (cleaner != null && !ids.isEmpty()) {
+            cleaner.forget(Product.class, ids);
+        }
+    }
+
+    private StringRedisTemplate redisTemplate() {
+        return redisWorkloads.get(Workload.REPOSITORY).shardFor(Product.class).redisTemplate();
+    }
+}
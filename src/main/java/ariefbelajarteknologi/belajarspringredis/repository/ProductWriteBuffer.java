@@ -0,0 +1,174 @@
+package ariefbelajarteknologi.belajarspringredis.repository;
+
+import ariefbelajarteknologi.belajarspringredis.config.ProductWriteBehindProperties;
+import ariefbelajarteknologi.belajarspringredis.entity.Product;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Write-behind buffer for {@link ProductRepository} saves. Saves are kept per id, so repeated writes to
+ * the same product collapse into one, and are written in pipelined batches using the same hash, keyspace
+ * set and expiry layout as {@code RedisKeyValueAdapter}. Pending products are served to reads on this node
+ * and flushed when the application stops.
+ */
+@Slf4j
+public class ProductWriteBuffer implements SmartLifecycle {
+
+    private final StringRedisTemplate redisTemplate;
+
+    private final KeyspaceHashWriter writer;
+
+    private final ProductWriteBehindProperties properties;
+
+    private final Map<String, Product> pending = new ConcurrentHashMap<>();
+
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    private final Semaphore wakeUp = new Semaphore(0);
+
+    private Thread flusher;
+
+    private volatile boolean running;
+
+    public ProductWriteBuffer(StringRedisTemplate redisTemplate, KeyspaceHashWriter writer,
+                              ProductWriteBehindProperties properties) {
+        this.redisTemplate = redisTemplate;
+        this.writer = writer;
+        this.properties = properties;
+    }
+
+    /**
+     * Queues the product, returns false when the caller should write it directly.
+     */
+    public boolean save(Product product) {
+        if (!running || product.getId() == null) {
+            return false;
+        }
+        if (pending.size() >= properties.getMaxPending() && !pending.containsKey(product.getId())) {
+            flush();
+        }
+        pending.put(product.getId(), copyOf(product));
+        if (pending.size() >= properties.getBatchSize()) {
+            wakeUp.release();
+        }
+        return true;
+    }
+
+    /**
+     * Returns the pending version of the product, or null when nothing is waiting to be written.
+     */
+    public Product get(String id) {
+        Product product = pending.get(id);
+        return product == null ? null : copyOf(product);
+    }
+
+    /**
+     * Drops a pending save so a following delete cannot be overwritten by an older flush.
+     */
+    public void discard(String id) {
+        flushLock.lock();
+        try {
+            pending.remove(id);
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    public int getPending() {
+        return pending.size();
+    }
+
+    /**
+     * Writes every pending product. Products saved again while a batch is in flight stay pending.
+     */
+    public void flush() {
+        flushLock.lock();
+        try {
+            while (!pending.isEmpty()) {
+                List<Product> batch = new ArrayList<>(properties.getBatchSize());
+                for (Product product : pending.values()) {
+                    batch.add(product);
+                    if (batch.size() == properties.getBatchSize()) {
+                        break;
+                    }
+                }
+                write(batch);
+                batch.forEach(product -> pending.remove(product.getId(), product));
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    @Override
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        flusher = Thread.ofVirtual().name("product-write-behind").start(this::run);
+    }
+
+    @Override
+    public synchronized void stop() {
+        running = false;
+        if (flusher == null) {
+            return;
+        }
+        wakeUp.release();
+        try {
+            flusher.join();
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
+        flusher = null;
+        flush();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void run() {
+        while (running) {
+            try {
+                wakeUp.tryAcquire(properties.getFlushInterval().toMillis(), TimeUnit.MILLISECONDS);
+                wakeUp.drainPermits();
+                flush();
+            } catch (InterruptedException exception) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception exception) {
+                log.warn("Failed to flush {} pending products : {}", pending.size(), exception.getMessage());
+            }
+        }
+    }
+
+    private void write(List<Product> batch) {
+        redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            if (properties.isTransactional()) {
+                connection.multi();
+            }
+            batch.forEach(product -> writer.write(connection, product));
+            if (properties.isTransactional()) {
+                connection.exec();
+            }
+            return null;
+        });
+    }
+
+    private static Product copyOf(Product product) {
+        return new Product(product.getId(), product.getName(), product.getPrice(), product.getTtl());
+    }
+}
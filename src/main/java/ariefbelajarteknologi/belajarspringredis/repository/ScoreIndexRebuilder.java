@@ -0,0 +1,86 @@
+package ariefbelajarteknologi.belajarspringredis.repository;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Rebuilds the {@link ScoreIndexed} sorted sets of an entity type from the stored hashes. The new indexes are
+ * built under temporary keys and swapped in with RENAME, so queries keep using the old index until the end.
+ * Saves made while a rebuild runs may be missing from the swapped index until they are saved again.
+ */
+@Slf4j
+public class ScoreIndexRebuilder {
+
+    private static final String REBUILD_SUFFIX = ":rebuild";
+
+    private final StringRedisTemplate redisTemplate;
+
+    private final KeyspaceHashReader reader;
+
+    private final KeyspaceHashWriter writer;
+
+    private final int chunkSize;
+
+    public ScoreIndexRebuilder(StringRedisTemplate redisTemplate, KeyspaceHashReader reader,
+                               KeyspaceHashWriter writer, int chunkSize) {
+        this.redisTemplate = redisTemplate;
+        this.reader = reader;
+        this.writer = writer;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Returns the number of entities indexed.
+     */
+    public <T> long rebuild(Class<T> type) {
+        List<String> indexKeys = writer.scoreIndexKeys(type);
+        if (indexKeys.isEmpty()) {
+            return 0;
+        }
+        redisTemplate.delete(indexKeys.stream().map(key -> key + REBUILD_SUFFIX).toList());
+
+        long indexed = 0;
+        List<Object> chunk = new ArrayList<>(chunkSize);
+        try (Stream<T> entities = KeyspaceScanSpliterator.stream(redisTemplate, reader, type, writer.keyspace(type),
+                chunkSize, id -> {
+                })) {
+            Iterator<T> iterator = entities.iterator();
+            while (iterator.hasNext()) {
+                chunk.add(iterator.next());
+                if (chunk.size() == chunkSize) {
+                    indexed += write(chunk);
+                }
+            }
+        }
+        indexed += write(chunk);
+
+        for (String indexKey : indexKeys) {
+            if (Boolean.TRUE.equals(redisTemplate.hasKey(indexKey + REBUILD_SUFFIX))) {
+                redisTemplate.rename(indexKey + REBUILD_SUFFIX, indexKey);
+            } else {
+                redisTemplate.delete(indexKey);
+            }
+        }
+        log.info("Rebuilt {} from {} entities", indexKeys, indexed);
+        return indexed;
+    }
+
+    private int write(List<Object> chunk) {
+        if (chunk.isEmpty()) {
+            return 0;
+        }
+        redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            chunk.forEach(entity -> writer.writeIndexes(connection, entity, REBUILD_SUFFIX));
+            return null;
+        });
+        int written = chunk.size();
+        chunk.clear();
+        return written;
+    }
+}
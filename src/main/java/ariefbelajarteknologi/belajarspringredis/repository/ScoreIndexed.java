@@ -0,0 +1,17 @@
+package ariefbelajarteknologi.belajarspringredis.repository;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Indexes a numeric property in the sorted set {@code keyspace:index:property}, scored by the property value,
+ * so range queries run as ZRANGEBYSCORE. The index is written by {@link KeyspaceHashWriter} together with the hash.
+ */
+@Documented
+@Target(ElementType.FIELD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface ScoreIndexed {
+}
@@ -0,0 +1,137 @@
+package ariefbelajarteknologi.belajarspringredis.service;
+
+import ariefbelajarteknologi.belajarspringredis.config.OrderPublisherProperties;
+import ariefbelajarteknologi.belajarspringredis.entity.Order;
+import ariefbelajarteknologi.belajarspringredis.shard.RedisShards;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.connection.stream.RecordId;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.hash.HashMapper;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Places orders with one server side script: stock check and decrement, order hash and stream entry happen
+ * atomically in a single round trip. The script is called by its SHA1 and only sent in full when the server
+ * answers NOSCRIPT, after which the server keeps it cached. Stock and order keys live on the shard of the stream
+ * so the script never spans instances.
+ */
+@Component
+public class OrderPlacementService {
+
+    private static final RedisScript<List<Object>> PLACE_ORDER =
+            RedisScript.of(new ClassPathResource("scripts/place_order.lua"));
+
+    private static final byte[] SHA = PLACE_ORDER.getSha1().getBytes(StandardCharsets.UTF_8);
+
+    @Autowired
+    private RedisShards redisShards;
+
+    @Autowired
+    private HashMapper<Object, byte[], byte[]> streamHashMapper;
+
+    @Autowired
+    private OrderPublisherProperties publisherProperties;
+
+    public enum Status {
+        PLACED, OUT_OF_STOCK, DUPLICATE
+    }
+
+    /**
+     * Outcome of a placement, the stream entry id is only set for placed orders.
+     */
+    public record Placement(Status status, long stock, RecordId recordId) {
+    }
+
+    public static String stockKey(String productId) {
+        return "stock:" + productId;
+    }
+
+    public static String orderKey(String orderId) {
+        return "order:" + orderId;
+    }
+
+    public void setStock(String productId, long stock) {
+        redisTemplate().opsForValue().set(stockKey(productId), String.valueOf(stock));
+    }
+
+    public long getStock(String productId) {
+        String stock = redisTemplate().opsForValue().get(stockKey(productId));
+        return stock == null ? 0 : Long.parseLong(stock);
+    }
+
+    public Placement place(Order order, String productId, int quantity) {
+        if (quantity <= 0) {
+            throw new IllegalArgumentException("Quantity must be positive but was " + quantity);
+        }
+        byte[][] keysAndArgs = keysAndArgs(order, productId, quantity);
+        List<Object> result = redisTemplate().execute((RedisCallback<List<Object>>) connection -> eval(connection, keysAndArgs));
+        long status = (Long) result.get(0);
+        if (status < 0) {
+            return new Placement(Status.DUPLICATE, -1, null);
+        }
+        if (status == 0) {
+            return new Placement(Status.OUT_OF_STOCK, (Long) result.get(1), null);
+        }
+        return new Placement(Status.PLACED, (Long) result.get(1),
+                RecordId.of(new String((byte[]) result.get(2), StandardCharsets.UTF_8)));
+    }
+
+    private List<Object> eval(RedisConnection connection, byte[][] keysAndArgs) {
+        try {
+            return connection.scriptingCommands().evalSha(SHA, ReturnType.MULTI, 3, keysAndArgs);
+        } catch (DataAccessException exception) {
+            if (!isNoScript(exception)) {
+                throw exception;
+            }
+            byte[] script = PLACE_ORDER.getScriptAsString().getBytes(StandardCharsets.UTF_8);
+            return connection.scriptingCommands().eval(script, ReturnType.MULTI, 3, keysAndArgs);
+        }
+    }
+
+    private byte[][] keysAndArgs(Order order, String productId, int quantity) {
+        Map<byte[], byte[]> hash = streamHashMapper.toHash(order);
+        // MINID retention is left to the publisher's next XADD, the script only trims by length
+        long maxLength = publisherProperties.getRetention() == null ? Math.max(0, publisherProperties.getMaxLength()) : 0;
+
+        List<byte[]> values = new ArrayList<>(6 + hash.size() * 2);
+        values.add(bytes(stockKey(productId)));
+        values.add(bytes(orderKey(order.getId())));
+        values.add(bytes(publisherProperties.getStream()));
+        values.add(bytes(String.valueOf(quantity)));
+        values.add(bytes(String.valueOf(maxLength)));
+        values.add(bytes(productId));
+        hash.forEach((field, value) -> {
+            values.add(field);
+            values.add(value);
+        });
+        return values.toArray(byte[][]::new);
+    }
+
+    private static boolean isNoScript(Throwable exception) {
+        for (Throwable cause = exception; cause != null; cause = cause.getCause()) {
+            if (cause.getMessage() != null && cause.getMessage().contains("NOSCRIPT")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private StringRedisTemplate redisTemplate() {
+        return redisShards.shardFor(publisherProperties.getStream()).redisTemplate();
+    }
+}
@@ -1,24 +1,56 @@
 package ariefbelajarteknologi.belajarspringredis.service;
 
+import ariefbelajarteknologi.belajarspringredis.cache.CachePreloader;
+import ariefbelajarteknologi.belajarspringredis.cache.RedisCacheBatch;
 import ariefbelajarteknologi.belajarspringredis.entity.Product;
+import ariefbelajarteknologi.belajarspringredis.ratelimit.RateLimited;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.CachePut;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
 @Slf4j
 @Component
-public class ProductService {
+public class ProductService implements CachePreloader {
+
+    @Autowired
+    private RedisCacheBatch cacheBatch;
 
-    @Cacheable(value = "products", key = "#id")
+    @RateLimited("products")
+    @Cacheable(value = "products", key = "#id", sync = true)
     public Product getProduct(String id) {
         log.info("Get Product {}", id);
-        return Product.builder()
-                .id(id)
-                .name("example")
-                .price(1_000L)
-                .build();
+        return loadProduct(id);
+    }
+
+    @RateLimited("products")
+    public List<Product> getProducts(Collection<String> ids) {
+        Map<String, Product> products = cacheBatch.getAll("products", ids, misses -> {
+            log.info("Get Products {}", misses);
+            return loadProducts(misses);
+        });
+        return new ArrayList<>(products.values());
+    }
+
+    @Override
+    public String getCacheName() {
+        return "products";
+    }
+
+    /**
+     * Caches the products that are not cached yet, without counting against the rate limit.
+     */
+    @Override
+    public void preload(List<String> ids) {
+        cacheBatch.getAll("products", ids, this::loadProducts);
     }
 
     @CachePut(value = "products", key = "#product.id")
@@ -31,4 +63,20 @@ public class ProductService {
     public void remove(String id) {
         log.info("Remove product {}", id);
     }
+
+    private Map<String, Product> loadProducts(Collection<String> ids) {
+        Map<String, Product> loaded = new LinkedHashMap<>();
+        for (String id : ids) {
+            loaded.put(id, loadProduct(id));
+        }
+        return loaded;
+    }
+
+    Product loadProduct(String id) {
+        return Product.builder()
+                .id(id)
+                .name("example")
+                .price(1_000L)
+                .build();
+    }
 }
@@ -0,0 +1,36 @@
+package ariefbelajarteknologi.belajarspringredis.service;
+
+import ariefbelajarteknologi.belajarspringredis.cache.ReactiveRedisCache;
+import ariefbelajarteknologi.belajarspringredis.entity.Product;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+@Slf4j
+@Component
+public class ReactiveProductService {
+
+    @Autowired
+    private ReactiveRedisCache reactiveRedisCache;
+
+    @Autowired
+    private ProductService productService;
+
+    public Mono<Product> getProduct(String id) {
+        return reactiveRedisCache.get("products", id, () -> Mono.fromSupplier(() -> {
+            log.info("Get Product {}", id);
+            return productService.loadProduct(id);
+        }));
+    }
+
+    public Mono<Product> save(Product product) {
+        log.info("Save Product {}", product);
+        return reactiveRedisCache.put("products", product.getId(), product).thenReturn(product);
+    }
+
+    public Mono<Void> remove(String id) {
+        log.info("Remove product {}", id);
+        return reactiveRedisCache.evict("products", id).then();
+    }
+}
@@ -0,0 +1,207 @@
+package ariefbelajarteknologi.belajarspringredis.shard;
+
+import io.lettuce.core.RedisCredentials;
+import io.lettuce.core.RedisURI;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.data.keyvalue.annotation.KeySpace;
+import org.springframework.data.redis.connection.ReactiveRedisConnectionFactory;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.RedisPassword;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceClientConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+
+/**
+ * The Redis instances keys are spread over, placed on a {@link ShardRing}. Without sharding there is one shard
+ * backed by the default connection factory, so callers can route every key the same way. Multi-key work is
+ * split with {@link #partition} and the groups run with {@link #parallel}, one virtual thread per shard.
+ */
+public class RedisShards implements DisposableBean {
+
+    public record Shard(int index, String name, RedisConnectionFactory connectionFactory,
+                        StringRedisTemplate redisTemplate) {
+
+        /**
+         * The same connections for reactive callers, every Lettuce factory is reactive as well.
+         */
+        public ReactiveRedisConnectionFactory reactiveConnectionFactory() {
+            if (connectionFactory instanceof ReactiveRedisConnectionFactory reactiveConnectionFactory) {
+                return reactiveConnectionFactory;
+            }
+            throw new IllegalStateException("Shard " + name + " has no reactive connection factory");
+        }
+
+        @Override
+        public String toString() {
+            return name;
+        }
+    }
+
+    private final List<Shard> shards;
+
+    private final ShardRing<Shard> ring;
+
+    private final int virtualNodes;
+
+    private final List<LettuceConnectionFactory> owned;
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    private RedisShards(List<Shard> shards, int virtualNodes, List<LettuceConnectionFactory> owned) {
+        this.shards = shards;
+        this.ring = new ShardRing<>(shards, Shard::name, virtualNodes);
+        this.virtualNodes = virtualNodes;
+        this.owned = owned;
+    }
+
+    /**
+     * One shard on the default connection, which stays owned by the application context.
+     */
+    public static RedisShards single(RedisConnectionFactory connectionFactory, StringRedisTemplate redisTemplate) {
+        return new RedisShards(List.of(new Shard(0, "default", connectionFactory, redisTemplate)), 1, List.of());
+    }
+
+    /**
+     * Connects to every node, given as a Redis URI such as {@code redis://localhost:6380/0}.
+     */
+    public static RedisShards connect(List<String> nodes, int virtualNodes, Duration commandTimeout) {
+        var clientConfiguration = LettuceClientConfiguration.builder().commandTimeout(commandTimeout).build();
+        List<Shard> shards = new ArrayList<>(nodes.size());
+        List<LettuceConnectionFactory> factories = new ArrayList<>(nodes.size());
+        for (String node : nodes) {
+            RedisURI uri = RedisURI.create(node);
+            var configuration = new RedisStandaloneConfiguration(uri.getHost(), uri.getPort());
+            configuration.setDatabase(uri.getDatabase());
+            // a URI parsed from a string holds static credentials, resolving them does not block
+            RedisCredentials credentials = uri.getCredentialsProvider().resolveCredentials().block();
+            if (credentials != null && credentials.hasUsername()) {
+                configuration.setUsername(credentials.getUsername());
+            }
+            if (credentials != null && credentials.hasPassword()) {
+                configuration.setPassword(RedisPassword.of(credentials.getPassword()));
+            }
+            var factory = connect(configuration, clientConfiguration, true);
+            factories.add(factory);
+
+            String name = uri.getHost() + ":" + uri.getPort() + "/" + uri.getDatabase();
+            shards.add(new Shard(shards.size(), name, factory, new StringRedisTemplate(factory)));
+        }
+        return new RedisShards(List.copyOf(shards), virtualNodes, factories);
+    }
+
+    /**
+     * The same shards with the same key placement on connections of their own, so one workload does not queue
+     * behind another on a shared native connection. The client configuration of every new connection is derived
+     * from the one of the shard it replaces, keeping its SSL, client options and timeouts. The connections are
+     * owned and closed by the returned instance.
+     */
+    public RedisShards isolate(UnaryOperator<LettuceClientConfiguration> clientConfiguration,
+                               boolean shareNativeConnection) {
+        List<Shard> isolated = new ArrayList<>(shards.size());
+        List<LettuceConnectionFactory> factories = new ArrayList<>(shards.size());
+        for (Shard shard : shards) {
+            if (!(shard.connectionFactory() instanceof LettuceConnectionFactory source) || source.isClusterAware()
+                    || source.isRedisSentinelAware()) {
+                throw new IllegalStateException("Only standalone Lettuce connections can be isolated, not " + shard);
+            }
+            var factory = connect(source.getStandaloneConfiguration(),
+                    clientConfiguration.apply(source.getClientConfiguration()), shareNativeConnection);
+            factories.add(factory);
+            isolated.add(new Shard(shard.index(), shard.name(), factory, new StringRedisTemplate(factory)));
+        }
+        return new RedisShards(List.copyOf(isolated), virtualNodes, factories);
+    }
+
+    public List<Shard> getShards() {
+        return shards;
+    }
+
+    public int size() {
+        return shards.size();
+    }
+
+    public Shard shardFor(String key) {
+        return shardFor(key.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public Shard shardFor(byte[] key) {
+        return shards.size() == 1 ? shards.get(0) : ring.nodeFor(key);
+    }
+
+    /**
+     * Shard of an entity keyspace. The keyspace set and the indexes are single keys read by every query, so the
+     * whole keyspace is placed on the shard owning its name rather than split per id.
+     */
+    public Shard shardFor(Class<?> entityType) {
+        KeySpace keySpace = AnnotatedElementUtils.findMergedAnnotation(entityType, KeySpace.class);
+        return shardFor(keySpace != null && !keySpace.value().isEmpty() ? keySpace.value() : entityType.getName());
+    }
+
+    /**
+     * Groups the items by the shard of their key, keeping their relative order.
+     */
+    public <T> Map<Shard, List<T>> partition(Collection<T> items, Function<T, byte[]> key) {
+        Map<Shard, List<T>> groups = new LinkedHashMap<>();
+        for (T item : items) {
+            groups.computeIfAbsent(shardFor(key.apply(item)), shard -> new ArrayList<>()).add(item);
+        }
+        return groups;
+    }
+
+    /**
+     * Runs the task for every group at the same time and waits for all of them. A single group runs on the
+     * calling thread. The first failure is rethrown once every task has finished.
+     */
+    public <T, R> Map<Shard, R> parallel(Map<Shard, T> groups, BiFunction<Shard, T, R> task) {
+        Map<Shard, R> results = new LinkedHashMap<>();
+        if (groups.size() == 1) {
+            groups.forEach((shard, group) -> results.put(shard, task.apply(shard, group)));
+            return results;
+        }
+        Map<Shard, CompletableFuture<R>> futures = new LinkedHashMap<>();
+        groups.forEach((shard, group) ->
+                futures.put(shard, CompletableFuture.supplyAsync(() -> task.apply(shard, group), executor)));
+        try {
+            CompletableFuture.allOf(futures.values().toArray(CompletableFuture[]::new)).join();
+        } catch (CompletionException exception) {
+            if (exception.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw exception;
+        }
+        futures.forEach((shard, future) -> results.put(shard, future.join()));
+        return results;
+    }
+
+    private static LettuceConnectionFactory connect(RedisStandaloneConfiguration configuration,
+                                                    LettuceClientConfiguration clientConfiguration,
+                                                    boolean shareNativeConnection) {
+        var factory = new LettuceConnectionFactory(configuration, clientConfiguration);
+        factory.setShareNativeConnection(shareNativeConnection);
+        factory.afterPropertiesSet();
+        return factory;
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdown();
+        owned.forEach(LettuceConnectionFactory::destroy);
+    }
+}
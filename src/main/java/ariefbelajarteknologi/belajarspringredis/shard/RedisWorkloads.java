@@ -0,0 +1,41 @@
+package ariefbelajarteknologi.belajarspringredis.shard;
+
+import org.springframework.beans.factory.DisposableBean;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The shards every {@link Workload} talks to. A workload that is not isolated uses the shared default connections,
+ * an isolated one gets the same shards on connections of its own, which this bean closes.
+ */
+public class RedisWorkloads implements DisposableBean {
+
+    private final Map<Workload, RedisShards> shards;
+
+    private final Set<Workload> isolated;
+
+    public RedisWorkloads(Map<Workload, RedisShards> shards, Set<Workload> isolated) {
+        for (Workload workload : Workload.values()) {
+            if (!shards.containsKey(workload)) {
+                throw new IllegalArgumentException("No shards for workload " + workload);
+            }
+        }
+        this.shards = new EnumMap<>(shards);
+        this.isolated = Set.copyOf(isolated);
+    }
+
+    public RedisShards get(Workload workload) {
+        return shards.get(workload);
+    }
+
+    public boolean isIsolated(Workload workload) {
+        return isolated.contains(workload);
+    }
+
+    @Override
+    public void destroy() {
+        isolated.forEach(workload -> shards.get(workload).destroy());
+    }
+}
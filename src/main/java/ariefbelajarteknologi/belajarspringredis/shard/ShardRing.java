@@ -0,0 +1,94 @@
+package ariefbelajarteknologi.belajarspringredis.shard;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Function;
+
+/**
+ * Consistent hash ring. Every node is placed on the ring {@code virtualNodes} times, a key belongs to the first
+ * point at or after its hash, so adding or removing a node only moves the keys of that node. As in Redis Cluster,
+ * when a key holds a non-empty {@code {...}} hash tag only the tag is hashed, which keeps keys sharing a tag on
+ * the same node.
+ */
+public class ShardRing<T> {
+
+    private final long[] points;
+
+    private final List<T> owners;
+
+    public ShardRing(List<T> nodes, Function<T, String> name, int virtualNodes) {
+        if (nodes.isEmpty()) {
+            throw new IllegalArgumentException("A ring needs at least one node");
+        }
+        TreeMap<Long, T> ring = new TreeMap<>();
+        for (T node : nodes) {
+            for (int i = 0; i < virtualNodes; i++) {
+                byte[] point = (name.apply(node) + "#" + i).getBytes(StandardCharsets.UTF_8);
+                ring.putIfAbsent(hash(point, 0, point.length), node);
+            }
+        }
+        this.points = new long[ring.size()];
+        this.owners = new ArrayList<>(ring.size());
+        int i = 0;
+        for (Map.Entry<Long, T> point : ring.entrySet()) {
+            points[i++] = point.getKey();
+            owners.add(point.getValue());
+        }
+    }
+
+    public T nodeFor(String key) {
+        return nodeFor(key.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public T nodeFor(byte[] key) {
+        int index = Arrays.binarySearch(points, hash(key));
+        if (index < 0) {
+            index = -index - 1;
+        }
+        return owners.get(index == points.length ? 0 : index);
+    }
+
+    /**
+     * Hash of the key, or of its hash tag when it has one.
+     */
+    public static long hash(byte[] key) {
+        int open = indexOf(key, (byte) '{', 0);
+        if (open >= 0) {
+            int close = indexOf(key, (byte) '}', open + 1);
+            if (close > open + 1) {
+                return hash(key, open + 1, close);
+            }
+        }
+        return hash(key, 0, key.length);
+    }
+
+    /**
+     * 64 bit FNV-1a followed by the MurmurHash3 finalizer, which spreads keys that only differ in their last bytes.
+     */
+    private static long hash(byte[] key, int from, int to) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = from; i < to; i++) {
+            hash ^= key[i] & 0xff;
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+    private static int indexOf(byte[] key, byte value, int from) {
+        for (int i = from; i < key.length; i++) {
+            if (key[i] == value) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
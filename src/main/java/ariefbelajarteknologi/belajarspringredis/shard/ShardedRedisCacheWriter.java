@@ -0,0 +1,84 @@
+package ariefbelajarteknologi.belajarspringredis.shard;
+
+import org.springframework.data.redis.cache.CacheStatistics;
+import org.springframework.data.redis.cache.CacheStatisticsCollector;
+import org.springframework.data.redis.cache.RedisCacheWriter;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Cache writer that sends each entry to the shard owning its key, through one non-locking writer per shard.
+ * Clearing a cache scans every shard in parallel. The per-shard writers share one statistics collector, so the
+ * cache statistics cover all shards.
+ */
+public class ShardedRedisCacheWriter implements RedisCacheWriter {
+
+    private final RedisShards shards;
+
+    private final List<RedisCacheWriter> writers;
+
+    public ShardedRedisCacheWriter(RedisShards shards) {
+        this(shards, shards.getShards().stream()
+                .map(shard -> RedisCacheWriter.nonLockingRedisCacheWriter(shard.connectionFactory()))
+                .toList());
+    }
+
+    private ShardedRedisCacheWriter(RedisShards shards, List<RedisCacheWriter> writers) {
+        this.shards = shards;
+        this.writers = writers;
+    }
+
+    @Override
+    public void put(String name, byte[] key, byte[] value, Duration ttl) {
+        writer(key).put(name, key, value, ttl);
+    }
+
+    @Override
+    public byte[] get(String name, byte[] key) {
+        return writer(key).get(name, key);
+    }
+
+    @Override
+    public byte[] putIfAbsent(String name, byte[] key, byte[] value, Duration ttl) {
+        return writer(key).putIfAbsent(name, key, value, ttl);
+    }
+
+    @Override
+    public void remove(String name, byte[] key) {
+        writer(key).remove(name, key);
+    }
+
+    @Override
+    public void clean(String name, byte[] pattern) {
+        Map<RedisShards.Shard, RedisCacheWriter> all = new LinkedHashMap<>();
+        shards.getShards().forEach(shard -> all.put(shard, writers.get(shard.index())));
+        shards.parallel(all, (shard, writer) -> {
+            writer.clean(name, pattern);
+            return null;
+        });
+    }
+
+    @Override
+    public void clearStatistics(String name) {
+        writers.forEach(writer -> writer.clearStatistics(name));
+    }
+
+    @Override
+    public RedisCacheWriter withStatisticsCollector(CacheStatisticsCollector collector) {
+        return new ShardedRedisCacheWriter(shards, writers.stream()
+                .map(writer -> writer.withStatisticsCollector(collector))
+                .toList());
+    }
+
+    @Override
+    public CacheStatistics getCacheStatistics(String name) {
+        return writers.get(0).getCacheStatistics(name);
+    }
+
+    private RedisCacheWriter writer(byte[] key) {
+        return writers.get(shards.shardFor(key).index());
+    }
+}
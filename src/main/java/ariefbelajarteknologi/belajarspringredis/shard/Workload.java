@@ -0,0 +1,32 @@
+package ariefbelajarteknologi.belajarspringredis.shard;
+
+/**
+ * Kinds of Redis traffic that can be given connections of their own.
+ */
+public enum Workload {
+
+    /**
+     * Cache reads and writes, single keys and batches.
+     */
+    CACHE,
+
+    /**
+     * The product repository, its indexes, write-behind flushes and bulk transfers.
+     */
+    REPOSITORY,
+
+    /**
+     * Stream consumer group reads, acknowledgements, reclaims and lag metrics, including the blocking XREADGROUP poll.
+     */
+    CONSUMER,
+
+    /**
+     * Pipelined XADD batches of the order stream publisher.
+     */
+    PUBLISHER,
+
+    /**
+     * Channel subscriptions of the message listener container.
+     */
+    PUBSUB
+}
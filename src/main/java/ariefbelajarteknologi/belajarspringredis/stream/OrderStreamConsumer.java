@@ -0,0 +1,149 @@
+package ariefbelajarteknologi.belajarspringredis.stream;
+
+import ariefbelajarteknologi.belajarspringredis.config.OrderStreamProperties;
+import ariefbelajarteknologi.belajarspringredis.entity.Order;
+import ariefbelajarteknologi.belajarspringredis.listener.OrderBatchListener;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.data.redis.connection.stream.ByteRecord;
+import org.springframework.data.redis.connection.stream.Consumer;
+import org.springframework.data.redis.connection.stream.ObjectRecord;
+import org.springframework.data.redis.connection.stream.ReadOffset;
+import org.springframework.data.redis.connection.stream.RecordId;
+import org.springframework.data.redis.connection.stream.StreamOffset;
+import org.springframework.data.redis.connection.stream.StreamReadOptions;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.hash.HashMapper;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Batch consumer for the orders stream. Every consumer of the group runs on its own virtual thread,
+ * reads up to {@code batchSize} records per XREADGROUP, hands them to the listener as one list
+ * and acknowledges them with a single XACK. Records of a failed batch stay pending.
+ */
+@Slf4j
+public class OrderStreamConsumer implements SmartLifecycle {
+
+    private static final Duration ERROR_BACKOFF = Duration.ofSeconds(1);
+
+    private final StringRedisTemplate redisTemplate;
+
+    private final HashMapper<Object, byte[], byte[]> hashMapper;
+
+    private final OrderStreamProperties properties;
+
+    private final OrderBatchListener listener;
+
+    private final byte[] rawStream;
+
+    private final List<Thread> threads = new ArrayList<>();
+
+    private volatile boolean running;
+
+    public OrderStreamConsumer(StringRedisTemplate redisTemplate, HashMapper<Object, byte[], byte[]> hashMapper,
+                               OrderStreamProperties properties, OrderBatchListener listener) {
+        this.redisTemplate = redisTemplate;
+        this.hashMapper = hashMapper;
+        this.properties = properties;
+        this.listener = listener;
+        this.rawStream = properties.getStream().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        createGroup();
+        running = true;
+        for (int i = 1; i <= properties.getConsumers(); i++) {
+            var consumer = Consumer.from(properties.getGroup(), properties.getConsumerPrefix() + i);
+            threads.add(Thread.ofVirtual()
+                    .name(properties.getStream() + "-" + consumer.getName())
+                    .start(() -> poll(consumer)));
+        }
+    }
+
+    @Override
+    public synchronized void stop() {
+        running = false;
+        for (Thread thread : threads) {
+            try {
+                thread.join(properties.getPollTimeout().plusSeconds(1));
+            } catch (InterruptedException exception) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+        threads.clear();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void createGroup() {
+        try {
+            redisTemplate.opsForStream().createGroup(properties.getStream(), properties.getGroup());
+        } catch (RuntimeException exception) {
+            // group already exists
+        }
+    }
+
+    private void poll(Consumer consumer) {
+        while (running) {
+            try {
+                List<ObjectRecord<String, Order>> records = read(consumer);
+                if (!records.isEmpty()) {
+                    listener.onMessages(records);
+                    acknowledge(records);
+                }
+            } catch (RuntimeException exception) {
+                if (!running) {
+                    return;
+                }
+                log.warn("Failed to consume {} as {} : {}", properties.getStream(), consumer.getName(), exception.getMessage());
+                sleep(ERROR_BACKOFF);
+            }
+        }
+    }
+
+    private List<ObjectRecord<String, Order>> read(Consumer consumer) {
+        var options = StreamReadOptions.empty()
+                .count(properties.getBatchSize())
+                .block(properties.getPollTimeout());
+        List<ByteRecord> records = redisTemplate.execute((RedisCallback<List<ByteRecord>>) connection ->
+                connection.streamCommands().xReadGroup(consumer, options,
+                        StreamOffset.create(rawStream, ReadOffset.lastConsumed())));
+        if (records == null || records.isEmpty()) {
+            return List.of();
+        }
+
+        List<ObjectRecord<String, Order>> orders = new ArrayList<>(records.size());
+        for (ByteRecord record : records) {
+            Order order = (Order) hashMapper.fromHash(record.getValue());
+            orders.add(ObjectRecord.create(properties.getStream(), order).withId(record.getId()));
+        }
+        return orders;
+    }
+
+    private void acknowledge(List<ObjectRecord<String, Order>> records) {
+        RecordId[] ids = records.stream().map(ObjectRecord::getId).toArray(RecordId[]::new);
+        redisTemplate.execute((RedisCallback<Long>) connection ->
+                connection.streamCommands().xAck(rawStream, properties.getGroup(), ids));
+    }
+
+    private void sleep(Duration duration) {
+        try {
+            Thread.sleep(duration);
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package ariefbelajarteknologi.belajarspringredis.stream;
+
+import ariefbelajarteknologi.belajarspringredis.config.OrderStreamProperties;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Range;
+import org.springframework.data.redis.connection.Limit;
+import org.springframework.data.redis.connection.stream.StreamInfo;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Publishes the length of the orders stream and the lag of every consumer group. The pending entries list size is
+ * {@code orders.pending}, published by the {@link PendingOrderReclaimer}. The values are refreshed with XINFO on a schedule, so scrapes never touch Redis. Redis 7 reports the group
+ * lag directly, older servers get it by counting the entries after the last delivered id, up to {@code lagScanLimit}.
+ */
+@Slf4j
+public class OrderStreamMetrics {
+
+    private final StringRedisTemplate redisTemplate;
+
+    private final OrderStreamProperties properties;
+
+    private final MeterRegistry registry;
+
+    private final AtomicLong length = new AtomicLong();
+
+    private final Map<String, AtomicLong> lags = new ConcurrentHashMap<>();
+
+    public OrderStreamMetrics(StringRedisTemplate redisTemplate, OrderStreamProperties properties, MeterRegistry registry) {
+        this.redisTemplate = redisTemplate;
+        this.properties = properties;
+        this.registry = registry;
+
+        Gauge.builder("orders.stream.length", length, AtomicLong::get)
+                .description("Number of entries in the stream")
+                .tag("stream", properties.getStream())
+                .register(registry);
+    }
+
+    @Scheduled(fixedDelayString = "${app.orders.consumer.metrics.interval:PT15S}")
+    public void scheduledRefresh() {
+        try {
+            refresh();
+        } catch (RuntimeException exception) {
+            log.warn("Failed to read metrics of {} : {}", properties.getStream(), exception.getMessage());
+        }
+    }
+
+    public void refresh() {
+        String stream = properties.getStream();
+        if (!Boolean.TRUE.equals(redisTemplate.hasKey(stream))) {
+            length.set(0);
+            lags.values().forEach(lag -> lag.set(0));
+            return;
+        }
+
+        StreamInfo.XInfoStream info = redisTemplate.opsForStream().info(stream);
+        length.set(info.streamLength());
+        redisTemplate.opsForStream().groups(stream).forEach(group ->
+                lags.computeIfAbsent(group.groupName(), this::register).set(lag(group, info)));
+    }
+
+    private long lag(StreamInfo.XInfoGroup group, StreamInfo.XInfoStream info) {
+        if (group.getRaw().get("lag") instanceof Number lag) {
+            return lag.longValue();
+        }
+        String lastDelivered = group.lastDeliveredId();
+        if (lastDelivered == null || lastDelivered.equals(info.lastGeneratedId())) {
+            return 0;
+        }
+        int limit = properties.getMetrics().getLagScanLimit();
+        return redisTemplate.opsForStream()
+                .range(properties.getStream(), Range.rightUnbounded(Range.Bound.exclusive(lastDelivered)),
+                        Limit.limit().count(limit))
+                .size();
+    }
+
+    private AtomicLong register(String group) {
+        var lag = new AtomicLong();
+        Gauge.builder("orders.stream.lag", lag, AtomicLong::get)
+                .description("Entries of the stream not yet delivered to the consumer group")
+                .tag("stream", properties.getStream())
+                .tag("group", group)
+                .register(registry);
+        return lag;
+    }
+}
@@ -0,0 +1,235 @@
+package ariefbelajarteknologi.belajarspringredis.stream;
+
+import ariefbelajarteknologi.belajarspringredis.config.OrderPublisherProperties;
+import ariefbelajarteknologi.belajarspringredis.entity.Order;
+import io.lettuce.core.LettuceFutures;
+import io.lettuce.core.RedisClient;
+import io.lettuce.core.RedisCommandTimeoutException;
+import io.lettuce.core.RedisFuture;
+import io.lettuce.core.XAddArgs;
+import io.lettuce.core.api.StatefulRedisConnection;
+import io.lettuce.core.cluster.api.async.RedisClusterAsyncCommands;
+import io.lettuce.core.codec.ByteArrayCodec;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.connection.stream.RecordId;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.hash.HashMapper;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Publishes orders from any number of threads through one flusher, which sends them as pipelined
+ * XADD batches once {@code batchSize} orders are buffered or the oldest one waited {@code linger}.
+ * Callers block while the buffer is full, every XADD trims the stream approximately. Without auto flush the
+ * flusher writes on a dedicated connection of its own, so holding commands back never delays other threads.
+ */
+@Slf4j
+public class OrderStreamPublisher implements SmartLifecycle {
+
+    private static final long IDLE_POLL_MILLIS = 100;
+
+    private static final long COMMAND_TIMEOUT_SECONDS = 5;
+
+    private final StringRedisTemplate redisTemplate;
+
+    private final HashMapper<Object, byte[], byte[]> hashMapper;
+
+    private final OrderPublisherProperties properties;
+
+    private final byte[] rawStream;
+
+    private final BlockingQueue<PendingOrder> buffer;
+
+    private StatefulRedisConnection<byte[], byte[]> dedicated;
+
+    private Thread flusher;
+
+    private volatile boolean running;
+
+    public OrderStreamPublisher(StringRedisTemplate redisTemplate, HashMapper<Object, byte[], byte[]> hashMapper,
+                                OrderPublisherProperties properties) {
+        this.redisTemplate = redisTemplate;
+        this.hashMapper = hashMapper;
+        this.properties = properties;
+        this.rawStream = properties.getStream().getBytes(StandardCharsets.UTF_8);
+        this.buffer = new ArrayBlockingQueue<>(properties.getBufferCapacity());
+    }
+
+    /**
+     * Queues the order, blocking while the buffer is full. The future completes with the record id once the batch is written.
+     */
+    public CompletableFuture<RecordId> publish(Order order) {
+        var pending = new PendingOrder(order, new CompletableFuture<>());
+        if (!running) {
+            pending.result().completeExceptionally(new RejectedExecutionException("Order publisher is not running"));
+            return pending.result();
+        }
+        try {
+            if (!buffer.offer(pending, properties.getBlockTimeout().toNanos(), TimeUnit.NANOSECONDS)) {
+                pending.result().completeExceptionally(new RejectedExecutionException("Order buffer is full"));
+            }
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            pending.result().completeExceptionally(exception);
+        }
+        return pending.result();
+    }
+
+    @Override
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        if (!properties.isAutoFlush()) {
+            dedicated = connectDedicated();
+        }
+        running = true;
+        flusher = Thread.ofVirtual().name(properties.getStream() + "-publisher").start(this::run);
+    }
+
+    @Override
+    public synchronized void stop() {
+        running = false;
+        if (flusher == null) {
+            return;
+        }
+        try {
+            flusher.join();
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
+        flusher = null;
+        if (dedicated != null) {
+            dedicated.close();
+            dedicated = null;
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void run() {
+        List<PendingOrder> batch = new ArrayList<>(properties.getBatchSize());
+        while (running || !buffer.isEmpty()) {
+            try {
+                PendingOrder first = buffer.poll(IDLE_POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                fill(batch);
+                flush(batch);
+            } catch (InterruptedException exception) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void fill(List<PendingOrder> batch) throws InterruptedException {
+        buffer.drainTo(batch, properties.getBatchSize() - batch.size());
+        long deadline = System.nanoTime() + properties.getLinger().toNanos();
+        while (batch.size() < properties.getBatchSize()) {
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                return;
+            }
+            PendingOrder next = buffer.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                return;
+            }
+            batch.add(next);
+            buffer.drainTo(batch, properties.getBatchSize() - batch.size());
+        }
+    }
+
+    /**
+     * Writes the batch as async commands and waits for all replies at once. A template pipeline would open a
+     * dedicated connection for every batch, so the commands go to the shared native connection, or without auto
+     * flush to the publisher's own connection where they are only queued until the whole batch is written with
+     * one flush.
+     */
+    @SuppressWarnings("unchecked")
+    private void flush(List<PendingOrder> batch) {
+        XAddArgs args = addArgs();
+        try {
+            List<RedisFuture<String>> ids;
+            if (dedicated != null) {
+                ids = xadd(dedicated.async(), batch, args);
+                dedicated.flushCommands();
+                await(ids);
+            } else {
+                ids = redisTemplate.execute((RedisCallback<List<RedisFuture<String>>>) connection -> {
+                    var futures = xadd((RedisClusterAsyncCommands<byte[], byte[]>) connection.getNativeConnection(),
+                            batch, args);
+                    await(futures);
+                    return futures;
+                });
+            }
+            for (int i = 0; i < batch.size(); i++) {
+                batch.get(i).result().complete(RecordId.of(ids.get(i).get()));
+            }
+        } catch (Exception exception) {
+            log.warn("Failed to publish {} orders : {}", batch.size(), exception.getMessage());
+            batch.forEach(pending -> pending.result().completeExceptionally(exception));
+        }
+    }
+
+    private List<RedisFuture<String>> xadd(RedisClusterAsyncCommands<byte[], byte[]> commands,
+                                           List<PendingOrder> batch, XAddArgs args) {
+        List<RedisFuture<String>> futures = new ArrayList<>(batch.size());
+        for (PendingOrder pending : batch) {
+            futures.add(commands.xadd(rawStream, args, hashMapper.toHash(pending.order())));
+        }
+        return futures;
+    }
+
+    private static void await(List<RedisFuture<String>> futures) {
+        if (!LettuceFutures.awaitAll(COMMAND_TIMEOUT_SECONDS, TimeUnit.SECONDS, futures.toArray(RedisFuture[]::new))) {
+            throw new RedisCommandTimeoutException("No reply to " + futures.size() + " XADD commands within "
+                    + COMMAND_TIMEOUT_SECONDS + " seconds");
+        }
+    }
+
+    /**
+     * A connection outside the factory's pool and shared connection, opened from the same client so it has the
+     * same server, database, credentials and client name.
+     */
+    private StatefulRedisConnection<byte[], byte[]> connectDedicated() {
+        if (!(redisTemplate.getConnectionFactory() instanceof LettuceConnectionFactory factory)
+                || !(factory.getRequiredNativeClient() instanceof RedisClient client)) {
+            throw new IllegalStateException("app.orders.publisher.auto-flush=false needs a standalone Lettuce connection");
+        }
+        StatefulRedisConnection<byte[], byte[]> connection = client.connect(ByteArrayCodec.INSTANCE);
+        connection.setAutoFlushCommands(false);
+        return connection;
+    }
+
+    private XAddArgs addArgs() {
+        if (properties.getRetention() != null) {
+            long minId = System.currentTimeMillis() - properties.getRetention().toMillis();
+            return new XAddArgs().minId(minId + "-0").approximateTrimming();
+        }
+        if (properties.getMaxLength() > 0) {
+            return new XAddArgs().maxlen(properties.getMaxLength()).approximateTrimming();
+        }
+        return new XAddArgs();
+    }
+
+    private record PendingOrder(Order order, CompletableFuture<RecordId> result) {
+    }
+}
@@ -0,0 +1,271 @@
+package ariefbelajarteknologi.belajarspringredis.stream;
+
+import ariefbelajarteknologi.belajarspringredis.config.OrderStreamProperties;
+import ariefbelajarteknologi.belajarspringredis.entity.Order;
+import ariefbelajarteknologi.belajarspringredis.listener.OrderBatchListener;
+import io.lettuce.core.LettuceFutures;
+import io.lettuce.core.Limit;
+import io.lettuce.core.RedisFuture;
+import io.lettuce.core.StreamMessage;
+import io.lettuce.core.XAutoClaimArgs;
+import io.lettuce.core.api.async.RedisStreamAsyncCommands;
+import io.lettuce.core.models.stream.ClaimedMessages;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.stream.ObjectRecord;
+import org.springframework.data.redis.connection.stream.PendingMessagesSummary;
+import org.springframework.data.redis.connection.stream.RecordId;
+import org.springframework.data.redis.connection.stream.StreamRecords;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.hash.HashMapper;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Recovers orders left in the pending entries list by a consumer that died mid-processing.
+ * XAUTOCLAIM moves entries idle longer than {@code minIdleTime} to this node's consumer, which
+ * processes and acknowledges them. Entries delivered more than {@code maxDeliveries} times are
+ * copied to the dead letter stream and acknowledged instead.
+ */
+@Slf4j
+public class PendingOrderReclaimer {
+
+    private static final String START = "0-0";
+
+    private static final int MAX_PAGES = 10;
+
+    private static final long COMMAND_TIMEOUT_SECONDS = 5;
+
+    private final StringRedisTemplate redisTemplate;
+
+    private final HashMapper<Object, byte[], byte[]> hashMapper;
+
+    private final OrderStreamProperties properties;
+
+    private final OrderBatchListener listener;
+
+    private final byte[] rawStream;
+
+    private final byte[] rawDeadLetterStream;
+
+    private final String consumerName;
+
+    private final AtomicLong pending = new AtomicLong();
+
+    private final Timer reclaimLatency;
+
+    private final Counter reclaimed;
+
+    private final Counter deadLettered;
+
+    public PendingOrderReclaimer(StringRedisTemplate redisTemplate, HashMapper<Object, byte[], byte[]> hashMapper,
+                                 OrderStreamProperties properties, OrderBatchListener listener, MeterRegistry registry) {
+        this.redisTemplate = redisTemplate;
+        this.hashMapper = hashMapper;
+        this.properties = properties;
+        this.listener = listener;
+        this.rawStream = properties.getStream().getBytes(StandardCharsets.UTF_8);
+        this.rawDeadLetterStream = properties.getReclaim().getDeadLetterStream().getBytes(StandardCharsets.UTF_8);
+        this.consumerName = properties.getConsumerPrefix() + 1;
+
+        Gauge.builder("orders.pending", pending, AtomicLong::get)
+                .description("Entries in the pending entries list of the consumer group")
+                .tag("stream", properties.getStream())
+                .register(registry);
+        this.reclaimLatency = Timer.builder("orders.reclaim")
+                .description("Time spent on one reclaim run")
+                .tag("stream", properties.getStream())
+                .register(registry);
+        this.reclaimed = Counter.builder("orders.reclaimed")
+                .tag("stream", properties.getStream())
+                .register(registry);
+        this.deadLettered = Counter.builder("orders.dead.lettered")
+                .tag("stream", properties.getStream())
+                .register(registry);
+    }
+
+    @Scheduled(fixedDelayString = "${app.orders.consumer.reclaim.interval:PT10S}")
+    public void scheduledReclaim() {
+        try {
+            reclaim();
+        } catch (RuntimeException exception) {
+            log.warn("Failed to reclaim pending {} : {}", properties.getStream(), exception.getMessage());
+        }
+    }
+
+    /**
+     * Returns the number of entries processed or dead lettered in this run.
+     */
+    public int reclaim() {
+        long start = System.nanoTime();
+        int handled = 0;
+        try {
+            String cursor = START;
+            int pages = 0;
+            do {
+                ClaimedMessages<byte[], byte[]> claimed = autoClaim(cursor);
+                if (claimed == null) {
+                    break;
+                }
+                cursor = claimed.getId();
+                handled += process(claimed.getMessages());
+            } while (!START.equals(cursor) && ++pages < MAX_PAGES);
+        } finally {
+            reclaimLatency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            refreshPending();
+        }
+        return handled;
+    }
+
+    public long getPending() {
+        return pending.get();
+    }
+
+    @SuppressWarnings("unchecked")
+    private ClaimedMessages<byte[], byte[]> autoClaim(String cursor) {
+        var consumer = io.lettuce.core.Consumer.from(
+                properties.getGroup().getBytes(StandardCharsets.UTF_8),
+                consumerName.getBytes(StandardCharsets.UTF_8));
+        XAutoClaimArgs<byte[]> args = XAutoClaimArgs.Builder
+                .xautoclaim(consumer, properties.getReclaim().getMinIdleTime(), cursor)
+                .count(properties.getReclaim().getCount());
+
+        return redisTemplate.execute((RedisCallback<ClaimedMessages<byte[], byte[]>>) connection -> {
+            var commands = (RedisStreamAsyncCommands<byte[], byte[]>) connection.getNativeConnection();
+            return LettuceFutures.awaitOrCancel(commands.xautoclaim(rawStream, args),
+                    COMMAND_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        });
+    }
+
+    private int process(List<StreamMessage<byte[], byte[]>> messages) {
+        if (messages == null || messages.isEmpty()) {
+            return 0;
+        }
+
+        Map<String, Long> deliveries = deliveryCounts(messages);
+        List<ObjectRecord<String, Order>> orders = new ArrayList<>();
+        List<RecordId> discarded = new ArrayList<>();
+        for (StreamMessage<byte[], byte[]> message : messages) {
+            RecordId id = RecordId.of(message.getId());
+            Map<byte[], byte[]> body = message.getBody();
+            if (body == null || body.isEmpty()) {
+                // entry was deleted from the stream while pending
+                discarded.add(id);
+                continue;
+            }
+
+            long count = deliveries.getOrDefault(message.getId(), 0L);
+            if (count > properties.getReclaim().getMaxDeliveries()) {
+                deadLetter(message, count);
+                discarded.add(id);
+                continue;
+            }
+
+            try {
+                Order order = (Order) hashMapper.fromHash(body);
+                orders.add(ObjectRecord.create(properties.getStream(), order).withId(id));
+            } catch (RuntimeException exception) {
+                deadLetter(message, count);
+                discarded.add(id);
+            }
+        }
+
+        int handled = discarded.size();
+        if (!orders.isEmpty()) {
+            try {
+                listener.onMessages(orders);
+                acknowledge(orders.stream().map(ObjectRecord::getId).toList());
+                handled += orders.size();
+            } catch (RuntimeException exception) {
+                // retry one by one so a single poison entry does not hold back the rest of the batch
+                for (ObjectRecord<String, Order> order : orders) {
+                    try {
+                        listener.onMessages(List.of(order));
+                        acknowledge(List.of(order.getId()));
+                        handled++;
+                    } catch (RuntimeException orderException) {
+                        log.warn("Failed to process reclaimed order {} : {}", order.getId(), orderException.getMessage());
+                    }
+                }
+            }
+        }
+        acknowledge(discarded);
+        reclaimed.increment(handled - discarded.size());
+        return handled;
+    }
+
+    /**
+     * Delivery counts of the claimed entries, asked one id at a time: the consumer's pending entries between the
+     * first and the last claimed id can outnumber the claimed ones, so a single range query would miss some. The
+     * queries are sent back to back on the native connection and cost one round trip.
+     */
+    @SuppressWarnings("unchecked")
+    private Map<String, Long> deliveryCounts(List<StreamMessage<byte[], byte[]>> messages) {
+        var consumer = io.lettuce.core.Consumer.from(
+                properties.getGroup().getBytes(StandardCharsets.UTF_8),
+                consumerName.getBytes(StandardCharsets.UTF_8));
+        List<RedisFuture<List<io.lettuce.core.models.stream.PendingMessage>>> futures =
+                redisTemplate.execute((RedisCallback<List<RedisFuture<List<io.lettuce.core.models.stream.PendingMessage>>>>) connection -> {
+                    var commands = (RedisStreamAsyncCommands<byte[], byte[]>) connection.getNativeConnection();
+                    List<RedisFuture<List<io.lettuce.core.models.stream.PendingMessage>>> pendingFutures =
+                            new ArrayList<>(messages.size());
+                    for (StreamMessage<byte[], byte[]> message : messages) {
+                        pendingFutures.add(commands.xpending(rawStream, consumer,
+                                io.lettuce.core.Range.create(message.getId(), message.getId()), Limit.from(1)));
+                    }
+                    return pendingFutures;
+                });
+
+        Map<String, Long> deliveries = new HashMap<>();
+        for (RedisFuture<List<io.lettuce.core.models.stream.PendingMessage>> future : futures) {
+            for (io.lettuce.core.models.stream.PendingMessage message :
+                    LettuceFutures.awaitOrCancel(future, COMMAND_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                deliveries.put(message.getId(), message.getRedeliveryCount());
+            }
+        }
+        return deliveries;
+    }
+
+    private void deadLetter(StreamMessage<byte[], byte[]> message, long deliveries) {
+        Map<byte[], byte[]> body = new LinkedHashMap<>(message.getBody());
+        body.put(bytes("_source_id"), bytes(message.getId()));
+        body.put(bytes("_deliveries"), bytes(String.valueOf(deliveries)));
+        redisTemplate.execute((RedisCallback<RecordId>) connection -> connection.streamCommands()
+                .xAdd(StreamRecords.rawBytes(body).withStreamKey(rawDeadLetterStream)));
+        deadLettered.increment();
+        log.warn("Moved order {} to {} after {} deliveries", message.getId(),
+                properties.getReclaim().getDeadLetterStream(), deliveries);
+    }
+
+    private void acknowledge(List<RecordId> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        redisTemplate.execute((RedisCallback<Long>) connection -> connection.streamCommands()
+                .xAck(rawStream, properties.getGroup(), ids.toArray(RecordId[]::new)));
+    }
+
+    private void refreshPending() {
+        PendingMessagesSummary summary = redisTemplate.execute((RedisCallback<PendingMessagesSummary>) connection ->
+                connection.streamCommands().xPending(rawStream, properties.getGroup()));
+        if (summary != null) {
+            pending.set(summary.getTotalPendingMessages());
+        }
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,111 @@
+package ariefbelajarteknologi.belajarspringredis.stream;
+
+import ariefbelajarteknologi.belajarspringredis.config.OrderStreamProperties;
+import ariefbelajarteknologi.belajarspringredis.entity.Order;
+import ariefbelajarteknologi.belajarspringredis.listener.OrderBatchListener;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.data.redis.connection.stream.Consumer;
+import org.springframework.data.redis.connection.stream.ObjectRecord;
+import org.springframework.data.redis.connection.stream.ReadOffset;
+import org.springframework.data.redis.connection.stream.RecordId;
+import org.springframework.data.redis.connection.stream.StreamOffset;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.stream.StreamReceiver;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Consumes the orders stream through a {@link StreamReceiver} without holding a thread while waiting.
+ * Records are grouped into batches of up to {@code batchSize}, handed to the listener on a bounded elastic
+ * worker and acknowledged with one XACK per batch.
+ */
+@Slf4j
+public class ReactiveOrderConsumer implements SmartLifecycle {
+
+    private static final Duration BATCH_LINGER = Duration.ofMillis(10);
+
+    private static final Duration RETRY_DELAY = Duration.ofSeconds(1);
+
+    private final ReactiveStringRedisTemplate redisTemplate;
+
+    private final StreamReceiver<String, ObjectRecord<String, Order>> receiver;
+
+    private final OrderStreamProperties properties;
+
+    private final OrderBatchListener listener;
+
+    private Disposable subscription;
+
+    public ReactiveOrderConsumer(ReactiveStringRedisTemplate redisTemplate,
+                                 StreamReceiver<String, ObjectRecord<String, Order>> receiver,
+                                 OrderStreamProperties properties, OrderBatchListener listener) {
+        this.redisTemplate = redisTemplate;
+        this.receiver = receiver;
+        this.properties = properties;
+        this.listener = listener;
+    }
+
+    @Override
+    public synchronized void start() {
+        if (subscription != null) {
+            return;
+        }
+        var consumer = Consumer.from(properties.getGroup(), properties.getConsumerPrefix() + "reactive");
+        var offset = StreamOffset.create(properties.getStream(), ReadOffset.lastConsumed());
+        Flux<ObjectRecord<String, Order>> records = properties.isAutoAcknowledge()
+                ? receiver.receiveAutoAck(consumer, offset)
+                : receiver.receive(consumer, offset);
+
+        subscription = createGroup()
+                .thenMany(records)
+                .bufferTimeout(properties.getBatchSize(), BATCH_LINGER, true)
+                .concatMap(this::handle)
+                .doOnError(throwable -> log.warn("Reactive order consumer failed : {}", throwable.getMessage()))
+                .retryWhen(Retry.fixedDelay(Long.MAX_VALUE, RETRY_DELAY))
+                .subscribe();
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (subscription != null) {
+            subscription.dispose();
+            subscription = null;
+        }
+    }
+
+    @Override
+    public synchronized boolean isRunning() {
+        return subscription != null;
+    }
+
+    private Mono<Long> handle(List<ObjectRecord<String, Order>> batch) {
+        Mono<Void> process = Mono.<Void>fromRunnable(() -> listener.onMessages(batch))
+                .subscribeOn(Schedulers.boundedElastic());
+        if (properties.isAutoAcknowledge()) {
+            return process.thenReturn(0L);
+        }
+        RecordId[] ids = batch.stream().map(ObjectRecord::getId).toArray(RecordId[]::new);
+        return process
+                .then(redisTemplate.opsForStream().acknowledge(properties.getStream(), properties.getGroup(), ids))
+                .onErrorResume(throwable -> {
+                    log.warn("Failed to process {} orders : {}", batch.size(), throwable.getMessage());
+                    return Mono.just(0L);
+                });
+    }
+
+    /**
+     * Starts a new group at the end of the stream, like the blocking consumers, so it does not replay the history.
+     */
+    private Mono<String> createGroup() {
+        return redisTemplate.opsForStream()
+                .createGroup(properties.getStream(), properties.getGroup())
+                .onErrorResume(throwable -> Mono.empty());
+    }
+}
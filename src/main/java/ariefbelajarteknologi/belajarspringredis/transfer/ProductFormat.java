@@ -0,0 +1,121 @@
+package ariefbelajarteknologi.belajarspringredis.transfer;
+
+import ariefbelajarteknologi.belajarspringredis.entity.Product;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Line formats of a product file. CSV has the columns {@code id,name,price,ttl} with an optional header line,
+ * quoted fields may hold commas and doubled quotes but no line breaks. NDJSON holds one product object per line.
+ */
+public enum ProductFormat {
+
+    CSV {
+        @Override
+        String header() {
+            return HEADER;
+        }
+
+        @Override
+        Product parse(String line, ObjectMapper objectMapper) {
+            List<String> fields = split(line);
+            if (fields.size() != 4) {
+                throw new IllegalArgumentException("Expected 4 fields but found " + fields.size());
+            }
+            return new Product(fields.get(0), fields.get(1).isEmpty() ? null : fields.get(1),
+                    longValue(fields.get(2)), longValue(fields.get(3)));
+        }
+
+        @Override
+        String format(Product product, ObjectMapper objectMapper) {
+            return quote(product.getId()) + "," + quote(product.getName()) + ","
+                    + (product.getPrice() == null ? "" : product.getPrice()) + ","
+                    + (product.getTtl() == null ? "" : product.getTtl());
+        }
+    },
+
+    NDJSON {
+        @Override
+        String header() {
+            return null;
+        }
+
+        @Override
+        Product parse(String line, ObjectMapper objectMapper) throws JsonProcessingException {
+            return objectMapper.readValue(line, Product.class);
+        }
+
+        @Override
+        String format(Product product, ObjectMapper objectMapper) throws JsonProcessingException {
+            return objectMapper.writeValueAsString(product);
+        }
+    };
+
+    private static final String HEADER = "id,name,price,ttl";
+
+    /**
+     * Picks the format from the file extension, {@code .csv} or anything else as NDJSON.
+     */
+    public static ProductFormat of(Path path) {
+        return path.getFileName().toString().toLowerCase().endsWith(".csv") ? CSV : NDJSON;
+    }
+
+    abstract String header();
+
+    abstract Product parse(String line, ObjectMapper objectMapper) throws Exception;
+
+    abstract String format(Product product, ObjectMapper objectMapper) throws Exception;
+
+    boolean isHeader(String line) {
+        return line.equals(header());
+    }
+
+    private static List<String> split(String line) {
+        List<String> fields = new ArrayList<>(4);
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c != '"') {
+                    field.append(c);
+                } else if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else {
+                    quoted = false;
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("Unterminated quoted field");
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    private static String quote(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"").replace('\n', ' ').replace('\r', ' ') + '"';
+    }
+
+    private static Long longValue(String value) {
+        return value.isBlank() ? null : Long.valueOf(value.trim());
+    }
+}
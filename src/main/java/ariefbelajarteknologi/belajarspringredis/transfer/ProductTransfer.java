@@ -0,0 +1,259 @@
+package ariefbelajarteknologi.belajarspringredis.transfer;
+
+import ariefbelajarteknologi.belajarspringredis.config.ProductTransferProperties;
+import ariefbelajarteknologi.belajarspringredis.entity.Product;
+import ariefbelajarteknologi.belajarspringredis.repository.KeyspaceHashReader;
+import ariefbelajarteknologi.belajarspringredis.repository.KeyspaceHashWriter;
+import ariefbelajarteknologi.belajarspringredis.repository.KeyspaceScanSpliterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Bulk import and export of products. An import reads the file line by line through a buffered channel, parses
+ * it into batches on the calling thread and hands them over a bounded queue to {@code writers} threads, which
+ * write each batch as one pipeline in the repository layout of {@link KeyspaceHashWriter}. An export walks the
+ * keyspace with SSCAN and writes one page at a time, so neither side holds the dataset in memory. The
+ * {@code products} cache is not touched, and the exported time to live is the one saved, not the remaining one.
+ */
+@Slf4j
+public class ProductTransfer {
+
+    private static final List<Product> END = List.of();
+
+    private final StringRedisTemplate redisTemplate;
+
+    private final KeyspaceHashReader reader;
+
+    private final KeyspaceHashWriter writer;
+
+    private final ObjectMapper objectMapper;
+
+    private final ProductTransferProperties properties;
+
+    public ProductTransfer(StringRedisTemplate redisTemplate, KeyspaceHashReader reader, KeyspaceHashWriter writer,
+                           ObjectMapper objectMapper, ProductTransferProperties properties) {
+        this.redisTemplate = redisTemplate;
+        this.reader = reader;
+        this.writer = writer;
+        this.objectMapper = objectMapper;
+        this.properties = properties;
+    }
+
+    /**
+     * Resolves a file name against the transfer directory, rejecting names that point outside of it.
+     */
+    public Path resolve(String file) {
+        Path directory = properties.getDirectory().toAbsolutePath().normalize();
+        Path path = directory.resolve(file).normalize();
+        if (!path.startsWith(directory)) {
+            throw new IllegalArgumentException("File " + file + " is outside of " + directory);
+        }
+        return path;
+    }
+
+    public TransferReport importFile(Path path, ProductFormat format) {
+        return importFile(path, format, report -> log.info("Imported {} products ({} rejected) at {}/s",
+                report.products(), report.rejected(), Math.round(report.getProductsPerSecond())));
+    }
+
+    /**
+     * Imports the file, passing the running totals to {@code progress} every {@code progress-interval}. Lines that
+     * cannot be parsed are logged and skipped. A failed write stops the import and is rethrown, batches already
+     * written stay in Redis.
+     */
+    public TransferReport importFile(Path path, ProductFormat format, Consumer<TransferReport> progress) {
+        long started = System.nanoTime();
+        BlockingQueue<List<Product>> queue = new ArrayBlockingQueue<>(properties.getQueueCapacity());
+        AtomicLong written = new AtomicLong();
+        AtomicReference<RuntimeException> failure = new AtomicReference<>();
+        List<Thread> writers = new ArrayList<>(properties.getWriters());
+        for (int i = 0; i < properties.getWriters(); i++) {
+            writers.add(Thread.ofPlatform().name("product-import-" + i).start(() -> write(queue, written, failure)));
+        }
+
+        long rejected = 0;
+        long nextReport = started + properties.getProgressInterval().toNanos();
+        try (BufferedReader lines = open(path)) {
+            List<Product> batch = new ArrayList<>(properties.getBatchSize());
+            long number = 0;
+            String line;
+            while ((line = lines.readLine()) != null && failure.get() == null) {
+                number++;
+                if (line.isBlank() || (number == 1 && format.isHeader(line))) {
+                    continue;
+                }
+                try {
+                    batch.add(format.parse(line, objectMapper));
+                } catch (Exception exception) {
+                    rejected++;
+                    log.warn("Skipping line {} of {} : {}", number, path.getFileName(), exception.getMessage());
+                    continue;
+                }
+                if (batch.size() == properties.getBatchSize()) {
+                    put(queue, batch, failure);
+                    batch = new ArrayList<>(properties.getBatchSize());
+                }
+                if (System.nanoTime() - nextReport >= 0) {
+                    progress.accept(new TransferReport(written.get(), rejected, since(started)));
+                    nextReport += properties.getProgressInterval().toNanos();
+                }
+            }
+            if (!batch.isEmpty()) {
+                put(queue, batch, failure);
+            }
+        } catch (IOException exception) {
+            failure.compareAndSet(null, new UncheckedIOException(exception));
+        } finally {
+            writers.forEach(thread -> put(queue, END, failure));
+            writers.forEach(ProductTransfer::join);
+        }
+        if (failure.get() != null) {
+            throw failure.get();
+        }
+
+        var report = new TransferReport(written.get(), rejected, since(started));
+        progress.accept(report);
+        return report;
+    }
+
+    public TransferReport exportFile(Path path, ProductFormat format) {
+        return exportFile(path, format, report -> log.info("Exported {} products at {}/s",
+                report.products(), Math.round(report.getProductsPerSecond())));
+    }
+
+    /**
+     * Exports every stored product. The file is written next to the target and moved over it once complete.
+     */
+    public TransferReport exportFile(Path path, ProductFormat format, Consumer<TransferReport> progress) {
+        long started = System.nanoTime();
+        long nextReport = started + properties.getProgressInterval().toNanos();
+        long exported = 0;
+        Path partial = path.resolveSibling(path.getFileName() + ".part");
+        try (Stream<Product> products = KeyspaceScanSpliterator.stream(redisTemplate, reader, Product.class,
+                writer.keyspace(Product.class), properties.getBatchSize(), id -> {
+                });
+             BufferedWriter out = create(partial)) {
+            if (format.header() != null) {
+                out.write(format.header());
+                out.newLine();
+            }
+            Iterator<Product> iterator = products.iterator();
+            while (iterator.hasNext()) {
+                out.write(format.format(iterator.next(), objectMapper));
+                out.newLine();
+                exported++;
+                if (System.nanoTime() - nextReport >= 0) {
+                    progress.accept(new TransferReport(exported, 0, since(started)));
+                    nextReport += properties.getProgressInterval().toNanos();
+                }
+            }
+        } catch (Exception exception) {
+            try {
+                Files.deleteIfExists(partial);
+            } catch (IOException ignored) {
+                // the exception below is the one worth reporting
+            }
+            throw new IllegalStateException("Failed to export products to " + path, exception);
+        }
+        try {
+            Files.move(partial, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+
+        var report = new TransferReport(exported, 0, since(started));
+        progress.accept(report);
+        return report;
+    }
+
+    private void write(BlockingQueue<List<Product>> queue, AtomicLong written, AtomicReference<RuntimeException> failure) {
+        try {
+            List<Product> batch;
+            while ((batch = queue.take()) != END) {
+                if (failure.get() != null) {
+                    continue;
+                }
+                List<Product> products = batch;
+                try {
+                    redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                        products.forEach(product -> writer.write(connection, product));
+                        return null;
+                    });
+                    written.addAndGet(products.size());
+                } catch (RuntimeException exception) {
+                    failure.compareAndSet(null, exception);
+                }
+            }
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Waits for room in the queue, giving up once a writer has failed so the reader cannot block forever.
+     */
+    private static void put(BlockingQueue<List<Product>> queue, List<Product> batch,
+                            AtomicReference<RuntimeException> failure) {
+        try {
+            while (!queue.offer(batch, 100, TimeUnit.MILLISECONDS)) {
+                if (failure.get() != null && batch != END) {
+                    return;
+                }
+            }
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            failure.compareAndSet(null, new IllegalStateException("Interrupted while importing products", exception));
+        }
+    }
+
+    private BufferedReader open(Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        return new BufferedReader(Channels.newReader(channel, StandardCharsets.UTF_8),
+                (int) properties.getBufferSize().toBytes());
+    }
+
+    private BufferedWriter create(Path path) throws IOException {
+        Files.createDirectories(path.toAbsolutePath().getParent());
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        return new BufferedWriter(Channels.newWriter(channel, StandardCharsets.UTF_8),
+                (int) properties.getBufferSize().toBytes());
+    }
+
+    private static Duration since(long started) {
+        return Duration.ofNanos(System.nanoTime() - started);
+    }
+
+    private static void join(Thread thread) {
+        try {
+            thread.join();
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
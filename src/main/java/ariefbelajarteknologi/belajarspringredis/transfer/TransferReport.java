@@ -0,0 +1,14 @@
+package ariefbelajarteknologi.belajarspringredis.transfer;
+
+import java.time.Duration;
+
+/**
+ * Progress of an import or export, {@code rejected} counts lines that could not be parsed.
+ */
+public record TransferReport(long products, long rejected, Duration elapsed) {
+
+    public double getProductsPerSecond() {
+        long millis = elapsed.toMillis();
+        return millis == 0 ? 0 : products * 1000.0 / millis;
+    }
+}
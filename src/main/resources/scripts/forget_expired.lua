@@ -0,0 +1,18 @@
+-- Drops ids whose hash no longer exists from the keyspace set and the score indexes. The EXISTS check and the
+-- removal run together, so an id saved again between a lookup that missed and the cleanup keeps its memberships.
+-- KEYS[1] keyspace set, KEYS[2 .. ARGV[1] + 1] score index sorted sets, the remaining keys the entity hashes
+-- ARGV[1] number of score indexes, ARGV[2..] the ids, in the same order as their hashes
+-- Returns how many ids were removed from the keyspace set.
+
+local indexes = tonumber(ARGV[1])
+local removed = 0
+for i = 2, #ARGV do
+    local hash = KEYS[indexes + i]
+    if redis.call('EXISTS', hash) == 0 then
+        removed = removed + redis.call('SREM', KEYS[1], ARGV[i])
+        for j = 2, indexes + 1 do
+            redis.call('ZREM', KEYS[j], ARGV[i])
+        end
+    end
+end
+return removed
@@ -0,0 +1,14 @@
+-- Moves, adds or removes one member of a geo set and returns where it was before, so the caller knows which
+-- cached search areas to drop. Reading the old position and writing run as one step, a concurrent write to the
+-- same member cannot slip in between.
+-- KEYS[1] geo set
+-- ARGV[1] member, ARGV[2] longitude and ARGV[3] latitude of the new position, both omitted to remove the member
+-- Returns {longitude, latitude} of the previous position, or nil when the member was not in the set.
+
+local previous = redis.call('GEOPOS', KEYS[1], ARGV[1])[1]
+if #ARGV >= 3 then
+    redis.call('GEOADD', KEYS[1], ARGV[2], ARGV[3], ARGV[1])
+else
+    redis.call('ZREM', KEYS[1], ARGV[1])
+end
+return previous
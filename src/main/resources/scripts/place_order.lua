@@ -0,0 +1,35 @@
+-- Places an order atomically: checks and decrements the stock, writes the order hash and appends it to the stream.
+-- KEYS[1] stock counter, KEYS[2] order hash, KEYS[3] orders stream
+-- ARGV[1] quantity, ARGV[2] approximate MAXLEN of the stream (0 keeps everything), ARGV[3] product id,
+-- ARGV[4..] the order encoded by the stream hash mapper, as field value pairs
+-- Returns {-1} for an order id that was placed before, {0, stock} when the stock is too low,
+-- {1, remaining stock, stream entry id} when the order was placed.
+
+local quantity = tonumber(ARGV[1])
+if quantity == nil or quantity <= 0 then
+    return redis.error_reply('quantity must be a positive number')
+end
+
+if redis.call('EXISTS', KEYS[2]) == 1 then
+    return {-1}
+end
+
+local stock = tonumber(redis.call('GET', KEYS[1]) or '0')
+if stock < quantity then
+    return {0, stock}
+end
+
+local remaining = redis.call('DECRBY', KEYS[1], ARGV[1])
+local fields = {}
+for i = 4, #ARGV do
+    fields[#fields + 1] = ARGV[i]
+end
+redis.call('HSET', KEYS[2], 'product', ARGV[3], 'quantity', ARGV[1], unpack(fields))
+
+local id
+if tonumber(ARGV[2]) > 0 then
+    id = redis.call('XADD', KEYS[3], 'MAXLEN', '~', ARGV[2], '*', unpack(fields))
+else
+    id = redis.call('XADD', KEYS[3], '*', unpack(fields))
+end
+return {1, remaining, id}
@@ -0,0 +1,32 @@
+-- Token bucket shared by every node. Takes up to the wanted number of permits and returns how many were granted,
+-- so a node can prefetch a batch and still get a partial grant when the bucket is nearly empty.
+-- KEYS[1] bucket hash
+-- ARGV[1] capacity, ARGV[2] refill per second, ARGV[3] permits wanted
+-- The server clock is used so nodes with skewed clocks refill the bucket the same way.
+
+local capacity = tonumber(ARGV[1])
+local rate = tonumber(ARGV[2])
+local wanted = tonumber(ARGV[3])
+if rate == nil or rate <= 0 then
+    return redis.error_reply('refill per second must be positive')
+end
+
+local time = redis.call('TIME')
+local now = tonumber(time[1]) * 1000 + math.floor(tonumber(time[2]) / 1000)
+
+local bucket = redis.call('HMGET', KEYS[1], 'tokens', 'ts')
+local tokens = tonumber(bucket[1])
+local ts = tonumber(bucket[2])
+if tokens == nil or ts == nil then
+    tokens = capacity
+    ts = now
+end
+
+tokens = math.min(capacity, tokens + math.max(0, now - ts) * rate / 1000)
+local granted = math.min(wanted, math.floor(tokens))
+tokens = tokens - granted
+
+redis.call('HSET', KEYS[1], 'tokens', tostring(tokens), 'ts', now)
+-- an untouched bucket is full again after capacity / rate, it does not need to outlive that
+redis.call('PEXPIRE', KEYS[1], math.ceil(capacity * 1000 / rate) + 1000)
+return granted
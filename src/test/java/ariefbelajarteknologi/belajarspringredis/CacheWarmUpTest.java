@@ -0,0 +1,119 @@
+package ariefbelajarteknologi.belajarspringredis;
+
+import ariefbelajarteknologi.belajarspringredis.actuator.CacheWarmUpHealthIndicator;
+import ariefbelajarteknologi.belajarspringredis.cache.CachePreloader;
+import ariefbelajarteknologi.belajarspringredis.cache.CacheWarmUp;
+import ariefbelajarteknologi.belajarspringredis.cache.HotKeyTracker;
+import ariefbelajarteknologi.belajarspringredis.config.CacheWarmUpProperties;
+import ariefbelajarteknologi.belajarspringredis.service.ProductService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "app.cache.warm-up.enabled=true",
+        "app.cache.warm-up.sample-rate=1",
+        "app.cache.warm-up.snapshot-size=20",
+        "app.cache.warm-up.batch-size=5",
+        "app.cache.warm-up.snapshot-directory=target/cache-snapshot-test"
+})
+public class CacheWarmUpTest {
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private CacheWarmUp cacheWarmUp;
+
+    @Autowired
+    private HotKeyTracker hotKeyTracker;
+
+    @Autowired
+    private CacheWarmUpProperties properties;
+
+    @Autowired
+    private CacheWarmUpHealthIndicator healthIndicator;
+
+    @Autowired
+    private StringRedisTemplate redisTemplate;
+
+    @Test
+    void snapshotAndPreload() throws Exception {
+        // startup ran before any snapshot existed
+        assertEquals(Status.UP, healthIndicator.health().getStatus());
+
+        for (int i = 0; i < 40; i++) {
+            for (int reads = 0; reads < 40 - i; reads++) {
+                productService.getProduct("warm-" + i);
+            }
+        }
+        List<String> hottest = hotKeyTracker.top("products", 20);
+        assertEquals(IntStream.range(0, 20).mapToObj(i -> "warm-" + i).toList(), hottest);
+
+        cacheWarmUp.snapshot();
+        assertTrue(Files.exists(cacheWarmUp.snapshotFile("products")));
+        // counts are halved after a snapshot, the key read only once is forgotten
+        assertEquals(List.of("warm-0"), hotKeyTracker.top("products", 1));
+        assertEquals(39, hotKeyTracker.top("products", 100).size());
+
+        // a restarted redis has lost the cache
+        redisTemplate.delete(IntStream.range(0, 40).mapToObj(i -> "cache:products::warm-" + i).toList());
+        CacheWarmUp.Report report = cacheWarmUp.warmUp();
+        assertEquals(20, report.keys());
+        assertEquals(20, report.loaded());
+        assertEquals(0, report.skipped());
+        for (int i = 0; i < 40; i++) {
+            assertEquals(i < 20, redisTemplate.hasKey("cache:products::warm-" + i));
+        }
+
+        var health = healthIndicator.health();
+        assertEquals(Status.UP, health.getStatus());
+        assertEquals(20, health.getDetails().get("loaded"));
+    }
+
+    @Test
+    void stopsAtTheTimeBudget() {
+        var budget = new CacheWarmUpProperties();
+        budget.setCacheNames(List.of("slow"));
+        budget.setSnapshotDirectory(properties.getSnapshotDirectory());
+        budget.setBatchSize(1);
+        budget.setParallelism(2);
+        budget.setTimeBudget(Duration.ofMillis(300));
+
+        var tracker = new HotKeyTracker(1, 1_000);
+        IntStream.range(0, 50).forEach(i -> tracker.record("slow", "slow-" + i));
+        CachePreloader slow = new CachePreloader() {
+            @Override
+            public String getCacheName() {
+                return "slow";
+            }
+
+            @Override
+            public void preload(List<String> keys) {
+                try {
+                    Thread.sleep(100);
+                } catch (InterruptedException exception) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        };
+        var warmUp = new CacheWarmUp(tracker, List.of(slow), budget);
+        warmUp.snapshot();
+
+        long started = System.nanoTime();
+        CacheWarmUp.Report report = warmUp.warmUp();
+        assertTrue(Duration.ofNanos(System.nanoTime() - started).toMillis() < 1_000);
+        assertEquals(50, report.keys());
+        assertTrue(report.loaded() > 0 && report.loaded() < 50);
+        assertEquals(50, report.loaded() + report.skipped());
+    }
+}
@@ -0,0 +1,170 @@
+package ariefbelajarteknologi.belajarspringredis;
+
+import ariefbelajarteknologi.belajarspringredis.cache.CacheEnvelope;
+import ariefbelajarteknologi.belajarspringredis.codec.CompactHashMapper;
+import ariefbelajarteknologi.belajarspringredis.codec.CompactRedisSerializer;
+import ariefbelajarteknologi.belajarspringredis.entity.Order;
+import ariefbelajarteknologi.belajarspringredis.entity.Product;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.redis.connection.stream.ObjectRecord;
+import org.springframework.data.redis.connection.stream.StreamOffset;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.hash.HashMapper;
+import org.springframework.data.redis.hash.ObjectHashMapper;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.stream.StreamMessageListenerContainer;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+public class CodecTest {
+
+    private static final int ITERATIONS = 200_000;
+
+    @Autowired
+    private CompactRedisSerializer serializer;
+
+    @Autowired
+    private HashMapper<Object, byte[], byte[]> streamHashMapper;
+
+    @Autowired
+    private StringRedisTemplate redisTemplate;
+
+    private final Product product = Product.builder()
+            .id("P001")
+            .name("Pizza Tuna Melt")
+            .price(110_000L)
+            .ttl(-1L)
+            .build();
+
+    @Test
+    void roundTrip() {
+        assertEquals(product, serializer.deserialize(serializer.serialize(product)));
+
+        Order order = new Order("O001", -10_000L);
+        assertEquals(order, serializer.deserialize(serializer.serialize(order)));
+        Order stamped = new Order("O001", -10_000L, 1_700_000_000_000_000L);
+        assertEquals(stamped, serializer.deserialize(serializer.serialize(stamped)));
+
+        var envelope = new CacheEnvelope(product, 1_700_000_000_000L, 12L);
+        assertEquals(envelope, serializer.deserialize(serializer.serialize(envelope)));
+
+        assertEquals(85, serializer.deserialize(serializer.serialize(85)));
+        assertEquals(product, serializer.deserialize(RedisSerializer.java().serialize(product)));
+    }
+
+    @Test
+    void compression() {
+        Product big = Product.builder().id("P002").name("Pizza ".repeat(500)).price(1L).build();
+
+        byte[] compressed = serializer.serialize(big);
+        byte[] plain = new CompactRedisSerializer(0).serialize(big);
+
+        assertTrue(compressed.length < plain.length);
+        assertEquals(big, serializer.deserialize(compressed));
+        assertEquals(big, serializer.deserialize(plain));
+
+        // the reused buffers hold nothing over from the previous value
+        assertEquals(product, serializer.deserialize(serializer.serialize(product)));
+        assertArrayEquals(compressed, serializer.serialize(big));
+    }
+
+    @Test
+    void stream() throws InterruptedException {
+        assertInstanceOf(CompactHashMapper.class, streamHashMapper);
+
+        var options = StreamMessageListenerContainer.StreamMessageListenerContainerOptions
+                .builder()
+                .pollTimeout(Duration.ofMillis(100))
+                .hashKeySerializer(RedisSerializer.byteArray())
+                .hashValueSerializer(RedisSerializer.byteArray())
+                .objectMapper(streamHashMapper)
+                .targetType(Order.class)
+                .build();
+        var container = StreamMessageListenerContainer.create(redisTemplate.getConnectionFactory(), options);
+        BlockingQueue<Order> received = new LinkedBlockingQueue<>();
+        container.receive(StreamOffset.fromStart("codec-stream"), record -> received.add(record.getValue()));
+        container.start();
+        try {
+            Order order = new Order("O002", 10_000L);
+            redisTemplate.opsForStream(streamHashMapper).add(ObjectRecord.create("codec-stream", order));
+            assertEquals(order, received.poll(5, TimeUnit.SECONDS));
+
+            Order legacy = new Order("O003", 20_000L);
+            redisTemplate.opsForStream().add(ObjectRecord.create("codec-stream", legacy));
+            assertEquals(legacy, received.poll(5, TimeUnit.SECONDS));
+        } finally {
+            container.stop();
+            redisTemplate.delete("codec-stream");
+        }
+    }
+
+    @Test
+    void sizeAndThroughput() {
+        RedisSerializer<Object> jdk = RedisSerializer.java();
+        ObjectHashMapper hashMapper = ObjectHashMapper.getSharedInstance();
+        Order order = new Order("9d5b3a44-5d38-4f2c-9b3e-2f1f6b1a7c11", 10_000L);
+
+        assertTrue(serializer.serialize(product).length < jdk.serialize(product).length);
+        assertTrue(hashSize(streamHashMapper.toHash(order)) < hashSize(hashMapper.toHash(order)));
+
+        long productJdk = measure(() -> jdk.deserialize(jdk.serialize(product)));
+        long productCompact = measure(() -> serializer.deserialize(serializer.serialize(product)));
+        assertTrue(productCompact < productJdk, productCompact + " ns against " + productJdk + " ns");
+        long orderHash = measure(() -> hashMapper.fromHash(hashMapper.toHash(order), Order.class));
+        long orderCompact = measure(() -> streamHashMapper.fromHash(streamHashMapper.toHash(order)));
+        assertTrue(orderCompact < orderHash, orderCompact + " ns against " + orderHash + " ns");
+    }
+
+    @Test
+    void pooledOnVirtualThreads() throws Exception {
+        Product big = Product.builder().id("P003").name("Pasta ".repeat(500)).price(1L).build();
+        byte[] expected = serializer.serialize(big);
+
+        // every task runs on a new virtual thread, the pooled buffers and deflaters are shared between them
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (int i = 0; i < 1_000; i++) {
+                results.add(executor.submit(() -> {
+                    byte[] bytes = serializer.serialize(big);
+                    return Arrays.equals(expected, bytes) && big.equals(serializer.deserialize(bytes));
+                }));
+            }
+            for (Future<Boolean> result : results) {
+                assertTrue(result.get(30, TimeUnit.SECONDS));
+            }
+        }
+    }
+
+    private int hashSize(Map<byte[], byte[]> hash) {
+        return hash.entrySet().stream().mapToInt(entry -> entry.getKey().length + entry.getValue().length).sum();
+    }
+
+    /**
+     * Nanoseconds taken by {@link #ITERATIONS} round trips after a warm up.
+     */
+    private long measure(Runnable roundTrip) {
+        for (int i = 0; i < ITERATIONS / 10; i++) {
+            roundTrip.run();
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            roundTrip.run();
+        }
+        return System.nanoTime() - start;
+    }
+}
@@ -0,0 +1,54 @@
+package ariefbelajarteknologi.belajarspringredis;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs a task from several threads released at the same moment, for tests that race callers against each other.
+ */
+final class ConcurrentTasks {
+
+    private ConcurrentTasks() {
+    }
+
+    /**
+     * Calls {@code task} {@code tasksPerThread} times on each of {@code threads} threads, thread {@code t} with the
+     * indexes from {@code t * tasksPerThread}, and returns the results in index order.
+     */
+    static <T> List<T> run(int threads, int tasksPerThread, Task<T> task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<List<T>>> futures = new ArrayList<>(threads);
+            for (int t = 0; t < threads; t++) {
+                int offset = t * tasksPerThread;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    List<T> results = new ArrayList<>(tasksPerThread);
+                    for (int i = 0; i < tasksPerThread; i++) {
+                        results.add(task.apply(offset + i));
+                    }
+                    return results;
+                }));
+            }
+            start.countDown();
+
+            List<T> results = new ArrayList<>(threads * tasksPerThread);
+            for (Future<List<T>> future : futures) {
+                results.addAll(future.get(60, TimeUnit.SECONDS));
+            }
+            return results;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    interface Task<T> {
+        T apply(int index) throws Exception;
+    }
+}
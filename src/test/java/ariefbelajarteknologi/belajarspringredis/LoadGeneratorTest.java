@@ -0,0 +1,83 @@
+package ariefbelajarteknologi.belajarspringredis;
+
+import ariefbelajarteknologi.belajarspringredis.config.LoadProperties;
+import ariefbelajarteknologi.belajarspringredis.load.EndToEndLatency;
+import ariefbelajarteknologi.belajarspringredis.load.LoadGenerator;
+import ariefbelajarteknologi.belajarspringredis.load.LoadReport;
+import ariefbelajarteknologi.belajarspringredis.load.LoadTarget;
+import ariefbelajarteknologi.belajarspringredis.publisher.CustomerPublisher;
+import ariefbelajarteknologi.belajarspringredis.stream.OrderStreamPublisher;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "app.load.enabled=true",
+        "app.load.rate=500",
+        "app.load.duration=0s",
+        "app.orders.publisher.stream=orders-load",
+        "app.orders.consumer.stream=orders-load",
+        "app.orders.consumer.group=load-group"
+})
+public class LoadGeneratorTest {
+
+    @Autowired
+    private ApplicationContext applicationContext;
+
+    @Autowired
+    private OrderStreamPublisher orderStreamPublisher;
+
+    @Autowired
+    private StringRedisTemplate redisTemplate;
+
+    @Autowired
+    private EndToEndLatency endToEndLatency;
+
+    @Test
+    void fixedRatePublishersDisabled() {
+        assertTrue(applicationContext.getBeansOfType(CustomerPublisher.class).isEmpty());
+        assertEquals(1, applicationContext.getBeansOfType(LoadGenerator.class).size());
+    }
+
+    @Test
+    void rateMustBePositive() {
+        var properties = new LoadProperties();
+        assertThrows(IllegalArgumentException.class, () -> properties.setRate(0));
+        assertThrows(IllegalArgumentException.class, () -> properties.setRate(-1));
+    }
+
+    @Test
+    void endToEndLatency() throws Exception {
+        var properties = new LoadProperties();
+        properties.setRate(1_000);
+        properties.setDuration(Duration.ofSeconds(2));
+        properties.setPayloadSize(128);
+
+        var generator = new LoadGenerator(orderStreamPublisher, redisTemplate, endToEndLatency, properties);
+        List<LoadReport> reports = generator.run();
+        generator.destroy();
+
+        assertEquals(2, reports.size());
+        for (LoadReport report : reports) {
+            assertEquals(1_000, report.targetRate());
+            assertEquals(2_000, report.sent());
+            assertEquals(0, report.failed());
+            assertEquals(report.sent(), report.received(), report.target().name());
+            assertTrue(report.p50() > 0);
+            assertTrue(report.p50() <= report.p99() && report.p99() <= report.p999() && report.p999() <= report.max());
+            assertTrue(report.throughput() > 0);
+            // sending is paced over the whole duration, receiving the last message cannot come sooner
+            assertTrue(report.elapsed().compareTo(Duration.ofMillis(1_900)) >= 0, report.toString());
+            assertTrue(report.throughput() <= 1_100, report.toString());
+        }
+        assertEquals(LoadTarget.ORDERS, reports.get(0).target());
+        redisTemplate.delete("orders-load");
+    }
+}
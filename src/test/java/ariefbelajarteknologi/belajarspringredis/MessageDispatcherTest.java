@@ -0,0 +1,198 @@
+package ariefbelajarteknologi.belajarspringredis;
+
+import ariefbelajarteknologi.belajarspringredis.config.CustomerDispatchProperties;
+import ariefbelajarteknologi.belajarspringredis.listener.MessageBatchListener;
+import ariefbelajarteknologi.belajarspringredis.listener.MessageDispatcher;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+public class MessageDispatcherTest {
+
+    private static final int MESSAGES = 50;
+
+    private static final int CAPACITY = 10;
+
+    @Autowired
+    private StringRedisTemplate redisTemplate;
+
+    @Test
+    void dropOldest() throws InterruptedException {
+        var registry = new SimpleMeterRegistry();
+        var received = new CopyOnWriteArrayList<String>();
+        var blocked = new CountDownLatch(1);
+        var release = new CountDownLatch(1);
+        var dispatcher = dispatcher(CustomerDispatchProperties.OverflowPolicy.DROP_OLDEST, registry, messages -> {
+            blocked.countDown();
+            await(release);
+            received.addAll(messages);
+        });
+
+        dispatcher.start();
+        publish(dispatcher, 0, 1);
+        assertTrue(blocked.await(5, TimeUnit.SECONDS));
+        publish(dispatcher, 1, MESSAGES);
+
+        assertEquals(CAPACITY, dispatcher.getQueueDepth());
+        assertEquals(MESSAGES - 1 - CAPACITY, registry.get("pubsub.dispatch.dropped").counter().count());
+        assertEquals(CAPACITY, registry.get("pubsub.dispatch.queue.depth").gauge().value());
+
+        release.countDown();
+        dispatcher.stop();
+        // the first message was already taken by the worker, the newest ones replaced the rest
+        assertEquals(messages(0, 1), received.subList(0, 1));
+        assertEquals(messages(MESSAGES - CAPACITY, MESSAGES), received.subList(1, received.size()));
+    }
+
+    @Test
+    void block() throws InterruptedException {
+        var registry = new SimpleMeterRegistry();
+        var received = new CopyOnWriteArrayList<String>();
+        var dispatcher = dispatcher(CustomerDispatchProperties.OverflowPolicy.BLOCK, registry, messages -> {
+            sleep(5);
+            received.addAll(messages);
+        });
+
+        dispatcher.start();
+        publish(dispatcher, 0, MESSAGES);
+        dispatcher.stop();
+
+        assertEquals(0, registry.get("pubsub.dispatch.dropped").counter().count());
+        assertEquals(messages(0, MESSAGES), received);
+    }
+
+    @Test
+    void spill() throws InterruptedException {
+        redisTemplate.delete(List.of("customers:spill-test:node-a", "customers:spill-test:node-b"));
+        redisTemplate.opsForList().leftPush("customers:spill-test:node-b", "Other node");
+        var registry = new SimpleMeterRegistry();
+        var received = new CopyOnWriteArrayList<String>();
+        var blocked = new CountDownLatch(1);
+        var release = new CountDownLatch(1);
+        var dispatcher = dispatcher(CustomerDispatchProperties.OverflowPolicy.SPILL, registry, messages -> {
+            blocked.countDown();
+            await(release);
+            received.addAll(messages);
+        });
+
+        assertEquals("customers:spill-test:node-a", dispatcher.getSpillList());
+        dispatcher.start();
+        assertEquals(0, dispatcher.getSpilled());
+        publish(dispatcher, 0, 1);
+        assertTrue(blocked.await(5, TimeUnit.SECONDS));
+        publish(dispatcher, 1, MESSAGES);
+        // spills are counted once their LPUSH is done
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (dispatcher.getSpilled() < MESSAGES - 1 - CAPACITY && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(MESSAGES - 1 - CAPACITY, dispatcher.getSpilled());
+
+        release.countDown();
+        // arrives while spilled messages are still pending, so it has to follow them
+        publish(dispatcher, MESSAGES, MESSAGES + 10);
+        deadline = System.currentTimeMillis() + 5_000;
+        while (received.size() < MESSAGES + 10 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        dispatcher.stop();
+
+        assertEquals(0, registry.get("pubsub.dispatch.dropped").counter().count());
+        assertTrue(registry.get("pubsub.dispatch.unspilled").counter().count() >= MESSAGES - 1 - CAPACITY);
+        assertEquals(registry.get("pubsub.dispatch.spilled").counter().count(),
+                registry.get("pubsub.dispatch.unspilled").counter().count());
+        assertEquals(0, dispatcher.getSpilled());
+        assertEquals(0L, redisTemplate.opsForList().size("customers:spill-test:node-a"));
+        // queued messages come first, spilled ones and everything after them follow in arrival order
+        assertEquals(messages(0, MESSAGES + 10), received);
+        // the list of another node is neither counted nor read
+        assertEquals(List.of("Other node"), redisTemplate.opsForList().range("customers:spill-test:node-b", 0, -1));
+        redisTemplate.delete("customers:spill-test:node-b");
+    }
+
+    @Test
+    void spillCountRecoversFromAnEmptyList() throws InterruptedException {
+        redisTemplate.delete("customers:spill-test:node-a");
+        redisTemplate.opsForList().leftPushAll("customers:spill-test:node-a", "Spilled 1", "Spilled 2");
+        var registry = new SimpleMeterRegistry();
+        var received = new CopyOnWriteArrayList<String>();
+        var blocked = new CountDownLatch(1);
+        var release = new CountDownLatch(1);
+        var dispatcher = dispatcher(CustomerDispatchProperties.OverflowPolicy.SPILL, registry, messages -> {
+            blocked.countDown();
+            await(release);
+            received.addAll(messages);
+        });
+
+        // queued before the start, so the worker is busy with it while the spilled ones disappear
+        publish(dispatcher, 0, 1);
+        dispatcher.start();
+        assertTrue(blocked.await(5, TimeUnit.SECONDS));
+        assertEquals(2, dispatcher.getSpilled());
+        redisTemplate.delete("customers:spill-test:node-a");
+        release.countDown();
+
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (dispatcher.getSpilled() > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(0, dispatcher.getSpilled());
+        // later messages are queued again instead of spilled
+        publish(dispatcher, 1, 3);
+        dispatcher.stop();
+        assertEquals(messages(0, 3), received);
+        assertEquals(0, registry.get("pubsub.dispatch.spilled").counter().count());
+    }
+
+    private MessageDispatcher dispatcher(CustomerDispatchProperties.OverflowPolicy overflow, SimpleMeterRegistry registry,
+                                         MessageBatchListener listener) {
+        var properties = new CustomerDispatchProperties();
+        properties.setChannel("customers-test");
+        properties.setQueueCapacity(CAPACITY);
+        properties.setBatchSize(4);
+        properties.setOverflow(overflow);
+        properties.setSpillList("customers:spill-test");
+        properties.setNodeId("node-a");
+        return new MessageDispatcher(redisTemplate, properties, listener, registry);
+    }
+
+    private static void publish(MessageDispatcher dispatcher, int from, int to) {
+        for (String message : messages(from, to)) {
+            dispatcher.onMessage(new DefaultMessage("customers-test".getBytes(StandardCharsets.UTF_8),
+                    message.getBytes(StandardCharsets.UTF_8)), null);
+        }
+    }
+
+    private static List<String> messages(int from, int to) {
+        return IntStream.range(from, to).mapToObj(i -> "Pelanggan " + i).toList();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package ariefbelajarteknologi.belajarspringredis;
+
+import ariefbelajarteknologi.belajarspringredis.entity.Order;
+import ariefbelajarteknologi.belajarspringredis.entity.Product;
+import ariefbelajarteknologi.belajarspringredis.repository.ProductRepository;
+import ariefbelajarteknologi.belajarspringredis.service.ProductService;
+import ariefbelajarteknologi.belajarspringredis.stream.OrderStreamMetrics;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.data.redis.connection.stream.Consumer;
+import org.springframework.data.redis.connection.stream.ObjectRecord;
+import org.springframework.data.redis.connection.stream.ReadOffset;
+import org.springframework.data.redis.connection.stream.StreamOffset;
+import org.springframework.data.redis.connection.stream.StreamReadOptions;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.hash.HashMapper;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@AutoConfigureObservability(tracing = false)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "app.orders.consumer.stream=orders-metrics",
+        "app.orders.consumer.metrics.interval=PT1H"
+})
+public class MetricsTest {
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private StringRedisTemplate redisTemplate;
+
+    @Autowired
+    private HashMapper<Object, byte[], byte[]> streamHashMapper;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private OrderStreamMetrics orderStreamMetrics;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void cacheAndRepository() {
+        productService.remove("metrics-1");
+        long misses = timerCount("cache.latency", "operation", "get", "result", "miss");
+        long hits = timerCount("cache.latency", "operation", "get", "result", "hit");
+        long evictions = timerCount("cache.latency", "operation", "evict", "result", "none");
+        productService.getProduct("metrics-1");
+        productService.getProduct("metrics-1");
+        productService.remove("metrics-1");
+
+        productRepository.save(new Product("metrics-2", "Metrics", 1_000L, -1L));
+        assertTrue(productRepository.findById("metrics-2").isPresent());
+        productRepository.deleteById("metrics-2");
+
+        assertEquals(misses + 1, timerCount("cache.latency", "operation", "get", "result", "miss"));
+        assertEquals(hits + 1, timerCount("cache.latency", "operation", "get", "result", "hit"));
+        assertEquals(evictions + 1, timerCount("cache.latency", "operation", "evict", "result", "none"));
+        assertTrue(meterRegistry.get("spring.data.repository.invocations")
+                .tag("repository", "ProductRepository").tag("method", "findById").timer().count() >= 1);
+        assertTrue(meterRegistry.get("lettuce.command.completion").timers().stream()
+                .anyMatch(timer -> timer.count() > 0));
+    }
+
+    @Test
+    void streamGauges() {
+        redisTemplate.delete("orders-metrics");
+        redisTemplate.opsForStream().createGroup("orders-metrics", ReadOffset.from("0"), "metrics-group");
+        for (int i = 0; i < 5; i++) {
+            redisTemplate.opsForStream(streamHashMapper)
+                    .add(ObjectRecord.create("orders-metrics", new Order("metrics-" + i, 1_000L)));
+        }
+        // two entries delivered and never acknowledged
+        redisTemplate.opsForStream().read(Consumer.from("metrics-group", "metrics-consumer"),
+                StreamReadOptions.empty().count(2),
+                StreamOffset.create("orders-metrics", ReadOffset.lastConsumed()));
+
+        orderStreamMetrics.refresh();
+
+        assertEquals(5, gauge("orders.stream.length").value());
+        assertEquals(3, gauge("orders.stream.lag", "group", "metrics-group").value());
+        // the pending entries list size is only published once, by the reclaimer
+        assertNull(meterRegistry.find("orders.stream.pending").gauge());
+        redisTemplate.delete("orders-metrics");
+    }
+
+    @Test
+    void prometheus() throws Exception {
+        double received = meterRegistry.get("customers.messages").tag("direction", "received").counter().count();
+        redisTemplate.convertAndSend("customers", "Pelanggan metrics");
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (meterRegistry.get("customers.messages").tag("direction", "received").counter().count() == received
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        productService.getProduct("metrics-3");
+        productService.remove("metrics-3");
+        productRepository.findById("metrics-3");
+        orderStreamMetrics.refresh();
+
+        HttpResponse<String> response = HttpClient.newHttpClient().send(
+                HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/actuator/prometheus")).build(),
+                HttpResponse.BodyHandlers.ofString());
+
+        assertEquals(200, response.statusCode());
+        for (String metric : List.of("cache_latency_seconds_bucket", "cache_gets_total",
+                "spring_data_repository_invocations_seconds", "lettuce_command_completion_seconds_bucket",
+                "orders_stream_length", "customers_messages_total{direction=\"received\"")) {
+            assertTrue(response.body().contains(metric), metric);
+        }
+    }
+
+    private long timerCount(String name, String... tags) {
+        return meterRegistry.get(name).tag("cache", "products").tags(tags).timer().count();
+    }
+
+    private Gauge gauge(String name, String... tags) {
+        return meterRegistry.get(name).tag("stream", "orders-metrics").tags(tags).gauge();
+    }
+}
@@ -0,0 +1,196 @@
+package ariefbelajarteknologi.belajarspringredis;
+
+import ariefbelajarteknologi.belajarspringredis.cache.CacheEnvelope;
+import ariefbelajarteknologi.belajarspringredis.cache.DecoratedCache;
+import ariefbelajarteknologi.belajarspringredis.cache.NearCacheManager;
+import ariefbelajarteknologi.belajarspringredis.cache.NearCacheStatistics;
+import ariefbelajarteknologi.belajarspringredis.config.NearCacheProperties;
+import ariefbelajarteknologi.belajarspringredis.entity.Product;
+import ariefbelajarteknologi.belajarspringredis.service.ProductService;
+import ariefbelajarteknologi.belajarspringredis.service.ReactiveProductService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "app.cache.near.enabled=true")
+public class NearCacheTest {
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ReactiveProductService reactiveProductService;
+
+    @Autowired
+    private StringRedisTemplate redisTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private RedisMessageListenerContainer messageListenerContainer;
+
+    @Test
+    void nearCacheManager() {
+        assertInstanceOf(NearCacheManager.class, cacheManager);
+    }
+
+    @Test
+    void localHit() {
+        productService.remove("near-1");
+
+        Product query1 = productService.getProduct("near-1");
+        NearCacheStatistics before = statistics();
+
+        Product query2 = productService.getProduct("near-1");
+        NearCacheStatistics after = statistics();
+
+        assertEquals(query1, query2);
+        assertEquals(before.localHits() + 1, after.localHits());
+        assertEquals(before.remoteHits(), after.remoteHits());
+    }
+
+    @Test
+    void remoteInvalidation() throws InterruptedException {
+        productService.getProduct("near-2");
+        productService.getProduct("near-2");
+
+        redisTemplate.delete("cache:products::near-2");
+        redisTemplate.convertAndSend("cache-invalidation", "E|other-node|products|near-2");
+        Thread.sleep(Duration.ofMillis(500));
+
+        NearCacheStatistics before = statistics();
+        productService.getProduct("near-2");
+        NearCacheStatistics after = statistics();
+
+        assertEquals(before.localMisses() + 1, after.localMisses());
+        assertEquals(before.remoteMisses() + 1, after.remoteMisses());
+    }
+
+    @Test
+    void leastRecentlyUsedEviction() {
+        NearCacheManager manager = standaloneManager("near-cache-lru-test");
+        Cache cache = manager.getCache("products");
+        cache.put("a", 1);
+        cache.put("b", 2);
+        cache.put("c", 3);
+        cache.get("a");
+        cache.put("d", 4);
+
+        // b was the least recently used entry when d went over the limit
+        NearCacheStatistics before = manager.getStatistics().get("products");
+        assertEquals(3, before.localSize());
+        cache.get("a");
+        cache.get("c");
+        cache.get("d");
+        cache.get("b");
+        NearCacheStatistics after = manager.getStatistics().get("products");
+        assertEquals(before.localHits() + 3, after.localHits());
+        assertEquals(before.localMisses() + 1, after.localMisses());
+    }
+
+    @Test
+    void onlyWritesBroadcast() throws InterruptedException {
+        List<String> messages = new CopyOnWriteArrayList<>();
+        MessageListener listener = (message, pattern) -> messages.add(new String(message.getBody()));
+        messageListenerContainer.addMessageListener(listener, new ChannelTopic("near-cache-fill-test"));
+        try {
+            Thread.sleep(Duration.ofMillis(500));
+            Cache cache = standaloneManager("near-cache-fill-test").getCache("products");
+
+            // a sync @Cacheable miss is filled through the loader
+            assertEquals(1, cache.get("filled", () -> 1));
+            assertEquals(1, cache.get("filled").get());
+            // a put is always a write, even right after a miss on the same key
+            assertNull(cache.get("written"));
+            cache.put("written", 2);
+            Thread.sleep(Duration.ofMillis(500));
+
+            assertEquals(1, messages.size(), messages.toString());
+            assertTrue(messages.get(0).endsWith("|products|written"), messages.toString());
+        } finally {
+            messageListenerContainer.removeMessageListener(listener);
+        }
+    }
+
+    @Test
+    void reactiveWritesInvalidate() {
+        productService.remove("near-reactive");
+        productService.getProduct("near-reactive");
+        assertEquals("example", productService.getProduct("near-reactive").getName());
+
+        // the reactive cache writes Redis directly, the L1 copy must not outlive it
+        reactiveProductService.save(new Product("near-reactive", "Reactive", 2_000L, -1L)).block();
+        assertEquals("Reactive", productService.getProduct("near-reactive").getName());
+
+        reactiveProductService.remove("near-reactive").block();
+        assertEquals("example", productService.getProduct("near-reactive").getName());
+        productService.remove("near-reactive");
+    }
+
+    @Test
+    void missIsMeteredOnce() {
+        productService.remove("near-metered");
+        long misses = meterRegistry.get("cache.latency").tag("cache", "products")
+                .tag("operation", "get").tag("result", "miss").timer().count();
+        long hits = meterRegistry.get("cache.latency").tag("cache", "products")
+                .tag("operation", "get").tag("result", "hit").timer().count();
+
+        productService.getProduct("near-metered");
+        productService.getProduct("near-metered");
+
+        assertEquals(misses + 1, meterRegistry.get("cache.latency").tag("cache", "products")
+                .tag("operation", "get").tag("result", "miss").timer().count());
+        // the second read is a local hit and never reaches the metered tier
+        assertEquals(hits, meterRegistry.get("cache.latency").tag("cache", "products")
+                .tag("operation", "get").tag("result", "hit").timer().count());
+    }
+
+    @Test
+    void refreshAheadBelowLocalMiss() throws InterruptedException {
+        Cache cache = cacheManager.getCache("products");
+        Cache redisCache = DecoratedCache.unwrap(cache);
+        redisCache.put("near-refresh", new CacheEnvelope("v1", System.currentTimeMillis() - 1, 1));
+
+        CountDownLatch refreshed = new CountDownLatch(1);
+        String stale = cache.get("near-refresh", () -> {
+            refreshed.countDown();
+            return "v2";
+        });
+
+        assertEquals("v1", stale);
+        assertTrue(refreshed.await(5, TimeUnit.SECONDS));
+        productService.remove("near-refresh");
+    }
+
+    private NearCacheManager standaloneManager(String channel) {
+        var properties = new NearCacheProperties();
+        properties.setMaximumSize(3);
+        properties.setTimeToLive(Duration.ofMinutes(1));
+        properties.setChannel(channel);
+        return new NearCacheManager(new ConcurrentMapCacheManager("products"), properties, redisTemplate);
+    }
+
+    private NearCacheStatistics statistics() {
+        return ((NearCacheManager) cacheManager).getStatistics().get("products");
+    }
+}
@@ -0,0 +1,99 @@
+package ariefbelajarteknologi.belajarspringredis;
+
+import ariefbelajarteknologi.belajarspringredis.analytics.OrderAnalytics;
+import ariefbelajarteknologi.belajarspringredis.analytics.OrderSeries;
+import ariefbelajarteknologi.belajarspringredis.analytics.OrderWindow;
+import ariefbelajarteknologi.belajarspringredis.analytics.Resolution;
+import ariefbelajarteknologi.belajarspringredis.entity.Order;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.data.redis.connection.stream.ObjectRecord;
+import org.springframework.data.redis.connection.stream.RecordId;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "app.orders.analytics.key-prefix=analytics:orders-test"
+})
+public class OrderAnalyticsTest {
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private OrderAnalytics orderAnalytics;
+
+    @Autowired
+    private StringRedisTemplate redisTemplate;
+
+    @Test
+    void windows() throws Exception {
+        cleanUp();
+        // two minutes of the previous hour, so both fall into one hour window
+        long hour = Resolution.HOUR.windowStart(System.currentTimeMillis()) - Duration.ofHours(1).toMillis();
+        long first = hour + Duration.ofMinutes(10).toMillis();
+        long second = hour + Duration.ofMinutes(11).toMillis();
+
+        // one poll, the redelivered o1 is counted again but not as a distinct order
+        orderAnalytics.record(List.of(
+                record(first + 1, "o1", 1_000L),
+                record(first + 2, "o2", 2_000L),
+                record(first + 3, "o1", 1_000L),
+                record(second, "o3", 5_000L)));
+        orderAnalytics.record(List.of(record(second + 10, "o4", 500L)));
+
+        OrderSeries minutes = orderAnalytics.query(Resolution.MINUTE,
+                Instant.ofEpochMilli(first), Instant.ofEpochMilli(second + 60_000));
+        assertEquals(List.of(
+                new OrderWindow(Instant.ofEpochMilli(first), 3, 4_000, 2),
+                new OrderWindow(Instant.ofEpochMilli(second), 2, 5_500, 2)), minutes.windows());
+        assertEquals(4, minutes.distinct());
+
+        OrderSeries hours = orderAnalytics.query(Resolution.HOUR,
+                Instant.ofEpochMilli(hour), Instant.ofEpochMilli(hour + 1));
+        assertEquals(List.of(new OrderWindow(Instant.ofEpochMilli(hour), 5, 9_500, 4)), hours.windows());
+
+        // expiry is anchored to the end of the window, not to the last write
+        long minuteTtl = redisTemplate.getExpire(orderAnalytics.windowKey(Resolution.MINUTE, first), TimeUnit.MILLISECONDS);
+        long expected = first + 60_000 + Duration.ofHours(24).toMillis() - System.currentTimeMillis();
+        assertTrue(Math.abs(minuteTtl - expected) < 5_000, "ttl " + minuteTtl);
+        assertTrue(redisTemplate.getExpire(orderAnalytics.distinctKey(Resolution.HOUR, hour)) > Duration.ofDays(29).toSeconds());
+
+        HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        HttpResponse<String> response = client.send(HttpRequest.newBuilder(URI.create("http://localhost:" + port
+                + "/analytics/orders?resolution=HOUR&from=" + Instant.ofEpochMilli(hour)
+                + "&to=" + Instant.ofEpochMilli(hour + 1))).build(), HttpResponse.BodyHandlers.ofString());
+        assertEquals(200, response.statusCode());
+        assertTrue(response.body().contains("\"count\":5"), response.body());
+        assertTrue(response.body().contains("\"amount\":9500"), response.body());
+
+        HttpResponse<String> tooLong = client.send(HttpRequest.newBuilder(URI.create("http://localhost:" + port
+                + "/analytics/orders?resolution=MINUTE&from=2020-01-01T00:00:00Z&to=2020-01-03T00:00:00Z")).build(),
+                HttpResponse.BodyHandlers.ofString());
+        assertEquals(400, tooLong.statusCode());
+        cleanUp();
+    }
+
+    private static ObjectRecord<String, Order> record(long timestamp, String id, long amount) {
+        return ObjectRecord.create("orders", new Order(id, amount)).withId(RecordId.of(timestamp, 0));
+    }
+
+    private void cleanUp() {
+        var keys = redisTemplate.keys("analytics:orders-test:*");
+        if (keys != null && !keys.isEmpty()) {
+            redisTemplate.delete(keys);
+        }
+    }
+}
@@ -0,0 +1,240 @@
+package ariefbelajarteknologi.belajarspringredis;
+
+import ariefbelajarteknologi.belajarspringredis.entity.Order;
+import ariefbelajarteknologi.belajarspringredis.service.OrderPlacementService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Range;
+import org.springframework.data.redis.connection.Limit;
+import org.springframework.data.redis.connection.stream.ByteRecord;
+import org.springframework.data.redis.connection.stream.StreamRecords;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.hash.HashMapper;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "app.orders.publisher.stream=orders-placement",
+        "app.orders.consumer.stream=orders-placement",
+        "app.orders.consumer.group=placement-group"
+})
+public class OrderPlacementTest {
+
+    private static final int STOCK = 100;
+
+    private static final int ATTEMPTS = 300;
+
+    private static final int LATENCY_ORDERS = 1_000;
+
+    @Autowired
+    private OrderPlacementService orderPlacementService;
+
+    @Autowired
+    private StringRedisTemplate redisTemplate;
+
+    @Autowired
+    private HashMapper<Object, byte[], byte[]> streamHashMapper;
+
+    @Test
+    void placeAndReject() {
+        clean("placement-1", List.of("placed-1", "placed-2"));
+        orderPlacementService.setStock("placement-1", 3);
+
+        var placed = orderPlacementService.place(new Order("placed-1", 10_000L), "placement-1", 2);
+        assertEquals(OrderPlacementService.Status.PLACED, placed.status());
+        assertEquals(1, placed.stock());
+        assertNotNull(placed.recordId());
+
+        assertEquals(OrderPlacementService.Status.DUPLICATE,
+                orderPlacementService.place(new Order("placed-1", 10_000L), "placement-1", 1).status());
+
+        var rejected = orderPlacementService.place(new Order("placed-2", 10_000L), "placement-1", 2);
+        assertEquals(OrderPlacementService.Status.OUT_OF_STOCK, rejected.status());
+        assertEquals(1, rejected.stock());
+        assertFalse(redisTemplate.hasKey(OrderPlacementService.orderKey("placed-2")));
+
+        // the order hash and the stream entry decode with the stream hash mapper
+        Map<Object, Object> hash = redisTemplate.opsForHash().entries(OrderPlacementService.orderKey("placed-1"));
+        assertEquals("placement-1", hash.get("product"));
+        assertEquals("2", hash.get("quantity"));
+        List<ByteRecord> records = redisTemplate.execute((RedisCallback<List<ByteRecord>>) connection ->
+                connection.streamCommands().xRange("orders-placement".getBytes(),
+                        Range.just(placed.recordId().getValue()), Limit.unlimited()));
+        assertEquals(new Order("placed-1", 10_000L), streamHashMapper.fromHash(records.get(0).getValue()));
+
+        // a non positive quantity would add stock instead of taking it
+        assertThrows(IllegalArgumentException.class,
+                () -> orderPlacementService.place(new Order("placed-2", 10_000L), "placement-1", 0));
+        assertThrows(IllegalArgumentException.class,
+                () -> orderPlacementService.place(new Order("placed-2", 10_000L), "placement-1", -5));
+        assertEquals(1, orderPlacementService.getStock("placement-1"));
+        assertFalse(redisTemplate.hasKey(OrderPlacementService.orderKey("placed-2")));
+    }
+
+    @Test
+    void scriptRejectsNonPositiveQuantity() {
+        clean("placement-5", List.of("negative-1"));
+        orderPlacementService.setStock("placement-5", 1);
+
+        // called directly, bypassing the check in the service
+        var script = RedisScript.of(new ClassPathResource("scripts/place_order.lua"), List.class);
+        assertThrows(DataAccessException.class, () -> redisTemplate.execute(script,
+                List.of(OrderPlacementService.stockKey("placement-5"), OrderPlacementService.orderKey("negative-1"),
+                        "orders-placement"),
+                "-5", "0", "placement-5", "id", "negative-1"));
+        assertEquals(1, orderPlacementService.getStock("placement-5"));
+        assertFalse(redisTemplate.hasKey(OrderPlacementService.orderKey("negative-1")));
+    }
+
+    @Test
+    void noScriptFallback() {
+        clean("placement-2", List.of("flushed-1"));
+        orderPlacementService.setStock("placement-2", 1);
+        redisTemplate.execute((RedisCallback<Object>) connection -> {
+            connection.scriptingCommands().scriptFlush();
+            return null;
+        });
+
+        assertEquals(OrderPlacementService.Status.PLACED,
+                orderPlacementService.place(new Order("flushed-1", 10_000L), "placement-2", 1).status());
+    }
+
+    @Test
+    void atomicUnderConcurrency() throws Exception {
+        List<String> orderIds = new ArrayList<>();
+        for (int i = 0; i < ATTEMPTS; i++) {
+            orderIds.add("concurrent-" + i);
+        }
+        clean("placement-3", orderIds);
+        redisTemplate.delete("orders-placement");
+        orderPlacementService.setStock("placement-3", STOCK);
+
+        List<Future<OrderPlacementService.Placement>> results = new ArrayList<>();
+        try (ExecutorService executor = Executors.newFixedThreadPool(32)) {
+            for (String orderId : orderIds) {
+                results.add(executor.submit(() ->
+                        orderPlacementService.place(new Order(orderId, 10_000L), "placement-3", 1)));
+            }
+        }
+
+        int placed = 0;
+        for (Future<OrderPlacementService.Placement> result : results) {
+            if (result.get().status() == OrderPlacementService.Status.PLACED) {
+                placed++;
+            }
+        }
+        assertEquals(STOCK, placed);
+        assertEquals(0, orderPlacementService.getStock("placement-3"));
+        assertEquals(STOCK, redisTemplate.opsForStream().size("orders-placement"));
+        assertEquals(STOCK, orderIds.stream()
+                .filter(id -> redisTemplate.hasKey(OrderPlacementService.orderKey(id)))
+                .count());
+    }
+
+    @Test
+    void latencyAgainstTransaction() {
+        List<String> orderIds = new ArrayList<>();
+        for (int i = 0; i < LATENCY_ORDERS * 2; i++) {
+            orderIds.add("latency-" + i);
+        }
+        List<String> warmUpIds = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            warmUpIds.add("warm-script-" + i);
+            warmUpIds.add("warm-multi-" + i);
+        }
+        clean("placement-4", orderIds);
+        clean("placement-4", warmUpIds);
+        redisTemplate.delete("orders-placement");
+        orderPlacementService.setStock("placement-4", LATENCY_ORDERS * 2 + warmUpIds.size());
+
+        // warm up both paths
+        for (int i = 0; i < 50; i++) {
+            orderPlacementService.place(new Order("warm-script-" + i, 10_000L), "placement-4", 1);
+            placeWithTransaction(new Order("warm-multi-" + i, 10_000L), "placement-4", 1);
+        }
+
+        long start = System.nanoTime();
+        for (int i = 0; i < LATENCY_ORDERS; i++) {
+            orderPlacementService.place(new Order(orderIds.get(i), 10_000L), "placement-4", 1);
+        }
+        long script = (System.nanoTime() - start) / LATENCY_ORDERS;
+
+        start = System.nanoTime();
+        for (int i = LATENCY_ORDERS; i < LATENCY_ORDERS * 2; i++) {
+            placeWithTransaction(new Order(orderIds.get(i), 10_000L), "placement-4", 1);
+        }
+        long multi = (System.nanoTime() - start) / LATENCY_ORDERS;
+
+        // timings are informational, both paths must leave the same state behind
+        System.out.printf("place order: script %d us, watch/multi %d us%n", script / 1_000, multi / 1_000);
+        assertEquals(0, orderPlacementService.getStock("placement-4"));
+        for (String orderId : orderIds) {
+            Map<Object, Object> hash = redisTemplate.opsForHash().entries(OrderPlacementService.orderKey(orderId));
+            assertEquals("placement-4", hash.get("product"), orderId);
+            assertEquals("1", hash.get("quantity"), orderId);
+        }
+
+        clean("placement-4", warmUpIds);
+        redisTemplate.delete("orders-placement");
+    }
+
+    /**
+     * The same placement as separate commands, made safe with WATCH and retried when the transaction aborts.
+     */
+    @SuppressWarnings("unchecked")
+    private void placeWithTransaction(Order order, String productId, int quantity) {
+        String stockKey = OrderPlacementService.stockKey(productId);
+        String orderKey = OrderPlacementService.orderKey(order.getId());
+        Map<byte[], byte[]> hash = streamHashMapper.toHash(order);
+        while (true) {
+            List<Object> result = redisTemplate.execute(new SessionCallback<List<Object>>() {
+                @Override
+                public List<Object> execute(RedisOperations operations) throws DataAccessException {
+                    operations.watch(List.of(stockKey, orderKey));
+                    if (Boolean.TRUE.equals(operations.hasKey(orderKey))) {
+                        operations.unwatch();
+                        return List.of();
+                    }
+                    String stock = (String) operations.opsForValue().get(stockKey);
+                    if (stock == null || Long.parseLong(stock) < quantity) {
+                        operations.unwatch();
+                        return List.of();
+                    }
+                    operations.multi();
+                    operations.opsForValue().decrement(stockKey, quantity);
+                    operations.opsForHash().putAll(orderKey, Map.of("product", productId,
+                            "quantity", String.valueOf(quantity)));
+                    operations.execute((RedisCallback<Object>) connection -> {
+                        connection.hashCommands().hMSet(orderKey.getBytes(), hash);
+                        connection.streamCommands().xAdd(StreamRecords.newRecord()
+                                .in("orders-placement".getBytes()).ofMap(hash));
+                        return null;
+                    });
+                    return operations.exec();
+                }
+            });
+            if (result != null) {
+                return;
+            }
+        }
+    }
+
+    private void clean(String productId, List<String> orderIds) {
+        redisTemplate.delete(OrderPlacementService.stockKey(productId));
+        redisTemplate.delete(orderIds.stream().map(OrderPlacementService::orderKey).toList());
+    }
+}
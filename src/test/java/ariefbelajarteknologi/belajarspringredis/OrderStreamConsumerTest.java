@@ -0,0 +1,76 @@
+package ariefbelajarteknologi.belajarspringredis;
+
+import ariefbelajarteknologi.belajarspringredis.config.OrderStreamProperties;
+import ariefbelajarteknologi.belajarspringredis.entity.Order;
+import ariefbelajarteknologi.belajarspringredis.stream.OrderStreamConsumer;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.redis.connection.stream.ObjectRecord;
+import org.springframework.data.redis.connection.stream.PendingMessagesSummary;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.hash.HashMapper;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+public class OrderStreamConsumerTest {
+
+    private static final int ORDERS = 1_000;
+
+    @Autowired
+    private StringRedisTemplate redisTemplate;
+
+    @Autowired
+    private HashMapper<Object, byte[], byte[]> streamHashMapper;
+
+    @Test
+    void batchConsumers() throws InterruptedException {
+        redisTemplate.delete("orders-batch-test");
+
+        var properties = new OrderStreamProperties();
+        properties.setStream("orders-batch-test");
+        properties.setGroup("batch-group");
+        properties.setConsumers(4);
+        properties.setBatchSize(50);
+        properties.setPollTimeout(Duration.ofMillis(200));
+
+        Map<String, AtomicInteger> received = new ConcurrentHashMap<>();
+        AtomicInteger batches = new AtomicInteger();
+        var consumer = new OrderStreamConsumer(redisTemplate, streamHashMapper, properties, messages -> {
+            batches.incrementAndGet();
+            messages.forEach(message -> received
+                    .computeIfAbsent(message.getValue().getId(), id -> new AtomicInteger())
+                    .incrementAndGet());
+        });
+
+        consumer.start();
+        try {
+            for (int i = 0; i < ORDERS; i++) {
+                redisTemplate.opsForStream(streamHashMapper)
+                        .add(ObjectRecord.create("orders-batch-test", new Order("order-" + i, 1_000L)));
+            }
+
+            long deadline = System.currentTimeMillis() + 10_000;
+            while (received.size() < ORDERS && System.currentTimeMillis() < deadline) {
+                Thread.sleep(50);
+            }
+        } finally {
+            consumer.stop();
+        }
+
+        assertEquals(ORDERS, received.size());
+        received.values().forEach(count -> assertEquals(1, count.get()));
+        assertTrue(batches.get() < ORDERS);
+
+        PendingMessagesSummary pending = redisTemplate.opsForStream().pending("orders-batch-test", "batch-group");
+        assertEquals(0L, pending.getTotalPendingMessages());
+
+        redisTemplate.delete("orders-batch-test");
+    }
+}
@@ -0,0 +1,84 @@
+package ariefbelajarteknologi.belajarspringredis;
+
+import ariefbelajarteknologi.belajarspringredis.config.OrderPublisherProperties;
+import ariefbelajarteknologi.belajarspringredis.entity.Order;
+import ariefbelajarteknologi.belajarspringredis.stream.OrderStreamPublisher;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.redis.connection.stream.ObjectRecord;
+import org.springframework.data.redis.connection.stream.RecordId;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.hash.HashMapper;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+public class OrderStreamPublisherTest {
+
+    private static final int THREADS = 8;
+
+    private static final int ORDERS_PER_THREAD = 2_500;
+
+    @Autowired
+    private StringRedisTemplate redisTemplate;
+
+    @Autowired
+    private HashMapper<Object, byte[], byte[]> streamHashMapper;
+
+    @Test
+    void pipelinedVersusSingleXadd() throws Exception {
+        redisTemplate.delete(List.of("orders-publish-batched", "orders-publish-single"));
+
+        var properties = new OrderPublisherProperties();
+        properties.setStream("orders-publish-batched");
+        properties.setMaxLength(1_000);
+        // measures throughput, a flusher slowed down by other test contexts must not reject orders
+        properties.setBlockTimeout(Duration.ofSeconds(30));
+        var publisher = new OrderStreamPublisher(redisTemplate, streamHashMapper, properties);
+        publisher.start();
+
+        List<CompletableFuture<RecordId>> results;
+        long batchedNanos;
+        try {
+            // timed until the last XADD is acknowledged, not only until the orders are buffered
+            long start = System.nanoTime();
+            results = ConcurrentTasks.run(THREADS, ORDERS_PER_THREAD,
+                    i -> publisher.publish(new Order("order-" + i, 1_000L)));
+            CompletableFuture.allOf(results.toArray(CompletableFuture[]::new)).get(30, TimeUnit.SECONDS);
+            batchedNanos = System.nanoTime() - start;
+        } finally {
+            publisher.stop();
+        }
+
+        long start = System.nanoTime();
+        ConcurrentTasks.run(THREADS, ORDERS_PER_THREAD, i -> redisTemplate.opsForStream(streamHashMapper)
+                .add(ObjectRecord.create("orders-publish-single", new Order("order-" + i, 1_000L))));
+        long singleNanos = System.nanoTime() - start;
+
+        int total = THREADS * ORDERS_PER_THREAD;
+        System.out.printf("pipelined XADD : %,d orders/s%n", total * 1_000_000_000L / batchedNanos);
+        System.out.printf("single XADD : %,d orders/s%n", total * 1_000_000_000L / singleNanos);
+
+        assertEquals(total, results.size());
+        results.forEach(result -> assertNotNull(result.join()));
+
+        Long length = redisTemplate.opsForStream().size("orders-publish-batched");
+        assertTrue(length < total, "stream should be trimmed but has " + length + " entries");
+
+        redisTemplate.delete(List.of("orders-publish-batched", "orders-publish-single"));
+    }
+
+    @Test
+    void rejectWhenStopped() {
+        var publisher = new OrderStreamPublisher(redisTemplate, streamHashMapper, new OrderPublisherProperties());
+        CompletableFuture<RecordId> result = publisher.publish(new Order("order", 1_000L));
+        assertThrows(CompletionException.class, result::join);
+    }
+}
@@ -0,0 +1,124 @@
+package ariefbelajarteknologi.belajarspringredis;
+
+import ariefbelajarteknologi.belajarspringredis.config.OrderStreamProperties;
+import ariefbelajarteknologi.belajarspringredis.entity.Order;
+import ariefbelajarteknologi.belajarspringredis.stream.PendingOrderReclaimer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Range;
+import org.springframework.data.redis.connection.stream.Consumer;
+import org.springframework.data.redis.connection.stream.MapRecord;
+import org.springframework.data.redis.connection.stream.ObjectRecord;
+import org.springframework.data.redis.connection.stream.ReadOffset;
+import org.springframework.data.redis.connection.stream.RecordId;
+import org.springframework.data.redis.connection.stream.StreamOffset;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.hash.HashMapper;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+public class PendingOrderReclaimerTest {
+
+    @Autowired
+    private StringRedisTemplate redisTemplate;
+
+    @Autowired
+    private HashMapper<Object, byte[], byte[]> streamHashMapper;
+
+    @Test
+    void reclaimAndDeadLetter() {
+        redisTemplate.delete(List.of("orders-reclaim-test", "orders-reclaim-test:dead-letter"));
+
+        var properties = new OrderStreamProperties();
+        properties.setStream("orders-reclaim-test");
+        properties.setGroup("reclaim-group");
+        properties.getReclaim().setMinIdleTime(Duration.ZERO);
+        properties.getReclaim().setMaxDeliveries(2);
+        properties.getReclaim().setDeadLetterStream("orders-reclaim-test:dead-letter");
+
+        redisTemplate.opsForStream().createGroup("orders-reclaim-test", ReadOffset.from("0"), "reclaim-group");
+        for (String id : List.of("order-1", "order-2", "poison")) {
+            redisTemplate.opsForStream(streamHashMapper)
+                    .add(ObjectRecord.create("orders-reclaim-test", new Order(id, 1_000L)));
+        }
+
+        // a consumer reads everything and dies before acknowledging
+        redisTemplate.opsForStream().read(Consumer.from("reclaim-group", "crashed"),
+                StreamOffset.create("orders-reclaim-test", ReadOffset.lastConsumed()));
+
+        Set<String> processed = ConcurrentHashMap.newKeySet();
+        var reclaimer = new PendingOrderReclaimer(redisTemplate, streamHashMapper, properties, messages -> {
+            for (ObjectRecord<String, Order> message : messages) {
+                if (message.getValue().getId().equals("poison")) {
+                    throw new IllegalStateException("poison order");
+                }
+            }
+            messages.forEach(message -> processed.add(message.getValue().getId()));
+        }, new SimpleMeterRegistry());
+
+        assertEquals(2, reclaimer.reclaim());
+        assertEquals(Set.of("order-1", "order-2"), processed);
+        assertEquals(1L, reclaimer.getPending());
+
+        // third delivery of the poison entry is over the limit
+        assertEquals(1, reclaimer.reclaim());
+        assertEquals(0L, reclaimer.getPending());
+
+        List<MapRecord<String, Object, Object>> deadLetters = redisTemplate.opsForStream()
+                .range("orders-reclaim-test:dead-letter", Range.unbounded());
+        assertEquals(1, deadLetters.size());
+        assertEquals("3", deadLetters.get(0).getValue().get("_deliveries"));
+
+        redisTemplate.delete(List.of("orders-reclaim-test", "orders-reclaim-test:dead-letter"));
+    }
+
+    @Test
+    void deliveryCountsOfEveryClaimedEntry() throws InterruptedException {
+        redisTemplate.delete(List.of("orders-reclaim-gap", "orders-reclaim-gap:dead-letter"));
+
+        var properties = new OrderStreamProperties();
+        properties.setStream("orders-reclaim-gap");
+        properties.setGroup("reclaim-group");
+        properties.getReclaim().setMinIdleTime(Duration.ofMillis(200));
+        properties.getReclaim().setMaxDeliveries(1);
+        properties.getReclaim().setDeadLetterStream("orders-reclaim-gap:dead-letter");
+
+        redisTemplate.opsForStream().createGroup("orders-reclaim-gap", ReadOffset.from("0"), "reclaim-group");
+        List<RecordId> ids = new ArrayList<>();
+        for (String id : List.of("first", "busy", "last")) {
+            ids.add(redisTemplate.opsForStream(streamHashMapper)
+                    .add(ObjectRecord.create("orders-reclaim-gap", new Order(id, 1_000L))));
+        }
+        redisTemplate.opsForStream().read(Consumer.from("reclaim-group", "crashed"),
+                StreamOffset.create("orders-reclaim-gap", ReadOffset.lastConsumed()));
+        Thread.sleep(300);
+
+        // the reclaiming consumer already works on the middle entry, it is too recent to be claimed again
+        redisTemplate.opsForStream().claim("orders-reclaim-gap", "reclaim-group",
+                properties.getConsumerPrefix() + 1, Duration.ZERO, ids.get(1));
+
+        Set<String> processed = ConcurrentHashMap.newKeySet();
+        var reclaimer = new PendingOrderReclaimer(redisTemplate, streamHashMapper, properties,
+                messages -> messages.forEach(message -> processed.add(message.getValue().getId())),
+                new SimpleMeterRegistry());
+
+        // both claimed entries are on their second delivery and over the limit, not only the first of the range
+        assertEquals(2, reclaimer.reclaim());
+        assertEquals(Set.of(), processed);
+        List<MapRecord<String, Object, Object>> deadLetters = redisTemplate.opsForStream()
+                .range("orders-reclaim-gap:dead-letter", Range.unbounded());
+        assertEquals(List.of(ids.get(0).getValue(), ids.get(2).getValue()),
+                deadLetters.stream().map(record -> record.getValue().get("_source_id")).toList());
+
+        redisTemplate.delete(List.of("orders-reclaim-gap", "orders-reclaim-gap:dead-letter"));
+    }
+}
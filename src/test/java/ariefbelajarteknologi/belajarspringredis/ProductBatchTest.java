@@ -0,0 +1,85 @@
+package ariefbelajarteknologi.belajarspringredis;
+
+import ariefbelajarteknologi.belajarspringredis.entity.Product;
+import ariefbelajarteknologi.belajarspringredis.service.ProductService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.util.List;
+import java.util.Properties;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+public class ProductBatchTest {
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private StringRedisTemplate redisTemplate;
+
+    @Test
+    void getProducts() {
+        List<String> ids = ids("batch-a");
+        productService.remove(ids.get(0));
+        Product cached = productService.getProduct(ids.get(0));
+
+        List<Product> products = productService.getProducts(ids);
+        assertEquals(ids.size(), products.size());
+        assertEquals(cached, products.get(0));
+        for (int i = 0; i < ids.size(); i++) {
+            assertEquals(ids.get(i), products.get(i).getId());
+        }
+
+        assertEquals(Boolean.TRUE, redisTemplate.hasKey("cache:products::" + ids.get(49)));
+        assertEquals(products.get(49), productService.getProduct(ids.get(49)));
+    }
+
+    @Test
+    void roundTripsComparedToLoop() {
+        List<String> loopIds = ids("batch-loop");
+        List<String> batchIds = ids("batch-mget");
+
+        long getBefore = calls("get");
+        long loopStart = System.nanoTime();
+        loopIds.forEach(productService::getProduct);
+        loopIds.forEach(productService::getProduct);
+        long loopNanos = System.nanoTime() - loopStart;
+        long loopGets = calls("get") - getBefore;
+
+        long mgetBefore = calls("mget");
+        getBefore = calls("get");
+        long batchStart = System.nanoTime();
+        productService.getProducts(batchIds);
+        productService.getProducts(batchIds);
+        long batchNanos = System.nanoTime() - batchStart;
+        long batchMgets = calls("mget") - mgetBefore;
+        long batchGets = calls("get") - getBefore;
+
+        System.out.printf("loop : %d GET, %d us%n", loopGets, loopNanos / 1_000);
+        System.out.printf("batch : %d MGET, %d GET, %d us%n", batchMgets, batchGets, batchNanos / 1_000);
+
+        assertEquals(2L * loopIds.size(), loopGets);
+        assertEquals(2L, batchMgets);
+        assertEquals(0L, batchGets);
+    }
+
+    private List<String> ids(String prefix) {
+        return IntStream.range(0, 50).mapToObj(i -> prefix + "-" + i).toList();
+    }
+
+    private long calls(String command) {
+        Properties info = redisTemplate.execute((RedisCallback<Properties>) connection ->
+                connection.serverCommands().info("commandstats"));
+        String stats = info.getProperty("cmdstat_" + command);
+        if (stats == null) {
+            return 0L;
+        }
+        return Long.parseLong(stats.substring(stats.indexOf("calls=") + 6, stats.indexOf(',')));
+    }
+}
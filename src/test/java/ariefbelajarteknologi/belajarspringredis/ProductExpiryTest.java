@@ -0,0 +1,182 @@
+package ariefbelajarteknologi.belajarspringredis;
+
+import ariefbelajarteknologi.belajarspringredis.entity.Product;
+import ariefbelajarteknologi.belajarspringredis.repository.ExpiredIndexCleaner;
+import ariefbelajarteknologi.belajarspringredis.repository.KeyspaceHashWriter;
+import ariefbelajarteknologi.belajarspringredis.repository.ProductRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisConnectionUtils;
+import org.springframework.data.redis.core.RedisKeyValueAdapter;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.convert.RedisConverter;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.function.IntFunction;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+public class ProductExpiryTest {
+
+    private static final int PRODUCTS = 100;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ExpiredIndexCleaner indexCleaner;
+
+    @Autowired
+    private KeyspaceHashWriter keyspaceHashWriter;
+
+    @Autowired
+    private RedisConverter redisConverter;
+
+    @Autowired
+    private RedisConnectionFactory connectionFactory;
+
+    @Autowired
+    private StringRedisTemplate redisTemplate;
+
+    @Test
+    void lazyCleanupOnLookup() throws InterruptedException {
+        productRepository.save(new Product("expiry-lazy", "Expiring", 1_000L, 1L));
+        assertFalse(redisTemplate.hasKey("products:expiry-lazy:phantom"));
+        assertTrue(redisTemplate.opsForSet().isMember("products", "expiry-lazy"));
+
+        Thread.sleep(2_000);
+
+        assertFalse(productRepository.findById("expiry-lazy").isPresent());
+        assertFalse(redisTemplate.opsForSet().isMember("products", "expiry-lazy"));
+    }
+
+    @Test
+    void forgetKeepsRewrittenIds() {
+        // a lookup missed the hash but it was saved again before the cleanup ran
+        productRepository.save(new Product("expiry-rewritten", "Rewritten", 1_000L, -1L));
+
+        assertEquals(0, indexCleaner.forget(Product.class, List.of("expiry-rewritten")));
+        assertTrue(redisTemplate.opsForSet().isMember("products", "expiry-rewritten"));
+        assertNotNull(redisTemplate.opsForZSet().score(keyspaceHashWriter.scoreIndexKey(Product.class, "price"),
+                "expiry-rewritten"));
+
+        productRepository.deleteById("expiry-rewritten");
+    }
+
+    @Test
+    void batchCleanup() throws InterruptedException {
+        for (int i = 0; i < 100; i++) {
+            productRepository.save(new Product("expiry-batch-" + i, "Expiring", 1_000L, 1L));
+        }
+        productRepository.save(new Product("expiry-kept", "Kept", 1_000L, -1L));
+
+        Thread.sleep(2_000);
+
+        assertTrue(indexCleaner.sweep(Product.class) >= 100);
+        for (int i = 0; i < 100; i++) {
+            assertFalse(redisTemplate.opsForSet().isMember("products", "expiry-batch-" + i));
+        }
+        assertTrue(redisTemplate.opsForSet().isMember("products", "expiry-kept"));
+
+        productRepository.deleteById("expiry-kept");
+    }
+
+    /**
+     * Behaviour only at a small size, the memory and throughput comparison is {@code ProductExpiryBenchmark} in the
+     * benchmarks module.
+     */
+    @Test
+    void phantomVersusNativeExpiry() throws Exception {
+        String notifications = notifyKeyspaceEvents();
+        var adapter = new RedisKeyValueAdapter(redisTemplate, redisConverter);
+        adapter.setEnableKeyspaceEvents(RedisKeyValueAdapter.EnableKeyspaceEvents.ON_STARTUP);
+        adapter.afterPropertiesSet();
+
+        RedisConnectionUtils.bindConnection(connectionFactory);
+        try {
+            Usage phantom = measure(() -> {
+                for (int i = 0; i < PRODUCTS; i++) {
+                    adapter.put("expiry-phantom-" + i, product("expiry-phantom-", i), "products");
+                }
+            });
+            Usage nativeExpiry = measure(() -> redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                for (int i = 0; i < PRODUCTS; i++) {
+                    keyspaceHashWriter.write(connection, product("expiry-native-", i));
+                }
+                return null;
+            }));
+
+            assertTrue(redisTemplate.hasKey("products:expiry-phantom-0:phantom"));
+            assertFalse(redisTemplate.hasKey("products:expiry-native-0:phantom"));
+            // a hash and a phantom per product against a hash only, plus the keyspace set and index if missing
+            assertTrue(phantom.keys() >= 2L * PRODUCTS, String.valueOf(phantom.keys()));
+            assertTrue(nativeExpiry.keys() <= PRODUCTS + 2, String.valueOf(nativeExpiry.keys()));
+            assertTrue(nativeExpiry.commands() < phantom.commands());
+        } finally {
+            RedisConnectionUtils.unbindConnection(connectionFactory);
+            adapter.destroy();
+            // the adapter turned keyspace notifications on for the whole server, setConfig refuses the empty default
+            redisTemplate.execute((RedisCallback<Object>) connection -> {
+                connection.execute("CONFIG", bytes("SET"), bytes("notify-keyspace-events"), bytes(notifications));
+                return null;
+            });
+            delete(i -> "expiry-phantom-" + i);
+            delete(i -> "expiry-native-" + i);
+        }
+    }
+
+    private String notifyKeyspaceEvents() {
+        Properties config = redisTemplate.execute((RedisCallback<Properties>) connection ->
+                connection.serverCommands().getConfig("notify-keyspace-events"));
+        return config.getProperty("notify-keyspace-events", "");
+    }
+
+    private Usage measure(Runnable task) {
+        long keys = dbSize();
+        long commands = info("stats", "total_commands_processed");
+        task.run();
+        // the DBSIZE and INFO of the measurement itself are not counted
+        return new Usage(dbSize() - keys, info("stats", "total_commands_processed") - commands - 2);
+    }
+
+    private long dbSize() {
+        return redisTemplate.execute((RedisCallback<Long>) connection -> connection.serverCommands().dbSize());
+    }
+
+    private long info(String section, String field) {
+        Properties info = redisTemplate.execute((RedisCallback<Properties>) connection -> connection.serverCommands().info(section));
+        return Long.parseLong(info.getProperty(field));
+    }
+
+    private void delete(IntFunction<String> id) {
+        redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            List<byte[]> members = new ArrayList<>(PRODUCTS);
+            for (int i = 0; i < PRODUCTS; i++) {
+                String key = "products:" + id.apply(i);
+                connection.keyCommands().del(bytes(key), bytes(key + ":phantom"));
+                members.add(bytes(id.apply(i)));
+            }
+            connection.setCommands().sRem(bytes("products"), members.toArray(byte[][]::new));
+            connection.zSetCommands().zRem(bytes("products:index:price"), members.toArray(byte[][]::new));
+            return null;
+        });
+    }
+
+    private static Product product(String prefix, int index) {
+        return new Product(prefix + index, "Expiring Product", (long) index, 3_600L);
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private record Usage(long keys, long commands) {
+    }
+}
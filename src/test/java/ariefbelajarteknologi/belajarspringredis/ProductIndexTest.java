@@ -0,0 +1,88 @@
+package ariefbelajarteknologi.belajarspringredis;
+
+import ariefbelajarteknologi.belajarspringredis.entity.Product;
+import ariefbelajarteknologi.belajarspringredis.repository.ProductRepository;
+import ariefbelajarteknologi.belajarspringredis.repository.ScoreIndexRebuilder;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+public class ProductIndexTest {
+
+    private static final long BASE_PRICE = 10_000_000L;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ScoreIndexRebuilder scoreIndexRebuilder;
+
+    @Autowired
+    private StringRedisTemplate redisTemplate;
+
+    @Test
+    void findByPriceBetween() {
+        for (int i = 0; i < 50; i++) {
+            productRepository.save(new Product("index-" + i, "Indexed", BASE_PRICE + i, -1L));
+        }
+
+        Page<Product> first = productRepository.findByPriceBetween(BASE_PRICE + 10, BASE_PRICE + 29, PageRequest.of(0, 5));
+        assertEquals(20, first.getTotalElements());
+        assertEquals(4, first.getTotalPages());
+        assertEquals(List.of(BASE_PRICE + 10, BASE_PRICE + 11, BASE_PRICE + 12, BASE_PRICE + 13, BASE_PRICE + 14),
+                first.map(Product::getPrice).getContent());
+
+        Page<Product> last = productRepository.findByPriceBetween(BASE_PRICE + 10, BASE_PRICE + 29, PageRequest.of(3, 5));
+        assertEquals(BASE_PRICE + 25, last.getContent().get(0).getPrice());
+
+        productRepository.save(new Product("index-10", "Indexed", BASE_PRICE + 100, -1L));
+        productRepository.deleteById("index-11");
+        Page<Product> changed = productRepository.findByPriceBetween(BASE_PRICE + 10, BASE_PRICE + 29, PageRequest.of(0, 5));
+        assertEquals(18, changed.getTotalElements());
+        assertEquals("index-12", changed.getContent().get(0).getId());
+
+        for (int i = 0; i < 50; i++) {
+            productRepository.deleteById("index-" + i);
+        }
+        assertEquals(0, productRepository.findByPriceBetween(BASE_PRICE, BASE_PRICE + 100, PageRequest.of(0, 5)).getTotalElements());
+    }
+
+    @Test
+    void newProductIsIndexed() {
+        Product saved = productRepository.save(new Product(null, "Indexed", BASE_PRICE + 300, -1L));
+        assertNotNull(saved.getId());
+
+        Page<Product> page = productRepository.findByPriceBetween(BASE_PRICE + 300, BASE_PRICE + 300, PageRequest.of(0, 5));
+        assertEquals(List.of(saved.getId()), page.map(Product::getId).getContent());
+        assertFalse(redisTemplate.hasKey("products:" + saved.getId() + ":phantom"));
+
+        productRepository.deleteById(saved.getId());
+    }
+
+    @Test
+    void rebuild() {
+        for (int i = 0; i < 20; i++) {
+            productRepository.save(new Product("rebuild-" + i, "Indexed", BASE_PRICE + 200 + i, -1L));
+        }
+        redisTemplate.delete("products:index:price");
+        assertEquals(0, productRepository.findByPriceBetween(BASE_PRICE + 200, BASE_PRICE + 219, PageRequest.of(0, 5)).getTotalElements());
+
+        assertTrue(scoreIndexRebuilder.rebuild(Product.class) >= 20);
+
+        Page<Product> page = productRepository.findByPriceBetween(BASE_PRICE + 200, BASE_PRICE + 219, PageRequest.of(1, 5));
+        assertEquals(20, page.getTotalElements());
+        assertEquals("rebuild-5", page.getContent().get(0).getId());
+
+        for (int i = 0; i < 20; i++) {
+            productRepository.deleteById("rebuild-" + i);
+        }
+    }
+}
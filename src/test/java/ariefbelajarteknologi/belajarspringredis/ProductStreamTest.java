@@ -0,0 +1,84 @@
+package ariefbelajarteknologi.belajarspringredis;
+
+import ariefbelajarteknologi.belajarspringredis.entity.Product;
+import ariefbelajarteknologi.belajarspringredis.repository.KeyspaceHashWriter;
+import ariefbelajarteknologi.belajarspringredis.repository.ProductRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+public class ProductStreamTest {
+
+    private static final int PRODUCTS = 5_000;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private KeyspaceHashWriter keyspaceHashWriter;
+
+    @Autowired
+    private StringRedisTemplate redisTemplate;
+
+    @Test
+    void streamAll() {
+        redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (int i = 0; i < PRODUCTS; i++) {
+                keyspaceHashWriter.write(connection, new Product("stream-" + i, "Streamed", (long) i, -1L));
+            }
+            return null;
+        });
+        redisTemplate.opsForSet().add("products", "stream-missing");
+
+        Set<String> ids = new HashSet<>();
+        long start = System.nanoTime();
+        try (Stream<Product> products = productRepository.streamAll(200)) {
+            products.filter(product -> product.getId().startsWith("stream-"))
+                    .forEach(product -> {
+                        assertEquals("Streamed", product.getName());
+                        assertTrue(ids.add(product.getId()));
+                    });
+        }
+        System.out.printf("streamAll : %,d ms%n", (System.nanoTime() - start) / 1_000_000);
+
+        assertEquals(PRODUCTS, ids.size());
+        assertFalse(redisTemplate.opsForSet().isMember("products", "stream-missing"));
+
+        List<String> keys = new ArrayList<>();
+        for (int i = 0; i < PRODUCTS; i++) {
+            keys.add("products:stream-" + i);
+        }
+        redisTemplate.delete(keys);
+        redisTemplate.opsForSet().remove("products", ids.toArray());
+        redisTemplate.opsForZSet().remove("products:index:price", ids.toArray());
+    }
+
+    @Test
+    void closeBeforeExhausted() {
+        productRepository.save(new Product("stream-close-1", "Streamed", 1L, -1L));
+        productRepository.save(new Product("stream-close-2", "Streamed", 2L, -1L));
+
+        try (Stream<Product> products = productRepository.streamAll(1)) {
+            assertTrue(products.findFirst().isPresent());
+        }
+        // SSCAN can repeat ids, the stream must not let distinct() be skipped
+        try (Stream<Product> products = productRepository.streamAll(1)) {
+            assertFalse(products.spliterator().hasCharacteristics(Spliterator.DISTINCT));
+        }
+
+        productRepository.deleteById("stream-close-1");
+        productRepository.deleteById("stream-close-2");
+    }
+}
@@ -0,0 +1,119 @@
+package ariefbelajarteknologi.belajarspringredis;
+
+import ariefbelajarteknologi.belajarspringredis.entity.Product;
+import ariefbelajarteknologi.belajarspringredis.repository.KeyspaceHashWriter;
+import ariefbelajarteknologi.belajarspringredis.repository.ProductRepository;
+import ariefbelajarteknologi.belajarspringredis.transfer.ProductFormat;
+import ariefbelajarteknologi.belajarspringredis.transfer.ProductTransfer;
+import ariefbelajarteknologi.belajarspringredis.transfer.TransferReport;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.io.BufferedWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "app.products.transfer.writers=3",
+        "app.products.transfer.batch-size=200",
+        "app.products.transfer.progress-interval=1ms"
+})
+public class ProductTransferTest {
+
+    private static final int PRODUCTS = 5_000;
+
+    @TempDir
+    Path directory;
+
+    @Autowired
+    private ProductTransfer productTransfer;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private KeyspaceHashWriter keyspaceHashWriter;
+
+    @Autowired
+    private StringRedisTemplate redisTemplate;
+
+    @BeforeEach
+    @AfterEach
+    void cleanUp() {
+        Set<String> keys = redisTemplate.keys("products*");
+        if (keys != null && !keys.isEmpty()) {
+            redisTemplate.delete(keys);
+        }
+    }
+
+    @Test
+    void importAndExport() throws Exception {
+        Path input = directory.resolve("products.ndjson");
+        try (BufferedWriter out = Files.newBufferedWriter(input)) {
+            for (int i = 0; i < PRODUCTS; i++) {
+                out.write("{\"id\":\"p-" + i + "\",\"name\":\"Product, \\\"" + i + "\\\"\",\"price\":" + i + ",\"ttl\":-1}");
+                out.newLine();
+                if (i == 10) {
+                    out.write("{not json");
+                    out.newLine();
+                }
+            }
+        }
+
+        List<TransferReport> progress = new ArrayList<>();
+        TransferReport imported = productTransfer.importFile(input, ProductFormat.NDJSON, progress::add);
+        assertEquals(PRODUCTS, imported.products());
+        assertEquals(1, imported.rejected());
+        assertFalse(progress.isEmpty());
+        assertEquals(imported, progress.get(progress.size() - 1));
+
+        assertEquals(PRODUCTS, redisTemplate.opsForSet().size(keyspaceHashWriter.keyspace(Product.class)));
+        Product product = productRepository.findById("p-42").orElseThrow();
+        assertEquals("Product, \"42\"", product.getName());
+        assertEquals(42L, product.getPrice());
+        String priceIndex = keyspaceHashWriter.scoreIndexKeys(Product.class).get(0);
+        assertEquals(PRODUCTS, redisTemplate.opsForZSet().size(priceIndex));
+
+        // round trip through CSV into an empty keyspace
+        Path csv = directory.resolve("products.csv");
+        TransferReport exported = productTransfer.exportFile(csv, ProductFormat.of(csv));
+        assertEquals(PRODUCTS, exported.products());
+        List<String> lines = Files.readAllLines(csv);
+        assertEquals("id,name,price,ttl", lines.get(0));
+        assertEquals(PRODUCTS + 1, lines.size());
+        assertTrue(lines.contains("p-42,\"Product, \"\"42\"\"\",42,-1"));
+
+        cleanUp();
+        assertEquals(PRODUCTS, productTransfer.importFile(csv, ProductFormat.CSV).products());
+        Path again = directory.resolve("again.ndjson");
+        productTransfer.exportFile(again, ProductFormat.NDJSON);
+        assertEquals(new HashSet<>(Files.readAllLines(again)), Set.copyOf(ndjsonLines(lines)));
+    }
+
+    @Test
+    void rejectsFilesOutsideTheDirectory() {
+        assertThrows(IllegalArgumentException.class, () -> productTransfer.resolve("../secrets.csv"));
+        assertTrue(productTransfer.resolve("products.csv").endsWith("transfer/products.csv"));
+    }
+
+    private List<String> ndjsonLines(List<String> csvLines) {
+        List<String> lines = new ArrayList<>();
+        for (String line : csvLines.subList(1, csvLines.size())) {
+            String id = line.substring(0, line.indexOf(','));
+            int number = Integer.parseInt(id.substring(2));
+            lines.add("{\"id\":\"" + id + "\",\"name\":\"Product, \\\"" + number + "\\\"\",\"price\":" + number + ",\"ttl\":-1}");
+        }
+        return lines;
+    }
+}
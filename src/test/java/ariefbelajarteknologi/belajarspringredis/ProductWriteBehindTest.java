@@ -0,0 +1,97 @@
+package ariefbelajarteknologi.belajarspringredis;
+
+import ariefbelajarteknologi.belajarspringredis.entity.Product;
+import ariefbelajarteknologi.belajarspringredis.repository.ProductRepository;
+import ariefbelajarteknologi.belajarspringredis.repository.ProductWriteBuffer;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.redis.core.RedisKeyValueTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "app.products.write-behind.enabled=true",
+        "app.products.write-behind.flush-interval=1h"
+})
+public class ProductWriteBehindTest {
+
+    private static final int PRODUCTS = 10_000;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ProductWriteBuffer writeBuffer;
+
+    @Autowired
+    private RedisKeyValueTemplate keyValueTemplate;
+
+    @Autowired
+    private StringRedisTemplate redisTemplate;
+
+    @Test
+    void coalesceAndReadYourWrites() {
+        productRepository.deleteById("wb-1");
+
+        for (long price = 1; price <= 1_000; price++) {
+            productRepository.save(new Product("wb-1", "Write Behind", price, -1L));
+        }
+
+        assertEquals(1, writeBuffer.getPending());
+        assertFalse(redisTemplate.hasKey("products:wb-1"));
+        assertEquals(1_000L, productRepository.findById("wb-1").orElseThrow().getPrice());
+
+        productRepository.flushWrites();
+
+        assertEquals(0, writeBuffer.getPending());
+        assertEquals("1000", redisTemplate.opsForHash().get("products:wb-1", "price"));
+        assertTrue(redisTemplate.opsForSet().isMember("products", "wb-1"));
+        assertEquals(1_000L, keyValueTemplate.findById("wb-1", Product.class).orElseThrow().getPrice());
+
+        productRepository.deleteById("wb-1");
+    }
+
+    @Test
+    void deleteDiscardsPendingSave() {
+        productRepository.save(new Product("wb-2", "Write Behind", 1_000L, -1L));
+        productRepository.deleteById("wb-2");
+        productRepository.flushWrites();
+
+        assertFalse(productRepository.findById("wb-2").isPresent());
+        assertFalse(redisTemplate.hasKey("products:wb-2"));
+    }
+
+    @Test
+    void batchedVersusDirectSaves() {
+        long start = System.nanoTime();
+        for (int i = 0; i < PRODUCTS; i++) {
+            keyValueTemplate.update(new Product("wb-direct-" + i, "Direct", (long) i, -1L));
+        }
+        long directNanos = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        for (int i = 0; i < PRODUCTS; i++) {
+            productRepository.save(new Product("wb-batched-" + i, "Batched", (long) i, -1L));
+        }
+        productRepository.flushWrites();
+        long batchedNanos = System.nanoTime() - start;
+
+        System.out.printf("direct saves : %,d products/s%n", PRODUCTS * 1_000_000_000L / directNanos);
+        System.out.printf("write-behind saves : %,d products/s%n", PRODUCTS * 1_000_000_000L / batchedNanos);
+
+        assertEquals("Batched", redisTemplate.opsForHash().get("products:wb-batched-" + (PRODUCTS - 1), "name"));
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < PRODUCTS; i++) {
+            ids.add("wb-direct-" + i);
+            ids.add("wb-batched-" + i);
+        }
+        redisTemplate.delete(ids.stream().map(id -> "products:" + id).toList());
+        redisTemplate.opsForSet().remove("products", ids.toArray());
+        redisTemplate.opsForZSet().remove("products:index:price", ids.toArray());
+    }
+}
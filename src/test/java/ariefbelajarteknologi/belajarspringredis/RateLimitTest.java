@@ -0,0 +1,150 @@
+package ariefbelajarteknologi.belajarspringredis;
+
+import ariefbelajarteknologi.belajarspringredis.config.RateLimitProperties;
+import ariefbelajarteknologi.belajarspringredis.ratelimit.RateLimitExceededException;
+import ariefbelajarteknologi.belajarspringredis.ratelimit.RateLimiter;
+import ariefbelajarteknologi.belajarspringredis.service.ProductService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "app.rate-limit.enabled=true",
+        "app.rate-limit.limits.products.capacity=10",
+        "app.rate-limit.limits.products.refill-per-second=0.1",
+        "app.rate-limit.limits.products.prefetch=5"
+})
+public class RateLimitTest {
+
+    private static final int CAPACITY = 50;
+
+    private static final int ATTEMPTS = 400;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private StringRedisTemplate redisTemplate;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void sharedBucketWithPrefetch() {
+        redisTemplate.delete("ratelimit:shared:client-1");
+        var limit = new RateLimitProperties.Limit();
+        limit.setCapacity(CAPACITY);
+        limit.setRefillPerSecond(1);
+        limit.setPrefetch(10);
+        limit.setPrefetchTimeToLive(Duration.ofSeconds(30));
+        var properties = new RateLimitProperties();
+        properties.getLimits().put("shared", limit);
+
+        // two nodes sharing one bucket
+        var registry = new SimpleMeterRegistry();
+        var node1 = new RateLimiter(redisTemplate, properties, registry);
+        var node2 = new RateLimiter(redisTemplate, properties, registry);
+
+        int granted = 0;
+        for (int i = 0; i < ATTEMPTS; i++) {
+            if ((i % 2 == 0 ? node1 : node2).tryAcquire("shared", "client-1")) {
+                granted++;
+            }
+        }
+
+        // the test runs well below a second, so at most a token or two is refilled
+        assertTrue(granted >= CAPACITY && granted <= CAPACITY + 2, "granted " + granted);
+        assertEquals(granted, registry.get("ratelimit.permits").tag("result", "granted").counter().count());
+        assertEquals(ATTEMPTS - granted, registry.get("ratelimit.permits").tag("result", "denied").counter().count());
+        double redisCalls = registry.get("ratelimit.redis.calls").counter().count();
+        assertTrue(redisCalls <= ATTEMPTS / 10, "redis calls " + redisCalls);
+        assertTrue(node1.tryAcquire("unknown", "client-1"));
+    }
+
+    @Test
+    void concurrentFetchesKeepTheirPermits() throws Exception {
+        redisTemplate.delete("ratelimit:concurrent:client-1");
+        var limit = new RateLimitProperties.Limit();
+        limit.setCapacity(CAPACITY);
+        limit.setRefillPerSecond(1);
+        limit.setPrefetch(10);
+        limit.setPrefetchTimeToLive(Duration.ofSeconds(30));
+        var properties = new RateLimitProperties();
+        properties.getLimits().put("concurrent", limit);
+        var limiter = new RateLimiter(redisTemplate, properties, new SimpleMeterRegistry());
+
+        long granted = ConcurrentTasks.run(16, ATTEMPTS / 16, i -> limiter.tryAcquire("concurrent", "client-1"))
+                .stream()
+                .filter(Boolean::booleanValue)
+                .count();
+
+        // a batch may land after the last concurrent attempt gave up, hand out what is left
+        for (int i = 0; i < CAPACITY; i++) {
+            if (limiter.tryAcquire("concurrent", "client-1")) {
+                granted++;
+            }
+        }
+
+        // batches fetched at the same time are merged, none of the taken permits is lost
+        assertTrue(granted >= CAPACITY && granted <= CAPACITY + 2, "granted " + granted);
+    }
+
+    @Test
+    void refillMustBePositive() {
+        var limit = new RateLimitProperties.Limit();
+        assertThrows(IllegalArgumentException.class, () -> limit.setRefillPerSecond(0));
+        assertThrows(IllegalArgumentException.class, () -> limit.setRefillPerSecond(-1));
+    }
+
+    @Test
+    void annotatedServicePerClient() throws Exception {
+        redisTemplate.delete(List.of("ratelimit:products:client-a", "ratelimit:products:client-b",
+                "ratelimit:products:global"));
+
+        var client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        int ok = 0;
+        int limited = 0;
+        for (int i = 0; i < 20; i++) {
+            int status = get(client, "client-a");
+            if (status == 200) {
+                ok++;
+            } else if (status == 429) {
+                limited++;
+            }
+        }
+        assertEquals(10, ok);
+        assertEquals(10, limited);
+        assertEquals(200, get(client, "client-b"));
+
+        // outside of a request every caller shares the global client
+        for (int i = 0; i < 10; i++) {
+            productService.getProduct("rate-limit");
+        }
+        assertThrows(RateLimitExceededException.class, () -> productService.getProduct("rate-limit"));
+        assertTrue(meterRegistry.get("ratelimit.permits").tag("limit", "products").tag("result", "denied")
+                .counter().count() >= 11);
+    }
+
+    private int get(HttpClient client, String clientId) throws Exception {
+        return client.send(HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/products/rate-limit"))
+                        .header("X-Client-Id", clientId)
+                        .build(),
+                HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+}
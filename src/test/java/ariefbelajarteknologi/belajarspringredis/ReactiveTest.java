@@ -0,0 +1,177 @@
+package ariefbelajarteknologi.belajarspringredis;
+
+import ariefbelajarteknologi.belajarspringredis.cache.ReactiveRedisCache;
+import ariefbelajarteknologi.belajarspringredis.entity.Order;
+import ariefbelajarteknologi.belajarspringredis.entity.Product;
+import ariefbelajarteknologi.belajarspringredis.service.ProductService;
+import ariefbelajarteknologi.belajarspringredis.service.ReactiveProductService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.data.redis.connection.stream.ObjectRecord;
+import org.springframework.data.redis.connection.stream.RecordId;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.hash.HashMapper;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "app.orders.consumer.mode=reactive",
+        "app.orders.consumer.stream=orders-reactive",
+        "app.orders.consumer.group=reactive-group"
+})
+public class ReactiveTest {
+
+    private static final int REQUESTS = 2_000;
+
+    private static final int CONCURRENCY = 200;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private ReactiveRedisCache reactiveRedisCache;
+
+    @Autowired
+    private ReactiveProductService reactiveProductService;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private StringRedisTemplate redisTemplate;
+
+    @Autowired
+    private HashMapper<Object, byte[], byte[]> streamHashMapper;
+
+    @Test
+    void sharedCacheEntries() {
+        productService.remove("reactive-1");
+
+        Product reactive = reactiveProductService.getProduct("reactive-1").block();
+        assertNotNull(reactive);
+        assertTrue(redisTemplate.hasKey("cache:products::reactive-1"));
+        assertEquals(reactive, productService.getProduct("reactive-1"));
+
+        productService.save(new Product("reactive-1", "Saved", 2_000L, -1L));
+        assertEquals("Saved", reactiveProductService.getProduct("reactive-1").block().getName());
+
+        reactiveProductService.remove("reactive-1").block();
+        assertFalse(redisTemplate.hasKey("cache:products::reactive-1"));
+    }
+
+    @Test
+    void coalesceMisses() {
+        reactiveRedisCache.evict("products", "reactive-2").block();
+        AtomicInteger loads = new AtomicInteger();
+
+        List<Product> products = Flux.range(0, 50)
+                .flatMap(i -> reactiveRedisCache.get("products", "reactive-2", () -> Mono.delay(Duration.ofMillis(100))
+                        .map(ignored -> {
+                            loads.incrementAndGet();
+                            return new Product("reactive-2", "Loaded", 1_000L, -1L);
+                        })))
+                .collectList()
+                .block();
+
+        assertEquals(50, products.size());
+        assertEquals(1, loads.get());
+        reactiveRedisCache.evict("products", "reactive-2").block();
+    }
+
+    @Test
+    void reactiveConsumer() throws InterruptedException {
+        RecordId last = null;
+        for (int i = 0; i < 200; i++) {
+            last = redisTemplate.opsForStream(streamHashMapper)
+                    .add(ObjectRecord.create("orders-reactive", new Order("reactive-" + i, 1_000L)));
+        }
+
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (System.currentTimeMillis() < deadline && !consumed(last)) {
+            Thread.sleep(100);
+        }
+        assertTrue(consumed(last));
+    }
+
+    @Test
+    void tailOrders() throws Exception {
+        HttpClient client = HttpClient.newHttpClient();
+        CompletableFuture<HttpResponse<Stream<String>>> response = client.sendAsync(
+                HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/reactive/orders")).build(),
+                HttpResponse.BodyHandlers.ofLines());
+        Thread.sleep(500);
+        redisTemplate.opsForStream(streamHashMapper).add(ObjectRecord.create("orders-reactive", new Order("tail-1", 1_000L)));
+
+        Optional<String> event = CompletableFuture.supplyAsync(() -> response.join().body()
+                        .filter(line -> line.startsWith("data:"))
+                        .findFirst())
+                .get(10, TimeUnit.SECONDS);
+        assertTrue(event.orElseThrow().contains("tail-1"));
+    }
+
+    @Test
+    void blockingVersusReactiveLoad() throws Exception {
+        HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        reactiveProductService.getProduct("load-1").block();
+
+        for (String path : List.of("/products/load-1", "/reactive/products/load-1", "/products/load-1", "/reactive/products/load-1")) {
+            long[] latencies = load(client, path);
+            Arrays.sort(latencies);
+            System.out.printf("%-26s p50 %,6d us  p99 %,6d us  p999 %,6d us%n", path,
+                    percentile(latencies, 0.50), percentile(latencies, 0.99), percentile(latencies, 0.999));
+        }
+    }
+
+    private long[] load(HttpClient client, String path) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path)).build();
+        Semaphore permits = new Semaphore(CONCURRENCY);
+        long[] latencies = new long[REQUESTS];
+        List<CompletableFuture<?>> futures = new ArrayList<>(REQUESTS);
+        long begin = System.nanoTime();
+        for (int i = 0; i < REQUESTS; i++) {
+            permits.acquire();
+            int index = i;
+            long start = System.nanoTime();
+            futures.add(client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((response, throwable) -> {
+                        latencies[index] = (System.nanoTime() - start) / 1_000;
+                        permits.release();
+                        assertNull(throwable);
+                        assertEquals(200, response.statusCode());
+                    }));
+        }
+        CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).get(60, TimeUnit.SECONDS);
+        System.out.printf("%-26s %,d requests/s%n", path, REQUESTS * 1_000_000_000L / (System.nanoTime() - begin));
+        return latencies;
+    }
+
+    private boolean consumed(RecordId last) {
+        return redisTemplate.opsForStream().groups("orders-reactive").stream()
+                .anyMatch(group -> group.groupName().equals("reactive-group")
+                        && group.lastDeliveredId().equals(last.getValue())
+                        && group.pendingCount() == 0);
+    }
+
+    private static long percentile(long[] sorted, double percentile) {
+        return sorted[Math.min(sorted.length - 1, (int) Math.ceil(percentile * sorted.length) - 1)];
+    }
+}
@@ -0,0 +1,68 @@
+package ariefbelajarteknologi.belajarspringredis;
+
+import ariefbelajarteknologi.belajarspringredis.cache.CacheEnvelope;
+import ariefbelajarteknologi.belajarspringredis.cache.DecoratedCache;
+import ariefbelajarteknologi.belajarspringredis.cache.RefreshAheadCache;
+import ariefbelajarteknologi.belajarspringredis.config.RefreshAheadProperties;
+import ariefbelajarteknologi.belajarspringredis.entity.Product;
+import ariefbelajarteknologi.belajarspringredis.service.ProductService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+public class RefreshAheadTest {
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private ProductService productService;
+
+    @Test
+    void productsUseEnvelopes() {
+        Cache cache = cacheManager.getCache("products");
+        assertNotNull(DecoratedCache.find(cache, RefreshAheadCache.class));
+
+        productService.remove("refresh-1");
+        Product product = productService.getProduct("refresh-1");
+
+        Cache.ValueWrapper raw = DecoratedCache.unwrap(cache).get("refresh-1");
+        assertInstanceOf(CacheEnvelope.class, raw.get());
+        assertEquals(product, ((CacheEnvelope) raw.get()).value());
+        assertEquals(product, cache.get("refresh-1", Product.class));
+    }
+
+    @Test
+    void staleWhileRevalidate() throws InterruptedException {
+        Cache redisCache = DecoratedCache.unwrap(cacheManager.getCache("products"));
+        redisCache.evict("refresh-2");
+
+        var policy = new RefreshAheadProperties.Policy();
+        policy.setSoftTimeToLive(Duration.ofMillis(200));
+        var cache = new RefreshAheadCache(redisCache, policy, Executors.newVirtualThreadPerTaskExecutor());
+
+        assertEquals("v1", cache.get("refresh-2", () -> "v1"));
+        Thread.sleep(Duration.ofMillis(300));
+
+        CountDownLatch refreshed = new CountDownLatch(1);
+        String stale = cache.get("refresh-2", () -> {
+            refreshed.countDown();
+            return "v2";
+        });
+        assertEquals("v1", stale);
+
+        assertTrue(refreshed.await(5, TimeUnit.SECONDS));
+        Thread.sleep(Duration.ofMillis(100));
+        assertEquals("v2", cache.get("refresh-2", String.class));
+    }
+}
@@ -0,0 +1,163 @@
+package ariefbelajarteknologi.belajarspringredis;
+
+import ariefbelajarteknologi.belajarspringredis.entity.Order;
+import ariefbelajarteknologi.belajarspringredis.entity.Product;
+import ariefbelajarteknologi.belajarspringredis.repository.ProductRepository;
+import ariefbelajarteknologi.belajarspringredis.service.OrderPlacementService;
+import ariefbelajarteknologi.belajarspringredis.service.ProductService;
+import ariefbelajarteknologi.belajarspringredis.service.ReactiveProductService;
+import ariefbelajarteknologi.belajarspringredis.shard.RedisShards;
+import ariefbelajarteknologi.belajarspringredis.shard.ShardRing;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "app.sharding.enabled=true",
+        "app.sharding.nodes=redis://localhost:6379/1,redis://localhost:6379/2,redis://localhost:6379/3",
+        "app.orders.publisher.stream=orders-sharded",
+        "app.orders.consumer.stream=orders-sharded",
+        "app.orders.consumer.group=sharded-group"
+})
+public class ShardingTest {
+
+    @Autowired
+    private RedisShards redisShards;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ReactiveProductService reactiveProductService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private OrderPlacementService orderPlacementService;
+
+    @Autowired
+    private StringRedisTemplate redisTemplate;
+
+    @AfterEach
+    void tearDown() {
+        redisShards.getShards().forEach(shard -> shard.redisTemplate()
+                .execute((RedisCallback<Object>) connection -> {
+                    connection.serverCommands().flushDb();
+                    return null;
+                }));
+    }
+
+    @Test
+    void ringSpreadsKeysEvenly() {
+        ShardRing<String> ring = new ShardRing<>(List.of("a", "b", "c", "d"), Function.identity(), 160);
+        Map<String, Integer> counts = new HashMap<>();
+        IntStream.range(0, 100_000).forEach(i -> counts.merge(ring.nodeFor("key-" + i), 1, Integer::sum));
+
+        assertEquals(4, counts.size());
+        counts.values().forEach(count -> assertTrue(count > 20_000 && count < 30_000, counts.toString()));
+    }
+
+    @Test
+    void ringKeepsHashTagsTogether() {
+        ShardRing<String> ring = new ShardRing<>(List.of("a", "b", "c", "d"), Function.identity(), 160);
+        String owner = ring.nodeFor("{user-1}:cart");
+        IntStream.range(0, 100).forEach(i -> assertEquals(owner, ring.nodeFor("{user-1}:item-" + i)));
+        assertEquals(ring.nodeFor("user-1"), owner);
+        assertEquals(ShardRing.hash(bytes("user-1")), ShardRing.hash(bytes("{user-1}:cart")));
+        // an empty tag is not a tag, the whole key is hashed rather than the empty string between the braces
+        assertNotEquals(ShardRing.hash(bytes("")), ShardRing.hash(bytes("{}x")));
+        assertNotEquals(ShardRing.hash(bytes("{}x")), ShardRing.hash(bytes("{}y")));
+    }
+
+    @Test
+    void addingNodeMovesOnlyItsShare() {
+        ShardRing<String> before = new ShardRing<>(List.of("a", "b", "c"), Function.identity(), 160);
+        ShardRing<String> after = new ShardRing<>(List.of("a", "b", "c", "d"), Function.identity(), 160);
+        int moved = 0;
+        for (int i = 0; i < 100_000; i++) {
+            String from = before.nodeFor("key-" + i);
+            String to = after.nodeFor("key-" + i);
+            if (!from.equals(to)) {
+                assertEquals("d", to);
+                moved++;
+            }
+        }
+        assertTrue(moved > 15_000 && moved < 35_000, String.valueOf(moved));
+    }
+
+    @Test
+    void cacheIsSpreadOverShards() {
+        assertEquals(3, redisShards.size());
+        List<String> ids = IntStream.range(0, 60).mapToObj(i -> "sharded-" + i).toList();
+
+        Product single = productService.getProduct(ids.get(0));
+        List<Product> products = productService.getProducts(ids);
+        assertEquals(ids, products.stream().map(Product::getId).toList());
+        assertEquals(single, products.get(0));
+
+        for (String id : ids) {
+            String key = "cache:products::" + id;
+            RedisShards.Shard owner = redisShards.shardFor(key);
+            for (RedisShards.Shard shard : redisShards.getShards()) {
+                assertEquals(shard == owner, shard.redisTemplate().hasKey(key), key + " on " + shard);
+            }
+            assertFalse(redisTemplate.hasKey(key));
+        }
+        redisShards.getShards().forEach(shard -> assertFalse(
+                shard.redisTemplate().keys("cache:products::*").isEmpty(), shard.toString()));
+
+        // a second batch is served from the shards
+        assertEquals(products, productService.getProducts(ids));
+    }
+
+    @Test
+    void reactiveCacheUsesTheSameShards() {
+        Product cached = productService.getProduct("sharded-reactive");
+        String key = "cache:products::sharded-reactive";
+        assertEquals(cached, reactiveProductService.getProduct("sharded-reactive").block());
+
+        reactiveProductService.remove("sharded-reactive").block();
+        assertFalse(redisShards.shardFor(key).redisTemplate().hasKey(key));
+
+        reactiveProductService.save(new Product("sharded-reactive", "Reactive", 2_000L, -1L)).block();
+        assertTrue(redisShards.shardFor(key).redisTemplate().hasKey(key));
+        assertEquals("Reactive", productService.getProduct("sharded-reactive").getName());
+        assertFalse(redisTemplate.hasKey(key));
+    }
+
+    @Test
+    void repositoryAndStreamLiveOnTheirShard() {
+        productRepository.save(new Product("sharded-repo", "Sharded", 1_000L, -1L));
+        assertEquals("Sharded", productRepository.findById("sharded-repo").orElseThrow().getName());
+
+        StringRedisTemplate keyspaceTemplate = redisShards.shardFor(Product.class).redisTemplate();
+        assertTrue(keyspaceTemplate.opsForSet().isMember("products", "sharded-repo"));
+        assertFalse(redisTemplate.hasKey("products:sharded-repo"));
+
+        orderPlacementService.setStock("sharded-stock", 5);
+        var placed = orderPlacementService.place(new Order("sharded-order", 1_000L), "sharded-stock", 2);
+        assertEquals(OrderPlacementService.Status.PLACED, placed.status());
+
+        StringRedisTemplate streamTemplate = redisShards.shardFor("orders-sharded").redisTemplate();
+        assertEquals(1L, streamTemplate.opsForStream().size("orders-sharded"));
+        assertEquals("3", streamTemplate.opsForValue().get(OrderPlacementService.stockKey("sharded-stock")));
+        assertFalse(redisTemplate.hasKey("orders-sharded"));
+    }
+
+    private static byte[] bytes(String key) {
+        return key.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,93 @@
+package ariefbelajarteknologi.belajarspringredis;
+
+import ariefbelajarteknologi.belajarspringredis.cache.CacheLoadLock;
+import ariefbelajarteknologi.belajarspringredis.cache.DecoratedCache;
+import ariefbelajarteknologi.belajarspringredis.cache.SingleFlightCache;
+import ariefbelajarteknologi.belajarspringredis.entity.Product;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+public class SingleFlightTest {
+
+    private static final int THREADS = 32;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private StringRedisTemplate redisTemplate;
+
+    @Test
+    void singleLoadPerJvm() throws Exception {
+        Cache cache = cacheManager.getCache("products");
+        assertNotNull(DecoratedCache.find(cache, SingleFlightCache.class));
+        cache.evict("cold-1");
+
+        AtomicInteger loads = new AtomicInteger();
+        List<Product> results = ConcurrentTasks.run(THREADS, 1, i -> cache.get("cold-1", () -> slowLoad(loads, "cold-1")));
+
+        assertEquals(1, loads.get());
+        results.forEach(product -> assertEquals("cold-1", product.getId()));
+    }
+
+    @Test
+    void singleLoadAcrossNodes() throws Exception {
+        Cache redisCache = DecoratedCache.unwrap(cacheManager.getCache("products"));
+        redisCache.evict("cold-2");
+
+        // two caches with their own in-flight maps stand in for two nodes sharing one Redis
+        var lock = new CacheLoadLock(redisTemplate, Duration.ofSeconds(5));
+        Cache node1 = new SingleFlightCache(redisCache, lock, Duration.ofMillis(20));
+        Cache node2 = new SingleFlightCache(redisCache, lock, Duration.ofMillis(20));
+
+        AtomicInteger loads = new AtomicInteger();
+        List<Product> results = ConcurrentTasks.run(THREADS, 1, i -> (i % 2 == 0 ? node1 : node2)
+                .get("cold-2", () -> slowLoad(loads, "cold-2")));
+
+        assertEquals(1, loads.get());
+        results.forEach(product -> assertEquals("cold-2", product.getId()));
+        assertNull(redisTemplate.opsForValue().get("lock:products::cold-2"));
+    }
+
+    @Test
+    void failedLoadReleasesWaiters() throws Exception {
+        Cache redisCache = DecoratedCache.unwrap(cacheManager.getCache("products"));
+        redisCache.evict("cold-3");
+        Cache cache = new SingleFlightCache(redisCache, null, Duration.ofMillis(20));
+
+        // an Error is not a RuntimeException, the waiters still have to see it instead of blocking
+        AtomicInteger loads = new AtomicInteger();
+        List<String> results = ConcurrentTasks.run(THREADS, 1, i -> {
+            try {
+                cache.get("cold-3", () -> {
+                    slowLoad(loads, "cold-3");
+                    throw new Error("load failed");
+                });
+                return "loaded";
+            } catch (Error error) {
+                return error.getMessage();
+            }
+        });
+
+        assertEquals(1, loads.get());
+        results.forEach(result -> assertEquals("load failed", result));
+        assertNull(redisCache.get("cold-3"));
+    }
+
+    private Product slowLoad(AtomicInteger loads, String id) throws InterruptedException {
+        loads.incrementAndGet();
+        Thread.sleep(Duration.ofMillis(200));
+        return Product.builder().id(id).name("example").price(1_000L).build();
+    }
+}
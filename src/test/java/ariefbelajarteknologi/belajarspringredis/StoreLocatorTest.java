@@ -0,0 +1,196 @@
+package ariefbelajarteknologi.belajarspringredis;
+
+import ariefbelajarteknologi.belajarspringredis.config.StoreLocatorProperties;
+import ariefbelajarteknologi.belajarspringredis.geo.NearbyStore;
+import ariefbelajarteknologi.belajarspringredis.geo.StoreLocator;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.geo.Distance;
+import org.springframework.data.geo.Point;
+import org.springframework.data.redis.connection.RedisGeoCommands;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.domain.geo.BoundingBox;
+import org.springframework.data.redis.domain.geo.GeoReference;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "app.geo.key=commerce-test",
+        "app.geo.channel=geo-invalidation-test"
+})
+public class StoreLocatorTest {
+
+    private static final String KEY = "commerce-test";
+
+    private static final Point OYO = new Point(107.62881816326308, -6.924672030896318);
+
+    @Autowired
+    private StoreLocator storeLocator;
+
+    @Autowired
+    private StoreLocatorProperties properties;
+
+    @Autowired
+    private StringRedisTemplate redisTemplate;
+
+    @Autowired
+    private RedisMessageListenerContainer messageListenerContainer;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        redisTemplate.delete(KEY);
+        storeLocator.load(Map.of(
+                "OYO 2625", OYO,
+                "Mie Gacoan Gatsu", new Point(107.62794636185166, -6.924843575789419),
+                "Hotel Papandayan", new Point(107.62348048387767, -6.923325866955385)));
+    }
+
+    @Test
+    void near() {
+        List<NearbyStore> stores = storeLocator.near(OYO, 300, 0);
+        assertEquals(List.of("OYO 2625", "Mie Gacoan Gatsu"), stores.stream().map(NearbyStore::name).toList());
+        // positions come back from the 52 bit geohash, so a store is a fraction of a meter from itself
+        assertEquals(0, stores.get(0).distance(), 1);
+        assertEquals(List.of("OYO 2625"), names(storeLocator.near(OYO, 300, 1)));
+        assertEquals(3, storeLocator.near(OYO, 1000, 0).size());
+    }
+
+    @Test
+    void matchesGeoSearch() {
+        Random random = new Random(21);
+        Map<String, Point> locations = new HashMap<>();
+        for (int i = 0; i < 2_000; i++) {
+            locations.put("store-" + i, new Point(107.55 + random.nextDouble() * 0.15, -6.98 + random.nextDouble() * 0.12));
+        }
+        assertEquals(2_000, storeLocator.load(locations));
+
+        var args = RedisGeoCommands.GeoSearchCommandArgs.newGeoSearchArgs();
+        for (int i = 0; i < 200; i++) {
+            Point point = new Point(107.57 + random.nextDouble() * 0.11, -6.96 + random.nextDouble() * 0.08);
+            double radius = 200 + random.nextDouble() * 2_000;
+            double width = 200 + random.nextDouble() * 3_000;
+            double height = 200 + random.nextDouble() * 3_000;
+
+            Set<String> expectedNear = redisTemplate.opsForGeo()
+                    .search(KEY, GeoReference.fromCoordinate(point), new Distance(radius, RedisGeoCommands.DistanceUnit.METERS), args)
+                    .getContent().stream().map(result -> result.getContent().getName()).collect(Collectors.toSet());
+            assertEquals(expectedNear, new HashSet<>(names(storeLocator.near(point, radius, 0))));
+
+            Set<String> expectedWithin = redisTemplate.opsForGeo()
+                    .search(KEY, GeoReference.fromCoordinate(point), new BoundingBox(width, height, RedisGeoCommands.DistanceUnit.METERS), args)
+                    .getContent().stream().map(result -> result.getContent().getName()).collect(Collectors.toSet());
+            assertEquals(expectedWithin, new HashSet<>(names(storeLocator.within(point, width, height, 0))));
+        }
+    }
+
+    @Test
+    void repeatedQueriesSkipRedis() {
+        double hits = hits();
+        storeLocator.near(OYO, 300, 0);
+
+        // the set is gone, a query from elsewhere in the same cell is still answered from the heap
+        redisTemplate.delete(KEY);
+        Point nearby = new Point(OYO.getX() + 0.0001, OYO.getY() + 0.0001);
+        assertEquals(List.of("OYO 2625", "Mie Gacoan Gatsu"), names(storeLocator.near(nearby, 250, 0)));
+        assertEquals(hits + 1, hits());
+    }
+
+    @Test
+    void writesInvalidateTheirCells() {
+        storeLocator.near(OYO, 300, 0);
+        Point far = new Point(OYO.getX() + 0.5, OYO.getY());
+        storeLocator.near(far, 300, 0);
+        assertEquals(2, storeLocator.getCachedCells());
+
+        storeLocator.add("Warung Baru", new Point(OYO.getX() + 0.0005, OYO.getY()));
+        assertEquals(1, storeLocator.getCachedCells());
+        assertEquals(List.of("OYO 2625", "Warung Baru", "Mie Gacoan Gatsu"), names(storeLocator.near(OYO, 300, 0)));
+
+        // moving a store away evicts the cells around its old position too
+        storeLocator.add("Warung Baru", far);
+        assertEquals(List.of("OYO 2625", "Mie Gacoan Gatsu"), names(storeLocator.near(OYO, 300, 0)));
+        assertEquals(List.of("Warung Baru"), names(storeLocator.near(far, 300, 0)));
+
+        storeLocator.remove("Mie Gacoan Gatsu");
+        assertEquals(List.of("OYO 2625"), names(storeLocator.near(OYO, 300, 0)));
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedCell() {
+        var limited = new StoreLocatorProperties();
+        limited.setKey(KEY);
+        limited.setMaximumSize(2);
+        var registry = new SimpleMeterRegistry();
+        var locator = new StoreLocator(redisTemplate, limited, registry);
+        Point second = new Point(OYO.getX() + 0.5, OYO.getY());
+        Point third = new Point(OYO.getX() + 1, OYO.getY());
+
+        locator.near(OYO, 300, 0);
+        locator.near(second, 300, 0);
+        locator.near(OYO, 300, 0);
+        locator.near(third, 300, 0);
+        assertEquals(2, locator.getCachedCells());
+
+        // the second cell was the least recently used when the third one went over the limit
+        double hits = registry.counter("geo.cache", "result", "hit").count();
+        locator.near(OYO, 300, 0);
+        assertEquals(hits + 1, registry.counter("geo.cache", "result", "hit").count());
+        locator.near(second, 300, 0);
+        assertEquals(hits + 1, registry.counter("geo.cache", "result", "hit").count());
+    }
+
+    @Test
+    void replaceReturnsThePreviousPosition() {
+        // moving to a far position must evict the cell around the old one, which only the previous position names
+        storeLocator.near(OYO, 300, 0);
+        storeLocator.add("OYO 2625", new Point(OYO.getX() + 0.5, OYO.getY()));
+        assertEquals(List.of("Mie Gacoan Gatsu"), names(storeLocator.near(OYO, 300, 0)));
+
+        storeLocator.remove("never-added");
+        assertEquals(List.of("Mie Gacoan Gatsu"), names(storeLocator.near(OYO, 300, 0)));
+    }
+
+    @Test
+    void invalidatesOtherNodes() throws InterruptedException {
+        var other = new StoreLocator(redisTemplate, properties, meterRegistry);
+        messageListenerContainer.addMessageListener(other, new ChannelTopic(properties.getChannel()));
+        try {
+            other.near(OYO, 300, 0);
+            assertEquals(1, other.getCachedCells());
+
+            storeLocator.add("Warung Baru", new Point(OYO.getX() + 0.0005, OYO.getY()));
+            long deadline = System.currentTimeMillis() + 5_000;
+            while (other.getCachedCells() > 0 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            assertEquals(List.of("OYO 2625", "Warung Baru", "Mie Gacoan Gatsu"), names(other.near(OYO, 300, 0)));
+        } finally {
+            messageListenerContainer.removeMessageListener(other);
+        }
+    }
+
+    private double hits() {
+        return meterRegistry.counter("geo.cache", "result", "hit").count();
+    }
+
+    private static List<String> names(List<NearbyStore> stores) {
+        return stores.stream().map(NearbyStore::name).toList();
+    }
+}
@@ -0,0 +1,116 @@
+package ariefbelajarteknologi.belajarspringredis;
+
+import ariefbelajarteknologi.belajarspringredis.entity.Order;
+import ariefbelajarteknologi.belajarspringredis.service.ProductService;
+import ariefbelajarteknologi.belajarspringredis.shard.RedisWorkloads;
+import ariefbelajarteknologi.belajarspringredis.shard.Workload;
+import ariefbelajarteknologi.belajarspringredis.stream.OrderStreamPublisher;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.connection.stream.RecordId;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.types.RedisClientInfo;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "app.redis.workloads.cache.isolated=true",
+        "app.redis.workloads.consumer.isolated=true",
+        "app.redis.workloads.consumer.pool.enabled=true",
+        "app.redis.workloads.publisher.isolated=true",
+        "app.orders.publisher.auto-flush=false",
+        "app.orders.publisher.stream=orders-isolated",
+        "app.orders.consumer.stream=orders-isolated",
+        "app.orders.consumer.group=isolated-group"
+})
+public class WorkloadIsolationTest {
+
+    @Autowired
+    private RedisWorkloads redisWorkloads;
+
+    @Autowired
+    private RedisConnectionFactory connectionFactory;
+
+    @Autowired
+    private StringRedisTemplate redisTemplate;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private OrderStreamPublisher orderStreamPublisher;
+
+    @AfterEach
+    void tearDown() {
+        productService.remove("isolated-1");
+        redisTemplate.delete("orders-isolated");
+    }
+
+    @Test
+    void workloadsUseTheirOwnConnections() throws Exception {
+        for (Workload workload : List.of(Workload.CACHE, Workload.CONSUMER, Workload.PUBLISHER)) {
+            assertTrue(redisWorkloads.isIsolated(workload));
+            assertNotSame(connectionFactory, factory(workload));
+        }
+        assertFalse(redisWorkloads.isIsolated(Workload.REPOSITORY));
+        assertSame(connectionFactory, factory(Workload.REPOSITORY));
+        assertSame(connectionFactory, factory(Workload.PUBSUB));
+
+        // the isolated connections keep the connect timeout and timeouts of the default one
+        var defaults = ((LettuceConnectionFactory) connectionFactory).getClientConfiguration();
+        var cache = ((LettuceConnectionFactory) factory(Workload.CACHE)).getClientConfiguration();
+        assertEquals(Duration.ofSeconds(10), cache.getClientOptions().orElseThrow().getSocketOptions().getConnectTimeout());
+        assertEquals(defaults.getCommandTimeout(), cache.getCommandTimeout());
+        assertEquals(Optional.of("cache"), cache.getClientName());
+
+        productService.getProduct("isolated-1");
+        orderStreamPublisher.publish(new Order("isolated-order", 1_000L)).get(5, TimeUnit.SECONDS);
+
+        // the consumer connection is taken from its pool by the container's blocking poll
+        long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        Set<String> names = clientNames();
+        while (!names.contains("consumer") && System.nanoTime() < deadline) {
+            Thread.sleep(100);
+            names = clientNames();
+        }
+        assertTrue(names.containsAll(Set.of("cache", "consumer", "publisher")), names.toString());
+        assertFalse(names.contains("repository"), names.toString());
+    }
+
+    @Test
+    void publisherWithoutAutoFlush() throws Exception {
+        List<CompletableFuture<RecordId>> results = new ArrayList<>();
+        for (int i = 0; i < 5_000; i++) {
+            results.add(orderStreamPublisher.publish(new Order("isolated-order-" + i, 1_000L)));
+        }
+        CompletableFuture.allOf(results.toArray(CompletableFuture[]::new)).get(30, TimeUnit.SECONDS);
+
+        assertEquals(5_000, results.stream().map(CompletableFuture::join).distinct().count());
+        assertEquals(5_000L, redisTemplate.opsForStream().size("orders-isolated"));
+    }
+
+    private RedisConnectionFactory factory(Workload workload) {
+        return redisWorkloads.get(workload).getShards().get(0).connectionFactory();
+    }
+
+    private Set<String> clientNames() {
+        List<RedisClientInfo> clients = redisTemplate.execute((RedisCallback<List<RedisClientInfo>>) connection ->
+                connection.serverCommands().getClientList());
+        return clients.stream().map(RedisClientInfo::getName).filter(Objects::nonNull).collect(Collectors.toSet());
+    }
+}